@@ -260,6 +260,19 @@ public class Authority implements Serializable, Comparable<Authority>
     private final int port;
 
 
+    /**
+     * The cached string representation, or {@code null} if it has not been
+     * created yet.
+     */
+    private transient String string;
+
+
+    /**
+     * The cached hash code, or 0 if it has not been computed yet.
+     */
+    private transient int hash;
+
+
     /**
      * A private constructor.
      *
@@ -317,13 +330,30 @@ public class Authority implements Serializable, Comparable<Authority>
     /**
      * Returns a string representation of this {@link Authority} object. The string
      * is constructed by concatenating the {@code userinfo}, {@code host}, and
-     * {@code port} components.
+     * {@code port} components. The string is built on the first call and the
+     * same instance is returned afterwards.
      *
      * @return
      *         The string representation of this {@link Authority} object.
      */
     @Override
     public String toString()
+    {
+        // Build the string on first call. The fields are final, so the string
+        // is the same whichever thread builds it.
+        String s = string;
+
+        if (s == null)
+        {
+            s      = buildString();
+            string = s;
+        }
+
+        return s;
+    }
+
+
+    private String buildString()
     {
         StringBuilder sb = new StringBuilder();
 
@@ -394,14 +424,25 @@ public class Authority implements Serializable, Comparable<Authority>
     @Override
     public int hashCode()
     {
-        return Objects.hash(userinfo, host, port);
+        // Compute the hash code on first call and cache it.
+        int h = hash;
+
+        if (h == 0)
+        {
+            // The same value as Objects.hash(userinfo, host, port) without varargs.
+            h    = 31 * (31 * (31 + Objects.hashCode(userinfo)) + Objects.hashCode(host)) + port;
+            hash = h;
+        }
+
+        return h;
     }
 
 
     /**
      * Compares this {@link Authority} object with another {@link Authority} object
      * for order. The comparison is based on the string representation of the {@link
-     * Authority} objects.
+     * Authority} objects. The components are compared in place without building
+     * the string representations.
      *
      * @param other
      *         The {@link Authority} object to be compared.
@@ -423,11 +464,12 @@ public class Authority implements Serializable, Comparable<Authority>
             throw newNPE("A null value is not comparable.");
         }
 
-        if (this.equals(other))
+        if (this == other)
         {
             return 0;
         }
 
-        return this.toString().compareTo(other.toString());
+        // Compare the string representations without building them.
+        return StringFormComparator.compareStringForms(this, other);
     }
 }
@@ -64,7 +64,7 @@ class AuthorityNormalizer
      *
      * @return
      *         The {@link Authority} object representing the normalized {@code authority}
-     *         component.
+     *         component, or {@code authority} itself if nothing changes.
      *
      * @see <a href="https://www.rfc-editor.org/rfc/rfc3986#section-6">RFC 3986,
      *      Section 6: Normalization and Comparison</a>
@@ -90,6 +90,14 @@ class AuthorityNormalizer
         // Process the port.
         processPort(res, authority, normalizedScheme);
 
+        // Return the original authority if nothing changes.
+        if (res.userinfo == authority.getUserinfo() &&
+            res.host     == authority.getHost()     &&
+            res.port     == authority.getPort())
+        {
+            return authority;
+        }
+
         // Build an Authority instance.
         return res.toAuthority();
     }
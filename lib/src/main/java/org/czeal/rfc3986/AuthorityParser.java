@@ -16,10 +16,19 @@
 package org.czeal.rfc3986;
 
 
+import static org.czeal.rfc3986.ComponentOffsets.AUTHORITY_END;
+import static org.czeal.rfc3986.ComponentOffsets.AUTHORITY_START;
+import static org.czeal.rfc3986.ComponentOffsets.HOST_END;
+import static org.czeal.rfc3986.ComponentOffsets.HOST_TYPE;
+import static org.czeal.rfc3986.ComponentOffsets.PORT;
+import static org.czeal.rfc3986.ComponentOffsets.USERINFO_END;
+import static org.czeal.rfc3986.URIReferenceChecker.VALID;
+import static org.czeal.rfc3986.URIReferenceChecker.code;
+import static org.czeal.rfc3986.URIReferenceChecker.component;
+import static org.czeal.rfc3986.URIReferenceChecker.error;
+import static org.czeal.rfc3986.URIReferenceChecker.index;
 import static org.czeal.rfc3986.Utils.newIAE;
 import java.nio.charset.Charset;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
 
 
 /**
@@ -41,24 +50,6 @@ import java.util.regex.Pattern;
  */
 class AuthorityParser
 {
-    /**
-     * Inner class representing the result of the Authority building process.
-     * This class holds intermediate values of the Authority components during the
-     * parse process.
-     */
-    private static class ParseResult extends Authority.ProcessResult
-    {
-        Matcher matcher;
-    }
-
-
-    /**
-     * The regular expression for parsing an authority.
-     */
-    private static final Pattern PATTERN_AUTHORITY = Pattern.compile(
-        "((?<userinfo>[^@]*)@)?(?<host>(\\[[^]]*\\])|[^:]*)?(:(?<port>.*))?");
-
-
     /**
      * Parses a given string as the {@code authority} component of a URI reference,
      * according to <a href="https://www.rfc-editor.org/rfc/rfc3986">RFC 3986</a>
@@ -96,103 +87,441 @@ class AuthorityParser
             return null;
         }
 
-        // The parse result.
-        ParseResult res = new ParseResult();
+        // The authority is the whole input string.
+        return parse(authority, 0, authority.length(), charset);
+    }
+
+
+    /**
+     * Parses a range of an input as the {@code authority} component of a URI
+     * reference in the same way as {@link #parse(String, Charset)} does.
+     *
+     * @param source
+     *         The input containing the {@code authority} component.
+     *
+     * @param start
+     *         The start index (inclusive) of the {@code authority} component.
+     *
+     * @param end
+     *         The end index (exclusive) of the {@code authority} component.
+     *
+     * @param charset
+     *         The charset used for percent-encoding some characters (e.g. reserved
+     *         characters) contained in the {@code authority} component.
+     *
+     * @return
+     *         The {@code Authority} object representing the parsed {@code authority}
+     *         component.
+     *
+     * @throws IllegalArgumentException
+     *          If the {@code authority} component is invalid.
+     */
+    Authority parse(CharSequence source, int start, int end, Charset charset)
+    {
+        // The offsets of the components in the input.
+        int[] offsets = ComponentOffsets.create(start, end);
+
+        // Set the range of the authority.
+        offsets[AUTHORITY_START] = start;
+        offsets[AUTHORITY_END]   = end;
 
         // Process the authority.
-        processAuthority(res, authority);
+        process(source, offsets, charset);
+
+        // Create an Authority instance from the offsets.
+        return ComponentOffsets.authority(source, offsets);
+    }
+
+
+    /**
+     * Validates the {@code authority} component in a range of an input in place
+     * and sets the offsets of the {@code userinfo}, {@code host} and {@code port}
+     * components, the host type and the port number to the offsets.
+     *
+     * @param source
+     *         The input containing the {@code authority} component.
+     *
+     * @param offsets
+     *         The offsets of the components. {@link ComponentOffsets#AUTHORITY_START
+     *         AUTHORITY_START} and {@link ComponentOffsets#AUTHORITY_END AUTHORITY_END}
+     *         must be set.
+     *
+     * @param charset
+     *         The charset used for percent-encoding some characters (e.g. reserved
+     *         characters) contained in the {@code authority} component.
+     *
+     * @throws IllegalArgumentException
+     *          If the {@code authority} component is invalid.
+     */
+    void process(CharSequence source, int[] offsets, Charset charset)
+    {
+        long result = check(source, offsets, charset);
+
+        if (result != VALID)
+        {
+            throw newException(source, offsets, result);
+        }
+    }
+
+
+    /**
+     * Checks the {@code authority} component in a range of an input in the same
+     * way as {@link #process(CharSequence, int[], Charset)} does, but without
+     * throwing an exception.
+     *
+     * @param source
+     *         The input containing the {@code authority} component.
+     *
+     * @param offsets
+     *         The offsets of the components. {@link ComponentOffsets#AUTHORITY_START
+     *         AUTHORITY_START} and {@link ComponentOffsets#AUTHORITY_END AUTHORITY_END}
+     *         must be set.
+     *
+     * @param charset
+     *         The charset used for percent-encoding some characters (e.g. reserved
+     *         characters) contained in the {@code authority} component.
+     *
+     * @return
+     *         {@link URIReferenceChecker#VALID} if the {@code authority} component
+     *         is valid; otherwise, the result packing the error code, the component
+     *         and the index of the error in the input.
+     */
+    long check(CharSequence source, int[] offsets, Charset charset)
+    {
+        // Split the authority into the components.
+        long result = processAuthority(source, offsets);
+
+        if (result != VALID)
+        {
+            return result;
+        }
 
         // Process the userinfo.
-        processUserinfo(res, charset);
+        result = processUserinfo(source, offsets, charset);
+
+        if (result != VALID)
+        {
+            return result;
+        }
 
         // Process the host.
-        processHost(res, charset);
+        result = processHost(source, offsets, charset);
+
+        if (result != VALID)
+        {
+            return result;
+        }
 
         // Process the port.
-        processPort(res);
+        return processPort(source, offsets);
+    }
+
+
+    /**
+     * Splits the {@code authority} component in a range of an input into the
+     * {@code userinfo}, {@code host} and {@code port} components without validating
+     * them, and sets their offsets, the host type and the port number to the offsets
+     * in the same way as {@link #process(CharSequence, int[], Charset)} does. This
+     * is expected to be used for authorities that are known to be valid.
+     *
+     * <p>
+     * The port is the only component that is checked, because it is converted
+     * into a number. A port containing a non-digit character is rejected instead
+     * of being converted into a wrong port number.
+     * </p>
+     *
+     * @param source
+     *         The input containing the {@code authority} component.
+     *
+     * @param offsets
+     *         The offsets of the components. {@link ComponentOffsets#AUTHORITY_START
+     *         AUTHORITY_START} and {@link ComponentOffsets#AUTHORITY_END AUTHORITY_END}
+     *         must be set.
+     *
+     * @throws IllegalArgumentException
+     *         If the port contains a non-digit character or is too large.
+     */
+    void split(CharSequence source, int[] offsets)
+    {
+        // Split the authority into the components.
+        long result = processAuthority(source, offsets);
+
+        if (result == VALID)
+        {
+            // Classify the host type without validating the host.
+            offsets[HOST_TYPE] = new HostTypeDeterminer().classify(
+                source, hostStart(offsets), offsets[HOST_END]).ordinal();
+
+            // Parse the port, which is checked anyway.
+            result = processPort(source, offsets);
+        }
 
-        // Return the parser result.
-        return res.toAuthority();
+        if (result != VALID)
+        {
+            throw newException(source, offsets, result);
+        }
     }
 
 
-    private void processAuthority(ParseResult res, String authority)
+    /**
+     * Finds the {@code port} component in a range of an input containing an
+     * {@code authority} component, without validating anything.
+     *
+     * @param source
+     *         The input containing the {@code authority} component.
+     *
+     * @param start
+     *         The start index (inclusive) of the {@code authority} component.
+     *
+     * @param end
+     *         The end index (exclusive) of the {@code authority} component.
+     *
+     * @return
+     *         The start index of the {@code port} component, or -1 if the {@code
+     *         authority} component doesn't contain a port. The port ends at
+     *         {@code end}.
+     */
+    int indexOfPort(CharSequence source, int start, int end)
     {
-        // Get a matcher to match the input string as an authority.
-        Matcher matcher = PATTERN_AUTHORITY.matcher(authority);
+        // The userinfo is terminated by the first at sign ("@").
+        int userinfoEnd = indexOf(source, '@', start, end);
 
-        // Match the input string as an authority..
-        if (!matcher.matches())
+        // The host is followed by a colon if a port is present.
+        int hostEnd = findHostEnd(source, (userinfoEnd == -1) ? start : userinfoEnd + 1, end);
+
+        return (hostEnd == end) ? -1 : hostEnd + 1;
+    }
+
+
+    /**
+     * Creates an exception reporting the details of an error found by {@link
+     * #check(CharSequence, int[], Charset)}.
+     *
+     * @param source
+     *         The input containing the {@code authority} component.
+     *
+     * @param offsets
+     *         The offsets of the components set by the check.
+     *
+     * @param result
+     *         The result of the check.
+     *
+     * @return
+     *         The exception to throw.
+     */
+    InvalidURIReferenceException newException(CharSequence source, int[] offsets, long result)
+    {
+        int start = offsets[AUTHORITY_START];
+        int end   = offsets[AUTHORITY_END];
+
+        switch (component(result))
+        {
+            case USERINFO:
+                // Let the userinfo validator report the details.
+                return new UserinfoValidator().newException(
+                    source, start, offsets[USERINFO_END], result);
+
+            case HOST:
+                // Let the host type determiner report the details.
+                return new HostTypeDeterminer().newException(
+                    source, hostStart(offsets), offsets[HOST_END], result);
+
+            case PORT:
+                if (code(result) == ErrorCode.INVALID_PORT_NUMBER)
+                {
+                    // The number in the port is too large as an int value.
+                    return newIAE(URIComponent.PORT, ErrorCode.INVALID_PORT_NUMBER, index(result),
+                        "The port value \"%s\" is invalid as a number.",
+                        source.subSequence(offsets[HOST_END] + 1, end).toString());
+                }
+
+                // Let the port validator report the details.
+                return new PortValidator().newException(
+                    source, offsets[HOST_END] + 1, end, result);
+
+            default:
+                // The input string is invalid as an authority.
+                return newIAE(URIComponent.AUTHORITY, ErrorCode.LINE_TERMINATOR, index(result),
+                    "The input \"%s\" is invalid as an authority.", source.subSequence(start, end).toString());
+        }
+    }
+
+
+    private long processAuthority(CharSequence source, int[] offsets)
+    {
+        // The authority is split in the same way as the following regular
+        // expression would match it.
+        //
+        //   ((?<userinfo>[^@]*)@)?(?<host>(\[[^]]*\])|[^:]*)?(:(?<port>.*))?
+        //
+
+        int start = offsets[AUTHORITY_START];
+        int end   = offsets[AUTHORITY_END];
+
+        // The userinfo is terminated by the first at sign ("@").
+        int userinfoEnd = indexOf(source, '@', start, end);
+
+        // The start index of the host.
+        int hostStart = (userinfoEnd == -1) ? start : userinfoEnd + 1;
+
+        // The end index of the host.
+        int hostEnd = findHostEnd(source, hostStart, end);
+
+        offsets[USERINFO_END] = userinfoEnd;
+        offsets[HOST_END]     = hostEnd;
+
+        // The port has been matched with "(.*)" that doesn't accept line
+        // terminators. Keep the behavior for such input strings.
+        int terminator = (hostEnd < end) ? indexOfLineTerminator(source, hostEnd + 1, end) : -1;
+
+        if (terminator != -1)
         {
             // The input string is invalid as an authority.
-            throw newIAE("The input \"%s\" is invalid as an authority.", authority);
+            return error(ErrorCode.LINE_TERMINATOR, URIComponent.AUTHORITY, terminator);
         }
 
-        // Set the matcher.
-        res.matcher = matcher;
+        return VALID;
     }
 
 
-    private void processUserinfo(ParseResult res, Charset charset)
+    private int findHostEnd(CharSequence source, int hostStart, int end)
     {
-        // The raw userinfo.
-        String rawUserinfo = res.matcher.group("userinfo");
+        // If the host starts with '[', the host is an IP-literal terminated by
+        // the first ']' if the ']' is followed by a colon or the end of the
+        // authority.
+        if (hostStart < end && source.charAt(hostStart) == '[')
+        {
+            int closing = indexOf(source, ']', hostStart + 1, end);
+
+            if (closing != -1 && (closing + 1 == end || source.charAt(closing + 1) == ':'))
+            {
+                return closing + 1;
+            }
+        }
 
-        // Validate the raw userinfo.
-        new UserinfoValidator().validate(rawUserinfo, charset);
+        // Otherwise, the host is terminated by the first colon.
+        int colon = indexOf(source, ':', hostStart, end);
 
-        // Set it to the result.
-        res.userinfo = rawUserinfo;
+        return (colon == -1) ? end : colon;
     }
 
 
-    private void processHost(ParseResult res, Charset charset)
+    private int hostStart(int[] offsets)
     {
-        // The raw host.
-        String rawHost = res.matcher.group("host");
+        // The host starts after the at sign ("@") terminating the userinfo.
+        return (offsets[USERINFO_END] == -1)
+             ? offsets[AUTHORITY_START] : offsets[USERINFO_END] + 1;
+    }
+
 
-        // Parse the raw host value into a Host instance.
-        res.host = Host.parse(rawHost, charset);
+    private long processUserinfo(CharSequence source, int[] offsets, Charset charset)
+    {
+        if (offsets[USERINFO_END] == -1)
+        {
+            // The authority doesn't contain a userinfo.
+            return VALID;
+        }
+
+        // Check the userinfo.
+        return new UserinfoValidator().check(
+            source, offsets[AUTHORITY_START], offsets[USERINFO_END], charset);
     }
 
 
-    private void processPort(ParseResult res)
+    private long processHost(CharSequence source, int[] offsets, Charset charset)
     {
-        // The raw port.
-        String rawPort = res.matcher.group("port");
+        // The start index of the host.
+        int hostStart = hostStart(offsets);
+
+        // Determine the host type.
+        HostTypeDeterminer determiner = new HostTypeDeterminer();
+        HostType type = determiner.classify(source, hostStart, offsets[HOST_END]);
+
+        // Check the host as the host type.
+        long result = determiner.check(source, hostStart, offsets[HOST_END], type, charset);
 
-        // Validate the raw port.
-        new PortValidator().validate(rawPort);
+        if (result == VALID)
+        {
+            // Set the host type.
+            offsets[HOST_TYPE] = type.ordinal();
+        }
 
-        // Parse the raw port into an int value.
-        res.port = parsePort(rawPort);
+        return result;
     }
 
 
-    private int parsePort(String rawPort)
+    private long processPort(CharSequence source, int[] offsets)
     {
-        if (rawPort == null || rawPort.isEmpty())
+        // If the port is empty, it means the input string contains a colon (":")
+        // delimiter for the port value but the port value is empty. In this case,
+        // the port number is set to -1 (the default value) as if the authority
+        // didn't contain a port.
+        offsets[PORT] = -1;
+
+        if (offsets[HOST_END] == offsets[AUTHORITY_END])
+        {
+            // The authority doesn't contain a port.
+            return VALID;
+        }
+
+        // The port starts after the colon.
+        int start = offsets[HOST_END] + 1;
+        int end   = offsets[AUTHORITY_END];
+
+        // Check the port.
+        long result = new PortValidator().check(source, start, end);
+
+        if (result != VALID || start == end)
         {
-            // If the "rawPort" value is null, it means the URI reference doesn't
-            // contain a port. If it is empty, it means the input string contains
-            // a colon (":") delimiter for the port value but the port value is
-            // empty. In these cases, the value of the parsed authority component
-            // is set to -1 (the default value).
-            return -1;
+            return result;
         }
 
-        try
+        // Parse the port into an int value.
+        long port = 0;
+
+        for (int i = start; i < end; i++)
         {
-            // Parse the extracted port value into an int value and set it as the
-            // value of "newAuthority.port".
-            return Integer.parseInt(rawPort);
+            port = port * 10 + (source.charAt(i) - '0');
+
+            if (port > Integer.MAX_VALUE)
+            {
+                // The number in the port is too large as an int value.
+                return error(ErrorCode.INVALID_PORT_NUMBER, URIComponent.PORT, start);
+            }
         }
-        catch (NumberFormatException e)
+
+        offsets[PORT] = (int)port;
+
+        return VALID;
+    }
+
+
+    private static int indexOf(CharSequence source, char c, int start, int end)
+    {
+        for (int i = start; i < end; i++)
         {
-            // The number in the port is invalid.
-            // NOTE: We will reach this point if, for instance, the number is too
-            // large as an int value.
-            throw newIAE("The port value \"%s\" is invalid as a number.", rawPort);
+            if (source.charAt(i) == c)
+            {
+                return i;
+            }
         }
+
+        return -1;
+    }
+
+
+    private static int indexOfLineTerminator(CharSequence source, int start, int end)
+    {
+        for (int i = start; i < end; i++)
+        {
+            char c = source.charAt(i);
+
+            if (c == '\n' || c == '\r' || c == '\u0085' || c == '\u2028' || c == '\u2029')
+            {
+                return i;
+            }
+        }
+
+        return -1;
     }
 }
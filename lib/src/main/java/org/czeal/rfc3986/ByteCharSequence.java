@@ -0,0 +1,144 @@
+/*
+ * Copyright (C) 2024 Hideki Ikeda
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.czeal.rfc3986;
+
+
+import static java.nio.charset.StandardCharsets.ISO_8859_1;
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+
+
+/**
+ * <p>
+ * <i>NOTE: This class is intended for internal use only.</i>
+ * </p>
+ *
+ * <p>
+ * A {@link CharSequence} view of a range of bytes in which each byte is read as
+ * a character of ISO-8859-1. The bytes are read in place, so a direct {@link
+ * ByteBuffer} is not copied onto the heap. As all the characters allowed in a
+ * URI reference are ASCII characters, this view can be checked against the grammar
+ * of a URI reference instead of a string decoded from bytes of an ASCII-compatible
+ * charset.
+ * </p>
+ *
+ * @author Hideki Ikeda
+ */
+final class ByteCharSequence implements CharSequence
+{
+    private final ByteBuffer buffer;
+    private final int offset;
+    private final int length;
+
+
+    /**
+     * Constructor.
+     *
+     * @param buffer
+     *         The buffer containing the bytes. Its position and limit are not used
+     *         and not changed.
+     *
+     * @param offset
+     *         The index of the first byte in the buffer.
+     *
+     * @param length
+     *         The number of the bytes.
+     */
+    ByteCharSequence(ByteBuffer buffer, int offset, int length)
+    {
+        this.buffer = buffer;
+        this.offset = offset;
+        this.length = length;
+    }
+
+
+    @Override
+    public int length()
+    {
+        return length;
+    }
+
+
+    @Override
+    public char charAt(int index)
+    {
+        if (index < 0 || index >= length)
+        {
+            throw new IndexOutOfBoundsException(String.format(
+                "The index %d is out of the bounds of the length %d.", index, length));
+        }
+
+        return (char)(buffer.get(offset + index) & 0xFF);
+    }
+
+
+    @Override
+    public CharSequence subSequence(int start, int end)
+    {
+        if (start < 0 || end > length || start > end)
+        {
+            throw new IndexOutOfBoundsException(String.format(
+                "The range [%d, %d) is out of the bounds of the length %d.", start, end, length));
+        }
+
+        return new ByteCharSequence(buffer, offset + start, end - start);
+    }
+
+
+    /**
+     * Returns the string consisting of the characters of this view. Each byte
+     * is converted to a character of ISO-8859-1, which is the fastest way to
+     * create a string from ASCII bytes.
+     *
+     * @return
+     *         The string consisting of the characters of this view.
+     */
+    @Override
+    public String toString()
+    {
+        return decode(ISO_8859_1);
+    }
+
+
+    /**
+     * Decodes the bytes with a charset.
+     *
+     * @param charset
+     *         The charset of the bytes.
+     *
+     * @return
+     *         The decoded string.
+     */
+    String decode(Charset charset)
+    {
+        // If the bytes are backed by an array, decode them in place.
+        if (buffer.hasArray())
+        {
+            return new String(buffer.array(), buffer.arrayOffset() + offset, length, charset);
+        }
+
+        // Copy the bytes of the direct buffer. The position of the buffer is
+        // not changed.
+        byte[] bytes = new byte[length];
+
+        for (int i = 0; i < length; i++)
+        {
+            bytes[i] = buffer.get(offset + i);
+        }
+
+        return new String(bytes, charset);
+    }
+}
@@ -0,0 +1,307 @@
+/*
+ * Copyright (C) 2024 Hideki Ikeda
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.czeal.rfc3986;
+
+
+/**
+ * <p>
+ * <i>NOTE: This class is intended for internal use only.</i>
+ * </p>
+ *
+ * <p>
+ * A precomputed table of the character classes defined in <a href=
+ * "https://www.rfc-editor.org/rfc/rfc3986#appendix-A">RFC 3986, Appendix A.
+ * Collected ABNF for URI</a>.
+ * </p>
+ *
+ * <p>
+ * The table has an entry for each US-ASCII character. Each entry is a bitmask
+ * holding one bit per character class. A set of characters allowed in a
+ * component is represented by a mask combining the bits of the character classes,
+ * so checking whether or not a character is allowed in the component is a
+ * single lookup as follows.
+ * </p>
+ *
+ * <blockquote>
+ * <pre style="font-family: 'Menlo', 'Courier', monospace;">{@code
+ * CharacterClasses.is(c, CharacterClasses.QUERY)
+ * }</pre>
+ * </blockquote>
+ *
+ * <blockquote>
+ * <pre style="font-family: 'Menlo', 'Courier', monospace;">{@code
+ * ALPHA         = %x41-5A / %x61-7A
+ * DIGIT         = %x30-39
+ * HEXDIG        = DIGIT / "A" / "B" / "C" / "D" / "E" / "F"
+ * unreserved    = ALPHA / DIGIT / "-" / "." / "_" / "~"
+ * sub-delims    = "!" / "$" / "&" / "'" / "(" / ")"
+ *               / "*" / "+" / "," / ";" / "="
+ * pchar         = unreserved / pct-encoded / sub-delims / ":" / "@"
+ * }</pre>
+ * </blockquote>
+ *
+ * @see <a href="https://www.rfc-editor.org/rfc/rfc3986#appendix-A">RFC 3986,
+ *      Appendix A. Collected ABNF for URI</a>
+ *
+ * @author Hideki Ikeda
+ */
+final class CharacterClasses
+{
+    /**
+     * The bit for {@code ALPHA}.
+     */
+    static final int ALPHA = 1;
+
+
+    /**
+     * The bit for {@code DIGIT}.
+     */
+    static final int DIGIT = 1 << 1;
+
+
+    /**
+     * The bit for {@code HEXDIG}. Unlike the ABNF, lowercase hexadecimal digits
+     * are included.
+     */
+    static final int HEXDIG = 1 << 2;
+
+
+    /**
+     * The bit for {@code unreserved}.
+     */
+    static final int UNRESERVED = 1 << 3;
+
+
+    /**
+     * The bit for {@code sub-delims}.
+     */
+    static final int SUB_DELIMS = 1 << 4;
+
+
+    /**
+     * The bit for {@code ":"}.
+     */
+    static final int COLON = 1 << 5;
+
+
+    /**
+     * The bit for {@code "@"}.
+     */
+    static final int AT = 1 << 6;
+
+
+    /**
+     * The bit for {@code "/"}.
+     */
+    static final int SLASH = 1 << 7;
+
+
+    /**
+     * The bit for {@code "?"}.
+     */
+    static final int QUESTION = 1 << 8;
+
+
+    /**
+     * The mask for the non-percent characters of {@code userinfo}.
+     *
+     * <blockquote>
+     * <pre style="font-family: 'Menlo', 'Courier', monospace;">{@code
+     * userinfo = *( unreserved / pct-encoded / sub-delims / ":" )
+     * }</pre>
+     * </blockquote>
+     */
+    static final int USERINFO = UNRESERVED | SUB_DELIMS | COLON;
+
+
+    /**
+     * The mask for the non-percent characters of {@code reg-name}.
+     *
+     * <blockquote>
+     * <pre style="font-family: 'Menlo', 'Courier', monospace;">{@code
+     * reg-name = *( unreserved / pct-encoded / sub-delims )
+     * }</pre>
+     * </blockquote>
+     */
+    static final int REG_NAME = UNRESERVED | SUB_DELIMS;
+
+
+    /**
+     * The mask for the non-percent characters of {@code segment} and {@code
+     * segment-nz}.
+     *
+     * <blockquote>
+     * <pre style="font-family: 'Menlo', 'Courier', monospace;">{@code
+     * segment    = *pchar
+     * segment-nz = 1*pchar
+     * }</pre>
+     * </blockquote>
+     */
+    static final int SEGMENT = UNRESERVED | SUB_DELIMS | COLON | AT;
+
+
+    /**
+     * The mask for the non-percent characters of {@code segment-nz-nc}.
+     *
+     * <blockquote>
+     * <pre style="font-family: 'Menlo', 'Courier', monospace;">{@code
+     * segment-nz-nc = 1*( unreserved / pct-encoded / sub-delims / "@" )
+     * }</pre>
+     * </blockquote>
+     */
+    static final int SEGMENT_NZ_NC = UNRESERVED | SUB_DELIMS | AT;
+
+
+    /**
+     * The mask for the non-percent characters of {@code query}.
+     *
+     * <blockquote>
+     * <pre style="font-family: 'Menlo', 'Courier', monospace;">{@code
+     * query = *( pchar / "/" / "?" )
+     * }</pre>
+     * </blockquote>
+     */
+    static final int QUERY = SEGMENT | SLASH | QUESTION;
+
+
+    /**
+     * The mask for the non-percent characters of {@code fragment}.
+     *
+     * <blockquote>
+     * <pre style="font-family: 'Menlo', 'Courier', monospace;">{@code
+     * fragment = *( pchar / "/" / "?" )
+     * }</pre>
+     * </blockquote>
+     */
+    static final int FRAGMENT = SEGMENT | SLASH | QUESTION;
+
+
+    /**
+     * The table holding the character classes of each US-ASCII character.
+     */
+    private static final short[] TABLE = createTable();
+
+
+    private CharacterClasses()
+    {
+    }
+
+
+    private static short[] createTable()
+    {
+        short[] table = new short[128];
+
+        // ALPHA
+        for (char c = 'a'; c <= 'z'; c++)
+        {
+            table[c] |= ALPHA | UNRESERVED;
+            table[c - 'a' + 'A'] |= ALPHA | UNRESERVED;
+        }
+
+        // DIGIT
+        for (char c = '0'; c <= '9'; c++)
+        {
+            table[c] |= DIGIT | HEXDIG | UNRESERVED;
+        }
+
+        // HEXDIG
+        for (char c = 'a'; c <= 'f'; c++)
+        {
+            table[c] |= HEXDIG;
+            table[c - 'a' + 'A'] |= HEXDIG;
+        }
+
+        // unreserved
+        add(table, "-._~", UNRESERVED);
+
+        // sub-delims
+        add(table, "!$&'()*+,;=", SUB_DELIMS);
+
+        // ":", "@", "/" and "?"
+        add(table, ":", COLON);
+        add(table, "@", AT);
+        add(table, "/", SLASH);
+        add(table, "?", QUESTION);
+
+        return table;
+    }
+
+
+    private static void add(short[] table, String chars, int bit)
+    {
+        for (int i = 0; i < chars.length(); i++)
+        {
+            table[chars.charAt(i)] |= bit;
+        }
+    }
+
+
+    /**
+     * Checks whether or not a character belongs to any of the character classes
+     * represented by a mask.
+     *
+     * @param c
+     *         A character.
+     *
+     * @param mask
+     *         A mask combining the bits of character classes.
+     *
+     * @return
+     *         {@code true} if the character belongs to any of the character classes;
+     *         otherwise, {@code false}.
+     */
+    static boolean is(char c, int mask)
+    {
+        return c < 128 && (TABLE[c] & mask) != 0;
+    }
+
+
+    /**
+     * Finds the index of the first character that doesn't belong to any of the
+     * character classes represented by a mask.
+     *
+     * @param value
+     *         A value.
+     *
+     * @param start
+     *         The index (inclusive) to start the search.
+     *
+     * @param end
+     *         The index (exclusive) to end the search.
+     *
+     * @param mask
+     *         A mask combining the bits of character classes.
+     *
+     * @return
+     *         The index of the first character that doesn't belong to any of the
+     *         character classes, or {@code end} if all the characters belong to
+     *         them.
+     */
+    static int indexOfNot(CharSequence value, int start, int end, int mask)
+    {
+        for (int i = start; i < end; i++)
+        {
+            char c = value.charAt(i);
+
+            if (c >= 128 || (TABLE[c] & mask) == 0)
+            {
+                return i;
+            }
+        }
+
+        return end;
+    }
+}
@@ -0,0 +1,357 @@
+/*
+ * Copyright (C) 2024 Hideki Ikeda
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.czeal.rfc3986;
+
+
+import static org.czeal.rfc3986.Utils.newIAE;
+import static org.czeal.rfc3986.Utils.newNPE;
+
+
+/**
+ * A set of US-ASCII characters, used to specify characters to preserve when
+ * percent-encoding a value with {@link PercentEncoder#encode(String,
+ * java.nio.charset.Charset, CharacterSet) PercentEncoder.encode(String, Charset,
+ * CharacterSet)}.
+ *
+ * <p>
+ * A set is backed by a 128-bit bitmap, so checking whether or not a character
+ * is contained in the set requires no boxing and no hashing. Predefined sets
+ * are provided for the components of a URI reference as defined in <a href=
+ * "https://www.rfc-editor.org/rfc/rfc3986#appendix-A">RFC 3986, Appendix A.
+ * Collected ABNF for URI</a>. Custom sets can be built once and reused.
+ * </p>
+ *
+ * <pre>{@code
+ * // A set of the characters allowed in a query, except for "&" and "=".
+ * CharacterSet set = CharacterSet.QUERY.without("&=");
+ *
+ * // Percent-encode a value, preserving the characters in the set.
+ * PercentEncoder.encode("a b&c/d", StandardCharsets.UTF_8, set); // output: "a%20b%26c/d"
+ * }</pre>
+ *
+ * <p>
+ * This class is immutable and thread-safe.
+ * </p>
+ *
+ * @see <a href="https://www.rfc-editor.org/rfc/rfc3986#appendix-A">RFC 3986,
+ *      Appendix A. Collected ABNF for URI</a>
+ *
+ * @author Hideki Ikeda
+ */
+public final class CharacterSet
+{
+    private static final String ALPHA      = "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz";
+    private static final String DIGIT      = "0123456789";
+    private static final String SUB_DELIMS = "!$&'()*+,;=";
+
+
+    /**
+     * The empty set.
+     */
+    public static final CharacterSet EMPTY = new CharacterSet(0L, 0L);
+
+
+    /**
+     * The unreserved characters.
+     *
+     * <blockquote>
+     * <pre style="font-family: 'Menlo', 'Courier', monospace;">{@code
+     * unreserved = ALPHA / DIGIT / "-" / "." / "_" / "~"
+     * }</pre>
+     * </blockquote>
+     */
+    public static final CharacterSet UNRESERVED = of(ALPHA + DIGIT + "-._~");
+
+
+    /**
+     * The characters allowed in the {@code userinfo} component without being
+     * percent-encoded.
+     *
+     * <blockquote>
+     * <pre style="font-family: 'Menlo', 'Courier', monospace;">{@code
+     * userinfo = *( unreserved / pct-encoded / sub-delims / ":" )
+     * }</pre>
+     * </blockquote>
+     */
+    public static final CharacterSet USERINFO = UNRESERVED.with(SUB_DELIMS + ":");
+
+
+    /**
+     * The characters allowed in a path segment without being percent-encoded.
+     *
+     * <blockquote>
+     * <pre style="font-family: 'Menlo', 'Courier', monospace;">{@code
+     * segment = *pchar
+     * pchar   = unreserved / pct-encoded / sub-delims / ":" / "@"
+     * }</pre>
+     * </blockquote>
+     */
+    public static final CharacterSet PATH_SEGMENT = UNRESERVED.with(SUB_DELIMS + ":@");
+
+
+    /**
+     * The characters allowed in the {@code query} component without being
+     * percent-encoded.
+     *
+     * <blockquote>
+     * <pre style="font-family: 'Menlo', 'Courier', monospace;">{@code
+     * query = *( pchar / "/" / "?" )
+     * }</pre>
+     * </blockquote>
+     */
+    public static final CharacterSet QUERY = PATH_SEGMENT.with("/?");
+
+
+    /**
+     * The characters allowed in the value of a query parameter without being
+     * percent-encoded. This is {@link #QUERY} except for {@code "&"}, which separates
+     * query parameters.
+     */
+    public static final CharacterSet QUERY_PARAM_VALUE = QUERY.without("&");
+
+
+    /**
+     * The characters allowed in the {@code fragment} component without being
+     * percent-encoded.
+     *
+     * <blockquote>
+     * <pre style="font-family: 'Menlo', 'Courier', monospace;">{@code
+     * fragment = *( pchar / "/" / "?" )
+     * }</pre>
+     * </blockquote>
+     */
+    public static final CharacterSet FRAGMENT = PATH_SEGMENT.with("/?");
+
+
+    /**
+     * The bitmap for the characters from {@code U+0000} to {@code U+003F}.
+     */
+    private final long low;
+
+
+    /**
+     * The bitmap for the characters from {@code U+0040} to {@code U+007F}.
+     */
+    private final long high;
+
+
+    private CharacterSet(long low, long high)
+    {
+        this.low  = low;
+        this.high = high;
+    }
+
+
+    /**
+     * Creates a set of the given characters.
+     *
+     * @param chars
+     *         The characters contained in the set. Each character must be a
+     *         US-ASCII character.
+     *
+     * @return
+     *         A set of the characters.
+     *
+     * @throws NullPointerException
+     *         If {@code chars} is {@code null}.
+     *
+     * @throws IllegalArgumentException
+     *         If {@code chars} contains a non US-ASCII character.
+     */
+    public static CharacterSet of(String chars)
+    {
+        return EMPTY.with(chars);
+    }
+
+
+    /**
+     * Creates a set of the characters contained in this set and the given characters.
+     *
+     * @param chars
+     *         The characters to add. Each character must be a US-ASCII character.
+     *
+     * @return
+     *         A new set.
+     *
+     * @throws NullPointerException
+     *         If {@code chars} is {@code null}.
+     *
+     * @throws IllegalArgumentException
+     *         If {@code chars} contains a non US-ASCII character.
+     */
+    public CharacterSet with(String chars)
+    {
+        CharacterSet set = toSet(chars);
+
+        return new CharacterSet(low | set.low, high | set.high);
+    }
+
+
+    /**
+     * Creates a set of the characters contained in this set except for the given
+     * characters.
+     *
+     * @param chars
+     *         The characters to remove. Each character must be a US-ASCII character.
+     *
+     * @return
+     *         A new set.
+     *
+     * @throws NullPointerException
+     *         If {@code chars} is {@code null}.
+     *
+     * @throws IllegalArgumentException
+     *         If {@code chars} contains a non US-ASCII character.
+     */
+    public CharacterSet without(String chars)
+    {
+        CharacterSet set = toSet(chars);
+
+        return new CharacterSet(low & ~set.low, high & ~set.high);
+    }
+
+
+    /**
+     * Creates a set of the characters contained in this set or the given set.
+     *
+     * @param other
+     *         Another set.
+     *
+     * @return
+     *         A new set.
+     *
+     * @throws NullPointerException
+     *         If {@code other} is {@code null}.
+     */
+    public CharacterSet union(CharacterSet other)
+    {
+        if (other == null)
+        {
+            throw newNPE("The set must not be null.");
+        }
+
+        return new CharacterSet(low | other.low, high | other.high);
+    }
+
+
+    /**
+     * Checks whether or not this set contains a character.
+     *
+     * @param c
+     *         A character.
+     *
+     * @return
+     *         {@code true} if this set contains the character; otherwise, {@code
+     *         false}.
+     */
+    public boolean contains(char c)
+    {
+        if (c < 64)
+        {
+            return (low & (1L << c)) != 0;
+        }
+
+        if (c < 128)
+        {
+            return (high & (1L << (c - 64))) != 0;
+        }
+
+        // Non US-ASCII characters are never contained.
+        return false;
+    }
+
+
+    private static CharacterSet toSet(String chars)
+    {
+        if (chars == null)
+        {
+            throw newNPE("The characters must not be null.");
+        }
+
+        long low  = 0L;
+        long high = 0L;
+
+        for (int i = 0; i < chars.length(); i++)
+        {
+            char c = chars.charAt(i);
+
+            if (c < 64)
+            {
+                low |= 1L << c;
+            }
+            else if (c < 128)
+            {
+                high |= 1L << (c - 64);
+            }
+            else
+            {
+                throw newIAE(
+                    "The character \"%s\" at the index %d is not a US-ASCII character.", c, i);
+            }
+        }
+
+        return new CharacterSet(low, high);
+    }
+
+
+    @Override
+    public boolean equals(Object obj)
+    {
+        if (this == obj)
+        {
+            return true;
+        }
+
+        if (!(obj instanceof CharacterSet))
+        {
+            return false;
+        }
+
+        CharacterSet other = (CharacterSet)obj;
+
+        return low == other.low && high == other.high;
+    }
+
+
+    @Override
+    public int hashCode()
+    {
+        return Long.hashCode(low) * 31 + Long.hashCode(high);
+    }
+
+
+    /**
+     * Returns the characters contained in this set in ascending order.
+     *
+     * @return
+     *         The characters contained in this set.
+     */
+    @Override
+    public String toString()
+    {
+        StringBuilder sb = new StringBuilder();
+
+        for (char c = 0; c < 128; c++)
+        {
+            if (contains(c))
+            {
+                sb.append(c);
+            }
+        }
+
+        return sb.toString();
+    }
+}
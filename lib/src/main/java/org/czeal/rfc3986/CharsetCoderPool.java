@@ -0,0 +1,204 @@
+/*
+ * Copyright (C) 2024 Hideki Ikeda
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.czeal.rfc3986;
+
+
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CharsetEncoder;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+
+/**
+ * <p>
+ * <i>NOTE: This class is intended for internal use only.</i>
+ * </p>
+ *
+ * <p>
+ * A pool of reusable {@link CharsetDecoder}s and {@link CharsetEncoder}s keyed
+ * by {@link Charset}. Creating a decoder or an encoder is expensive, so the percent
+ * codecs borrow one from this pool and return it after use as follows.
+ * </p>
+ *
+ * <pre>{@code
+ * CharsetDecoder decoder = CharsetCoderPool.acquireDecoder(charset);
+ *
+ * try
+ * {
+ *     ...
+ * }
+ * finally
+ * {
+ *     CharsetCoderPool.release(charset, decoder);
+ * }
+ * }</pre>
+ *
+ * <p>
+ * The pool is shared by all threads instead of being bound to a thread, so it
+ * works in the same way for platform threads and virtual threads; a large number
+ * of short-lived virtual threads doesn't end up with a decoder and an encoder
+ * per thread. Each charset has a fixed number of slots that are taken and filled
+ * with atomic operations, so no lock is held while borrowing or returning. When
+ * all the slots are empty, a new instance is created, and when all the slots
+ * are filled, a returned instance is discarded.
+ * </p>
+ *
+ * @author Hideki Ikeda
+ */
+final class CharsetCoderPool
+{
+    /**
+     * The number of slots per charset.
+     */
+    private static final int SLOTS = Math.max(4, 2 * Runtime.getRuntime().availableProcessors());
+
+
+    /**
+     * The decoders keyed by charset.
+     */
+    private static final ConcurrentMap<Charset, AtomicReferenceArray<CharsetDecoder>> DECODERS =
+        new ConcurrentHashMap<>();
+
+
+    /**
+     * The encoders keyed by charset.
+     */
+    private static final ConcurrentMap<Charset, AtomicReferenceArray<CharsetEncoder>> ENCODERS =
+        new ConcurrentHashMap<>();
+
+
+    private CharsetCoderPool()
+    {
+    }
+
+
+    /**
+     * Borrows a decoder for a charset. The decoder must be returned by {@link
+     * #release(Charset, CharsetDecoder)} after use.
+     *
+     * @param charset
+     *         A charset.
+     *
+     * @return
+     *         A decoder for the charset, which is in the reset state.
+     */
+    static CharsetDecoder acquireDecoder(Charset charset)
+    {
+        CharsetDecoder decoder = take(slots(DECODERS, charset));
+
+        return decoder != null ? decoder : charset.newDecoder();
+    }
+
+
+    /**
+     * Borrows an encoder for a charset. The encoder must be returned by {@link
+     * #release(Charset, CharsetEncoder)} after use.
+     *
+     * @param charset
+     *         A charset.
+     *
+     * @return
+     *         An encoder for the charset, which is in the reset state.
+     */
+    static CharsetEncoder acquireEncoder(Charset charset)
+    {
+        CharsetEncoder encoder = take(slots(ENCODERS, charset));
+
+        return encoder != null ? encoder : charset.newEncoder();
+    }
+
+
+    /**
+     * Returns a decoder borrowed by {@link #acquireDecoder(Charset)}.
+     *
+     * @param charset
+     *         The charset used to borrow the decoder.
+     *
+     * @param decoder
+     *         The decoder to return.
+     */
+    static void release(Charset charset, CharsetDecoder decoder)
+    {
+        put(slots(DECODERS, charset), decoder.reset());
+    }
+
+
+    /**
+     * Returns an encoder borrowed by {@link #acquireEncoder(Charset)}.
+     *
+     * @param charset
+     *         The charset used to borrow the encoder.
+     *
+     * @param encoder
+     *         The encoder to return.
+     */
+    static void release(Charset charset, CharsetEncoder encoder)
+    {
+        put(slots(ENCODERS, charset), encoder.reset());
+    }
+
+
+    private static <T> AtomicReferenceArray<T> slots(
+        ConcurrentMap<Charset, AtomicReferenceArray<T>> map, Charset charset)
+    {
+        AtomicReferenceArray<T> slots = map.get(charset);
+
+        if (slots != null)
+        {
+            return slots;
+        }
+
+        return map.computeIfAbsent(charset, key -> new AtomicReferenceArray<>(SLOTS));
+    }
+
+
+    private static <T> T take(AtomicReferenceArray<T> slots)
+    {
+        for (int i = 0; i < slots.length(); i++)
+        {
+            // Take the instance in the slot if the slot is filled.
+            if (slots.get(i) != null)
+            {
+                T instance = slots.getAndSet(i, null);
+
+                if (instance != null)
+                {
+                    return instance;
+                }
+            }
+        }
+
+        // All the slots are empty.
+        return null;
+    }
+
+
+    private static <T> void put(AtomicReferenceArray<T> slots, T instance)
+    {
+        for (int i = 0; i < slots.length(); i++)
+        {
+            // Put the instance in the slot if the slot is empty.
+            if (slots.get(i) == null && slots.compareAndSet(i, null, instance))
+            {
+                return;
+            }
+        }
+
+        // All the slots are filled. Discard the instance.
+    }
+}
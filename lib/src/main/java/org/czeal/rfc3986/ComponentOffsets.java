@@ -0,0 +1,345 @@
+/*
+ * Copyright (C) 2024 Hideki Ikeda
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.czeal.rfc3986;
+
+
+/**
+ * <p>
+ * <i>NOTE: This class is intended for internal use only.</i>
+ * </p>
+ *
+ * <p>
+ * The layout of an {@code int} array holding the offsets of the components of
+ * a URI reference in a source string, and the methods to create the components
+ * from the source string and the offsets.
+ * </p>
+ *
+ * <p>
+ * The offsets are filled by {@link URIReferenceParser} and {@link AuthorityParser}
+ * while the source string is validated. An offset of a component that is not
+ * present is {@code -1}.
+ * </p>
+ *
+ * <blockquote>
+ * <pre style="font-family: 'Menlo', 'Courier', monospace;">{@code
+ *   foo://user@example.com:8042/over/there?name=ferret#nose
+ *   \_/   \__/ \_________/ \__/\_________/ \_________/ \__/
+ *    |     |        |       |       |           |       |
+ * scheme userinfo  host    port    path       query  fragment
+ * }</pre>
+ * </blockquote>
+ *
+ * @author Hideki Ikeda
+ */
+final class ComponentOffsets
+{
+    /**
+     * The start index (inclusive) of the URI reference in the source string.
+     */
+    static final int START = 0;
+
+
+    /**
+     * The end index (exclusive) of the URI reference in the source string.
+     */
+    static final int END = 1;
+
+
+    /**
+     * The index of the colon (":") following the scheme, or {@code -1} if the
+     * URI reference is a relative reference. The scheme starts at {@link #START}.
+     */
+    static final int SCHEME_END = 2;
+
+
+    /**
+     * The start index (inclusive) of the authority, which is the index after the
+     * two slashes ("//"), or {@code -1} if the URI reference has no authority.
+     */
+    static final int AUTHORITY_START = 3;
+
+
+    /**
+     * The end index (exclusive) of the authority.
+     */
+    static final int AUTHORITY_END = 4;
+
+
+    /**
+     * The index of the at sign ("@") following the userinfo, or {@code -1} if
+     * the authority has no userinfo. The userinfo starts at {@link #AUTHORITY_START}.
+     */
+    static final int USERINFO_END = 5;
+
+
+    /**
+     * The end index (exclusive) of the host. The host starts after the userinfo
+     * or at {@link #AUTHORITY_START}. If the host end is less than {@link #AUTHORITY_END},
+     * the host is followed by a colon (":") and a port.
+     */
+    static final int HOST_END = 6;
+
+
+    /**
+     * The ordinal of the {@link HostType} of the host.
+     */
+    static final int HOST_TYPE = 7;
+
+
+    /**
+     * The port number, or {@code -1} if the authority has no port or an empty port.
+     */
+    static final int PORT = 8;
+
+
+    /**
+     * The start index (inclusive) of the path.
+     */
+    static final int PATH_START = 9;
+
+
+    /**
+     * The end index (exclusive) of the path.
+     */
+    static final int PATH_END = 10;
+
+
+    /**
+     * The start index (inclusive) of the query, which is the index after the
+     * question mark ("?"), or {@code -1} if the URI reference has no query.
+     */
+    static final int QUERY_START = 11;
+
+
+    /**
+     * The end index (exclusive) of the query.
+     */
+    static final int QUERY_END = 12;
+
+
+    /**
+     * The start index (inclusive) of the fragment, which is the index after the
+     * number sign ("#"), or {@code -1} if the URI reference has no fragment. The
+     * fragment ends at {@link #END}.
+     */
+    static final int FRAGMENT_START = 13;
+
+
+    /**
+     * The size of the array.
+     */
+    static final int SIZE = 14;
+
+
+    private ComponentOffsets()
+    {
+    }
+
+
+    /**
+     * Creates an array for the offsets of a URI reference in a range of a source
+     * string. All the offsets of the components are initialized with {@code -1}.
+     *
+     * @param start
+     *         The start index (inclusive) of the URI reference.
+     *
+     * @param end
+     *         The end index (exclusive) of the URI reference.
+     *
+     * @return
+     *         The array for the offsets.
+     */
+    static int[] create(int start, int end)
+    {
+        int[] offsets = new int[SIZE];
+
+        for (int i = 0; i < SIZE; i++)
+        {
+            offsets[i] = -1;
+        }
+
+        offsets[START] = start;
+        offsets[END]   = end;
+
+        return offsets;
+    }
+
+
+    /**
+     * Creates the scheme.
+     *
+     * @param source
+     *         The source string.
+     *
+     * @param offsets
+     *         The offsets of the components in the source string.
+     *
+     * @return
+     *         The scheme, or {@code null} if the URI reference has no scheme.
+     */
+    static String scheme(CharSequence source, int[] offsets)
+    {
+        if (offsets[SCHEME_END] == -1)
+        {
+            return null;
+        }
+
+        return source.subSequence(offsets[START], offsets[SCHEME_END]).toString();
+    }
+
+
+    /**
+     * Creates the authority. The components of the authority are not validated
+     * again.
+     *
+     * @param source
+     *         The source string.
+     *
+     * @param offsets
+     *         The offsets of the components in the source string.
+     *
+     * @return
+     *         The authority, or {@code null} if the URI reference has no authority.
+     */
+    static Authority authority(CharSequence source, int[] offsets)
+    {
+        if (offsets[AUTHORITY_START] == -1)
+        {
+            return null;
+        }
+
+        Authority.ProcessResult res = new Authority.ProcessResult();
+
+        // The start index of the host.
+        int hostStart = offsets[AUTHORITY_START];
+
+        // The userinfo.
+        if (offsets[USERINFO_END] != -1)
+        {
+            res.userinfo = source.subSequence(hostStart, offsets[USERINFO_END]).toString();
+            hostStart    = offsets[USERINFO_END] + 1;
+        }
+
+        // The host.
+        res.host = new Host(
+            HostType.values()[offsets[HOST_TYPE]],
+            source.subSequence(hostStart, offsets[HOST_END]).toString());
+
+        // The port.
+        res.port = offsets[PORT];
+
+        return res.toAuthority();
+    }
+
+
+    /**
+     * Creates the path.
+     *
+     * @param source
+     *         The source string.
+     *
+     * @param offsets
+     *         The offsets of the components in the source string.
+     *
+     * @return
+     *         The path.
+     */
+    static String path(CharSequence source, int[] offsets)
+    {
+        return source.subSequence(offsets[PATH_START], offsets[PATH_END]).toString();
+    }
+
+
+    /**
+     * Creates the query.
+     *
+     * @param source
+     *         The source string.
+     *
+     * @param offsets
+     *         The offsets of the components in the source string.
+     *
+     * @return
+     *         The query, or {@code null} if the URI reference has no query.
+     */
+    static String query(CharSequence source, int[] offsets)
+    {
+        if (offsets[QUERY_START] == -1)
+        {
+            return null;
+        }
+
+        return source.subSequence(offsets[QUERY_START], offsets[QUERY_END]).toString();
+    }
+
+
+    /**
+     * Creates the fragment.
+     *
+     * @param source
+     *         The source string.
+     *
+     * @param offsets
+     *         The offsets of the components in the source string.
+     *
+     * @return
+     *         The fragment, or {@code null} if the URI reference has no fragment.
+     */
+    static String fragment(CharSequence source, int[] offsets)
+    {
+        if (offsets[FRAGMENT_START] == -1)
+        {
+            return null;
+        }
+
+        return source.subSequence(offsets[FRAGMENT_START], offsets[END]).toString();
+    }
+
+
+    /**
+     * Checks whether or not the string representation of the URI reference built
+     * from its components is identical to the range of the source string. This
+     * is the case unless the port is empty or has leading zeros, which are dropped
+     * when the port is converted to a number.
+     *
+     * @param source
+     *         The source string.
+     *
+     * @param offsets
+     *         The offsets of the components in the source string.
+     *
+     * @return
+     *         {@code true} if the range of the source string is the string
+     *         representation of the URI reference; otherwise, {@code false}.
+     */
+    static boolean isCanonical(CharSequence source, int[] offsets)
+    {
+        // If the URI reference has no port.
+        if (offsets[AUTHORITY_START] == -1 || offsets[HOST_END] == offsets[AUTHORITY_END])
+        {
+            return true;
+        }
+
+        // The start index of the port, which is after the colon.
+        int portStart = offsets[HOST_END] + 1;
+
+        // The length of the port.
+        int portLength = offsets[AUTHORITY_END] - portStart;
+
+        // The port must not be empty and must not have leading zeros.
+        return portLength != 0 && (portLength == 1 || source.charAt(portStart) != '0');
+    }
+}
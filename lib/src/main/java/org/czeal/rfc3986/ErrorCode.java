@@ -0,0 +1,76 @@
+/*
+ * Copyright (C) 2024 Hideki Ikeda
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.czeal.rfc3986;
+
+
+/**
+ * The reason why an input string is rejected as a URI reference.
+ *
+ * @see ParseError
+ *
+ * @see ErrorPosition
+ *
+ * @author Hideki Ikeda
+ */
+public enum ErrorCode
+{
+    /**
+     * A character that is not allowed in the component.
+     */
+    INVALID_CHARACTER,
+
+
+    /**
+     * A percent symbol ("%") that is not followed by two characters.
+     */
+    INCOMPLETE_PERCENT_ENCODING,
+
+
+    /**
+     * A percent symbol ("%") that is not followed by two hex digits.
+     */
+    INVALID_HEX_DIGIT,
+
+
+    /**
+     * Percent-encoded bytes that can't be decoded with the charset.
+     */
+    UNDECODABLE_BYTES,
+
+
+    /**
+     * An IP-literal that is not a bracketed IPv6 address or IPvFuture address.
+     */
+    INVALID_IP_LITERAL,
+
+
+    /**
+     * A port number that doesn't fit in an {@code int} value.
+     */
+    INVALID_PORT_NUMBER,
+
+
+    /**
+     * A line terminator in the port or the fragment.
+     */
+    LINE_TERMINATOR,
+
+
+    /**
+     * An empty segment where a non-empty segment is required.
+     */
+    EMPTY_SEGMENT,
+}
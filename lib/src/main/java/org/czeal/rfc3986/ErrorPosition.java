@@ -0,0 +1,131 @@
+/*
+ * Copyright (C) 2024 Hideki Ikeda
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.czeal.rfc3986;
+
+
+/**
+ * The position at which an input string was found invalid as a URI reference
+ * by {@link URIReference#isValid(CharSequence, int, int, java.nio.charset.Charset,
+ * ErrorPosition) URIReference.isValid}.
+ *
+ * <p>
+ * Like {@link java.text.ParsePosition}, an instance is created by the caller
+ * and filled by the method, so it can be reused for many input strings without
+ * allocating anything per call.
+ * </p>
+ *
+ * <pre>{@code
+ * ErrorPosition position = new ErrorPosition();
+ *
+ * if (!URIReference.isValid("http://example.com:8a", 0, 21, StandardCharsets.UTF_8, position))
+ * {
+ *     System.out.println(position.getComponent()); // "PORT"
+ *     System.out.println(position.getIndex());     // 20
+ * }
+ * }</pre>
+ *
+ * <p>
+ * This class is not thread-safe.
+ * </p>
+ *
+ * @author Hideki Ikeda
+ */
+public final class ErrorPosition
+{
+    /**
+     * The index in the input string, or {@code -1} if no error has been found.
+     */
+    private int index = -1;
+
+
+    /**
+     * The invalid component, or {@code null} if no error has been found.
+     */
+    private URIComponent component;
+
+
+    /**
+     * The error code, or {@code null} if no error has been found.
+     */
+    private ErrorCode code;
+
+
+    /**
+     * Returns the index of the first character at which the input string was
+     * found invalid. If the input string is not valid as a percent-encoded value,
+     * this is the index of the percent symbol that starts the invalid sequence.
+     * If the content of an IP-literal is invalid, this is the index of the opening
+     * bracket.
+     *
+     * @return
+     *         The index in the input string, or {@code -1} if no error has been
+     *         found.
+     */
+    public int getIndex()
+    {
+        return index;
+    }
+
+
+    /**
+     * Returns the component that was found invalid.
+     *
+     * @return
+     *         The invalid component, or {@code null} if no error has been found.
+     */
+    public URIComponent getComponent()
+    {
+        return component;
+    }
+
+
+    /**
+     * Returns the reason why the input string was found invalid.
+     *
+     * @return
+     *         The error code, or {@code null} if no error has been found.
+     */
+    public ErrorCode getCode()
+    {
+        return code;
+    }
+
+
+    /**
+     * Clears the error.
+     */
+    public void reset()
+    {
+        index     = -1;
+        component = null;
+        code      = null;
+    }
+
+
+    void set(URIComponent component, ErrorCode code, int index)
+    {
+        this.component = component;
+        this.code      = code;
+        this.index     = index;
+    }
+
+
+    @Override
+    public String toString()
+    {
+        return String.format("ErrorPosition[component=%s, code=%s, index=%d]", component, code, index);
+    }
+}
@@ -48,7 +48,8 @@ class FragmentNormalizer extends PercentEncodedStringNormalizer
      *          characters) contained in the {@code fragment} parameter.
      *
      * @return
-     *         The new string representing the normalized {@code fragment} component.
+     *         The string representing the normalized {@code fragment} component,
+     *         or {@code fragment} itself if nothing changes.
      *
      * @see <a href="https://www.rfc-editor.org/rfc/rfc3986#section-6">RFC 3986,
      *      Section 6: Normalization and Comparison</a>
@@ -60,7 +61,7 @@ class FragmentNormalizer extends PercentEncodedStringNormalizer
             return fragment;
         }
 
-        return process(fragment, charset, new StringBuilder());
+        return normalizeString(fragment, charset);
     }
 
 
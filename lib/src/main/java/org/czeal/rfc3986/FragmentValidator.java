@@ -16,8 +16,6 @@
 package org.czeal.rfc3986;
 
 
-import static org.czeal.rfc3986.Utils.isSubdelim;
-import static org.czeal.rfc3986.Utils.isUnreserved;
 import java.nio.charset.Charset;
 
 
@@ -37,7 +35,7 @@ class FragmentValidator extends PercentEncodedStringValidator
 {
     FragmentValidator()
     {
-        super("fragment");
+        super("fragment", URIComponent.FRAGMENT, CharacterClasses.FRAGMENT);
     }
 
 
@@ -62,18 +60,37 @@ class FragmentValidator extends PercentEncodedStringValidator
             return;
         }
 
-        process(fragment, charset, null);
+        validateValue(fragment, charset);
     }
 
 
-    @Override
-    protected boolean isValidOnNonPercent(char c)
+    /**
+     * Validates a value in a range of an input as a fragment. The value is
+     * validated in place without creating a substring unless it is necessary
+     * to report an invalid value.
+     *
+     * @param value
+     *         An input containing the fragment value.
+     *
+     * @param start
+     *         The start index (inclusive) of the fragment value.
+     *
+     * @param end
+     *         The end index (exclusive) of the fragment value.
+     *
+     * @param charset
+     *         The charset used for the fragment value.
+     *
+     * @throws IllegalArgumentException
+     *         If the fragment value is invalid.
+     */
+    void validate(CharSequence value, int start, int end, Charset charset)
     {
-        return isUnreserved(c) ||
-               isSubdelim(c)   ||
-               c == ':'        ||
-               c == '@'        ||
-               c == '/'        ||
-               c == '?';
+        if (start == end)
+        {
+            return;
+        }
+
+        validateValue(value, start, end, charset);
     }
 }
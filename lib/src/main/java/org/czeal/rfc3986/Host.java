@@ -203,6 +203,12 @@ public class Host implements Serializable, Comparable<Host>
     private final String value;
 
 
+    /**
+     * The cached hash code, or 0 if it has not been computed yet.
+     */
+    private transient int hash;
+
+
     /**
      * A package-private constructor..
      *
@@ -299,7 +305,18 @@ public class Host implements Serializable, Comparable<Host>
     @Override
     public int hashCode()
     {
-        return Objects.hash(type, value);
+        // Compute the hash code on first call. Threads racing here compute the
+        // same value, so no synchronization is needed.
+        int h = hash;
+
+        if (h == 0)
+        {
+            // The same value as Objects.hash(type, value) without varargs.
+            h    = 31 * (31 + Objects.hashCode(type)) + Objects.hashCode(value);
+            hash = h;
+        }
+
+        return h;
     }
 
 
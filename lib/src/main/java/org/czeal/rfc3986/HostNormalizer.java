@@ -54,7 +54,8 @@ class HostNormalizer extends PercentEncodedStringNormalizer
      *         characters) contained in the {@code host} parameter.
      *
      * @return
-     *         The {@link Host} object representing the normalized host.
+     *         The {@link Host} object representing the normalized host, or {@code
+     *         host} itself if nothing changes.
      *
      * @see <a href="https://www.rfc-editor.org/rfc/rfc3986#section-6">RFC 3986,
      *      Section 6: Normalization and Comparison</a>
@@ -64,8 +65,15 @@ class HostNormalizer extends PercentEncodedStringNormalizer
         // Normalize the value.
         String normalizedValue = normalizeValue(host.getValue(), charset);
 
-        // Normalize the type.
-        HostType normalizedType = new HostTypeDeterminer().determine(normalizedValue, charset);
+        // Normalize the type. The normalized value of a valid host is still valid,
+        // so it only has to be classified.
+        HostType normalizedType = new HostTypeDeterminer().classify(normalizedValue);
+
+        // Return the original host if nothing changes.
+        if (normalizedValue == host.getValue() && normalizedType == host.getType())
+        {
+            return host;
+        }
 
         // Build a Host instance.
         return new Host(normalizedType, normalizedValue);
@@ -79,7 +87,7 @@ class HostNormalizer extends PercentEncodedStringNormalizer
             return originalValue;
         }
 
-        return process(originalValue, charset, new StringBuilder());
+        return normalizeString(originalValue, charset);
     }
 
 
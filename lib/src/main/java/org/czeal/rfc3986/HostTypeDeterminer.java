@@ -20,6 +20,9 @@ import static org.czeal.rfc3986.HostType.IPV4;
 import static org.czeal.rfc3986.HostType.IPV6;
 import static org.czeal.rfc3986.HostType.IPVFUTURE;
 import static org.czeal.rfc3986.HostType.REGNAME;
+import static org.czeal.rfc3986.URIReferenceChecker.VALID;
+import static org.czeal.rfc3986.URIReferenceChecker.code;
+import static org.czeal.rfc3986.URIReferenceChecker.error;
 import static org.czeal.rfc3986.Utils.newIAE;
 import java.nio.charset.Charset;
 
@@ -43,6 +46,12 @@ class HostTypeDeterminer
      * Determines the host type. Possible host type values are {@link HostType#REGNAME REGNAME},
      * {@link HostType#IPV4 IPV4}, {@link HostType#IPV6 IPV6} and {@link HostType#IPVFUTURE IPVFUTURE}.
      *
+     * <p>
+     * The host value is classified without throwing exceptions first and then
+     * validated as the host type if necessary, so an exception is created only
+     * when the host value is invalid.
+     * </p>
+     *
      * @param value
      *         A {@code host} value.
      *
@@ -52,71 +61,264 @@ class HostTypeDeterminer
      *
      * @return
      *         The type of the host value.
+     *
+     * @throws IllegalArgumentException
+     *         If the host value is invalid.
      */
     HostType determine(String value, Charset charset)
     {
-        // If the host is null or empty.
-        if (value == null || value.isEmpty())
+        // If the host is null.
+        if (value == null)
         {
             // The host type is determined as a reg-name.
             return REGNAME;
         }
 
-        // If the host value starts with '[', indicating the host value being an
-        // IP-literal.
-        if (value.startsWith("["))
+        return determine(value, 0, value.length(), charset);
+    }
+
+
+    /**
+     * Determines the type of a host value in a range of an input. The host value
+     * is classified and checked in place without creating a substring.
+     *
+     * @param value
+     *         An input containing the {@code host} value.
+     *
+     * @param start
+     *         The start index (inclusive) of the {@code host} value.
+     *
+     * @param end
+     *         The end index (exclusive) of the {@code host} value.
+     *
+     * @param charset
+     *         The charset used for percent-encoding some characters (e.g. reserved
+     *         characters) contained in the {@code host} value.
+     *
+     * @return
+     *         The type of the host value.
+     *
+     * @throws IllegalArgumentException
+     *         If the host value is invalid.
+     */
+    HostType determine(CharSequence value, int start, int end, Charset charset)
+    {
+        // Classify the host value.
+        HostType type = classify(value, start, end);
+
+        // Check the host value as the host type.
+        long result = check(value, start, end, type, charset);
+
+        if (result != VALID)
         {
-            return determineHostTypeForIpLiteral(value);
+            throw newException(value, start, end, result);
         }
 
-        try
+        return type;
+    }
+
+
+    /**
+     * Checks a host value in a range of an input as the host type returned by
+     * {@link #classify(CharSequence, int, int)} without throwing an exception.
+     *
+     * @param value
+     *         An input containing the {@code host} value.
+     *
+     * @param start
+     *         The start index (inclusive) of the {@code host} value.
+     *
+     * @param end
+     *         The end index (exclusive) of the {@code host} value.
+     *
+     * @param type
+     *         The type of the host value.
+     *
+     * @param charset
+     *         The charset used for percent-encoding some characters (e.g. reserved
+     *         characters) contained in the {@code host} value.
+     *
+     * @return
+     *         {@link URIReferenceChecker#VALID} if the host value is valid;
+     *         otherwise, the result packing the error code, the component and
+     *         the index of the error in the input.
+     */
+    long check(CharSequence value, int start, int end, HostType type, Charset charset)
+    {
+        switch (type)
         {
-            // Validate the host value as an IPv4 address.
-            new Ipv4AddressValidator().validate(value);
+            case REGNAME:
+                // The host value is not an IPv4 address. Check it as a reg-name.
+                return new RegNameValidator().check(value, start, end, charset);
 
-            // The host type is determined as an IPv4 address.
-            return IPV4;
+            case IPVFUTURE:
+                // The host value is an IP-literal that doesn't enclose an IPv6
+                // address. Ensure it is enclosed by brackets and encloses an
+                // IPvFuture address.
+                if (end - start < 2 || value.charAt(end - 1) != ']' ||
+                    !new IpvFutureValidator().isValid(value, start + 1, end - 1))
+                {
+                    return error(ErrorCode.INVALID_IP_LITERAL, URIComponent.HOST, start);
+                }
+
+                return VALID;
+
+            default:
+                // IPv4 addresses and IPv6 addresses have been checked by the
+                // classification.
+                return VALID;
         }
-        catch (Throwable t)
+    }
+
+
+    /**
+     * Creates an exception reporting the details of an error found by {@link
+     * #check(CharSequence, int, int, HostType, Charset)}.
+     *
+     * @param value
+     *         An input containing the invalid {@code host} value.
+     *
+     * @param start
+     *         The start index (inclusive) of the {@code host} value.
+     *
+     * @param end
+     *         The end index (exclusive) of the {@code host} value.
+     *
+     * @param result
+     *         The result of the check.
+     *
+     * @return
+     *         The exception to throw.
+     */
+    InvalidURIReferenceException newException(CharSequence value, int start, int end, long result)
+    {
+        if (code(result) != ErrorCode.INVALID_IP_LITERAL)
         {
-            // If the check above fails, validate the host value as a reg-name.
-            new RegNameValidator().validate(value, charset);
+            // Let the reg-name validator report the details.
+            return new RegNameValidator().newException(value, start, end, result);
+        }
 
+        // IP-literals are rare. Report the details with a substring.
+        String host = value.subSequence(start, end).toString();
+
+        // If the host value starts with '[' but doesn't end with ']'.
+        if (!host.endsWith("]"))
+        {
+            return newIAE(URIComponent.HOST, ErrorCode.INVALID_IP_LITERAL, start,
+                "The host value \"%s\" start with \"[\" but doesn't end with \"]\".",
+                host);
+        }
+
+        try
+        {
+            // Let the IPvFuture validator find the details.
+            new IpvFutureValidator().validate(host.substring(1, host.length() - 1));
+        }
+        catch (IllegalArgumentException e)
+        {
+            // Report the details at the index of the IP-literal in the input.
+            return newIAE(URIComponent.HOST, ErrorCode.INVALID_IP_LITERAL, start,
+                "%s", e.getMessage());
+        }
+
+        return newIAE(URIComponent.HOST, ErrorCode.INVALID_IP_LITERAL, start,
+            "The host value \"%s\" is invalid as an IP-literal.", host);
+    }
+
+
+    /**
+     * Classifies a host value into one of the host types without validating it.
+     * This method doesn't throw an exception and is expected to be used for host
+     * values that are known to be valid.
+     *
+     * <ul>
+     * <li>{@link HostType#IPV6 IPV6} if the value is an IP-literal enclosing an
+     *     IPv6 address.</li>
+     * <li>{@link HostType#IPVFUTURE IPVFUTURE} if the value is any other IP-literal.</li>
+     * <li>{@link HostType#IPV4 IPV4} if the value is an IPv4 address.</li>
+     * <li>{@link HostType#REGNAME REGNAME} otherwise, including {@code null} and
+     *     an empty value.</li>
+     * </ul>
+     *
+     * @param value
+     *         A {@code host} value.
+     *
+     * @return
+     *         The type of the host value.
+     */
+    HostType classify(String value)
+    {
+        // If the host is null.
+        if (value == null)
+        {
             // The host type is determined as a reg-name.
             return REGNAME;
         }
+
+        return classify(value, 0, value.length());
     }
 
 
-    private HostType determineHostTypeForIpLiteral(String value)
+    /**
+     * Classifies a host value in a range of an input in the same way as {@link
+     * #classify(String)} does, without creating a substring.
+     *
+     * @param value
+     *         An input containing the {@code host} value.
+     *
+     * @param start
+     *         The start index (inclusive) of the {@code host} value.
+     *
+     * @param end
+     *         The end index (exclusive) of the {@code host} value.
+     *
+     * @return
+     *         The type of the host value.
+     */
+    HostType classify(CharSequence value, int start, int end)
     {
-        // Ensure the host value ends with ']'.
-        if (!value.endsWith("]"))
+        // If the host is empty.
+        if (start == end)
         {
-            throw newIAE(
-                "The host value \"%s\" start with \"[\" but doesn't end with \"]\".",
-                value);
+            // The host type is determined as a reg-name.
+            return REGNAME;
         }
 
-        // Extract the content enclosed by brackets.
-        String enclosed = value.substring(1, value.length() - 1);
+        // If the host value starts with '[', indicating the host value being an
+        // IP-literal.
+        if (value.charAt(start) == '[')
+        {
+            return classifyIpLiteral(value, start, end);
+        }
 
-        try
+        // Check the host value as an IPv4 address.
+        if (new Ipv4AddressValidator().isValid(value, start, end))
         {
-            // Validate the host value as an IPv6 address.
-            new Ipv6AddressValidator().validate(enclosed);
+            // The host type is determined as an IPv4 address.
+            return IPV4;
+        }
+
+        // The host type is determined as a reg-name.
+        return REGNAME;
+    }
+
+
+    private HostType classifyIpLiteral(CharSequence value, int start, int end)
+    {
+        // If the value is not enclosed by brackets, it isn't an IPv6 address.
+        if (end - start < 2 || value.charAt(end - 1) != ']')
+        {
+            return IPVFUTURE;
+        }
 
+        // Check the content enclosed by brackets as an IPv6 address.
+        if (new Ipv6AddressValidator().isValid(value, start + 1, end - 1))
+        {
             // The host type is determined as an IPv6 address.
             return IPV6;
         }
-        catch (Throwable t)
-        {
-            // If the check above fails, validate the host value as an IPvFuture
-            // address.
-            new IpvFutureValidator().validate(enclosed);
 
-            // The host type is determined as an IPvFuture address.
-            return IPVFUTURE;
-        }
+        // The host type is determined as an IPvFuture address.
+        return IPVFUTURE;
     }
 }
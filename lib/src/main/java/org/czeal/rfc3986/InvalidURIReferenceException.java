@@ -0,0 +1,240 @@
+/*
+ * Copyright (C) 2024 Hideki Ikeda
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.czeal.rfc3986;
+
+
+import java.io.IOException;
+import java.io.ObjectOutputStream;
+
+
+/**
+ * An {@link IllegalArgumentException} thrown when a value is invalid as a URI
+ * reference or as a component of a URI reference.
+ *
+ * <p>
+ * In addition to the message, an instance holds the invalid {@link URIComponent},
+ * the {@link ErrorCode} and the index in the input at which the error was found,
+ * if they are known. The index is the same as the one reported by {@link
+ * ParseError#getIndex()} and {@link ErrorPosition#getIndex()}, while the message
+ * mentions the index in the invalid component value. The message is formatted when {@link #getMessage()}
+ * is invoked for the first time, so an exception that is caught and discarded
+ * never formats its message.
+ * </p>
+ *
+ * <p>
+ * Capturing a stack trace is usually the most expensive part of rejecting an
+ * invalid input. It can be turned off for the whole library by {@link
+ * #setStackTraceEnabled(boolean)} or by setting the system property {@value
+ * #STACK_TRACE_PROPERTY} to {@code false}. When it is turned off, {@link
+ * #getStackTrace()} returns an empty array.
+ * </p>
+ *
+ * <pre>{@code
+ * try
+ * {
+ *     URIReference.parse("http://example.com:8a");
+ * }
+ * catch (InvalidURIReferenceException e)
+ * {
+ *     System.out.println(e.getComponent()); // "PORT"
+ *     System.out.println(e.getCode());      // "INVALID_CHARACTER"
+ *     System.out.println(e.getIndex());     // 20
+ * }
+ * }</pre>
+ *
+ * @author Hideki Ikeda
+ */
+public class InvalidURIReferenceException extends IllegalArgumentException
+{
+    private static final long serialVersionUID = 1L;
+
+
+    /**
+     * The name of the system property that sets the initial value of {@link
+     * #isStackTraceEnabled()}. Stack traces are captured unless the value of the
+     * property is {@code false}.
+     */
+    public static final String STACK_TRACE_PROPERTY = "org.czeal.rfc3986.stackTrace";
+
+
+    /**
+     * Whether or not stack traces are captured.
+     */
+    private static volatile boolean stackTraceEnabled =
+        !"false".equalsIgnoreCase(System.getProperty(STACK_TRACE_PROPERTY));
+
+
+    private final URIComponent component;
+    private final ErrorCode code;
+    private final int index;
+
+
+    /**
+     * The format of the message and its arguments, discarded when the exception
+     * is serialized.
+     */
+    private transient String format;
+    private transient Object[] args;
+
+
+    /**
+     * The message, formatted on demand.
+     */
+    private String message;
+
+
+    /**
+     * Constructor.
+     *
+     * @param component
+     *         The invalid component, or {@code null} if it is unknown.
+     *
+     * @param code
+     *         The error code, or {@code null} if it is unknown.
+     *
+     * @param index
+     *         The index in the input at which the error was found, or {@code -1}
+     *         if it is unknown.
+     *
+     * @param format
+     *         The format of the message.
+     *
+     * @param args
+     *         The arguments referenced by the format.
+     */
+    InvalidURIReferenceException(
+        URIComponent component, ErrorCode code, int index, String format, Object... args)
+    {
+        this.component = component;
+        this.code      = code;
+        this.index     = index;
+        this.format    = format;
+        this.args      = args;
+    }
+
+
+    /**
+     * Get the component that was found invalid.
+     *
+     * @return
+     *         The invalid component, or {@code null} if it is unknown.
+     */
+    public URIComponent getComponent()
+    {
+        return component;
+    }
+
+
+    /**
+     * Get the reason why the value was found invalid.
+     *
+     * @return
+     *         The error code, or {@code null} if it is unknown.
+     */
+    public ErrorCode getCode()
+    {
+        return code;
+    }
+
+
+    /**
+     * Get the index at which the error was found in the input. For example, this
+     * is {@code 20} for the invalid character {@code 'a'} in the port of {@code
+     * "http://example.com:8a"}, and the index in the whole input for a range of
+     * the input parsed by {@link URIReference#parse(CharSequence, int, int, java.nio.charset.Charset)}.
+     * For an error about a percent-encoded value, this is the index of its percent
+     * symbol, or of the first percent symbol of the run of percent-encoded values
+     * that can't be decoded.
+     *
+     * @return
+     *         The index in the input, or {@code -1} if it is unknown.
+     */
+    public int getIndex()
+    {
+        return index;
+    }
+
+
+    /**
+     * Get the message. The message is formatted when this method is invoked for
+     * the first time.
+     *
+     * @return
+     *         The message.
+     */
+    @Override
+    public String getMessage()
+    {
+        // Racy single-check. The message is always the same.
+        String m = message;
+
+        if (m == null && format != null)
+        {
+            message = m = String.format(format, args);
+        }
+
+        return m;
+    }
+
+
+    /**
+     * Fills in the stack trace if stack traces are enabled by {@link
+     * #setStackTraceEnabled(boolean)}; otherwise, does nothing.
+     *
+     * @return
+     *         This exception.
+     */
+    @Override
+    public synchronized Throwable fillInStackTrace()
+    {
+        return stackTraceEnabled ? super.fillInStackTrace() : this;
+    }
+
+
+    /**
+     * Check if stack traces are captured when instances of this class are created.
+     *
+     * @return
+     *         {@code true} if stack traces are captured; otherwise, {@code false}.
+     */
+    public static boolean isStackTraceEnabled()
+    {
+        return stackTraceEnabled;
+    }
+
+
+    /**
+     * Set whether or not stack traces are captured when instances of this class
+     * are created. The setting applies to the whole library and takes effect
+     * immediately for all threads.
+     *
+     * @param enabled
+     *         {@code true} to capture stack traces; {@code false} not to.
+     */
+    public static void setStackTraceEnabled(boolean enabled)
+    {
+        stackTraceEnabled = enabled;
+    }
+
+
+    private void writeObject(ObjectOutputStream out) throws IOException
+    {
+        // Format the message before the format and its arguments are discarded.
+        getMessage();
+
+        out.defaultWriteObject();
+    }
+}
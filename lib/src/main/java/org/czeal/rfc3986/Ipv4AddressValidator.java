@@ -80,6 +80,131 @@ class Ipv4AddressValidator
     }
 
 
+    /**
+     * Checks whether or not a value is a valid IPv4 address. Unlike {@link #validate(String)},
+     * this method doesn't throw an exception when the value is invalid.
+     *
+     * @param ipv4Address
+     *         An IPv4 address value.
+     *
+     * @return
+     *         {@code true} if the value is a valid IPv4 address; otherwise, {@code
+     *         false}.
+     */
+    boolean isValid(String ipv4Address)
+    {
+        return isValid(ipv4Address, 0, ipv4Address.length());
+    }
+
+
+    /**
+     * Checks whether or not a part of a value is a valid IPv4 address. Unlike
+     * {@link #validate(String)}, this method doesn't throw an exception when the
+     * value is invalid.
+     *
+     * @param value
+     *         A value containing an IPv4 address.
+     *
+     * @param start
+     *         The start index (inclusive) of the IPv4 address in the value.
+     *
+     * @param end
+     *         The end index (exclusive) of the IPv4 address in the value.
+     *
+     * @return
+     *         {@code true} if the part of the value is a valid IPv4 address;
+     *         otherwise, {@code false}.
+     */
+    boolean isValid(CharSequence value, int start, int end)
+    {
+        // The start index of the current dec-octet.
+        int octetStart = start;
+
+        // Check the four dec-octets.
+        for (int i = 0; i < 4; i++)
+        {
+            // The end index of the current dec-octet.
+            int octetEnd = octetStart;
+
+            while (octetEnd < end && value.charAt(octetEnd) != '.')
+            {
+                octetEnd++;
+            }
+
+            // Ensure the dec-octet is valid.
+            if (!isDecOctet(value, octetStart, octetEnd))
+            {
+                return false;
+            }
+
+            // If the dec-octet is the last one, it must be followed by the end
+            // of the value.
+            if (i == 3)
+            {
+                return octetEnd == end;
+            }
+
+            // The dec-octet must be followed by a period.
+            if (octetEnd == end)
+            {
+                return false;
+            }
+
+            // The next dec-octet starts after the period.
+            octetStart = octetEnd + 1;
+        }
+
+        // We won't reach here.
+        return false;
+    }
+
+
+    private boolean isDecOctet(CharSequence value, int start, int end)
+    {
+        switch (end - start)
+        {
+            case 1:
+                // DIGIT
+                return isDigit(value.charAt(start));
+
+            case 2:
+                // 2DIGIT
+                return isDigit(value.charAt(start)) &&
+                       isDigit(value.charAt(start + 1));
+
+            case 3:
+                // "1" 2DIGIT / "2" %x30-34 DIGIT / "25" %x30-35
+                return isThreeDigitDecOctet(
+                    value.charAt(start), value.charAt(start + 1), value.charAt(start + 2));
+
+            default:
+                // The dec-octet is empty or too long.
+                return false;
+        }
+    }
+
+
+    private boolean isThreeDigitDecOctet(char first, char second, char third)
+    {
+        if (first == '1')
+        {
+            return isDigit(second) && isDigit(third);
+        }
+
+        if (first == '2')
+        {
+            if (isInRange(second, '0', '4'))
+            {
+                return isDigit(third);
+            }
+
+            return second == '5' && isInRange(third, '0', '5');
+        }
+
+        return false;
+    }
+
+
     private void validateDecOctet(String decOctet, String value)
     {
         // Ensure the dec-octet is not empty.
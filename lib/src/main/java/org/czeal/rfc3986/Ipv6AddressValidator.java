@@ -116,6 +116,233 @@ class Ipv6AddressValidator
     }
 
 
+    /**
+     * Checks whether or not a value is a valid IPv6 address. Unlike {@link #validate(String)},
+     * this method doesn't throw an exception when the value is invalid.
+     *
+     * @param ipv6Address
+     *         An IPv6 address value. Expected to be a value enclosed by the brackets
+     *         in a host value.
+     *
+     * @return
+     *         {@code true} if the value is a valid IPv6 address; otherwise, {@code
+     *         false}.
+     */
+    boolean isValid(String ipv6Address)
+    {
+        return isValid(ipv6Address, 0, ipv6Address.length());
+    }
+
+
+    /**
+     * Checks whether or not a part of a value is a valid IPv6 address without
+     * throwing an exception.
+     *
+     * @param value
+     *         A value containing an IPv6 address.
+     *
+     * @param start
+     *         The start index (inclusive) of the IPv6 address in the value.
+     *
+     * @param end
+     *         The end index (exclusive) of the IPv6 address in the value.
+     *
+     * @return
+     *         {@code true} if the part of the value is a valid IPv6 address;
+     *         otherwise, {@code false}.
+     */
+    boolean isValid(CharSequence value, int start, int end)
+    {
+        // The index of the first "::".
+        int doubleColonsIndex = indexOfDoubleColons(value, start, end);
+
+        if (doubleColonsIndex == -1)
+        {
+            // The host value doesn't contain "::".
+            return isIpv6WithoutDoubleColons(value, start, end);
+        }
+
+        // The host value contains "::".
+        return isIpv6WithDoubleColons(value, start, end, doubleColonsIndex);
+    }
+
+
+    private boolean isIpv6WithoutDoubleColons(CharSequence value, int start, int end)
+    {
+        // The number of the segments divided by ':'.
+        int count = countSegments(value, start, end);
+
+        if (count == 7)
+        {
+            // 6( h16 ":" ) IPv4address
+            //
+            // NOTE: This is checked in the same way as validateIpv6WithoutDoubleColons().
+            int lastColonIndex = lastIndexOfColon(value, start, end);
+
+            return isH16Array(value, start, lastColonIndex) &&
+                   isValid(value, lastColonIndex + 1, end);
+        }
+
+        if (count == 8)
+        {
+            // 6( h16 ":" ) ( h16 ":" h16 )
+            return isH16Array(value, start, end);
+        }
+
+        // The number of segments contained in the host value is incorrect.
+        return false;
+    }
+
+
+    private boolean isIpv6WithDoubleColons(
+        CharSequence value, int start, int end, int doubleColonsIndex)
+    {
+        // The value before "::".
+        int bitsBeforeDoubleColons = bitsBeforeDoubleColons(value, start, doubleColonsIndex);
+
+        // The value after "::".
+        int bitsAfterDoubleColons = bitsAfterDoubleColons(value, doubleColonsIndex + 2, end);
+
+        if (bitsBeforeDoubleColons == -1 || bitsAfterDoubleColons == -1)
+        {
+            return false;
+        }
+
+        // Ensure the total bits does not exceed the maximum value.
+        return bitsBeforeDoubleColons + bitsAfterDoubleColons <= MAX_BITS;
+    }
+
+
+    private int bitsBeforeDoubleColons(CharSequence value, int start, int end)
+    {
+        if (start == end)
+        {
+            // The first part is empty.
+            return 0;
+        }
+
+        if (!isH16Array(value, start, end))
+        {
+            return -1;
+        }
+
+        return 16 * countSegments(value, start, end);
+    }
+
+
+    private int bitsAfterDoubleColons(CharSequence value, int start, int end)
+    {
+        if (start == end)
+        {
+            // The second part is empty.
+            return 0;
+        }
+
+        if (isH16Array(value, start, end))
+        {
+            // All the segments are 16-bit pieces.
+            return 16 * countSegments(value, start, end);
+        }
+
+        // The index of the last colon in the second part.
+        int lastColonIndex = lastIndexOfColon(value, start, end);
+
+        if (lastColonIndex < start)
+        {
+            // The second part consists of a single segment, which must be an
+            // IPv4 address.
+            return new Ipv4AddressValidator().isValid(value, start, end) ? 32 : -1;
+        }
+
+        // All the segments except for the last segment must be 16-bit pieces
+        // and the last segment must be an IPv4 address.
+        if (!isH16Array(value, start, lastColonIndex) ||
+            !new Ipv4AddressValidator().isValid(value, lastColonIndex + 1, end))
+        {
+            return -1;
+        }
+
+        return 16 * (countSegments(value, start, lastColonIndex)) + 32;
+    }
+
+
+    private int indexOfDoubleColons(CharSequence value, int start, int end)
+    {
+        for (int i = start; i + 1 < end; i++)
+        {
+            if (value.charAt(i) == ':' && value.charAt(i + 1) == ':')
+            {
+                return i;
+            }
+        }
+
+        return -1;
+    }
+
+
+    private int lastIndexOfColon(CharSequence value, int start, int end)
+    {
+        for (int i = end - 1; i >= start; i--)
+        {
+            if (value.charAt(i) == ':')
+            {
+                return i;
+            }
+        }
+
+        return -1;
+    }
+
+
+    private int countSegments(CharSequence value, int start, int end)
+    {
+        int count = 1;
+
+        for (int i = start; i < end; i++)
+        {
+            if (value.charAt(i) == ':')
+            {
+                count++;
+            }
+        }
+
+        return count;
+    }
+
+
+    private boolean isH16Array(CharSequence value, int start, int end)
+    {
+        // The length of the current segment.
+        int length = 0;
+
+        for (int i = start; i < end; i++)
+        {
+            char c = value.charAt(i);
+
+            if (c == ':')
+            {
+                // Ensure the segment is not empty.
+                if (length == 0)
+                {
+                    return false;
+                }
+
+                length = 0;
+                continue;
+            }
+
+            // Ensure the segment consists of up to four hex digits.
+            if (!isHexDigit(c) || ++length > 4)
+            {
+                return false;
+            }
+        }
+
+        // Ensure the last segment is not empty.
+        return length != 0;
+    }
+
+
     private void validateIpv6WithoutDoubleColons(String ipv6Address)
     {
         // In this case, the input string must follow the following syntax.
@@ -232,24 +459,20 @@ class Ipv6AddressValidator
         // Divide the segment with ":".
         String[] segments = part.split(":", -1);
 
-        try
+        // If all the segment parts are 16-bit pieces.
+        if (isH16Array(part, 0, part.length()))
         {
-            // Try to ensure all the segment parts are 16-bit pieces.
-            validateH16Array(segments, enclosed);
-
             // Calculate the total bits represented by the second part.
             return 16 * segments.length;
         }
-        catch (IllegalArgumentException e)
-        {
-            // If the check above fails, ensure all the segments except for the
-            // last segment are H16 and the last segment is ipv4.
-            validateH16Array(Arrays.copyOfRange(segments, 0, segments.length - 1), enclosed);
-            new Ipv4AddressValidator().validate(segments[segments.length - 1]);
 
-            // Calculate the total bits represented by the second part.
-            return 16 * (segments.length - 1) + 32;
-        }
+        // Otherwise, ensure all the segments except for the last segment are H16
+        // and the last segment is ipv4.
+        validateH16Array(Arrays.copyOfRange(segments, 0, segments.length - 1), enclosed);
+        new Ipv4AddressValidator().validate(segments[segments.length - 1]);
+
+        // Calculate the total bits represented by the second part.
+        return 16 * (segments.length - 1) + 32;
     }
 
 
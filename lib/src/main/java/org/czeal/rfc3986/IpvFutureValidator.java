@@ -61,7 +61,7 @@ class IpvFutureValidator
         // Ensure the host value is not empty.
         if (ipvFuture.isEmpty())
         {
-            throw newIAE(
+            throw newIAE(URIComponent.HOST, ErrorCode.INVALID_IP_LITERAL, 0,
                 "The host value \"[%s]\" is invalid because the content enclosed " +
                 "by brackets does not form a valid IPvFuture address as it is empty.",
                 ipvFuture);
@@ -74,7 +74,7 @@ class IpvFutureValidator
         // contain a period.
         if (segments.length == 1)
         {
-            throw newIAE(
+            throw newIAE(URIComponent.HOST, ErrorCode.INVALID_IP_LITERAL, 0,
                 "The host value \"[%s]\" is invalid because the content enclosed " +
                 "by brackets does not form a valid IPvFuture address due to " +
                 "missing periods.", ipvFuture);
@@ -88,6 +88,66 @@ class IpvFutureValidator
     }
 
 
+    /**
+     * Checks whether or not a part of a value is a valid IPvFuture address. Unlike
+     * {@link #validate(String)}, this method doesn't throw an exception when the
+     * value is invalid.
+     *
+     * @param value
+     *         A value containing the content enclosed by brackets in a host value.
+     *
+     * @param start
+     *         The start index (inclusive) of the content.
+     *
+     * @param end
+     *         The end index (exclusive) of the content.
+     *
+     * @return
+     *         {@code true} if the content is a valid IPvFuture address; otherwise,
+     *         {@code false}.
+     */
+    boolean isValid(CharSequence value, int start, int end)
+    {
+        // The first segment must start with 'v' or 'V'.
+        if (start == end || (value.charAt(start) != 'v' && value.charAt(start) != 'V'))
+        {
+            return false;
+        }
+
+        // The version must consist of one or more hex digits followed by a period.
+        int index = start + 1;
+
+        while (index < end && isHexDigit(value.charAt(index)))
+        {
+            index++;
+        }
+
+        if (index == start + 1 || index == end || value.charAt(index) != '.')
+        {
+            return false;
+        }
+
+        // The segment after the first period must not be empty.
+        if (++index == end)
+        {
+            return false;
+        }
+
+        // Ensure all the characters in the second segment are valid.
+        for (; index < end; index++)
+        {
+            char c = value.charAt(index);
+
+            if (!isUnreserved(c) && !isSubdelim(c) && c != ':')
+            {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+
     private void validateFirstSegmentOfIpvFuture(String enclosed, String firstSegment)
     {
         // Check if the first segment starts with "v" or "V".
@@ -96,7 +156,7 @@ class IpvFutureValidator
         // Ensure the first segment starts with 'v' or 'V'.
         if (!isValid)
         {
-            throw newIAE(
+            throw newIAE(URIComponent.HOST, ErrorCode.INVALID_IP_LITERAL, 0,
                 "The host value \"[%s]\" is invalid because the content enclosed " +
                 "by brackets does not form a valid IPvFuture address due to missing " +
                 "a version indicator 'v' (or 'V').", enclosed);
@@ -109,7 +169,7 @@ class IpvFutureValidator
         // Ensure the version is not empty.
         if (version.isEmpty())
         {
-            throw newIAE(
+            throw newIAE(URIComponent.HOST, ErrorCode.INVALID_IP_LITERAL, 0,
                 "The host value \"[%s]\" is invalid because the content enclosed " +
                 "by brackets does not form a valid IPvFuture address due to missing " +
                 "its version.", enclosed);
@@ -122,7 +182,7 @@ class IpvFutureValidator
 
             if (!isHexDigit(c))
             {
-                throw newIAE(
+                throw newIAE(URIComponent.HOST, ErrorCode.INVALID_IP_LITERAL, 0,
                     "The host value \"[%s]\" is invalid because the content enclosed " +
                     "by brackets does not form a valid IPvFuture address due to " +
                     "an invalid version \"%s\", containing an invalid character " +
@@ -137,7 +197,7 @@ class IpvFutureValidator
         // Ensure the second segment is not empty.
         if (secondSegment.isEmpty())
         {
-            throw newIAE(
+            throw newIAE(URIComponent.HOST, ErrorCode.INVALID_IP_LITERAL, 0,
                 "The host value \"[%s]\" is invalid because the content enclosed " +
                 "by brackets does not form a valid IPvFuture address as there is " +
                 "no content following the first period.", enclosed);
@@ -153,7 +213,7 @@ class IpvFutureValidator
                 continue;
             }
 
-            throw newIAE(
+            throw newIAE(URIComponent.HOST, ErrorCode.INVALID_IP_LITERAL, 0,
                 "The host value \"[%s]\" is invalid because the content enclosed " +
                 "by brackets does not form a valid IPvFuture address due to the " +
                 "segment after the first period \"%s\", containing an invalid " +
@@ -0,0 +1,333 @@
+/*
+ * Copyright (C) 2024 Hideki Ikeda
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.czeal.rfc3986;
+
+
+import static org.czeal.rfc3986.ComponentOffsets.AUTHORITY_END;
+import static org.czeal.rfc3986.ComponentOffsets.AUTHORITY_START;
+import static org.czeal.rfc3986.ComponentOffsets.END;
+import static org.czeal.rfc3986.ComponentOffsets.FRAGMENT_START;
+import static org.czeal.rfc3986.ComponentOffsets.HOST_END;
+import static org.czeal.rfc3986.ComponentOffsets.HOST_TYPE;
+import static org.czeal.rfc3986.ComponentOffsets.PATH_END;
+import static org.czeal.rfc3986.ComponentOffsets.PATH_START;
+import static org.czeal.rfc3986.ComponentOffsets.PORT;
+import static org.czeal.rfc3986.ComponentOffsets.QUERY_END;
+import static org.czeal.rfc3986.ComponentOffsets.QUERY_START;
+import static org.czeal.rfc3986.ComponentOffsets.SCHEME_END;
+import static org.czeal.rfc3986.ComponentOffsets.USERINFO_END;
+import java.nio.charset.Charset;
+
+
+/**
+ * <p>
+ * <i>NOTE: This class is intended for internal use only.</i>
+ * </p>
+ *
+ * <p>
+ * Writes the components of a URI, which have already been validated, into a
+ * single output builder in the normalized form according to <a href=
+ * "https://www.rfc-editor.org/rfc/rfc3986#section-6">RFC 3986, Section 6:
+ * Normalization and Comparison</a>, recording the offsets of the components
+ * in the output. See {@link ComponentOffsets} for the layout of the offsets.
+ * </p>
+ *
+ * <p>
+ * The components must be written in order, i.e. the scheme, the authority (if
+ * any), the path, the query (if any) and the fragment (if any). The result is
+ * a {@link URIReference} instance backed by the output.
+ * </p>
+ *
+ * @see <a href="https://www.rfc-editor.org/rfc/rfc3986#section-6">RFC 3986,
+ *      Section 6: Normalization and Comparison</a>
+ *
+ * @author Hideki Ikeda
+ */
+class NormalizedURIWriter
+{
+    /**
+     * The charset used for percent-encoding some characters (e.g. reserved characters)
+     * contained in the components.
+     */
+    private final Charset charset;
+
+
+    /**
+     * The output builder.
+     */
+    private final StringBuilder sb;
+
+
+    /**
+     * The offsets of the components in the output.
+     */
+    private final int[] offsets = ComponentOffsets.create(0, 0);
+
+
+    /**
+     * A constructor.
+     *
+     * @param charset
+     *         The charset used for percent-encoding some characters (e.g. reserved
+     *         characters) contained in the components.
+     *
+     * @param capacity
+     *         The initial capacity of the output builder.
+     */
+    NormalizedURIWriter(Charset charset, int capacity)
+    {
+        this.charset = charset;
+        this.sb      = new StringBuilder(capacity);
+    }
+
+
+    /**
+     * Copies the scheme and, if {@code withAuthority} is {@code true}, the authority
+     * of a URI that has already been normalized. This must be called first instead
+     * of {@link #writeScheme(CharSequence, int, int)}.
+     *
+     * @param normalized
+     *         The string representation of the normalized URI.
+     *
+     * @param normalizedOffsets
+     *         The offsets of the components in {@code normalized}, which must
+     *         start at the index 0.
+     *
+     * @param withAuthority
+     *         Whether to copy the authority (if any) as well.
+     */
+    void copy(String normalized, int[] normalizedOffsets, boolean withAuthority)
+    {
+        if (!withAuthority || normalizedOffsets[AUTHORITY_START] == -1)
+        {
+            // Copy the scheme and the following ":".
+            sb.append(normalized, 0, normalizedOffsets[SCHEME_END] + 1);
+            offsets[SCHEME_END] = normalizedOffsets[SCHEME_END];
+            return;
+        }
+
+        // Copy the scheme and the authority.
+        sb.append(normalized, 0, normalizedOffsets[AUTHORITY_END]);
+
+        for (int index = SCHEME_END; index <= PORT; index++)
+        {
+            offsets[index] = normalizedOffsets[index];
+        }
+    }
+
+
+    /**
+     * Writes the scheme in a range of an input and the following ":".
+     *
+     * @param input
+     *         The input containing the scheme.
+     *
+     * @param start
+     *         The start index (inclusive) of the scheme.
+     *
+     * @param end
+     *         The end index (exclusive) of the scheme.
+     */
+    void writeScheme(CharSequence input, int start, int end)
+    {
+        new SchemeNormalizer().append(input, start, end, sb);
+        offsets[SCHEME_END] = sb.length();
+        sb.append(':');
+    }
+
+
+    /**
+     * Writes the authority whose components are in ranges of an input.
+     *
+     * @param input
+     *         The input containing the authority.
+     *
+     * @param inputOffsets
+     *         The offsets of the components in the input.
+     */
+    void writeAuthority(CharSequence input, int[] inputOffsets)
+    {
+        // The start index of the host in the input.
+        int hostStart = inputOffsets[AUTHORITY_START];
+
+        // Write "//".
+        startAuthority();
+
+        // Write the userinfo.
+        if (inputOffsets[USERINFO_END] != -1)
+        {
+            writeUserinfo(input, inputOffsets[AUTHORITY_START], inputOffsets[USERINFO_END]);
+            hostStart = inputOffsets[USERINFO_END] + 1;
+        }
+
+        // Write the host.
+        writeHost(input, hostStart, inputOffsets[HOST_END]);
+
+        // Write the port.
+        writePort(inputOffsets[PORT]);
+    }
+
+
+    /**
+     * Writes an authority.
+     *
+     * @param authority
+     *         The authority.
+     */
+    void writeAuthority(Authority authority)
+    {
+        // Write "//".
+        startAuthority();
+
+        // Write the userinfo.
+        String userinfo = authority.getUserinfo();
+
+        if (userinfo != null)
+        {
+            writeUserinfo(userinfo, 0, userinfo.length());
+        }
+
+        // Write the host.
+        String host = authority.getHost().getValue();
+        writeHost(host, 0, host.length());
+
+        // Write the port.
+        writePort(authority.getPort());
+    }
+
+
+    private void startAuthority()
+    {
+        sb.append("//");
+        offsets[AUTHORITY_START] = sb.length();
+    }
+
+
+    private void writeUserinfo(CharSequence input, int start, int end)
+    {
+        new UserinfoNormalizer().append(input, start, end, charset, sb);
+        offsets[USERINFO_END] = sb.length();
+        sb.append('@');
+    }
+
+
+    private void writeHost(CharSequence input, int start, int end)
+    {
+        // The start index of the host in the output.
+        int hostStart = sb.length();
+
+        new HostNormalizer().append(input, start, end, charset, sb);
+        offsets[HOST_END] = sb.length();
+
+        // The normalized value of a valid host is still valid, so it only has
+        // to be classified.
+        offsets[HOST_TYPE] = new HostTypeDeterminer().classify(
+            sb, hostStart, offsets[HOST_END]).ordinal();
+    }
+
+
+    private void writePort(int port)
+    {
+        // Omit the port if it is empty or the default port for the scheme.
+        port = new PortNormalizer().normalize(port, sb, 0, offsets[SCHEME_END]);
+
+        if (port != -1)
+        {
+            sb.append(':').append(port);
+        }
+
+        offsets[PORT]          = port;
+        offsets[AUTHORITY_END] = sb.length();
+    }
+
+
+    /**
+     * Writes the path in a range of an input, removing the dot segments.
+     *
+     * @param input
+     *         The input containing the path.
+     *
+     * @param start
+     *         The start index (inclusive) of the path.
+     *
+     * @param end
+     *         The end index (exclusive) of the path.
+     */
+    void writePath(CharSequence input, int start, int end)
+    {
+        offsets[PATH_START] = sb.length();
+        new PathNormalizer().append(
+            input, start, end, charset, offsets[AUTHORITY_START] != -1, sb);
+        offsets[PATH_END] = sb.length();
+    }
+
+
+    /**
+     * Writes "?" and the query in a range of an input.
+     *
+     * @param input
+     *         The input containing the query.
+     *
+     * @param start
+     *         The start index (inclusive) of the query.
+     *
+     * @param end
+     *         The end index (exclusive) of the query.
+     */
+    void writeQuery(CharSequence input, int start, int end)
+    {
+        sb.append('?');
+        offsets[QUERY_START] = sb.length();
+        new QueryNormalizer().append(input, start, end, charset, sb);
+        offsets[QUERY_END] = sb.length();
+    }
+
+
+    /**
+     * Writes "#" and the fragment in a range of an input.
+     *
+     * @param input
+     *         The input containing the fragment.
+     *
+     * @param start
+     *         The start index (inclusive) of the fragment.
+     *
+     * @param end
+     *         The end index (exclusive) of the fragment.
+     */
+    void writeFragment(CharSequence input, int start, int end)
+    {
+        sb.append('#');
+        offsets[FRAGMENT_START] = sb.length();
+        new FragmentNormalizer().append(input, start, end, charset, sb);
+    }
+
+
+    /**
+     * Creates a {@link URIReference} instance backed by the output.
+     *
+     * @return
+     *         The normalized URI.
+     */
+    URIReference toURIReference()
+    {
+        offsets[END] = sb.length();
+
+        // The output is in the normalized form, because the dot segments have
+        // been removed after percent-encoded dots (e.g. "%2E") were decoded.
+        return new URIReference(sb.toString(), charset, offsets, false, true);
+    }
+}
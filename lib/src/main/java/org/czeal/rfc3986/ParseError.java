@@ -0,0 +1,186 @@
+/*
+ * Copyright (C) 2024 Hideki Ikeda
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.czeal.rfc3986;
+
+
+import java.util.Locale;
+
+
+/**
+ * An error found by {@link URIReference#tryParse(String, java.nio.charset.Charset)
+ * URIReference.tryParse} when an input string is invalid as a URI reference.
+ *
+ * <p>
+ * An instance only holds the input string, the invalid component, the {@link
+ * ErrorCode} and the index in the input string. Unlike an exception thrown by
+ * {@link URIReference#parse(String, java.nio.charset.Charset) URIReference.parse},
+ * creating an instance captures no stack trace and formats no message. The message
+ * is formatted when {@link #getMessage()} is invoked for the first time.
+ * </p>
+ *
+ * @see ParseResult
+ *
+ * @author Hideki Ikeda
+ */
+public final class ParseError
+{
+    private final String input;
+    private final URIComponent component;
+    private final ErrorCode code;
+    private final int index;
+
+
+    /**
+     * The message, formatted on demand.
+     */
+    private String message;
+
+
+    ParseError(String input, URIComponent component, ErrorCode code, int index)
+    {
+        this.input     = input;
+        this.component = component;
+        this.code      = code;
+        this.index     = index;
+    }
+
+
+    /**
+     * Get the input string that was found invalid.
+     *
+     * @return
+     *         The input string.
+     */
+    public String getInput()
+    {
+        return input;
+    }
+
+
+    /**
+     * Get the component that was found invalid.
+     *
+     * @return
+     *         The invalid component.
+     */
+    public URIComponent getComponent()
+    {
+        return component;
+    }
+
+
+    /**
+     * Get the reason why the input string was found invalid.
+     *
+     * @return
+     *         The error code.
+     */
+    public ErrorCode getCode()
+    {
+        return code;
+    }
+
+
+    /**
+     * Get the index in the input string at which the input string was found
+     * invalid. See {@link ErrorPosition#getIndex()} for details.
+     *
+     * @return
+     *         The index in the input string.
+     */
+    public int getIndex()
+    {
+        return index;
+    }
+
+
+    /**
+     * Get the message describing the error. The message is formatted when this
+     * method is invoked for the first time.
+     *
+     * @return
+     *         The message describing the error.
+     */
+    public String getMessage()
+    {
+        // Racy single-check. The message is always the same.
+        String m = message;
+
+        if (m == null)
+        {
+            message = m = formatMessage();
+        }
+
+        return m;
+    }
+
+
+    private String formatMessage()
+    {
+        // The name of the component used in the message.
+        String name = component.name().toLowerCase(Locale.ROOT);
+
+        switch (code)
+        {
+            case INVALID_CHARACTER:
+                return String.format(
+                    "The %s in the input string \"%s\" has an invalid character \"%c\" at the index %d.",
+                    name, input, input.charAt(index), index);
+
+            case INCOMPLETE_PERCENT_ENCODING:
+                return String.format(
+                    "The percent symbol \"%%\" at the index %d in the %s in the input string " +
+                    "\"%s\" is not followed by two characters.", index, name, input);
+
+            case INVALID_HEX_DIGIT:
+                return String.format(
+                    "The percent symbol \"%%\" at the index %d in the %s in the input string " +
+                    "\"%s\" is not followed by two hex digits.", index, name, input);
+
+            case UNDECODABLE_BYTES:
+                return String.format(
+                    "Failed to decode the bytes represented by the percent-encoded values at " +
+                    "the index %d in the %s in the input string \"%s\".", index, name, input);
+
+            case INVALID_IP_LITERAL:
+                return String.format(
+                    "The IP-literal at the index %d in the input string \"%s\" is invalid.",
+                    index, input);
+
+            case INVALID_PORT_NUMBER:
+                return String.format(
+                    "The port at the index %d in the input string \"%s\" is invalid as a number.",
+                    index, input);
+
+            case LINE_TERMINATOR:
+                return String.format(
+                    "The %s in the input string \"%s\" has a line terminator at the index %d.",
+                    name, input, index);
+
+            default:
+                return String.format(
+                    "The %s in the input string \"%s\" has an empty segment at the index %d.",
+                    name, input, index);
+        }
+    }
+
+
+    @Override
+    public String toString()
+    {
+        return String.format("ParseError[component=%s, code=%s, index=%d]", component, code, index);
+    }
+}
@@ -0,0 +1,110 @@
+/*
+ * Copyright (C) 2024 Hideki Ikeda
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.czeal.rfc3986;
+
+
+/**
+ * The result of {@link URIReference#tryParse(String, java.nio.charset.Charset)
+ * URIReference.tryParse}, holding either the parsed {@link URIReference} or the
+ * {@link ParseError} describing why the input string is invalid.
+ *
+ * <pre>{@code
+ * ParseResult result = URIReference.tryParse("http://example.com:8a", StandardCharsets.UTF_8);
+ *
+ * if (result.isSuccess())
+ * {
+ *     URIReference uriRef = result.getURIReference();
+ * }
+ * else
+ * {
+ *     ParseError error = result.getError();
+ *
+ *     System.out.println(error.getComponent()); // "PORT"
+ *     System.out.println(error.getCode());      // "INVALID_CHARACTER"
+ *     System.out.println(error.getIndex());     // 20
+ * }
+ * }</pre>
+ *
+ * @author Hideki Ikeda
+ */
+public final class ParseResult
+{
+    private final URIReference uriReference;
+    private final ParseError error;
+
+
+    private ParseResult(URIReference uriReference, ParseError error)
+    {
+        this.uriReference = uriReference;
+        this.error        = error;
+    }
+
+
+    static ParseResult success(URIReference uriReference)
+    {
+        return new ParseResult(uriReference, null);
+    }
+
+
+    static ParseResult failure(ParseError error)
+    {
+        return new ParseResult(null, error);
+    }
+
+
+    /**
+     * Check if the input string has been parsed successfully.
+     *
+     * @return
+     *         {@code true} if the input string is a valid URI reference; otherwise,
+     *         {@code false}.
+     */
+    public boolean isSuccess()
+    {
+        return error == null;
+    }
+
+
+    /**
+     * Get the URI reference obtained by parsing the input string.
+     *
+     * @return
+     *         The URI reference, or {@code null} if the input string is invalid.
+     */
+    public URIReference getURIReference()
+    {
+        return uriReference;
+    }
+
+
+    /**
+     * Get the error describing why the input string is invalid.
+     *
+     * @return
+     *         The error, or {@code null} if the input string is valid.
+     */
+    public ParseError getError()
+    {
+        return error;
+    }
+
+
+    @Override
+    public String toString()
+    {
+        return isSuccess() ? "ParseResult[" + uriReference + "]" : "ParseResult[" + error + "]";
+    }
+}
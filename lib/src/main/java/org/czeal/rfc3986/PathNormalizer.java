@@ -16,6 +16,8 @@
 package org.czeal.rfc3986;
 
 
+import static org.czeal.rfc3986.Utils.dropLastSegment;
+import static org.czeal.rfc3986.Utils.isDotSegment;
 import static org.czeal.rfc3986.Utils.removeDotSegments;
 import java.nio.charset.Charset;
 
@@ -51,7 +53,8 @@ class PathNormalizer extends PercentEncodedStringNormalizer
      *         Whether the URI reference containing the path has an authority or not.
      *
      * @return
-     *         A string value representing the normalized path.
+     *         A string value representing the normalized path, or {@code path}
+     *         itself if nothing changes.
      *
      * @see <a href="https://www.rfc-editor.org/rfc/rfc3986#section-6">RFC 3986,
      *      Section 6: Normalization and Comparison</a>
@@ -80,7 +83,7 @@ class PathNormalizer extends PercentEncodedStringNormalizer
             return path;
         }
 
-        // 1. Resolve the path based on the following requirement.
+        // Normalize the path and resolve it based on the following requirement.
         //
         //   RFC 3986, 6.2.2.3. Path Segment Normalization
         //
@@ -93,11 +96,140 @@ class PathNormalizer extends PercentEncodedStringNormalizer
         //     when they occur in non-relative paths. URI normalizers
         //     should remove dot-segments by applying the remove_dot_segments
         //     algorithm to the path, as described in Section 5.2.4.
+        //
+        // The path is normalized before the dot segments are removed, so that
+        // a segment like "%2E%2E" is removed too and normalizing the result
+        // again changes nothing. If neither step changes anything, the original
+        // path value is returned.
+        return removeDotSegments(normalizeString(path, charset));
+    }
+
+
+    /**
+     * Normalizes the {@code path} component in a range of an input, which has
+     * already been validated, and appends the normalized path to an output builder.
+     * The result is the same as {@link #normalize(String, Charset, boolean)}, but
+     * the dot segments are removed while the segments are normalized one by one
+     * into the output builder.
+     *
+     * <p>
+     * The segments can be normalized separately because a percent-encoded value
+     * never spans a slash, and normalizing a segment neither adds nor removes
+     * a slash. Each segment is normalized before it is checked, so a segment
+     * that becomes "." or ".." by decoding percent-encoded values is removed,
+     * as in the case of {@link #normalize(String, Charset, boolean)}.
+     * </p>
+     *
+     * @param input
+     *         The input containing the path.
+     *
+     * @param start
+     *         The start index (inclusive) of the path.
+     *
+     * @param end
+     *         The end index (exclusive) of the path.
+     *
+     * @param charset
+     *         The charset used for the path.
+     *
+     * @param hasAuthority
+     *         Whether the URI reference containing the path has an authority or not.
+     *
+     * @param outputBuilder
+     *         The output builder to which the normalized path is appended.
+     */
+    void append(
+        CharSequence input, int start, int end, Charset charset, boolean hasAuthority,
+        StringBuilder outputBuilder)
+    {
+        if (start == end)
+        {
+            // An empty path is normalized to "/" if the URI has an authority.
+            // See normalize(String, Charset, boolean) for details.
+            if (hasAuthority)
+            {
+                outputBuilder.append('/');
+            }
+
+            return;
+        }
+
+        // The start index of the path in the output builder. The output before
+        // the index must not be touched when the last segment is dropped.
+        int base = outputBuilder.length();
+
+        // RFC 3986, 5.2.4. Remove Dot Segments. The input buffer is represented
+        // by the index, and the output buffer is the part of the output builder
+        // after the base. Each segment is moved to the output buffer first, and
+        // removed again if it is a dot segment after normalization.
+        int index = start;
+
+        while (index < end)
+        {
+            // The first path segment in the input, including the initial "/"
+            // character (if any).
+            int segmentEnd   = indexOfSlash(input, index + 1, end);
+            boolean slash    = input.charAt(index) == '/';
+            boolean last     = segmentEnd == end;
+            int segmentStart = outputBuilder.length();
+
+            // Move the segment to the end of the output, normalizing it.
+            append(input, index, segmentEnd, charset, outputBuilder);
+
+            index = segmentEnd;
+
+            // The start index of the normalized segment without the "/".
+            int valueStart = slash ? segmentStart + 1 : segmentStart;
+
+            if (!isDotSegment(outputBuilder, valueStart, outputBuilder.length()))
+            {
+                continue;
+            }
+
+            boolean twoDots = outputBuilder.length() - valueStart == 2;
+
+            // Remove the dot segment from the output.
+            outputBuilder.setLength(segmentStart);
+
+            if (!slash)
+            {
+                // If the input begins with a prefix of "../" or "./", then remove
+                // that prefix from the input. If the input consists only of "."
+                // or "..", then remove that from the input.
+                index = last ? end : segmentEnd + 1;
+                continue;
+            }
+
+            // If the input begins with a prefix of "/../" or "/..", where ".."
+            // is a complete path segment, then replace that prefix with "/" in
+            // the input and remove the last segment and its preceding "/" (if
+            // any) from the output. A prefix of "/./" or "/." is replaced with
+            // "/" in the input without removing anything from the output.
+            if (twoDots)
+            {
+                dropLastSegment(outputBuilder, base);
+            }
+
+            if (last)
+            {
+                // The "/" replacing the prefix is the last segment.
+                outputBuilder.append('/');
+            }
+        }
+    }
 
-        String dotRemoved = removeDotSegments(path);
 
-        // 2. Normalize the resolved path.
-        return process(dotRemoved, charset, new StringBuilder());
+    private static int indexOfSlash(CharSequence input, int start, int end)
+    {
+        for (int i = start; i < end; i++)
+        {
+            if (input.charAt(i) == '/')
+            {
+                return i;
+            }
+        }
+
+        return end;
     }
 
 
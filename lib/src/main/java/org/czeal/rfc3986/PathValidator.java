@@ -16,6 +16,10 @@
 package org.czeal.rfc3986;
 
 
+import static org.czeal.rfc3986.URIReferenceChecker.VALID;
+import static org.czeal.rfc3986.URIReferenceChecker.code;
+import static org.czeal.rfc3986.URIReferenceChecker.error;
+import static org.czeal.rfc3986.URIReferenceChecker.index;
 import static org.czeal.rfc3986.Utils.newIAE;
 import java.nio.charset.Charset;
 
@@ -76,6 +80,13 @@ import java.nio.charset.Charset;
  */
 class PathValidator
 {
+    /**
+     * The characters allowed in the segments, including the slashes separating
+     * them.
+     */
+    private static final int SEGMENTS = CharacterClasses.SEGMENT | CharacterClasses.SLASH;
+
+
     /**
      * Validates a path value.
      *
@@ -127,166 +138,267 @@ class PathValidator
         //   path-empty    = 0<pchar>
         //
 
-        // If the authority is contained in the URI reference.
-        if (hasAuthority)
+        // If the authority is contained in the URI reference, null is allowed.
+        if (hasAuthority && path == null)
         {
-            validatePathAbempty(path, charset);
             return;
         }
 
-        // Validate the value as a "path-abempty".
-        try
-        {
-            validatePathEmpty(path);
-            return;
-        }
-        catch (Throwable t)
-        {
-        }
+        // Ensure the path is not null.
+        ensurePathNotNull(path);
 
-        // Validate the value as a "path-absolute".
-        try
-        {
-            validatePathAbsolute(path, charset);
-            return;
-        }
-        catch (Throwable t)
-        {
-        }
+        // Validate the whole path value.
+        validate(path, 0, path.length(), charset, relativeReference, hasAuthority);
+    }
 
-        // If the URI reference is a relative reference, validate the value as a
-        // "path-rootless"; otherwise, validate the value as a "path-noscheme".
-        if (relativeReference)
-        {
-            validatePathNoscheme(path, charset);
-        }
-        else
+
+    /**
+     * Validates a path value in a range of an input. The path is checked in place
+     * by {@link #check(CharSequence, int, int, Charset, boolean, boolean)}, and
+     * a substring of the invalid segment is created only to report an error.
+     *
+     * @param value
+     *         An input containing the path value.
+     *
+     * @param start
+     *         The start index (inclusive) of the path value.
+     *
+     * @param end
+     *         The end index (exclusive) of the path value.
+     *
+     * @param charset
+     *         The charset used for percent-encoding the path value.
+     *
+     * @param relativeReference
+     *         Whether or not the URI reference is a relative reference.
+     *
+     * @param hasAuthority
+     *         Whether or not the URI reference has an authority.
+     */
+    void validate(
+        CharSequence value, int start, int end, Charset charset,
+        boolean relativeReference, boolean hasAuthority)
+    {
+        long result = check(value, start, end, charset, relativeReference, hasAuthority);
+
+        if (result != VALID)
         {
-            validatePathRootless(path, charset);
+            throw newException(value, start, end, result, hasAuthority);
         }
     }
 
 
-    private void validatePathAbempty(String path, Charset charset)
+    /**
+     * Checks a path value in a range of an input without throwing an exception.
+     *
+     * @param value
+     *         An input containing the path value.
+     *
+     * @param start
+     *         The start index (inclusive) of the path value.
+     *
+     * @param end
+     *         The end index (exclusive) of the path value.
+     *
+     * @param charset
+     *         The charset used for percent-encoding the path value.
+     *
+     * @param relativeReference
+     *         Whether or not the URI reference is a relative reference.
+     *
+     * @param hasAuthority
+     *         Whether or not the URI reference has an authority.
+     *
+     * @return
+     *         {@link URIReferenceChecker#VALID} if the path value is valid;
+     *         otherwise, the result packing the error code, the component and
+     *         the index of the error in the input.
+     */
+    long check(
+        CharSequence value, int start, int end, Charset charset,
+        boolean relativeReference, boolean hasAuthority)
     {
-        if (path == null || path.isEmpty())
+        // If the path is empty, the path is a "path-empty" or an empty "path-abempty".
+        if (start == end)
         {
-            // null or an empty value is allowed.
-            return;
+            return VALID;
         }
 
-        // Ensure the path starts with a slash.
-        ensurePathStartsWithSlash(path);
-
-        if (path.length() == 1)
+        // If the authority is contained in the URI reference, check the value
+        // as a "path-abempty".
+        if (hasAuthority)
         {
-            // The path only contains the first slash.
-            return;
+            return checkPathAbempty(value, start, end, charset);
         }
 
-        // The path segments.
-        String[] segments = path.substring(1).split("/", -1);
-
-        // Validate each segment.
-        for (int i = 0; i < segments.length; i++)
+        // If the path starts with a slash, check the value as a "path-absolute".
+        if (value.charAt(start) == '/')
         {
-            new SegmentValidator().validate(segments[i], charset);
+            return checkPathAbsolute(value, start, end, charset);
         }
+
+        // If the URI reference is a relative reference, check the value as a
+        // "path-noscheme"; otherwise, check the value as a "path-rootless".
+        return checkPathRootless(value, start, end, charset,
+            relativeReference ? new SegmentNzNcValidator() : new SegmentNzValidator());
     }
 
 
-    private void validatePathAbsolute(String path, Charset charset)
+    /**
+     * Creates an exception reporting the details of an error found by {@link
+     * #check(CharSequence, int, int, Charset, boolean, boolean)}.
+     *
+     * @param value
+     *         An input containing the invalid path value.
+     *
+     * @param start
+     *         The start index (inclusive) of the path value.
+     *
+     * @param end
+     *         The end index (exclusive) of the path value.
+     *
+     * @param result
+     *         The result of the check.
+     *
+     * @param hasAuthority
+     *         Whether or not the URI reference has an authority.
+     *
+     * @return
+     *         The exception to throw.
+     */
+    InvalidURIReferenceException newException(
+        CharSequence value, int start, int end, long result, boolean hasAuthority)
     {
-        // Ensure the path is not empty.
-        ensurePathNotEmpty(path);
+        int index = index(result);
 
-        // Ensure the path starts with a slash.
-        ensurePathStartsWithSlash(path);
+        if (code(result) == ErrorCode.EMPTY_SEGMENT)
+        {
+            // The first segment of a path-absolute is empty.
+            return newIAE(URIComponent.PATH, ErrorCode.EMPTY_SEGMENT, index,
+                "The path segment value must not be empty.");
+        }
 
-        if (path.length() == 1)
+        if (hasAuthority && index == start)
         {
-            // The path only contains the first slash.
-            return;
+            // The path-abempty doesn't start with a slash.
+            return newIAE(URIComponent.PATH, ErrorCode.INVALID_CHARACTER, index,
+                "The path must start with a slash.");
         }
 
-        // Split the path into segments.
-        String[] segments = path.substring(1).split("/", -1);
+        // The segment containing the error.
+        int segmentStart = index;
+
+        while (segmentStart > start && value.charAt(segmentStart - 1) != '/')
+        {
+            segmentStart--;
+        }
 
-        // Validate the first element.
-        new SegmentNzValidator().validate(segments[0], charset);
+        int segmentEnd = index;
 
-        // Validate remaining segments.
-        for (int i = 1; i < segments.length; i++)
+        while (segmentEnd < end && value.charAt(segmentEnd) != '/')
         {
-            new SegmentValidator().validate(segments[i], charset);
+            segmentEnd++;
         }
+
+        // Let the segment validator report the details.
+        return new SegmentValidator().newException(value, segmentStart, segmentEnd, result);
     }
 
 
-    private void validatePathNoscheme(String path, Charset charset)
+    private long checkPathAbempty(CharSequence path, int start, int end, Charset charset)
     {
-        // Ensure the path is not empty.
-        ensurePathNotEmpty(path);
+        // Ensure the path starts with a slash.
+        if (path.charAt(start) != '/')
+        {
+            return error(ErrorCode.INVALID_CHARACTER, URIComponent.PATH, start);
+        }
 
-        // Split the path into segments.
-        String[] segments = path.split("/", -1);
+        // Check the segments.
+        return checkSegments(path, start, end, charset);
+    }
 
-        // Validate the first element.
-        new SegmentNzNcValidator().validate(segments[0], charset);
 
-        // Validate the remaining segments.
-        for (int i = 1; i < segments.length; i++)
+    private long checkPathAbsolute(CharSequence path, int start, int end, Charset charset)
+    {
+        // Ensure the first segment is not empty if the path contains more than
+        // the first slash.
+        if (end - start > 1 && path.charAt(start + 1) == '/')
         {
-            new SegmentValidator().validate(segments[i], charset);
+            return error(ErrorCode.EMPTY_SEGMENT, URIComponent.PATH, start + 1);
         }
+
+        // Check the segments.
+        return checkSegments(path, start, end, charset);
     }
 
 
-    private void validatePathRootless(String path, Charset charset)
+    private long checkPathRootless(
+        CharSequence path, int start, int end, Charset charset, SegmentValidator validator)
     {
-        // Ensure the path is not empty.
-        ensurePathNotEmpty(path);
+        // The end index of the first segment, which is not empty.
+        int index = start;
 
-        // Split the path into segments.
-        String[] segments = path.split("/", -1);
+        while (index < end && path.charAt(index) != '/')
+        {
+            index++;
+        }
 
-        // Validate the first element.
-        new SegmentNzValidator().validate(segments[0], charset);
+        // Check the first segment.
+        long result = validator.check(path, start, index, charset);
 
-        // Validate the remaining segments.
-        for (int i = 1; i < segments.length; i++)
+        if (result != VALID)
         {
-            new SegmentValidator().validate(segments[i], charset);
+            return result;
         }
+
+        // Check the remaining segments.
+        return checkSegments(path, index, end, charset);
     }
 
 
-    private void validatePathEmpty(String path)
+    private long checkSegments(CharSequence path, int start, int end, Charset charset)
     {
-        if (!path.isEmpty())
+        // If all the segments consist of the characters allowed as non-percent
+        // values, they are valid.
+        if (CharacterClasses.indexOfNot(path, start, end, SEGMENTS) == end)
         {
-            // The path must not be empty.
-            throw newIAE("The path must be empty");
+            return VALID;
         }
-    }
 
+        SegmentValidator validator = new SegmentValidator();
 
-    private void ensurePathNotEmpty(String path)
-    {
-        if (path == null || path.isEmpty())
+        // Check each segment after the slash at the index until the end of the
+        // path. A percent-encoded value is never continued over a slash.
+        for (int index = start; index < end; )
         {
-            // The path must not be empty.
-            throw newIAE("The path must not be empty.");
+            // The end index of the segment.
+            int segmentEnd = index + 1;
+
+            while (segmentEnd < end && path.charAt(segmentEnd) != '/')
+            {
+                segmentEnd++;
+            }
+
+            long result = validator.check(path, index + 1, segmentEnd, charset);
+
+            if (result != VALID)
+            {
+                return result;
+            }
+
+            index = segmentEnd;
         }
+
+        return VALID;
     }
 
 
-    private void ensurePathStartsWithSlash(String path)
+    private void ensurePathNotNull(String path)
     {
-        if (!path.startsWith("/"))
+        if (path == null)
         {
-            // The path-abempty must start with a slash.
-            throw newIAE("The path must start with a slash.");
+            // The path must not be empty.
+            throw newIAE("The path must not be empty.");
         }
     }
 }
@@ -109,7 +109,7 @@ class PercentDecoder extends PercentEncodedStringProcessor
 
     @Override
     protected void onNonPercent(
-        String input, StringBuilder outputBuilder, char c, int index)
+        CharSequence input, StringBuilder outputBuilder, char c, int index)
     {
         outputBuilder.append(c);
     }
@@ -117,7 +117,7 @@ class PercentDecoder extends PercentEncodedStringProcessor
 
     @Override
     protected IllegalArgumentException onMalformedPercentEncodedValue(
-        String input, int index)
+        CharSequence input, int index)
     {
         return newIAE(
             "The percent symbol \"%%\" at the index %d in the input value \"%s\" " +
@@ -127,7 +127,7 @@ class PercentDecoder extends PercentEncodedStringProcessor
 
     @Override
     protected IllegalArgumentException onInvalidHexDigit(
-        String input, char hexDigit, int index)
+        CharSequence input, char hexDigit, int index)
     {
         return newIAE(
             "The character \"%s\" at the index %d in the value \"%s\" is invalid " +
@@ -136,7 +136,7 @@ class PercentDecoder extends PercentEncodedStringProcessor
 
 
     @Override
-    protected IllegalArgumentException onDecodeFailed(String input, Info info)
+    protected IllegalArgumentException onDecodeFailed(CharSequence input, Info info)
     {
         return newIAE(
             "Failed to decode \"%s\" in the value \"%s\".", info.getString(), input);
@@ -59,6 +59,79 @@ import java.nio.charset.Charset;
  */
 abstract class PercentEncodedStringNormalizer extends PercentEncodedStringProcessor
 {
+    /**
+     * Normalizes a value, which has already been validated. If the value is
+     * already in the normalized form, the value itself is returned, so that the
+     * caller can tell it by identity and no new string is created.
+     *
+     * @param value
+     *         The value to normalize.
+     *
+     * @param charset
+     *         The charset used for the value.
+     *
+     * @return
+     *         The normalized value, or {@code value} itself if nothing changes.
+     */
+    String normalizeString(String value, Charset charset)
+    {
+        // If the value contains neither percent-encoded values nor characters
+        // to convert to lower-case, nothing changes.
+        if (!needsProcessing(value))
+        {
+            return value;
+        }
+
+        // Normalize the value.
+        StringBuilder outputBuilder = new StringBuilder(value.length());
+        processRange(value, 0, value.length(), charset, outputBuilder);
+
+        // Return the original value if the normalized value is identical to it.
+        return value.contentEquals(outputBuilder) ? value : outputBuilder.toString();
+    }
+
+
+    private boolean needsProcessing(String value)
+    {
+        for (int i = 0; i < value.length(); i++)
+        {
+            char c = value.charAt(i);
+
+            if (c == '%' || (toLowerCase() && Character.toLowerCase(c) != c))
+            {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+
+    /**
+     * Normalizes a value in a range of an input, which has already been validated,
+     * and appends the normalized value to an output builder.
+     *
+     * @param input
+     *         The input containing the value to normalize.
+     *
+     * @param start
+     *         The start index (inclusive) of the value.
+     *
+     * @param end
+     *         The end index (exclusive) of the value.
+     *
+     * @param charset
+     *         The charset used for percent-encoding the value.
+     *
+     * @param outputBuilder
+     *         The output builder to which the normalized value is appended.
+     */
+    void append(CharSequence input, int start, int end, Charset charset, StringBuilder outputBuilder)
+    {
+        processRange(input, start, end, charset, outputBuilder);
+    }
+
+
     @Override
     protected void onDecoded(
         Charset charset, StringBuilder outputBuilder, CharBuffer buffer)
@@ -84,7 +157,7 @@ abstract class PercentEncodedStringNormalizer extends PercentEncodedStringProces
 
     @Override
     protected void onNonPercent(
-        String input, StringBuilder outputBuilder, char c, int index)
+        CharSequence input, StringBuilder outputBuilder, char c, int index)
     {
         // Convert the value to lower-case if it's required; otherwise, use the
         // value as-is.
@@ -97,7 +170,7 @@ abstract class PercentEncodedStringNormalizer extends PercentEncodedStringProces
 
     @Override
     protected IllegalArgumentException onMalformedPercentEncodedValue(
-        String input, int index)
+        CharSequence input, int index)
     {
         // This won't happen.
         throw newISE("onMalformedPercentEncodedValue() is not supposed to be called.");
@@ -106,7 +179,7 @@ abstract class PercentEncodedStringNormalizer extends PercentEncodedStringProces
 
     @Override
     protected IllegalArgumentException onInvalidHexDigit(
-        String input, char hexDigit, int index)
+        CharSequence input, char hexDigit, int index)
     {
         // This won't happen.
         throw newISE("onInvalidHexDigit() is not supposed to be called.");
@@ -114,7 +187,7 @@ abstract class PercentEncodedStringNormalizer extends PercentEncodedStringProces
 
 
     @Override
-    protected IllegalArgumentException onDecodeFailed(String input, Info info)
+    protected IllegalArgumentException onDecodeFailed(CharSequence input, Info info)
     {
         // This won't happen.
         throw newISE("onDecodeFailed(input) is not supposed to be called.");
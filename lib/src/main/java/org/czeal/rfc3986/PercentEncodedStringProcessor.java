@@ -22,6 +22,7 @@ import java.nio.ByteBuffer;
 import java.nio.CharBuffer;
 import java.nio.charset.CharacterCodingException;
 import java.nio.charset.Charset;
+import java.nio.charset.CharsetDecoder;
 
 
 /**
@@ -42,20 +43,31 @@ abstract class PercentEncodedStringProcessor
     {
         private StringBuffer          sb = new StringBuffer();
         private ByteArrayOutputStream bs = new ByteArrayOutputStream();
+        private int                   index = -1;
 
 
         /**
          * Saves the given information.
          *
-         * @param percentEncodedValue
-         *         The percent-encoded value.
+         * @param input
+         *         The input containing the percent-encoded value.
+         *
+         * @param indexOfPercentEncodedValue
+         *         The index of the percent-encoded value in the input.
          *
          * @param byteForPercentEncodedValue
          *         The byte represented by the percent-encoded value.
          */
-        void add(String percentEncodedValue, byte byteForPercentEncodedValue)
+        void add(CharSequence input, int indexOfPercentEncodedValue,
+                 byte byteForPercentEncodedValue)
         {
-            sb.append(percentEncodedValue);
+            // Remember the index of the first percent-encoded value.
+            if (index == -1)
+            {
+                index = indexOfPercentEncodedValue;
+            }
+
+            sb.append(input, indexOfPercentEncodedValue, indexOfPercentEncodedValue + 3);
             bs.write(byteForPercentEncodedValue);
         }
 
@@ -84,6 +96,19 @@ abstract class PercentEncodedStringProcessor
         }
 
 
+        /**
+         * Returns the index of the first percent-encoded value in the input string.
+         *
+         * @return
+         *         The index of the first percent-encoded value, or {@code -1} if
+         *         no percent-encoded value has been saved.
+         */
+        int getIndex()
+        {
+            return index;
+        }
+
+
         /**
          * Resets the internal information.
          */
@@ -91,6 +116,7 @@ abstract class PercentEncodedStringProcessor
         {
             sb.setLength(0);
             bs.reset();
+            index = -1;
         }
     }
 
@@ -109,8 +135,8 @@ abstract class PercentEncodedStringProcessor
      *         The output string builder . This property is expected to be populated
      *         in either/both {@link PercentEncodedStringProcessor#onDecoded(Charset, StringBuilder, CharBuffer)
      *         onDecoded(Charset, StringBuilder, CharBuffer)} method or/and {@link
-     *         PercentEncodedStringProcessor#onNonPercent(String, StringBuilder, char, int)
-     *         onNonPercent(String, StringBuilder, char, int)} method in subclasses.
+     *         PercentEncodedStringProcessor#onNonPercent(CharSequence, StringBuilder, char, int)
+     *         onNonPercent(CharSequence, StringBuilder, char, int)} method in subclasses.
      *
      * @return
      *         A string built by {@code outputBuilder} if {@code outputBuilder}
@@ -118,11 +144,79 @@ abstract class PercentEncodedStringProcessor
      */
     protected String process(String input, Charset charset, StringBuilder outputBuilder)
     {
+        return process(input, 0, input.length(), charset, outputBuilder);
+    }
+
+
+    /**
+     * Processes a range of an input that could contain percent-encoded values and
+     * outputs a string if necessary. The range is processed in place through a
+     * read-only view, and the methods invoked for the characters receive the view
+     * and indexes relative to the start of the range.
+     *
+     * @param input
+     *         The input containing the value to process.
+     *
+     * @param start
+     *         The start index (inclusive) of the value.
+     *
+     * @param end
+     *         The end index (exclusive) of the value.
+     *
+     * @param charset
+     *         The charset used in the input.
+     *
+     * @param outputBuilder
+     *         The output string builder, or {@code null} if no output is required.
+     *
+     * @return
+     *         A string built by {@code outputBuilder} if {@code outputBuilder}
+     *         is specified; otherwise, {@code null}.
+     */
+    protected String process(
+        CharSequence input, int start, int end, Charset charset, StringBuilder outputBuilder)
+    {
+        // Process the value.
+        processRange(input, start, end, charset, outputBuilder);
+
+        // Build the output string if the output builder is specified.
+        return outputBuilder == null ? null : outputBuilder.toString();
+    }
+
+
+    /**
+     * Processes a range of an input in the same way as {@link #process(CharSequence,
+     * int, int, Charset, StringBuilder)} does, but doesn't build a string from
+     * the output builder. This is used to write the output of several ranges into
+     * a single output builder.
+     *
+     * @param input
+     *         The input containing the value to process.
+     *
+     * @param start
+     *         The start index (inclusive) of the value.
+     *
+     * @param end
+     *         The end index (exclusive) of the value.
+     *
+     * @param charset
+     *         The charset used in the input.
+     *
+     * @param outputBuilder
+     *         The output string builder, or {@code null} if no output is required.
+     */
+    protected void processRange(
+        CharSequence input, int start, int end, Charset charset, StringBuilder outputBuilder)
+    {
+        // The value to process. A part of the input is viewed without being copied.
+        CharSequence value = (start == 0 && end == input.length())
+                           ? input : CharBuffer.wrap(input, start, end);
+
         // The current index.
         int currentIndex = 0;
 
         // The last index.
-        int lastIndex = input.length() - 1;
+        int lastIndex = value.length() - 1;
 
         // The stream to store bytes represented by percent-encoded values.
         Info info = new Info();
@@ -130,30 +224,27 @@ abstract class PercentEncodedStringProcessor
         while (currentIndex <= lastIndex)
         {
             // The character at the current index.
-            char c = input.charAt(currentIndex);
+            char c = value.charAt(currentIndex);
 
             if (c == '%')
             {
                 // If the character is "%", which indicates a percent-encoded
                 // value, process the percent-encoded value.
-                onPercent(input, charset, outputBuilder, currentIndex, lastIndex, info);
+                onPercent(value, charset, outputBuilder, currentIndex, lastIndex, info);
                 currentIndex += 3;
             }
             else
             {
                 // If the character is not "%", process the character.
-                onNonPercent(input, outputBuilder, c, currentIndex);
+                onNonPercent(value, outputBuilder, c, currentIndex);
                 currentIndex++;
             }
         }
-
-        // Build the output string if the output builder is specified.
-        return outputBuilder == null ? null : outputBuilder.toString();
     }
 
 
     private void onPercent(
-        String input, Charset charset, StringBuilder outputBuilder, int currentIndex,
+        CharSequence input, Charset charset, StringBuilder outputBuilder, int currentIndex,
         int lastIndex, Info info)
     {
         // Ensure there are characters at indexes "currentIndex + 1" and
@@ -163,15 +254,12 @@ abstract class PercentEncodedStringProcessor
             throw onMalformedPercentEncodedValue(input, currentIndex);
         }
 
-        // Extract the target percent-encoded value "%XX" from the input string.
-        String percentEncodedValue = input.substring(currentIndex, currentIndex + 3);
-
         // Convert the higher and lower hex digits of the percent-encoded value
         // to a byte.
         byte b = toByte(input, currentIndex + 1, currentIndex + 2);
 
         // Save the percent-encoded value and the bytes.
-        info.add(percentEncodedValue, b);
+        info.add(input, currentIndex, b);
 
         // If the next index (currentIndex + 3) exceeds the last index  or the
         // character at the next index is not '%'.
@@ -187,7 +275,7 @@ abstract class PercentEncodedStringProcessor
     }
 
 
-    private byte toByte(String input, int higherHexDigitIndex, int lowerHexDigitIndex)
+    private byte toByte(CharSequence input, int higherHexDigitIndex, int lowerHexDigitIndex)
     {
         // The higher hex digit.
         char higherHexDigit = input.charAt(higherHexDigitIndex);
@@ -210,7 +298,7 @@ abstract class PercentEncodedStringProcessor
     }
 
 
-    private int toIntOfHexDigit(String input, int index, char hexDigit)
+    private int toIntOfHexDigit(CharSequence input, int index, char hexDigit)
     {
         // Convert the hex digit to an int value.
         int intOfHexDigit = fromHexDigit(hexDigit);
@@ -227,16 +315,18 @@ abstract class PercentEncodedStringProcessor
 
 
     private void decode(
-        String input, Charset charset, StringBuilder outputBuilder, Info info)
+        CharSequence input, Charset charset, StringBuilder outputBuilder, Info info)
     {
         // The buffer to store decoded results.
         CharBuffer docodedCharBuffer;
 
+        // Borrow a decoder for the charset.
+        CharsetDecoder decoder = CharsetCoderPool.acquireDecoder(charset);
+
         try
         {
             // Decode the bytes stored in the byte stream.
-            docodedCharBuffer = charset.newDecoder()
-                .decode( ByteBuffer.wrap(info.getByteArray()) );
+            docodedCharBuffer = decoder.decode( ByteBuffer.wrap(info.getByteArray()) );
         }
         catch (CharacterCodingException e)
         {
@@ -244,6 +334,11 @@ abstract class PercentEncodedStringProcessor
             // values.
             throw onDecodeFailed(input, info);
         }
+        finally
+        {
+            // Return the decoder.
+            CharsetCoderPool.release(charset, decoder);
+        }
 
         // Process when the percent-encoded values have been decoded.
         onDecoded(charset, outputBuilder, docodedCharBuffer);
@@ -263,7 +358,7 @@ abstract class PercentEncodedStringProcessor
      *         An {@code IllegalArgumentException} to be thrown.
      */
     protected abstract IllegalArgumentException onMalformedPercentEncodedValue(
-        String input, int index);
+        CharSequence input, int index);
 
 
     /**
@@ -282,7 +377,7 @@ abstract class PercentEncodedStringProcessor
      *         An {@code IllegalArgumentException} to be thrown.
      */
     protected abstract IllegalArgumentException onInvalidHexDigit(
-        String input, char hexDigit, int index);
+        CharSequence input, char hexDigit, int index);
 
 
     /**
@@ -297,7 +392,7 @@ abstract class PercentEncodedStringProcessor
      * @return
      *         An {@code IllegalArgumentException} to be thrown.
      */
-    protected abstract IllegalArgumentException onDecodeFailed(String input, Info info);
+    protected abstract IllegalArgumentException onDecodeFailed(CharSequence input, Info info);
 
 
     /**
@@ -333,5 +428,5 @@ abstract class PercentEncodedStringProcessor
      *         The index of the non-percent character in the input.
      */
     protected abstract void onNonPercent(
-        String input, StringBuilder outputBuilder, char c, int index);
+        CharSequence input, StringBuilder outputBuilder, char c, int index);
 }
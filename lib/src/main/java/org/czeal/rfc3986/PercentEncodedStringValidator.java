@@ -16,9 +16,18 @@
 package org.czeal.rfc3986;
 
 
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.czeal.rfc3986.URIReferenceChecker.VALID;
+import static org.czeal.rfc3986.URIReferenceChecker.code;
+import static org.czeal.rfc3986.URIReferenceChecker.error;
+import static org.czeal.rfc3986.URIReferenceChecker.index;
+import static org.czeal.rfc3986.Utils.fromHexDigit;
 import static org.czeal.rfc3986.Utils.newIAE;
+import java.nio.ByteBuffer;
 import java.nio.CharBuffer;
 import java.nio.charset.Charset;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CoderResult;
 
 
 /**
@@ -26,68 +35,197 @@ import java.nio.charset.Charset;
  * <i>NOTE: This class is intended for internal use only.</i>
  * </p>
  *
- * An abstract class for validating percent-encoded strings.
+ * An abstract class for validating percent-encoded strings. A value is checked
+ * by {@link #check(CharSequence, int, int, Charset)} without throwing an exception,
+ * and an exception is created from the result of the check only if the value is
+ * invalid.
  *
  * @author Hideki Ikeda
  */
-abstract class PercentEncodedStringValidator extends PercentEncodedStringProcessor
+abstract class PercentEncodedStringValidator
 {
     protected final String name;
+    protected final URIComponent component;
+    protected final int mask;
 
 
-    protected PercentEncodedStringValidator(String name)
+    /**
+     * Constructor.
+     *
+     * @param name
+     *         The name of the value used in error messages.
+     *
+     * @param component
+     *         The component the value belongs to, reported by exceptions.
+     *
+     * @param mask
+     *         The mask of {@link CharacterClasses} representing the characters
+     *         allowed as non-percent values.
+     */
+    protected PercentEncodedStringValidator(String name, URIComponent component, int mask)
     {
-        this.name = name;
+        this.name      = name;
+        this.component = component;
+        this.mask      = mask;
     }
 
 
-    @Override
-    protected void onDecoded(
-        Charset charset, StringBuilder outputBuilder, CharBuffer buffer)
+    /**
+     * Validates a value.
+     *
+     * @param input
+     *         The value to validate.
+     *
+     * @param charset
+     *         The charset used for percent-encoding the value.
+     *
+     * @throws IllegalArgumentException
+     *         If the value is invalid.
+     */
+    protected void validateValue(String input, Charset charset)
     {
-        // Do nothing.
+        validateValue(input, 0, input.length(), charset);
     }
 
 
-    @Override
-    protected void onNonPercent(
-        String input, StringBuilder outputBuilder, char c, int index)
+    /**
+     * Validates a value in a range of an input. The range is checked in place
+     * without creating a substring, and a string of the value is created only
+     * to report an error.
+     *
+     * @param input
+     *         The input containing the value to validate.
+     *
+     * @param start
+     *         The start index (inclusive) of the value.
+     *
+     * @param end
+     *         The end index (exclusive) of the value.
+     *
+     * @param charset
+     *         The charset used for percent-encoding the value.
+     *
+     * @throws IllegalArgumentException
+     *         If the value is invalid.
+     */
+    protected void validateValue(CharSequence input, int start, int end, Charset charset)
     {
-        if (!isValidOnNonPercent(c))
+        long result = check(input, start, end, charset);
+
+        if (result != VALID)
         {
-            throw newIAE(
-                "The %s value \"%s\" has an invalid character \"%s\" at the index %d.",
-                name, input, c, index);
+            throw newException(input, start, end, result);
         }
     }
 
 
-    @Override
-    protected IllegalArgumentException onMalformedPercentEncodedValue(
-        String input, int index)
+    /**
+     * Checks a value in a range of an input without throwing an exception. The
+     * value is checked against the mask in a single loop first and checked
+     * character by character only if it contains a percent symbol or an invalid
+     * character.
+     *
+     * @param input
+     *         The input containing the value to check.
+     *
+     * @param start
+     *         The start index (inclusive) of the value.
+     *
+     * @param end
+     *         The end index (exclusive) of the value.
+     *
+     * @param charset
+     *         The charset used for percent-encoding the value.
+     *
+     * @return
+     *         {@link URIReferenceChecker#VALID} if the value is valid; otherwise,
+     *         the result packing the error code, the component and the index of
+     *         the error in the input. The index of an invalid percent-encoded
+     *         value is the index of its percent symbol, and the index of bytes
+     *         that can't be decoded is the index of the first percent symbol of
+     *         the run of percent-encoded values representing them.
+     */
+    long check(CharSequence input, int start, int end, Charset charset)
     {
-        throw newIAE(
-            "The percent symbol \"%%\" at the index %d in the %s value \"%s\" is " +
-            "not followed by two characters.", index, name, input);
-    }
+        // If all the characters are allowed as non-percent values, the value is
+        // valid.
+        if (CharacterClasses.indexOfNot(input, start, end, mask) == end)
+        {
+            return VALID;
+        }
 
+        // Find the index of the error. If the charset is UTF-8, check the value
+        // without decoding the percent-encoded values.
+        int index = UTF_8.equals(charset)
+                  ? PercentEncodedUtf8Validator.indexOfInvalid(input, start, end, mask)
+                  : indexOfInvalid(input, start, end, charset);
 
-    @Override
-    protected IllegalArgumentException onInvalidHexDigit(
-        String input, char hexDigit, int index)
-    {
-        throw newIAE(
-            "The %s value \"%s\" has an invalid hex digit \"%c\" at the index %d.",
-            name, input, hexDigit, index);
+        if (index == -1)
+        {
+            return VALID;
+        }
+
+        return error(classify(input, index, end), component, index);
     }
 
 
-    @Override
-    protected IllegalArgumentException onDecodeFailed(String input, Info info)
+    /**
+     * Creates an exception reporting the details of an error found by {@link
+     * #check(CharSequence, int, int, Charset)}.
+     *
+     * @param input
+     *         The input containing the invalid value.
+     *
+     * @param start
+     *         The start index (inclusive) of the value.
+     *
+     * @param end
+     *         The end index (exclusive) of the value.
+     *
+     * @param result
+     *         The result of the check.
+     *
+     * @return
+     *         The exception to throw.
+     */
+    InvalidURIReferenceException newException(CharSequence input, int start, int end, long result)
     {
-        throw newIAE(
-            "Failed to decode bytes represented by \"%s\" in the %s value \"%s\".",
-            info.getString(), name, input);
+        // The invalid value.
+        String value = input.subSequence(start, end).toString();
+
+        // The index of the error in the input, which the exception holds, and
+        // the index of the error in the value, which the message mentions.
+        int offset = index(result);
+        int index  = offset - start;
+
+        switch (code(result))
+        {
+            case INVALID_CHARACTER:
+                return newIAE(component, ErrorCode.INVALID_CHARACTER, offset,
+                    "The %s value \"%s\" has an invalid character \"%s\" at the index %d.",
+                    name, value, value.charAt(index), index);
+
+            case INCOMPLETE_PERCENT_ENCODING:
+                return newIAE(component, ErrorCode.INCOMPLETE_PERCENT_ENCODING, offset,
+                    "The percent symbol \"%%\" at the index %d in the %s value \"%s\" is " +
+                    "not followed by two characters.", index, name, value);
+
+            case INVALID_HEX_DIGIT:
+                // The first of the two characters following the percent symbol
+                // that is not a hex digit. The exception holds the index of the
+                // percent symbol in the same way as the other errors about
+                // percent-encoded values.
+                int digit = (fromHexDigit(value.charAt(index + 1)) == -1) ? index + 1 : index + 2;
+
+                return newIAE(component, ErrorCode.INVALID_HEX_DIGIT, offset,
+                    "The %s value \"%s\" has an invalid hex digit \"%c\" at the index %d.",
+                    name, value, value.charAt(digit), digit);
+
+            default:
+                return newIAE(component, ErrorCode.UNDECODABLE_BYTES, offset,
+                    "Failed to decode bytes represented by \"%s\" in the %s value \"%s\".",
+                    value.substring(index, runEnd(value, index)), name, value);
+        }
     }
 
 
@@ -100,5 +238,134 @@ abstract class PercentEncodedStringValidator extends PercentEncodedStringProcess
      *         {@code true} if the character is valid as a non-percent value;
      *         otherwise, {@code false}.
      */
-    protected abstract boolean isValidOnNonPercent(char c);
+    protected final boolean isValidOnNonPercent(char c)
+    {
+        return CharacterClasses.is(c, mask);
+    }
+
+
+    private ErrorCode classify(CharSequence input, int index, int end)
+    {
+        // If the character at the index is not allowed.
+        if (input.charAt(index) != '%')
+        {
+            return ErrorCode.INVALID_CHARACTER;
+        }
+
+        // If the percent symbol is not followed by two characters.
+        if (index + 2 >= end)
+        {
+            return ErrorCode.INCOMPLETE_PERCENT_ENCODING;
+        }
+
+        // If the percent symbol is not followed by two hex digits.
+        if (fromHexDigit(input.charAt(index + 1)) == -1 ||
+            fromHexDigit(input.charAt(index + 2)) == -1)
+        {
+            return ErrorCode.INVALID_HEX_DIGIT;
+        }
+
+        // The percent symbol starts the bytes that can't be decoded.
+        return ErrorCode.UNDECODABLE_BYTES;
+    }
+
+
+    private int indexOfInvalid(CharSequence input, int start, int end, Charset charset)
+    {
+        for (int i = start; i < end; )
+        {
+            char c = input.charAt(i);
+
+            if (c != '%')
+            {
+                // Ensure the character is allowed as a non-percent value.
+                if (!isValidOnNonPercent(c))
+                {
+                    return i;
+                }
+
+                i++;
+                continue;
+            }
+
+            // The end index of the run of percent-encoded values.
+            int runEnd = i;
+
+            while (runEnd < end && input.charAt(runEnd) == '%')
+            {
+                // Ensure the percent symbol is followed by two hex digits.
+                if (runEnd + 2 >= end ||
+                    fromHexDigit(input.charAt(runEnd + 1)) == -1 ||
+                    fromHexDigit(input.charAt(runEnd + 2)) == -1)
+                {
+                    return runEnd;
+                }
+
+                runEnd += 3;
+            }
+
+            // Ensure the bytes can be decoded with the charset.
+            if (!isDecodable(input, i, runEnd, charset))
+            {
+                return i;
+            }
+
+            i = runEnd;
+        }
+
+        return -1;
+    }
+
+
+    private boolean isDecodable(CharSequence input, int start, int end, Charset charset)
+    {
+        // The bytes represented by the percent-encoded values.
+        ByteBuffer bytes = ByteBuffer.allocate((end - start) / 3);
+
+        for (int i = start; i < end; i += 3)
+        {
+            bytes.put((byte)((fromHexDigit(input.charAt(i + 1)) << 4) | fromHexDigit(input.charAt(i + 2))));
+        }
+
+        bytes.flip();
+
+        // Borrow a decoder for the charset.
+        CharsetDecoder decoder = CharsetCoderPool.acquireDecoder(charset);
+
+        try
+        {
+            // The buffer large enough for the decoded characters.
+            CharBuffer chars = CharBuffer.allocate(
+                (int)(bytes.remaining() * (double)decoder.maxCharsPerByte()) + 1);
+
+            // Decode the bytes without throwing an exception on failure.
+            CoderResult result = decoder.decode(bytes, chars, true);
+
+            if (!result.isError())
+            {
+                result = decoder.flush(chars);
+            }
+
+            return !result.isError();
+        }
+        finally
+        {
+            // Return the decoder.
+            CharsetCoderPool.release(charset, decoder);
+        }
+    }
+
+
+    private static int runEnd(String value, int index)
+    {
+        // Skip the well-formed percent-encoded values starting at the index.
+        while (index + 2 < value.length() && value.charAt(index) == '%' &&
+               fromHexDigit(value.charAt(index + 1)) != -1 &&
+               fromHexDigit(value.charAt(index + 2)) != -1)
+        {
+            index += 3;
+        }
+
+        return index;
+    }
 }
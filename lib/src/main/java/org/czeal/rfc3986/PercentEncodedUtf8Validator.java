@@ -0,0 +1,374 @@
+/*
+ * Copyright (C) 2024 Hideki Ikeda
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.czeal.rfc3986;
+
+
+import static org.czeal.rfc3986.Utils.fromHexDigit;
+
+
+/**
+ * <p>
+ * <i>NOTE: This class is intended for internal use only.</i>
+ * </p>
+ *
+ * <p>
+ * Checks whether or not a value containing percent-encoded values is valid when
+ * the percent-encoded values represent bytes encoded in UTF-8. Each run of
+ * consecutive percent-encoded values is checked against the well-formed UTF-8
+ * byte sequences defined in <a href="https://www.rfc-editor.org/rfc/rfc3629#section-4">
+ * RFC 3629, 4. Syntax of UTF-8 Byte Sequences</a> by a small DFA, without decoding
+ * the bytes and without allocating any objects.
+ * </p>
+ *
+ * <blockquote>
+ * <pre style="font-family: 'Menlo', 'Courier', monospace;">{@code
+ * UTF8-octets = *( UTF8-char )
+ * UTF8-char   = UTF8-1 / UTF8-2 / UTF8-3 / UTF8-4
+ * UTF8-1      = %x00-7F
+ * UTF8-2      = %xC2-DF UTF8-tail
+ * UTF8-3      = %xE0 %xA0-BF UTF8-tail / %xE1-EC 2( UTF8-tail ) /
+ *               %xED %x80-9F UTF8-tail / %xEE-EF 2( UTF8-tail )
+ * UTF8-4      = %xF0 %x90-BF 2( UTF8-tail ) / %xF1-F3 3( UTF8-tail ) /
+ *               %xF4 %x80-8F 2( UTF8-tail )
+ * UTF8-tail   = %x80-BF
+ * }</pre>
+ * </blockquote>
+ *
+ * <p>
+ * When a value is invalid, the index of the error is the same as the one found
+ * by decoding each run of percent-encoded values after reading the whole run, so
+ * the error is reported in the same way for any charset.
+ * </p>
+ *
+ * @see <a href="https://www.rfc-editor.org/rfc/rfc3629#section-4">RFC 3629,
+ *      4. Syntax of UTF-8 Byte Sequences</a>
+ *
+ * @author Hideki Ikeda
+ */
+final class PercentEncodedUtf8Validator
+{
+    /**
+     * The state where a complete character has been read.
+     */
+    private static final int ACCEPT = 0;
+
+
+    /**
+     * The state where an ill-formed byte sequence has been read.
+     */
+    private static final int REJECT = 1;
+
+
+    /**
+     * The state where one more UTF8-tail is expected.
+     */
+    private static final int TAIL_1 = 2;
+
+
+    /**
+     * The state where two more UTF8-tails are expected.
+     */
+    private static final int TAIL_2 = 3;
+
+
+    /**
+     * The state where three more UTF8-tails are expected.
+     */
+    private static final int TAIL_3 = 4;
+
+
+    /**
+     * The state after %xE0, where %xA0-BF is expected.
+     */
+    private static final int AFTER_E0 = 5;
+
+
+    /**
+     * The state after %xED, where %x80-9F is expected.
+     */
+    private static final int AFTER_ED = 6;
+
+
+    /**
+     * The state after %xF0, where %x90-BF is expected.
+     */
+    private static final int AFTER_F0 = 7;
+
+
+    /**
+     * The state after %xF4, where %x80-8F is expected.
+     */
+    private static final int AFTER_F4 = 8;
+
+
+    private PercentEncodedUtf8Validator()
+    {
+    }
+
+
+    /**
+     * Checks whether or not a value is valid.
+     *
+     * @param input
+     *         The value to check.
+     *
+     * @param mask
+     *         The mask of {@link CharacterClasses} representing the characters
+     *         allowed as non-percent values.
+     *
+     * @return
+     *         {@code true} if all the non-percent characters are allowed, all the
+     *         percent-encoded values are well-formed and each run of consecutive
+     *         percent-encoded values forms a well-formed UTF-8 byte sequence;
+     *         otherwise, {@code false}.
+     */
+    static boolean isValid(CharSequence input, int mask)
+    {
+        return isValid(input, 0, input.length(), mask);
+    }
+
+
+    /**
+     * Checks whether or not a value in a range of a string is valid.
+     *
+     * @param input
+     *         The string containing the value to check.
+     *
+     * @param start
+     *         The start index (inclusive) of the value.
+     *
+     * @param end
+     *         The end index (exclusive) of the value.
+     *
+     * @param mask
+     *         The mask of {@link CharacterClasses} representing the characters
+     *         allowed as non-percent values.
+     *
+     * @return
+     *         {@code true} if the value is valid; otherwise, {@code false}.
+     */
+    static boolean isValid(CharSequence input, int start, int end, int mask)
+    {
+        return indexOfInvalid(input, start, end, mask) == -1;
+    }
+
+
+    /**
+     * Finds the index at which a value in a range of a string becomes invalid.
+     *
+     * @param input
+     *         The string containing the value to check.
+     *
+     * @param start
+     *         The start index (inclusive) of the value.
+     *
+     * @param end
+     *         The end index (exclusive) of the value.
+     *
+     * @param mask
+     *         The mask of {@link CharacterClasses} representing the characters
+     *         allowed as non-percent values.
+     *
+     * @return
+     *         {@code -1} if the value is valid. Otherwise, the index of the character
+     *         that is not allowed, the index of the percent symbol that is not
+     *         followed by two hex digits, or the index of the first percent symbol
+     *         of the run of percent-encoded values that doesn't form a well-formed
+     *         UTF-8 byte sequence. A percent symbol that is not followed by two
+     *         hex digits is reported first if it is in the same run.
+     */
+    static int indexOfInvalid(CharSequence input, int start, int end, int mask)
+    {
+        // The state of the DFA.
+        int state = ACCEPT;
+
+        // The start index of the current run of percent-encoded values and
+        // the index after the last percent-encoded value.
+        int runStart = start;
+        int runEnd   = -1;
+
+        for (int i = start; i < end; )
+        {
+            char c = input.charAt(i);
+
+            if (c != '%')
+            {
+                // Ensure the character is allowed as a non-percent value.
+                if (!CharacterClasses.is(c, mask))
+                {
+                    return i;
+                }
+
+                i++;
+                continue;
+            }
+
+            // Ensure the percent symbol is followed by two characters.
+            if (i + 2 >= end)
+            {
+                return i;
+            }
+
+            // Convert the hex digits to a byte.
+            int higher = fromHexDigit(input.charAt(i + 1));
+            int lower  = fromHexDigit(input.charAt(i + 2));
+
+            if (higher == -1 || lower == -1)
+            {
+                return i;
+            }
+
+            // If a new run of percent-encoded values starts here.
+            if (i != runEnd)
+            {
+                runStart = i;
+            }
+
+            // Move the DFA to the next state.
+            state = next(state, (higher << 4) | lower);
+
+            if (state == REJECT)
+            {
+                // The bytes of a run are decoded after all the percent-encoded
+                // values in the run have been read, so a malformed one later in
+                // the run is reported first.
+                int malformed = indexOfMalformed(input, i + 3, end);
+
+                return (malformed == -1) ? runStart : malformed;
+            }
+
+            i     += 3;
+            runEnd = i;
+
+            // If the run of the percent-encoded values ends here, the bytes
+            // must form complete characters.
+            if ((i == end || input.charAt(i) != '%') && state != ACCEPT)
+            {
+                return runStart;
+            }
+        }
+
+        return -1;
+    }
+
+
+    private static int indexOfMalformed(CharSequence input, int start, int end)
+    {
+        // Find the first percent-encoded value that is not followed by two hex
+        // digits in the rest of the run.
+        for (int i = start; i < end && input.charAt(i) == '%'; i += 3)
+        {
+            if (i + 2 >= end ||
+                fromHexDigit(input.charAt(i + 1)) == -1 ||
+                fromHexDigit(input.charAt(i + 2)) == -1)
+            {
+                return i;
+            }
+        }
+
+        return -1;
+    }
+
+
+    private static int next(int state, int b)
+    {
+        switch (state)
+        {
+            case ACCEPT:
+                return first(b);
+
+            case TAIL_1:
+                return isInRange(b, 0x80, 0xBF) ? ACCEPT : REJECT;
+
+            case TAIL_2:
+                return isInRange(b, 0x80, 0xBF) ? TAIL_1 : REJECT;
+
+            case TAIL_3:
+                return isInRange(b, 0x80, 0xBF) ? TAIL_2 : REJECT;
+
+            case AFTER_E0:
+                return isInRange(b, 0xA0, 0xBF) ? TAIL_1 : REJECT;
+
+            case AFTER_ED:
+                return isInRange(b, 0x80, 0x9F) ? TAIL_1 : REJECT;
+
+            case AFTER_F0:
+                return isInRange(b, 0x90, 0xBF) ? TAIL_2 : REJECT;
+
+            case AFTER_F4:
+                return isInRange(b, 0x80, 0x8F) ? TAIL_2 : REJECT;
+
+            default:
+                return REJECT;
+        }
+    }
+
+
+    private static int first(int b)
+    {
+        if (b <= 0x7F)
+        {
+            // UTF8-1
+            return ACCEPT;
+        }
+
+        if (isInRange(b, 0xC2, 0xDF))
+        {
+            // UTF8-2
+            return TAIL_1;
+        }
+
+        if (b == 0xE0)
+        {
+            return AFTER_E0;
+        }
+
+        if (b == 0xED)
+        {
+            return AFTER_ED;
+        }
+
+        if (isInRange(b, 0xE1, 0xEF))
+        {
+            // %xE1-EC and %xEE-EF
+            return TAIL_2;
+        }
+
+        if (b == 0xF0)
+        {
+            return AFTER_F0;
+        }
+
+        if (b == 0xF4)
+        {
+            return AFTER_F4;
+        }
+
+        if (isInRange(b, 0xF1, 0xF3))
+        {
+            return TAIL_3;
+        }
+
+        // %x80-C1 and %xF5-FF can't start a character.
+        return REJECT;
+    }
+
+
+    private static boolean isInRange(int b, int start, int end)
+    {
+        return start <= b && b <= end;
+    }
+}
@@ -16,14 +16,14 @@
 package org.czeal.rfc3986;
 
 
-import static org.czeal.rfc3986.Utils.isUnreserved;
 import static org.czeal.rfc3986.Utils.newIAE;
 import static org.czeal.rfc3986.Utils.newNPE;
 import static org.czeal.rfc3986.Utils.toHexDigit;
+import java.nio.ByteBuffer;
 import java.nio.CharBuffer;
-import java.nio.charset.CharacterCodingException;
 import java.nio.charset.Charset;
-import java.util.Set;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
 
 
 /**
@@ -31,17 +31,23 @@ import java.util.Set;
  *
  * <p>Examples:</p>
  * <pre>{@code
- * // Create an instance of PercentEncoder using UTF-8.
- * PercentEncoder encoder = new PercentEncoder(StandardCharset.UTF_8);
- *
  * // Encode some string values.
- * PercentEncoder.encode("ÀBC", StandardCharset.UTF_8); // output: "%C3%80BC"
- * PercentEncoder.encode("ABC", StandardCharset.UTF_8); // output: "ABC" (Unreserved characters are not encoded.)
+ * PercentEncoder.encode("ÀBC", StandardCharsets.UTF_8); // output: "%C3%80BC"
+ * PercentEncoder.encode("ABC", StandardCharsets.UTF_8); // output: "ABC" (Unreserved characters are not encoded.)
+ *
+ * // Encode a string value, preserving the characters allowed in a path segment.
+ * PercentEncoder.encode("a:b c", StandardCharsets.UTF_8, CharacterSet.PATH_SEGMENT); // output: "a:b%20c"
  * }</pre>
  *
+ * <p>
+ * This class is thread-safe.
+ * </p>
+ *
+ * @see CharacterSet
+ *
  * @author Hideki Ikeda
  */
-class PercentEncoder
+public final class PercentEncoder
 {
     /**
      * Percent encode the given input with the specified charset. This method will
@@ -63,7 +69,7 @@ class PercentEncoder
      * @see <a href="https://www.rfc-editor.org/rfc/rfc3986#section-2.3">RFC 3986,
      *      2.3. Unreserved Characters</a>
      */
-    static String encode(String input, Charset charset)
+    public static String encode(String input, Charset charset)
     {
         return encode(input, charset, null);
     }
@@ -80,7 +86,8 @@ class PercentEncoder
      *         Required. The charset to be used for encoding values.
      *
      * @param preservedChars
-     *         Optional. The character set to preserve.
+     *         Optional. The character set to preserve. If {@code null} is given,
+     *         {@link CharacterSet#UNRESERVED} is used.
      *
      * @return
      *         The encoded string.
@@ -88,26 +95,69 @@ class PercentEncoder
      * @throws NullPointerException
      *         If the value of {@code input} or {@code charset} is {@code null}.
      *
+     * @throws IllegalArgumentException
+     *         If a character in the input can't be encoded with the charset.
+     *
      * @see <a href="https://www.rfc-editor.org/rfc/rfc3986#section-2.3">
      *      RFC 3986, 2.3. Unreserved Characters</a>
      */
-    static String encode(
-        String input, Charset charset, Set<Character> preservedChars)
+    public static String encode(
+        String input, Charset charset, CharacterSet preservedChars)
     {
         return new PercentEncoder().process(input, charset, preservedChars);
     }
 
 
+    /**
+     * The percent-encoded values ("%00" to "%FF") for each byte value.
+     */
+    private static final char[] PERCENT_ENCODED = createPercentEncoded();
+
+
+    /**
+     * The initial capacity of the byte buffer used for encoding a run of characters.
+     */
+    private static final int MIN_BUFFER_CAPACITY = 16;
+
+
+    /**
+     * The buffer to store bytes of a run of characters encoded with the charset.
+     * The buffer is reused for all the runs in the input.
+     */
+    private ByteBuffer buffer;
+
+
     /**
      * The private constructor.
      */
     private PercentEncoder() {}
 
 
+    private static char[] createPercentEncoded()
+    {
+        char[] table = new char[256 * 3];
+
+        for (int b = 0; b < 256; b++)
+        {
+            table[3 * b    ] = '%';
+            table[3 * b + 1] = toHexDigit(b >> 4);
+            table[3 * b + 2] = toHexDigit(b & 0xF);
+        }
+
+        return table;
+    }
+
+
     /**
      * Percent-encode the given input with the specified charset. This method will
      * not encode characters contained in {@code preservedChars} parameter.
      *
+     * <p>
+     * Runs of characters to preserve are copied to the output as-is in bulk. Each
+     * run of characters to encode is encoded with the charset at once, so surrogate
+     * pairs are encoded correctly as supplementary characters.
+     * </p>
+     *
      * @param input
      *         The input to percent-encode.
      *
@@ -118,7 +168,8 @@ class PercentEncoder
      *          The character set to preserve.
      *
      * @return
-     *         The encoded string.
+     *         The encoded string. If no character needs to be encoded, the input
+     *         itself is returned.
      *
      * @throws NullPointerException
      *         If the value of {@code input} or {@code charset} is {@code null}.
@@ -127,32 +178,62 @@ class PercentEncoder
      *      RFC 3986, 2.3. Unreserved Characters</a>
      */
     private String process(
-        String input, Charset charset, Set<Character> preservedChars)
+        String input, Charset charset, CharacterSet preservedChars)
     {
         // Validate the arguments.
         validate(input, charset);
 
-        // The builder for the resultant string.
-        StringBuilder outputBuilder = new StringBuilder();
+        // If the preservedChars is null, preserve the unreserved characters.
+        if (preservedChars == null)
+        {
+            preservedChars = CharacterSet.UNRESERVED;
+        }
+
+        // The length of the input.
+        int length = input.length();
+
+        // The start index of the first run of characters to encode.
+        int start = skipPreserved(input, 0, preservedChars);
 
-        // Encode each character in the input.
-        for (int i = 0; i < input.length(); i++)
+        // If no character needs to be encoded.
+        if (start == length)
         {
-            // The i-th character of the input value.
-            char c = input.charAt(i);
+            // Return the input as-is.
+            return input;
+        }
 
-            // If the character should be preserved.
-            if (isPreserved(preservedChars, c))
-            {
-                // Preserve the character as-is.
-                outputBuilder.append(c);
-            }
-            else
+        // The builder for the resultant string, presized on the assumption that
+        // each remaining character is encoded into a single byte.
+        StringBuilder outputBuilder = new StringBuilder(start + 3 * (length - start));
+
+        // Copy the leading characters to preserve.
+        outputBuilder.append(input, 0, start);
+
+        // Borrow an encoder for the charset.
+        CharsetEncoder encoder = CharsetCoderPool.acquireEncoder(charset);
+
+        try
+        {
+            while (start < length)
             {
-                // Encode the character with the charset and append it.
-                outputBuilder.append(encode(charset, c));
+                // The end index of the run of characters to encode.
+                int end = skipNotPreserved(input, start, preservedChars);
+
+                // Encode the run of characters and append them.
+                encode(encoder, input, start, end, outputBuilder);
+
+                // The start index of the next run of characters to encode.
+                start = skipPreserved(input, end, preservedChars);
+
+                // Copy the run of characters to preserve.
+                outputBuilder.append(input, end, start);
             }
         }
+        finally
+        {
+            // Return the encoder.
+            CharsetCoderPool.release(charset, encoder);
+        }
 
         // Build the output string.
         return outputBuilder.toString();
@@ -175,51 +256,114 @@ class PercentEncoder
     }
 
 
-    private boolean isPreserved(Set<Character> preservedChars, char c)
+    private int skipPreserved(String input, int index, CharacterSet preservedChars)
     {
-        // If the preservedChars is not null, check if the character is
-        // contained in preservedChars; otherwise, check if the character
-        // is an unreserved character or not.
-        return preservedChars != null ? preservedChars.contains(c) : isUnreserved(c);
+        while (index < input.length() && preservedChars.contains(input.charAt(index)))
+        {
+            index++;
+        }
+
+        return index;
     }
 
 
-    private char[] encode(Charset charset, char c)
+    private int skipNotPreserved(String input, int index, CharacterSet preservedChars)
     {
-        // Encode the character into bytes using the charset.
-        byte[] bytes = toBytes(charset, c);
+        while (index < input.length() && !preservedChars.contains(input.charAt(index)))
+        {
+            index++;
+        }
+
+        return index;
+    }
 
-        // The output array.
-        char[] chars = new char[3 * bytes.length];
 
-        // For each byte.
-        for (int i = 0; i < bytes.length; i++)
+    private void encode(
+        CharsetEncoder encoder, String input, int start, int end,
+        StringBuilder outputBuilder)
+    {
+        // Encode the run of characters into bytes using the encoder.
+        ByteBuffer bytes = toBytes(encoder, input, start, end);
+
+        // Append the percent-encoded value for each byte.
+        for (int i = 0; i < bytes.limit(); i++)
         {
-            // Create a percent-encoded value.
-            chars[3 * i    ] = '%';
-            chars[3 * i + 1] = toHexDigit((bytes[i] & 0xF0) >> 4);
-            chars[3 * i + 2] = toHexDigit(bytes[i] & 0xF);
+            outputBuilder.append(PERCENT_ENCODED, 3 * (bytes.get(i) & 0xFF), 3);
         }
+    }
+
+
+    private ByteBuffer toBytes(CharsetEncoder encoder, String input, int start, int end)
+    {
+        // The characters to encode.
+        CharBuffer chars = CharBuffer.wrap(input, start, end);
+
+        // Prepare the buffer large enough for the usual case.
+        prepareBuffer((int)((end - start) * encoder.maxBytesPerChar()));
+
+        // Encode the characters.
+        encoder.reset();
+        encode(encoder, chars, input, true);
+
+        // Flush the encoder.
+        encode(encoder, chars, input, false);
+
+        // Make the bytes readable.
+        buffer.flip();
 
-        // Return the output array.
-        return chars;
+        return buffer;
     }
 
 
-    private byte[] toBytes(Charset charset, char c)
+    private void encode(CharsetEncoder encoder, CharBuffer chars, String input, boolean encode)
     {
-        try
+        while (true)
         {
-            // Encode the character using the charset and then convert it to an
-            // byte array.
-            return charset.newEncoder()
-                .encode( CharBuffer.wrap(String.valueOf(c)) )
-                .array();
+            // Encode the characters or flush the encoder.
+            CoderResult result = encode
+                ? encoder.encode(chars, buffer, true) : encoder.flush(buffer);
+
+            if (result.isUnderflow())
+            {
+                // Done.
+                return;
+            }
+
+            if (result.isOverflow())
+            {
+                // Enlarge the buffer and retry.
+                enlargeBuffer();
+                continue;
+            }
+
+            // Failed to encode the character.
+            throw newIAE(
+                "Failed to encode the character \"" + input.charAt(chars.position()) + "\".");
         }
-        catch (CharacterCodingException e)
+    }
+
+
+    private void prepareBuffer(int capacity)
+    {
+        // If the buffer is not allocated yet or is too small.
+        if (buffer == null || buffer.capacity() < capacity)
         {
-            // Failed to encode the character.
-            throw newIAE("Failed to encode the character \"" + c + "\".");
+            // Allocate the buffer.
+            buffer = ByteBuffer.allocate(Math.max(capacity, MIN_BUFFER_CAPACITY));
+            return;
         }
+
+        // Reuse the buffer.
+        buffer.clear();
+    }
+
+
+    private void enlargeBuffer()
+    {
+        // Make the bytes written so far readable.
+        buffer.flip();
+
+        // Allocate a larger buffer and copy the bytes.
+        buffer = ByteBuffer.allocate(2 * buffer.capacity()).put(buffer);
     }
 }
@@ -77,9 +77,45 @@ class PortNormalizer
     }
 
 
+    /**
+     * Normalizes a <code>"port"</code> in the same way as {@link #normalize(int,
+     * String)} does, with the normalized scheme given as a range of an input.
+     *
+     * @param port
+     *         A port value.
+     *
+     * @param input
+     *         The input containing the normalized scheme.
+     *
+     * @param schemeStart
+     *         The start index (inclusive) of the normalized scheme.
+     *
+     * @param schemeEnd
+     *         The end index (exclusive) of the normalized scheme.
+     *
+     * @return
+     *         An integer value representing the normalized port.
+     */
+    int normalize(int port, CharSequence input, int schemeStart, int schemeEnd)
+    {
+        if ((port == -1) || isDefaultPortForScheme(port, input, schemeStart, schemeEnd))
+        {
+            return -1;
+        }
+
+        return port;
+    }
+
+
     private boolean isDefaultPortForScheme(int port, String scheme)
     {
-        if ("http".equals(scheme))
+        return scheme != null && isDefaultPortForScheme(port, scheme, 0, scheme.length());
+    }
+
+
+    private boolean isDefaultPortForScheme(int port, CharSequence input, int start, int end)
+    {
+        if (regionEquals("http", input, start, end))
         {
             // Check if the port value is 80, which is the default value
             // for "http".
@@ -88,4 +124,23 @@ class PortNormalizer
 
         return false;
     }
+
+
+    private static boolean regionEquals(String scheme, CharSequence input, int start, int end)
+    {
+        if (end - start != scheme.length())
+        {
+            return false;
+        }
+
+        for (int i = 0; i < scheme.length(); i++)
+        {
+            if (input.charAt(start + i) != scheme.charAt(i))
+            {
+                return false;
+            }
+        }
+
+        return true;
+    }
 }
@@ -16,6 +16,9 @@
 package org.czeal.rfc3986;
 
 
+import static org.czeal.rfc3986.URIReferenceChecker.VALID;
+import static org.czeal.rfc3986.URIReferenceChecker.error;
+import static org.czeal.rfc3986.URIReferenceChecker.index;
 import static org.czeal.rfc3986.Utils.isDigit;
 import static org.czeal.rfc3986.Utils.newIAE;
 
@@ -62,25 +65,97 @@ class PortValidator
             return;
         }
 
-        if (port.isEmpty())
+        validate(port, 0, port.length());
+    }
+
+
+    /**
+     * Validates a value in a range of an input as a port. The value is validated
+     * in place without creating a substring unless it is invalid.
+     *
+     * @param value
+     *         An input containing the port value.
+     *
+     * @param start
+     *         The start index (inclusive) of the port value.
+     *
+     * @param end
+     *         The end index (exclusive) of the port value.
+     *
+     * @throws IllegalArgumentException
+     *         If the {@code port} value is invalid.
+     */
+    void validate(CharSequence value, int start, int end)
+    {
+        long result = check(value, start, end);
+
+        if (result != VALID)
         {
-            // If the port value is empty, it means the input string contains
-            // a colon (":") delimiter for the port value but the port value is
-            // empty.
-            return;
+            throw newException(value, start, end, result);
         }
+    }
 
-        for (int i = 0; i < port.length(); i++)
-        {
-            char c = port.charAt(i);
 
-            if (!isDigit(c))
+    /**
+     * Checks a value in a range of an input as a port without throwing an
+     * exception. An empty value is valid, which means the input contains a
+     * colon (":") delimiter for the port value but the port value is empty.
+     *
+     * @param value
+     *         An input containing the port value.
+     *
+     * @param start
+     *         The start index (inclusive) of the port value.
+     *
+     * @param end
+     *         The end index (exclusive) of the port value.
+     *
+     * @return
+     *         {@link URIReferenceChecker#VALID} if the port value is valid;
+     *         otherwise, the result packing the error code, the component and
+     *         the index of the error in the input.
+     */
+    long check(CharSequence value, int start, int end)
+    {
+        for (int i = start; i < end; i++)
+        {
+            if (!isDigit(value.charAt(i)))
             {
-                throw newIAE(
-                    "The port value \"%s\" has an invalid character \"%s\" at the " +
-                    "index %d.", port, c, i);
+                return error(ErrorCode.INVALID_CHARACTER, URIComponent.PORT, i);
             }
         }
+
+        return VALID;
+    }
+
+
+    /**
+     * Creates an exception reporting the details of an error found by {@link
+     * #check(CharSequence, int, int)}.
+     *
+     * @param value
+     *         An input containing the invalid port value.
+     *
+     * @param start
+     *         The start index (inclusive) of the port value.
+     *
+     * @param end
+     *         The end index (exclusive) of the port value.
+     *
+     * @param result
+     *         The result of the check.
+     *
+     * @return
+     *         The exception to throw.
+     */
+    InvalidURIReferenceException newException(CharSequence value, int start, int end, long result)
+    {
+        // The index of the invalid character in the port value.
+        int index = index(result) - start;
+
+        return newIAE(URIComponent.PORT, ErrorCode.INVALID_CHARACTER, index(result),
+            "The port value \"%s\" has an invalid character \"%s\" at the " +
+            "index %d.", value.subSequence(start, end).toString(), value.charAt(index(result)), index);
     }
 
 
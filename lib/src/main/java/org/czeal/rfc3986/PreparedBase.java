@@ -0,0 +1,558 @@
+/*
+ * Copyright (C) 2024 Hideki Ikeda
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.czeal.rfc3986;
+
+
+import static org.czeal.rfc3986.ComponentOffsets.AUTHORITY_END;
+import static org.czeal.rfc3986.ComponentOffsets.AUTHORITY_START;
+import static org.czeal.rfc3986.ComponentOffsets.END;
+import static org.czeal.rfc3986.ComponentOffsets.FRAGMENT_START;
+import static org.czeal.rfc3986.ComponentOffsets.HOST_END;
+import static org.czeal.rfc3986.ComponentOffsets.HOST_TYPE;
+import static org.czeal.rfc3986.ComponentOffsets.PATH_END;
+import static org.czeal.rfc3986.ComponentOffsets.PATH_START;
+import static org.czeal.rfc3986.ComponentOffsets.PORT;
+import static org.czeal.rfc3986.ComponentOffsets.QUERY_END;
+import static org.czeal.rfc3986.ComponentOffsets.QUERY_START;
+import static org.czeal.rfc3986.ComponentOffsets.SCHEME_END;
+import static org.czeal.rfc3986.ComponentOffsets.USERINFO_END;
+import static org.czeal.rfc3986.Utils.containsDotSegment;
+import static org.czeal.rfc3986.Utils.dropLastSegment;
+import static org.czeal.rfc3986.Utils.newIAE;
+import static org.czeal.rfc3986.Utils.newISE;
+import static org.czeal.rfc3986.Utils.newNPE;
+import static org.czeal.rfc3986.Utils.removeDotSegments;
+import java.nio.charset.Charset;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+
+/**
+ * A base URI prepared for resolving many URI references against it, according
+ * to <a href="https://www.rfc-editor.org/rfc/rfc3986#section-5">RFC 3986, Section
+ * 5: Reference Resolution</a>.
+ *
+ * <p>
+ * The base URI is validated once when a {@code PreparedBase} instance is created,
+ * and the pieces of the target URIs taken from the base URI, i.e. the scheme,
+ * the authority and the "directory" of the path used for merging paths, are
+ * computed in advance. {@link #resolve(CharSequence)} validates a URI reference
+ * without creating its components and writes the target URI directly from
+ * those pieces and the URI reference. The result is equal to the result of
+ * {@link URIReference#resolve(String)} on the base URI.
+ * </p>
+ *
+ * <p>
+ * Optionally, a {@code PreparedBase} instance keeps a small memo of the URI
+ * references resolved recently, which is useful when the same URI references
+ * are resolved repeatedly, e.g. the links in an HTML page.
+ * </p>
+ *
+ * <p>
+ * This class is thread-safe.
+ * </p>
+ *
+ * <pre>{@code
+ * // Prepare a base URI.
+ * PreparedBase base = PreparedBase.of(URIReference.parse("http://example.com/a/b"), 64);
+ *
+ * // Resolve URI references against the base URI.
+ * URIReference resolved1 = base.resolve("c");    // "http://example.com/a/c"
+ * URIReference resolved2 = base.resolve("../d"); // "http://example.com/d"
+ * }</pre>
+ *
+ * @see <a href="https://www.rfc-editor.org/rfc/rfc3986#section-5">RFC 3986,
+ *      Section 5: Reference Resolution</a>
+ *
+ * @author Hideki Ikeda
+ */
+public final class PreparedBase
+{
+    /**
+     * The base URI.
+     */
+    private final URIReference baseUri;
+
+
+    /**
+     * The charset of the base URI, which is used for the URI references to resolve.
+     */
+    private final Charset charset;
+
+
+    /**
+     * The scheme, the following ":" and the authority (if any) preceded by "//"
+     * of the base URI.
+     */
+    private final String prefix;
+
+
+    /**
+     * The offsets of the scheme and the authority in {@link #prefix}.
+     */
+    private final int[] prefixOffsets;
+
+
+    /**
+     * The path of the base URI.
+     */
+    private final String path;
+
+
+    /**
+     * The path of the base URI without the last segment, to which a relative
+     * path is appended when the paths are merged.
+     */
+    private final String directory;
+
+
+    /**
+     * Whether {@link #directory} contains a dot segment.
+     */
+    private final boolean directoryHasDotSegment;
+
+
+    /**
+     * The query of the base URI.
+     */
+    private final String query;
+
+
+    /**
+     * The URI references resolved recently and the results, or {@code null} if
+     * the memo is disabled.
+     */
+    private final Map<String, URIReference> memo;
+
+
+    private PreparedBase(URIReference baseUri, int memoSize)
+    {
+        this.baseUri                = baseUri;
+        this.charset                = baseUri.getCharset();
+        this.prefixOffsets          = ComponentOffsets.create(0, 0);
+        this.prefix                 = buildPrefix(baseUri, prefixOffsets);
+        this.path                   = baseUri.getPath();
+        this.directory              = buildDirectory(baseUri);
+        this.directoryHasDotSegment = containsDotSegment(directory, 0, directory.length());
+        this.query                  = baseUri.getQuery();
+        this.memo                   = (memoSize == 0) ? null : new Memo(memoSize);
+    }
+
+
+    /**
+     * Prepare a base URI without a memo.
+     *
+     * <p>
+     * Note that this method works as if invoking it were equivalent to evaluating
+     * the expression <code>{@link #of(URIReference, int) of}(baseUri, 0)</code>.
+     * </p>
+     *
+     * @param baseUri
+     *         The base URI.
+     *
+     * @return
+     *         A {@code PreparedBase} instance for the base URI.
+     *
+     * @throws NullPointerException
+     *         If {@code baseUri} is {@code null}.
+     *
+     * @throws IllegalStateException
+     *         If {@code baseUri} has no scheme or has a fragment.
+     */
+    public static PreparedBase of(URIReference baseUri)
+    {
+        return of(baseUri, 0);
+    }
+
+
+    /**
+     * Prepare a base URI.
+     *
+     * @param baseUri
+     *         The base URI.
+     *
+     * @param memoSize
+     *         The maximum number of the URI references resolved recently to keep
+     *         with the results. {@code 0} disables the memo.
+     *
+     * @return
+     *         A {@code PreparedBase} instance for the base URI.
+     *
+     * @throws NullPointerException
+     *         If {@code baseUri} is {@code null}.
+     *
+     * @throws IllegalArgumentException
+     *         If {@code memoSize} is negative.
+     *
+     * @throws IllegalStateException
+     *         If {@code baseUri} has no scheme or has a fragment.
+     */
+    public static PreparedBase of(URIReference baseUri, int memoSize)
+    {
+        // Ensure the base URI is not null.
+        if (baseUri == null)
+        {
+            throw newNPE("The base URI reference must not be null.");
+        }
+
+        // Ensure the memo size is not negative.
+        if (memoSize < 0)
+        {
+            throw newIAE("The memo size must not be negative.");
+        }
+
+        // Ensure the base URI conforms to the <absolute-URI> syntax rule. See
+        // URIReferenceResolver for details.
+        if (baseUri.getScheme() == null)
+        {
+            throw newISE("The base URI must have a scheme.");
+        }
+
+        if (baseUri.getFragment() != null)
+        {
+            throw newISE("The base URI must not have a fragment.");
+        }
+
+        return new PreparedBase(baseUri, memoSize);
+    }
+
+
+    /**
+     * Get the base URI.
+     *
+     * @return
+     *         The base URI.
+     */
+    public URIReference getBaseUri()
+    {
+        return baseUri;
+    }
+
+
+    /**
+     * Resolve a URI reference against the base URI.
+     *
+     * <p>
+     * The URI reference is parsed with the charset of the base URI. The result
+     * is equal to the result of {@link URIReference#resolve(String)} on the base
+     * URI.
+     * </p>
+     *
+     * @param uriRef
+     *         The URI reference to resolve against the base URI.
+     *
+     * @return
+     *         The URI obtained by resolving {@code uriRef} against the base URI.
+     *
+     * @throws NullPointerException
+     *         If {@code uriRef} is {@code null}.
+     *
+     * @throws IllegalArgumentException
+     *         If the value of {@code uriRef} is invalid as a URI reference.
+     */
+    public URIReference resolve(CharSequence uriRef)
+    {
+        if (memo == null)
+        {
+            return transform(uriRef);
+        }
+
+        // Ensure the input string is not null.
+        if (uriRef == null)
+        {
+            throw newNPE("The input string must not be null.");
+        }
+
+        // The key of the memo.
+        String key = uriRef.toString();
+
+        // Look up the memo.
+        URIReference resolved;
+
+        synchronized (memo)
+        {
+            resolved = memo.get(key);
+        }
+
+        if (resolved != null)
+        {
+            return resolved;
+        }
+
+        // Resolve the URI reference and remember the result.
+        resolved = transform(key);
+
+        synchronized (memo)
+        {
+            memo.put(key, resolved);
+        }
+
+        return resolved;
+    }
+
+
+    private URIReference transform(CharSequence uriRef)
+    {
+        // Validate the URI reference, finding the offsets of the components.
+        int[] ref = new URIReferenceParser().locate(uriRef, charset);
+
+        // The output builder and the offsets of the components in the output.
+        StringBuilder sb   = new StringBuilder(prefix.length() + directory.length() + uriRef.length());
+        int[] offsets      = ComponentOffsets.create(0, 0);
+        CharSequence query = null;
+        int queryStart     = ref[QUERY_START];
+        int queryEnd       = ref[QUERY_END];
+
+        // Transform the URI reference according to RFC 3986, 5.2.2. Transform
+        // References.
+        if (ref[SCHEME_END] != -1)
+        {
+            // Copy the scheme and the authority of the URI reference.
+            sb.append(uriRef, 0, ref[SCHEME_END] + 1);
+            offsets[SCHEME_END] = ref[SCHEME_END];
+
+            if (ref[AUTHORITY_START] != -1)
+            {
+                appendAuthority(sb, offsets, uriRef, ref);
+            }
+
+            appendPath(sb, offsets, uriRef, ref[PATH_START], ref[PATH_END]);
+            query = uriRef;
+        }
+        else if (ref[AUTHORITY_START] != -1)
+        {
+            // Copy the scheme of the base URI and the authority of the URI reference.
+            sb.append(prefix, 0, prefixOffsets[SCHEME_END] + 1);
+            offsets[SCHEME_END] = prefixOffsets[SCHEME_END];
+
+            appendAuthority(sb, offsets, uriRef, ref);
+            appendPath(sb, offsets, uriRef, ref[PATH_START], ref[PATH_END]);
+            query = uriRef;
+        }
+        else
+        {
+            // Copy the scheme and the authority of the base URI.
+            sb.append(prefix);
+            System.arraycopy(prefixOffsets, SCHEME_END, offsets, SCHEME_END, PORT - SCHEME_END + 1);
+
+            offsets[PATH_START] = sb.length();
+
+            if (ref[PATH_START] == ref[PATH_END])
+            {
+                // Use the path of the base URI, and also the query of the base
+                // URI unless the URI reference has a query.
+                sb.append(path);
+
+                if (queryStart != -1)
+                {
+                    query = uriRef;
+                }
+                else if (this.query != null)
+                {
+                    query      = this.query;
+                    queryStart = 0;
+                    queryEnd   = this.query.length();
+                }
+            }
+            else if (uriRef.charAt(ref[PATH_START]) == '/')
+            {
+                appendPath(sb, offsets, uriRef, ref[PATH_START], ref[PATH_END]);
+                query = uriRef;
+            }
+            else
+            {
+                mergePath(sb, uriRef, ref[PATH_START], ref[PATH_END]);
+                query = uriRef;
+            }
+
+            offsets[PATH_END] = sb.length();
+        }
+
+        // Copy the query.
+        if (query != null && queryStart != -1)
+        {
+            sb.append('?');
+            offsets[QUERY_START] = sb.length();
+            sb.append(query, queryStart, queryEnd);
+            offsets[QUERY_END] = sb.length();
+        }
+
+        // Copy the fragment of the URI reference.
+        if (ref[FRAGMENT_START] != -1)
+        {
+            sb.append('#');
+            offsets[FRAGMENT_START] = sb.length();
+            sb.append(uriRef, ref[FRAGMENT_START], ref[END]);
+        }
+
+        offsets[END] = sb.length();
+
+        // Build a URI reference instance backed by the target URI.
+        return new URIReference(sb.toString(), charset, offsets);
+    }
+
+
+    private static void appendAuthority(
+        StringBuilder sb, int[] offsets, CharSequence uriRef, int[] ref)
+    {
+        sb.append("//");
+
+        // The difference between the indexes in the output and in the URI reference.
+        int shift = sb.length() - ref[AUTHORITY_START];
+
+        sb.append(uriRef, ref[AUTHORITY_START], ref[AUTHORITY_END]);
+
+        offsets[AUTHORITY_START] = ref[AUTHORITY_START] + shift;
+        offsets[AUTHORITY_END]   = ref[AUTHORITY_END] + shift;
+        offsets[USERINFO_END]    = (ref[USERINFO_END] == -1) ? -1 : ref[USERINFO_END] + shift;
+        offsets[HOST_END]        = ref[HOST_END] + shift;
+        offsets[HOST_TYPE]       = ref[HOST_TYPE];
+        offsets[PORT]            = ref[PORT];
+    }
+
+
+    private static void appendPath(
+        StringBuilder sb, int[] offsets, CharSequence uriRef, int start, int end)
+    {
+        offsets[PATH_START] = sb.length();
+
+        if (containsDotSegment(uriRef, start, end))
+        {
+            removeDotSegments(uriRef, start, end, sb);
+        }
+        else
+        {
+            sb.append(uriRef, start, end);
+        }
+
+        offsets[PATH_END] = sb.length();
+    }
+
+
+    private void mergePath(StringBuilder sb, CharSequence uriRef, int start, int end)
+    {
+        // If neither the directory nor the relative path contains a dot segment,
+        // the merged path doesn't contain one, either. See RFC 3986, 5.2.3. Merge
+        // Paths.
+        if (!directoryHasDotSegment && !containsDotSegment(uriRef, start, end))
+        {
+            sb.append(directory).append(uriRef, start, end);
+            return;
+        }
+
+        // Merge the paths, and then remove the dot segments.
+        StringBuilder merged = new StringBuilder(directory).append(uriRef, start, end);
+        removeDotSegments(merged, 0, merged.length(), sb);
+    }
+
+
+    private static String buildPrefix(URIReference baseUri, int[] offsets)
+    {
+        StringBuilder sb = new StringBuilder();
+
+        // The scheme.
+        sb.append(baseUri.getScheme());
+        offsets[SCHEME_END] = sb.length();
+        sb.append(':');
+
+        // The authority.
+        Authority authority = baseUri.getAuthority();
+
+        if (authority == null)
+        {
+            return sb.toString();
+        }
+
+        sb.append("//");
+        offsets[AUTHORITY_START] = sb.length();
+
+        if (authority.getUserinfo() != null)
+        {
+            sb.append(authority.getUserinfo());
+            offsets[USERINFO_END] = sb.length();
+            sb.append('@');
+        }
+
+        Host host = authority.getHost();
+
+        if (host != null && host.getValue() != null)
+        {
+            sb.append(host.getValue());
+        }
+
+        offsets[HOST_END]  = sb.length();
+        offsets[HOST_TYPE] = (host == null) ? HostType.REGNAME.ordinal() : host.getType().ordinal();
+
+        if (authority.getPort() != -1)
+        {
+            sb.append(':').append(authority.getPort());
+        }
+
+        offsets[PORT]          = authority.getPort();
+        offsets[AUTHORITY_END] = sb.length();
+
+        return sb.toString();
+    }
+
+
+    private static String buildDirectory(URIReference baseUri)
+    {
+        // RFC 3986, 5.2.3. Merge Paths
+        //
+        //   If the base URI has a defined authority component and an empty
+        //   path, then return a string consisting of "/" concatenated with the
+        //   reference's path; otherwise, return a string consisting of the
+        //   reference's path component appended to all but the last segment of
+        //   the base URI's path (i.e., excluding any characters after the
+        //   right-most "/" in the base URI path, or excluding the entire base
+        //   URI path if it does not contain any "/" characters).
+
+        if (baseUri.hasAuthority() && baseUri.getPath().isEmpty())
+        {
+            return "/";
+        }
+
+        return dropLastSegment(baseUri.getPath(), false);
+    }
+
+
+    /**
+     * A memo of the URI references resolved recently, which discards the least
+     * recently used entry when it exceeds the maximum size.
+     */
+    private static final class Memo extends LinkedHashMap<String, URIReference>
+    {
+        private static final long serialVersionUID = 1L;
+
+
+        private final int maxSize;
+
+
+        Memo(int maxSize)
+        {
+            super(16, 0.75f, true);
+
+            this.maxSize = maxSize;
+        }
+
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, URIReference> eldest)
+        {
+            return size() > maxSize;
+        }
+    }
+}
@@ -48,7 +48,8 @@ class QueryNormalizer extends PercentEncodedStringNormalizer
      *         The charset used for the path. Expected to be not {@code null}.
      *
      * @return
-     *         A string value representing the normalized query.
+     *         A string value representing the normalized query, or {@code query}
+     *         itself if nothing changes.
      *
      * @see <a href="https://www.rfc-editor.org/rfc/rfc3986#section-6">RFC 3986,
      *      Section 6: Normalization and Comparison</a>
@@ -61,7 +62,7 @@ class QueryNormalizer extends PercentEncodedStringNormalizer
         }
 
         // Normalize the query string.
-        return process(query, charset, new StringBuilder());
+        return normalizeString(query, charset);
     }
 
 
@@ -16,8 +16,6 @@
 package org.czeal.rfc3986;
 
 
-import static org.czeal.rfc3986.Utils.isSubdelim;
-import static org.czeal.rfc3986.Utils.isUnreserved;
 import java.nio.charset.Charset;
 
 
@@ -45,7 +43,7 @@ class QueryValidator extends PercentEncodedStringValidator
 {
     QueryValidator()
     {
-        super("query");
+        super("query", URIComponent.QUERY, CharacterClasses.QUERY);
     }
 
 
@@ -68,18 +66,37 @@ class QueryValidator extends PercentEncodedStringValidator
             return;
         }
 
-        process(query, charset, null);
+        validateValue(query, charset);
     }
 
 
-    @Override
-    protected boolean isValidOnNonPercent(char c)
+    /**
+     * Validates a value in a range of an input as a query. The value is
+     * validated in place without creating a substring unless it is necessary
+     * to report an invalid value.
+     *
+     * @param value
+     *         An input containing the query value.
+     *
+     * @param start
+     *         The start index (inclusive) of the query value.
+     *
+     * @param end
+     *         The end index (exclusive) of the query value.
+     *
+     * @param charset
+     *         The charset used for the query value.
+     *
+     * @throws IllegalArgumentException
+     *         If the query value is invalid.
+     */
+    void validate(CharSequence value, int start, int end, Charset charset)
     {
-        return isUnreserved(c) ||
-               isSubdelim(c)   ||
-               c == ':'        ||
-               c == '@'        ||
-               c == '/'        ||
-               c == '?';
+        if (start == end)
+        {
+            return;
+        }
+
+        validateValue(value, start, end, charset);
     }
 }
@@ -16,8 +16,6 @@
 package org.czeal.rfc3986;
 
 
-import static org.czeal.rfc3986.Utils.isSubdelim;
-import static org.czeal.rfc3986.Utils.isUnreserved;
 import java.nio.charset.Charset;
 
 
@@ -47,7 +45,7 @@ class RegNameValidator extends PercentEncodedStringValidator
 {
     RegNameValidator()
     {
-        super("host");
+        super("host", URIComponent.HOST, CharacterClasses.REG_NAME);
     }
 
 
@@ -70,13 +68,37 @@ class RegNameValidator extends PercentEncodedStringValidator
             return;
         }
 
-        process(regName, charset, null);
+        validateValue(regName, charset);
     }
 
 
-    @Override
-    protected boolean isValidOnNonPercent(char c)
+    /**
+     * Validates a value in a range of an input as a reg-name (registered name)
+     * of a host. The value is validated in place without creating a substring
+     * unless it is necessary to report an invalid value.
+     *
+     * @param value
+     *         An input containing the reg-name value.
+     *
+     * @param start
+     *         The start index (inclusive) of the reg-name value.
+     *
+     * @param end
+     *         The end index (exclusive) of the reg-name value.
+     *
+     * @param charset
+     *         The charset used for the reg-name value.
+     *
+     * @throws IllegalArgumentException
+     *         If the reg-name value is invalid.
+     */
+    void validate(CharSequence value, int start, int end, Charset charset)
     {
-        return isUnreserved(c) || isSubdelim(c);
+        if (start == end)
+        {
+            return;
+        }
+
+        validateValue(value, start, end, charset);
     }
 }
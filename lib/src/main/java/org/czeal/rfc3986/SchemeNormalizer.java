@@ -27,7 +27,8 @@ class SchemeNormalizer
      *         A scheme to normalize.
      *
      * @return
-     *         A new string value representing the normalized scheme.
+     *         A string value representing the normalized scheme, or {@code scheme}
+     *         itself if it is already in lower-case.
      *
      * @see <a href="https://www.rfc-editor.org/rfc/rfc3986#section-6">RFC 3986,
      *      Section 6: Normalization and Comparison</a>
@@ -44,6 +45,47 @@ class SchemeNormalizer
         //     that the scheme and host are case-insensitive and therefore
         //     should be normalized to lowercase.
 
-        return scheme.toLowerCase();
+        for (int i = 0; i < scheme.length(); i++)
+        {
+            char c = scheme.charAt(i);
+
+            if ('A' <= c && c <= 'Z')
+            {
+                return scheme.toLowerCase();
+            }
+        }
+
+        // The scheme is already in lower-case.
+        return scheme;
+    }
+
+
+    /**
+     * Normalizes a {@code scheme} in a range of an input, which has already been
+     * validated, and appends the normalized scheme to an output builder. As a
+     * valid scheme consists of ASCII characters only, each character is converted
+     * to lower-case independently of the default locale.
+     *
+     * @param input
+     *         The input containing the scheme.
+     *
+     * @param start
+     *         The start index (inclusive) of the scheme.
+     *
+     * @param end
+     *         The end index (exclusive) of the scheme.
+     *
+     * @param outputBuilder
+     *         The output builder to which the normalized scheme is appended.
+     */
+    void append(CharSequence input, int start, int end, StringBuilder outputBuilder)
+    {
+        for (int i = start; i < end; i++)
+        {
+            char c = input.charAt(i);
+
+            // Convert an upper-case alphabet to lower-case.
+            outputBuilder.append(('A' <= c && c <= 'Z') ? (char)(c + ('a' - 'A')) : c);
+        }
     }
 }
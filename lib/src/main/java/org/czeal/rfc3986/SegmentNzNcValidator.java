@@ -16,10 +16,6 @@
 package org.czeal.rfc3986;
 
 
-import static org.czeal.rfc3986.Utils.isSubdelim;
-import static org.czeal.rfc3986.Utils.isUnreserved;
-
-
 /**
  * <p>
  * <i>NOTE: This class is intended for internal use only.</i>
@@ -45,9 +41,8 @@ import static org.czeal.rfc3986.Utils.isUnreserved;
  */
 class SegmentNzNcValidator extends SegmentNzValidator
 {
-    @Override
-    protected boolean isValidOnNonPercent(char c)
+    SegmentNzNcValidator()
     {
-        return isUnreserved(c) || isSubdelim(c) || c == '@';
+        super(CharacterClasses.SEGMENT_NZ_NC);
     }
 }
@@ -45,6 +45,18 @@ import java.nio.charset.Charset;
  */
 class SegmentNzValidator extends SegmentValidator
 {
+    SegmentNzValidator()
+    {
+        this(CharacterClasses.SEGMENT);
+    }
+
+
+    SegmentNzValidator(int mask)
+    {
+        super(mask);
+    }
+
+
     /**
      * Validates a value as a {@code segment-nz} (non-zero-length path segment).
      *
@@ -67,9 +79,9 @@ class SegmentNzValidator extends SegmentValidator
 
         if (segment.isEmpty())
         {
-            throw newIAE("The %s value must not be empty.", name);
+            throw newIAE(component, ErrorCode.EMPTY_SEGMENT, 0, "The %s value must not be empty.", name);
         }
 
-        process(segment, charset, null);
+        validateValue(segment, charset);
     }
 }
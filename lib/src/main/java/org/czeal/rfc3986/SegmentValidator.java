@@ -16,8 +16,6 @@
 package org.czeal.rfc3986;
 
 
-import static org.czeal.rfc3986.Utils.isSubdelim;
-import static org.czeal.rfc3986.Utils.isUnreserved;
 import java.nio.charset.Charset;
 
 
@@ -46,7 +44,13 @@ class SegmentValidator extends PercentEncodedStringValidator
 {
     SegmentValidator()
     {
-        super("path segment");
+        this(CharacterClasses.SEGMENT);
+    }
+
+
+    SegmentValidator(int mask)
+    {
+        super("path segment", URIComponent.PATH, mask);
     }
 
 
@@ -69,13 +73,6 @@ class SegmentValidator extends PercentEncodedStringValidator
             return;
         }
 
-        process(segment, charset, null);
-    }
-
-
-    @Override
-    protected boolean isValidOnNonPercent(char c)
-    {
-        return isUnreserved(c) || isSubdelim(c) || c == ':' || c == '@';
+        validateValue(segment, charset);
     }
 }
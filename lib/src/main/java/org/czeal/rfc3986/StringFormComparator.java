@@ -0,0 +1,303 @@
+/*
+ * Copyright (C) 2024 Hideki Ikeda
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.czeal.rfc3986;
+
+
+import java.io.Serializable;
+import java.util.Comparator;
+
+
+/**
+ * <p>
+ * <i>NOTE: This class is intended for internal use only.</i>
+ * </p>
+ *
+ * <p>
+ * Compares URI references and authorities in the order of their string
+ * representations without building the strings. The string representation is
+ * regarded as a sequence of pieces as follows, and the pieces are walked in place
+ * character by character. A piece that is not present is empty.
+ * </p>
+ *
+ * <blockquote>
+ * <pre style="font-family: 'Menlo', 'Courier', monospace;">{@code
+ * scheme ":" "//" userinfo "@" host ":" port path "?" query "#" fragment
+ * }</pre>
+ * </blockquote>
+ *
+ * <p>
+ * The result has the same sign as the result of comparing the string representations
+ * with {@link String#compareTo(String)}.
+ * </p>
+ *
+ * @author Hideki Ikeda
+ */
+final class StringFormComparator implements Comparator<URIReference>, Serializable
+{
+    private static final long serialVersionUID = 1L;
+
+
+    /**
+     * The singleton instance.
+     */
+    static final StringFormComparator INSTANCE = new StringFormComparator();
+
+
+    private static final int SCHEME              = 0;
+    private static final int SCHEME_DELIMITER    = 1;
+    private static final int AUTHORITY_DELIMITER = 2;
+    private static final int USERINFO            = 3;
+    private static final int USERINFO_DELIMITER  = 4;
+    private static final int HOST                = 5;
+    private static final int PORT_DELIMITER      = 6;
+    private static final int PORT                = 7;
+    private static final int PATH                = 8;
+    private static final int QUERY_DELIMITER     = 9;
+    private static final int QUERY               = 10;
+    private static final int FRAGMENT_DELIMITER  = 11;
+    private static final int FRAGMENT            = 12;
+    private static final int PIECES              = 13;
+
+
+    private StringFormComparator()
+    {
+    }
+
+
+    @Override
+    public int compare(URIReference uriRef1, URIReference uriRef2)
+    {
+        return uriRef1.compareTo(uriRef2);
+    }
+
+
+    /**
+     * Compares two URI references in the order of their string representations.
+     *
+     * @param uriRef1
+     *         A URI reference.
+     *
+     * @param uriRef2
+     *         Another URI reference.
+     *
+     * @return
+     *         A negative value, zero, or a positive value if the string representation
+     *         of the first URI reference is less than, equal to, or greater than
+     *         that of the second URI reference.
+     */
+    static int compareStringForms(URIReference uriRef1, URIReference uriRef2)
+    {
+        return compare(
+            uriRef1, uriRef1.getAuthority(), uriRef2, uriRef2.getAuthority(), SCHEME, PIECES);
+    }
+
+
+    /**
+     * Compares two authorities in the order of their string representations.
+     *
+     * @param authority1
+     *         An authority.
+     *
+     * @param authority2
+     *         Another authority.
+     *
+     * @return
+     *         A negative value, zero, or a positive value if the string representation
+     *         of the first authority is less than, equal to, or greater than that
+     *         of the second authority.
+     */
+    static int compareStringForms(Authority authority1, Authority authority2)
+    {
+        return compare(null, authority1, null, authority2, USERINFO, PORT + 1);
+    }
+
+
+    private static int compare(
+        URIReference uriRef1, Authority authority1,
+        URIReference uriRef2, Authority authority2, int first, int last)
+    {
+        // The current pieces, the indexes in them and their lengths.
+        int piece1 = first, index1 = 0, length1 = length(uriRef1, authority1, piece1);
+        int piece2 = first, index2 = 0, length2 = length(uriRef2, authority2, piece2);
+
+        while (true)
+        {
+            // Move to the next non-empty pieces.
+            while (index1 == length1 && ++piece1 < last)
+            {
+                index1  = 0;
+                length1 = length(uriRef1, authority1, piece1);
+            }
+
+            while (index2 == length2 && ++piece2 < last)
+            {
+                index2  = 0;
+                length2 = length(uriRef2, authority2, piece2);
+            }
+
+            // If either of the string representations has been consumed.
+            if (piece1 == last || piece2 == last)
+            {
+                break;
+            }
+
+            char c1 = charAt(uriRef1, authority1, piece1, index1++);
+            char c2 = charAt(uriRef2, authority2, piece2, index2++);
+
+            if (c1 != c2)
+            {
+                return c1 - c2;
+            }
+        }
+
+        // One of the string representations is a prefix of the other. The shorter
+        // one comes first.
+        return (piece1 == last ? 0 : 1) - (piece2 == last ? 0 : 1);
+    }
+
+
+    private static int length(URIReference uriRef, Authority authority, int piece)
+    {
+        switch (piece)
+        {
+            case SCHEME:
+                return length(uriRef.getScheme());
+
+            case SCHEME_DELIMITER:
+                return uriRef.getScheme() != null ? 1 : 0;
+
+            case AUTHORITY_DELIMITER:
+                return authority != null ? 2 : 0;
+
+            case USERINFO:
+                return authority != null ? length(authority.getUserinfo()) : 0;
+
+            case USERINFO_DELIMITER:
+                return authority != null && authority.getUserinfo() != null ? 1 : 0;
+
+            case HOST:
+                return authority != null && authority.getHost() != null
+                     ? length(authority.getHost().getValue()) : 0;
+
+            case PORT_DELIMITER:
+                return authority != null && authority.getPort() != -1 ? 1 : 0;
+
+            case PORT:
+                return authority != null && authority.getPort() != -1
+                     ? countDigits(authority.getPort()) : 0;
+
+            case PATH:
+                return length(uriRef.getPath());
+
+            case QUERY_DELIMITER:
+                return uriRef.getQuery() != null ? 1 : 0;
+
+            case QUERY:
+                return length(uriRef.getQuery());
+
+            case FRAGMENT_DELIMITER:
+                return uriRef.getFragment() != null ? 1 : 0;
+
+            case FRAGMENT:
+                return length(uriRef.getFragment());
+
+            default:
+                return 0;
+        }
+    }
+
+
+    private static char charAt(URIReference uriRef, Authority authority, int piece, int index)
+    {
+        switch (piece)
+        {
+            case SCHEME:
+                return uriRef.getScheme().charAt(index);
+
+            case SCHEME_DELIMITER:
+            case PORT_DELIMITER:
+                return ':';
+
+            case AUTHORITY_DELIMITER:
+                return '/';
+
+            case USERINFO:
+                return authority.getUserinfo().charAt(index);
+
+            case USERINFO_DELIMITER:
+                return '@';
+
+            case HOST:
+                return authority.getHost().getValue().charAt(index);
+
+            case PORT:
+                return digitAt(authority.getPort(), index);
+
+            case PATH:
+                return uriRef.getPath().charAt(index);
+
+            case QUERY_DELIMITER:
+                return '?';
+
+            case QUERY:
+                return uriRef.getQuery().charAt(index);
+
+            case FRAGMENT_DELIMITER:
+                return '#';
+
+            default:
+                return uriRef.getFragment().charAt(index);
+        }
+    }
+
+
+    private static int length(String value)
+    {
+        return value != null ? value.length() : 0;
+    }
+
+
+    private static int countDigits(int number)
+    {
+        int digits = 1;
+
+        while (number >= 10)
+        {
+            number /= 10;
+            digits++;
+        }
+
+        return digits;
+    }
+
+
+    private static char digitAt(int number, int index)
+    {
+        // Drop the digits after the index.
+        for (int i = countDigits(number) - 1; i > index; i--)
+        {
+            number /= 10;
+        }
+
+        return (char)('0' + number % 10);
+    }
+
+
+    private Object readResolve()
+    {
+        return INSTANCE;
+    }
+}
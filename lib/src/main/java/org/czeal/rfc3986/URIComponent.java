@@ -0,0 +1,77 @@
+/*
+ * Copyright (C) 2024 Hideki Ikeda
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.czeal.rfc3986;
+
+
+/**
+ * A component of a URI reference, used to tell which component is invalid when
+ * an input string is rejected.
+ *
+ * @see <a href="https://www.rfc-editor.org/rfc/rfc3986#section-3">RFC 3986,
+ *      3. Syntax Components</a>
+ *
+ * @author Hideki Ikeda
+ */
+public enum URIComponent
+{
+    /**
+     * Scheme.
+     */
+    SCHEME,
+
+
+    /**
+     * Authority, used when the authority can't be split into the userinfo, the
+     * host and the port.
+     */
+    AUTHORITY,
+
+
+    /**
+     * Userinfo.
+     */
+    USERINFO,
+
+
+    /**
+     * Host.
+     */
+    HOST,
+
+
+    /**
+     * Port.
+     */
+    PORT,
+
+
+    /**
+     * Path.
+     */
+    PATH,
+
+
+    /**
+     * Query.
+     */
+    QUERY,
+
+
+    /**
+     * Fragment.
+     */
+    FRAGMENT,
+}
@@ -17,10 +17,26 @@ package org.czeal.rfc3986;
 
 
 import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.czeal.rfc3986.ComponentOffsets.AUTHORITY_END;
+import static org.czeal.rfc3986.ComponentOffsets.AUTHORITY_START;
+import static org.czeal.rfc3986.ComponentOffsets.END;
+import static org.czeal.rfc3986.ComponentOffsets.FRAGMENT_START;
+import static org.czeal.rfc3986.ComponentOffsets.PATH_END;
+import static org.czeal.rfc3986.ComponentOffsets.PATH_START;
+import static org.czeal.rfc3986.ComponentOffsets.PORT;
+import static org.czeal.rfc3986.ComponentOffsets.QUERY_END;
+import static org.czeal.rfc3986.ComponentOffsets.QUERY_START;
+import static org.czeal.rfc3986.ComponentOffsets.SCHEME_END;
+import static org.czeal.rfc3986.ComponentOffsets.START;
 import static org.czeal.rfc3986.Utils.newNPE;
+import java.io.InvalidObjectException;
+import java.io.ObjectInputStream;
+import java.io.ObjectStreamException;
 import java.io.Serializable;
+import java.nio.ByteBuffer;
 import java.nio.charset.Charset;
 import java.nio.charset.StandardCharsets;
+import java.util.Comparator;
 import java.util.Objects;
 
 
@@ -47,7 +63,7 @@ import java.util.Objects;
  * </p>
  *
  * <p>
- * The {@link #normalize()} method returns a new {@code URIReference} instance representing
+ * The {@link #normalize()} method returns a {@code URIReference} instance representing
  * a URI reference obtained by normalizing the current URI reference, in accordance
  * with RFC 3986, 6 Normalization and Comparison. Note that a URI reference must
  * be resolved before it can be normalized.
@@ -131,6 +147,22 @@ public class URIReference implements Serializable, Comparable<URIReference>
     private static final long serialVersionUID = 1L;
 
 
+    /**
+     * A comparator that orders URI references by their string representations,
+     * which is the same order as the natural ordering defined by {@link
+     * #compareTo(URIReference)}. The components are compared in place without
+     * building the string representations, so the comparator can be reused for
+     * sorting a large number of URI references.
+     *
+     * <pre>{@code
+     * List<URIReference> uriRefs = ...;
+     *
+     * uriRefs.sort(URIReference.STRING_ORDER);
+     * }</pre>
+     */
+    public static final Comparator<URIReference> STRING_ORDER = StringFormComparator.INSTANCE;
+
+
     /**
      * Internal class that holds intermediate values of the URI components during
      * some process This class is intentionally package-private.
@@ -144,6 +176,7 @@ public class URIReference implements Serializable, Comparable<URIReference>
         String path;
         String query;
         String fragment;
+        boolean normalized;
 
 
         /**
@@ -263,64 +296,1155 @@ public class URIReference implements Serializable, Comparable<URIReference>
 
 
     /**
-     * The charset used for percent-encoding some characters (e.g. reserved characters)
-     * contained in the URI reference.
+     * Parses a range of a character sequence as a URI reference.
+     *
+     * <p>
+     * This method works in the same way as {@link #parse(String, Charset)} does
+     * for the string of the range, but validates the range in place without creating
+     * a substring of it. Only the strings of the components are created from the
+     * range, and the returned instance doesn't keep the character sequence, so
+     * the character sequence can be modified after this method returns. This is
+     * useful for parsing a URI reference embedded in a larger buffer such as an
+     * HTTP request line.
+     * </p>
+     *
+     * <pre>{@code
+     * String line = "GET http://example.com/a?b HTTP/1.1";
+     *
+     * URIReference uriRef = URIReference.parse(line, 4, 26, StandardCharsets.UTF_8);
+     *
+     * System.out.println(uriRef.getPath()); // "/a"
+     * }</pre>
+     *
+     * @param uriRef
+     *         The character sequence containing the URI reference.
+     *
+     * @param start
+     *         The start index (inclusive) of the URI reference.
+     *
+     * @param end
+     *         The end index (exclusive) of the URI reference.
+     *
+     * @param charset
+     *          The charset used for percent-encoding some characters (e.g. reserved
+     *          characters) contained in the URI reference.
+     *
+     * @return
+     *         The {@code URIReference} instance obtained by parsing the range.
+     *
+     * @throws NullPointerException
+     *          If {@code uriRef} or {@code charset} is {@code null}.
+     *
+     * @throws IndexOutOfBoundsException
+     *          If {@code start} or {@code end} is out of the bounds of the character
+     *          sequence, or {@code start} is greater than {@code end}.
+     *
+     * @throws IllegalArgumentException
+     *          If the range is invalid as a URI reference.
+     *
+     * @see <a href="https://www.rfc-editor.org/rfc/rfc3986">RFC 3986 Uniform
+     *      Resource Identifier (URI): Generic Syntax</a>
      */
-    private final Charset charset;
+    public static URIReference parse(CharSequence uriRef, int start, int end, Charset charset)
+    {
+        return new URIReferenceParser().parse(uriRef, start, end, charset);
+    }
 
 
     /**
-     * Whether the URI reference is a relative reference or not.
+     * Parses a character sequence as a URI reference and reports its components
+     * to a handler.
+     *
+     * <p>
+     * Note that this method works as if invoking it were equivalent to evaluating
+     * the expression <code>{@link #parse(CharSequence, int, int, Charset, URIReferenceHandler)
+     * parse}(uriRef, 0, uriRef.length(), charset, handler)</code>.
+     * </p>
+     *
+     * @param uriRef
+     *         The character sequence to parse as a URI reference.
+     *
+     * @param charset
+     *          The charset used for percent-encoding some characters (e.g. reserved
+     *          characters) contained in the URI reference.
+     *
+     * @param handler
+     *         The handler receiving the components.
+     *
+     * @throws NullPointerException
+     *          If {@code uriRef}, {@code charset} or {@code handler} is {@code null}.
+     *
+     * @throws IllegalArgumentException
+     *          If {@code uriRef} is invalid as a URI reference.
+     *
+     * @see <a href="https://www.rfc-editor.org/rfc/rfc3986">RFC 3986 Uniform
+     *      Resource Identifier (URI): Generic Syntax</a>
      */
-    private final boolean relativeReference;
+    public static void parse(CharSequence uriRef, Charset charset, URIReferenceHandler handler)
+    {
+        if (uriRef == null)
+        {
+            throw newNPE("The input string must not be null.");
+        }
+
+        parse(uriRef, 0, uriRef.length(), charset, handler);
+    }
 
 
     /**
-     * The value of the scheme.
+     * Parses a range of a character sequence as a URI reference and reports its
+     * components to a handler.
+     *
+     * <p>
+     * The range is validated in the same way as {@link #parse(CharSequence, int,
+     * int, Charset)} does. If it is valid, the components are reported to the
+     * handler as ranges of the character sequence in the order in which they appear.
+     * Neither a {@code URIReference} instance nor any component string is created,
+     * so this method is suitable for routing requests or extracting a few components
+     * of many URI references. If the range is invalid, an exception is thrown and
+     * no method of the handler is invoked.
+     * </p>
+     *
+     * <pre>{@code
+     * URIReference.parse("http://example.com:8080/a?k=v", 0, 29, StandardCharsets.UTF_8,
+     *     new URIReferenceHandler()
+     *     {
+     *         @Override
+     *         public void onPort(int port)
+     *         {
+     *             System.out.println(port); // 8080
+     *         }
+     *
+     *         @Override
+     *         public void onQueryParam(
+     *             CharSequence input, int keyStart, int keyEnd, int valueStart, int valueEnd)
+     *         {
+     *             System.out.println(input.subSequence(valueStart, valueEnd)); // "v"
+     *         }
+     *     });
+     * }</pre>
+     *
+     * @param uriRef
+     *         The character sequence containing the URI reference.
+     *
+     * @param start
+     *         The start index (inclusive) of the URI reference.
+     *
+     * @param end
+     *         The end index (exclusive) of the URI reference.
+     *
+     * @param charset
+     *          The charset used for percent-encoding some characters (e.g. reserved
+     *          characters) contained in the URI reference.
+     *
+     * @param handler
+     *         The handler receiving the components.
+     *
+     * @throws NullPointerException
+     *          If {@code uriRef}, {@code charset} or {@code handler} is {@code null}.
+     *
+     * @throws IndexOutOfBoundsException
+     *          If {@code start} or {@code end} is out of the bounds of the character
+     *          sequence, or {@code start} is greater than {@code end}.
+     *
+     * @throws IllegalArgumentException
+     *          If the range is invalid as a URI reference.
+     *
+     * @see <a href="https://www.rfc-editor.org/rfc/rfc3986">RFC 3986 Uniform
+     *      Resource Identifier (URI): Generic Syntax</a>
      */
-    private final String scheme;
+    public static void parse(
+        CharSequence uriRef, int start, int end, Charset charset, URIReferenceHandler handler)
+    {
+        new URIReferenceParser().parse(uriRef, start, end, charset, handler);
+    }
 
 
     /**
-     * The value of the authority.
+     * Parses a range of bytes as a URI reference.
+     *
+     * <p>
+     * The bytes are interpreted with the given charset, which is also used for
+     * percent-encoding. If the charset is UTF-8, US-ASCII or ISO-8859-1, the bytes
+     * are checked in place without being decoded. As any valid URI reference consists
+     * of ASCII characters only, only a single string is created from the bytes
+     * for the returned instance, and the component strings are created from it when
+     * they are accessed for the first time, as in the case of {@link #parseLazily(String,
+     * Charset)}. For other charsets, the bytes are decoded and then parsed.
+     * </p>
+     *
+     * <pre>{@code
+     * byte[] bytes = "http://example.com/a?b".getBytes(StandardCharsets.UTF_8);
+     *
+     * URIReference uriRef = URIReference.parse(bytes, 0, bytes.length, StandardCharsets.UTF_8);
+     *
+     * System.out.println(uriRef.getHost().getValue()); // "example.com"
+     * }</pre>
+     *
+     * @param uriRef
+     *         The bytes containing the URI reference.
+     *
+     * @param offset
+     *         The index of the first byte of the URI reference.
+     *
+     * @param length
+     *         The number of the bytes of the URI reference.
+     *
+     * @param charset
+     *          The charset of the bytes, which is also used for percent-encoding
+     *          some characters (e.g. reserved characters) contained in the URI
+     *          reference.
+     *
+     * @return
+     *         The {@code URIReference} instance obtained by parsing the bytes.
+     *
+     * @throws NullPointerException
+     *          If {@code uriRef} or {@code charset} is {@code null}.
+     *
+     * @throws IndexOutOfBoundsException
+     *          If {@code offset} or {@code length} is negative, or the range is
+     *          out of the bounds of {@code uriRef}.
+     *
+     * @throws IllegalArgumentException
+     *          If the bytes are invalid as a URI reference.
+     *
+     * @see <a href="https://www.rfc-editor.org/rfc/rfc3986">RFC 3986 Uniform
+     *      Resource Identifier (URI): Generic Syntax</a>
      */
-    private final Authority authority;
+    public static URIReference parse(byte[] uriRef, int offset, int length, Charset charset)
+    {
+        return new URIReferenceParser().parse(uriRef, offset, length, charset);
+    }
+
+
+    /**
+     * Parses the bytes between the position and the limit of a buffer as a URI
+     * reference.
+     *
+     * <p>
+     * This method works in the same way as {@link #parse(byte[], int, int, Charset)}
+     * does. The bytes are read in place with absolute reads, so a direct buffer
+     * is not copied onto the heap before it is checked, and the position of the
+     * buffer is not changed.
+     * </p>
+     *
+     * @param uriRef
+     *         The buffer containing the URI reference.
+     *
+     * @param charset
+     *          The charset of the bytes, which is also used for percent-encoding
+     *          some characters (e.g. reserved characters) contained in the URI
+     *          reference.
+     *
+     * @return
+     *         The {@code URIReference} instance obtained by parsing the bytes.
+     *
+     * @throws NullPointerException
+     *          If {@code uriRef} or {@code charset} is {@code null}.
+     *
+     * @throws IllegalArgumentException
+     *          If the bytes are invalid as a URI reference.
+     *
+     * @see <a href="https://www.rfc-editor.org/rfc/rfc3986">RFC 3986 Uniform
+     *      Resource Identifier (URI): Generic Syntax</a>
+     */
+    public static URIReference parse(ByteBuffer uriRef, Charset charset)
+    {
+        return new URIReferenceParser().parse(uriRef, charset);
+    }
 
 
     /**
-     * The value of the path.
+     * Parses a string in the same way as {@link #parse(String)} does, but creates
+     * a {@code URIReference} instance backed by the input string.
+     *
+     * <p>
+     * Note that this method works as if invoking it were equivalent to evaluating
+     * the expression <code>{@link #parseLazily(String, Charset) parseLazily}(String
+     * uriRef, {@link StandardCharsets}.{@link StandardCharsets#UTF_8 UTF_8})</code>.
+     * </p>
+     *
+     * @param uriRef
+     *         A input string to parse as a URI reference.
+     *
+     * @return
+     *         The {@code URIReference} instance obtained by parsing the input string.
+     *
+     * @throws NullPointerException
+     *          If {@code uriRef} is {@code null}.
+     *
+     * @throws IllegalArgumentException
+     *          If {@code uriRef} is invalid as a URI reference.
+     *
+     * @see #parseLazily(String, Charset)
      */
-    private final String path;
+    public static URIReference parseLazily(String uriRef)
+    {
+        return parseLazily(uriRef, UTF_8);
+    }
 
 
     /**
-     * The value of the query.
+     * Parses a string in the same way as {@link #parse(String, Charset)} does,
+     * but creates a {@code URIReference} instance backed by the input string.
+     *
+     * <p>
+     * The input string is fully validated as a URI reference, but the returned
+     * instance only keeps the input string and the offsets of the components in
+     * it. The component strings and the {@link Authority} and {@link Host} objects
+     * are created when they are accessed for the first time and then cached. The
+     * {@link #toString()}, {@link #equals(Object)} and {@link #hashCode()} methods
+     * work directly against the input string as long as the input string is the
+     * string representation of the URI reference, that is, unless the port is empty
+     * or has leading zeros. This is suitable for the case where many URI references
+     * are parsed only to be validated, compared or stored.
+     * </p>
+     *
+     * <p>
+     * The returned instance behaves in the same way as an instance created by
+     * {@link #parse(String, Charset)} in all other respects. Both kinds of instances
+     * are comparable with each other.
+     * </p>
+     *
+     * <pre>{@code
+     * // Parse a URI. No component is created at this point.
+     * URIReference uriRef = URIReference.parseLazily("http://example.com/a?b", StandardCharsets.UTF_8);
+     *
+     * System.out.println(uriRef.toString());  // "http://example.com/a?b"
+     * System.out.println(uriRef.getScheme()); // "http"
+     * System.out.println(uriRef.getQuery());  // "b"
+     * }</pre>
+     *
+     * @param uriRef
+     *         The input string to be parsed as a {@code URIReference} instance.
+     *
+     * @param charset
+     *          The charset used for percent-encoding some characters (e.g. reserved
+     *          characters) contained in the input string.
+     *
+     * @return
+     *         The {@code URIReference} instance obtained by parsing the input string.
+     *
+     * @throws NullPointerException
+     *          If {@code uriRef} or {@code charset} is {@code null}.
+     *
+     * @throws IllegalArgumentException
+     *          If {@code uriRef} is invalid as a URI reference.
+     *
+     * @see <a href="https://www.rfc-editor.org/rfc/rfc3986">RFC 3986 Uniform
+     *      Resource Identifier (URI): Generic Syntax</a>
      */
-    private final String query;
+    public static URIReference parseLazily(String uriRef, Charset charset)
+    {
+        return new URIReferenceParser().parseLazily(uriRef, charset);
+    }
+
+
+    /**
+     * Splits a string into the components of a URI reference, deferring the
+     * validation of the components until they are accessed.
+     *
+     * <p>
+     * Note that this method works as if invoking it were equivalent to evaluating
+     * the expression <code>{@link #parseDeferred(String, Charset) parseDeferred}(String
+     * uriRef, {@link StandardCharsets}.{@link StandardCharsets#UTF_8 UTF_8})</code>.
+     * </p>
+     *
+     * @param uriRef
+     *         A input string to split into the components of a URI reference.
+     *
+     * @return
+     *         The {@code URIReference} instance obtained by splitting the input
+     *         string.
+     *
+     * @throws NullPointerException
+     *          If {@code uriRef} is {@code null}.
+     *
+     * @throws IllegalArgumentException
+     *          If {@code uriRef} can't be split into the components.
+     *
+     * @see #parseDeferred(String, Charset)
+     */
+    public static URIReference parseDeferred(String uriRef)
+    {
+        return parseDeferred(uriRef, UTF_8);
+    }
 
 
     /**
-     * The value of the fragment.
+     * Splits a string into the components of a URI reference, deferring the
+     * validation of the components until they are accessed.
+     *
+     * <p>
+     * This method only splits the input string into the {@code scheme}, {@code
+     * authority}, {@code path}, {@code query} and {@code fragment} components as
+     * described in <a href="https://www.rfc-editor.org/rfc/rfc3986#appendix-B">
+     * RFC 3986, Appendix B</a>, and the returned instance is backed by the input
+     * string as an instance created by {@link #parseLazily(String, Charset)} is.
+     * The scheme is validated while it is found, and {@link #isRelativeReference()}
+     * and {@link #hasAuthority()} don't validate anything. Each of the other components
+     * is validated when it is accessed for the first time, and an {@code IllegalArgumentException}
+     * is thrown then if it is invalid. The authority is validated as a whole when
+     * any of the authority, the userinfo, the host or the port is accessed. The
+     * methods transforming the URI reference, {@link #resolve(URIReference)} and
+     * {@link #normalize()}, validate all the components.
+     * </p>
+     *
+     * <p>
+     * {@link #toString()}, {@link #equals(Object)}, {@link #hashCode()}, {@link
+     * #compareTo(URIReference)} and serialization don't validate anything, and
+     * work on the input string even if some of the components are invalid. The
+     * string representation is the input string, except that an empty port and
+     * the leading zeros of a port are omitted as they are for a parsed URI reference,
+     * so a valid URI reference is equal to the one created by {@link #parse(String,
+     * Charset)}.
+     * </p>
+     *
+     * <p>
+     * This is suitable for the case where only a few components of the URI references
+     * are used, or where the input strings are known to be valid. Call {@link
+     * #validateAll()} to validate all the components at once.
+     * </p>
+     *
+     * <pre>{@code
+     * URIReference uriRef = URIReference.parseDeferred("http://example.com/a%ZZ", StandardCharsets.UTF_8);
+     *
+     * System.out.println(uriRef.getHost().getValue()); // "example.com"
+     * System.out.println(uriRef.toString());           // "http://example.com/a%ZZ"
+     *
+     * uriRef.getPath(); // IllegalArgumentException
+     * }</pre>
+     *
+     * @param uriRef
+     *         The input string to split into the components of a URI reference.
+     *
+     * @param charset
+     *          The charset used for percent-encoding some characters (e.g. reserved
+     *          characters) contained in the input string.
+     *
+     * @return
+     *         The {@code URIReference} instance obtained by splitting the input
+     *         string.
+     *
+     * @throws NullPointerException
+     *          If {@code uriRef} or {@code charset} is {@code null}.
+     *
+     * @throws IllegalArgumentException
+     *          If {@code uriRef} can't be split into the components, that is, if
+     *          the fragment contains a line terminator.
+     *
+     * @see <a href="https://www.rfc-editor.org/rfc/rfc3986">RFC 3986 Uniform
+     *      Resource Identifier (URI): Generic Syntax</a>
      */
-    private final String fragment;
+    public static URIReference parseDeferred(String uriRef, Charset charset)
+    {
+        return new URIReferenceParser().parseDeferred(uriRef, charset);
+    }
+
+
+    /**
+     * Splits a string that is known to be a valid URI reference into the components
+     * without validating them.
+     *
+     * <p>
+     * Note that this method works as if invoking it were equivalent to evaluating
+     * the expression <code>{@link #parseTrusted(String, Charset) parseTrusted}(String
+     * uriRef, {@link StandardCharsets}.{@link StandardCharsets#UTF_8 UTF_8})</code>.
+     * </p>
+     *
+     * @param uriRef
+     *         A input string that is a valid URI reference.
+     *
+     * @return
+     *         The {@code URIReference} instance obtained by splitting the input
+     *         string.
+     *
+     * @throws NullPointerException
+     *          If {@code uriRef} is {@code null}.
+     *
+     * @throws IllegalArgumentException
+     *          If assertions are enabled and {@code uriRef} is invalid as a URI
+     *          reference, or if the port contains a non-digit character.
+     *
+     * @see #parseTrusted(String, Charset)
+     */
+    public static URIReference parseTrusted(String uriRef)
+    {
+        return parseTrusted(uriRef, UTF_8);
+    }
+
+
+    /**
+     * Splits a string that is known to be a valid URI reference into the components
+     * without validating them.
+     *
+     * <p>
+     * This method is intended for strings that have already been validated, for
+     * example, strings built by {@link URIReferenceBuilder} or returned by {@link
+     * #toString()} of another instance. It only splits the input string into the
+     * components and classifies the type of the host, skipping the validation
+     * of the syntax and the percent-encoded values. The returned instance is backed
+     * by the input string as an instance created by {@link #parseLazily(String,
+     * Charset)} is.
+     * </p>
+     *
+     * <p>
+     * <b>The input string must be a valid URI reference.</b> If it isn't, the
+     * components of the returned instance are whatever the input string contains
+     * between the delimiters, e.g. a host containing invalid characters, and the
+     * instance may behave inconsistently. The only exception is the port, which
+     * is converted into a number; a port containing a non-digit character causes
+     * an {@code IllegalArgumentException} rather than a wrong port number. To catch
+     * such misuse, the input string is fully validated in the same way as {@link
+     * #parseLazily(String, Charset)} does, throwing an {@code IllegalArgumentException}
+     * if it is invalid, when assertions are enabled for this library (e.g. with
+     * the {@code -ea} option of the {@code java} command, which build tools such
+     * as Gradle and Maven enable for tests by default).
+     * </p>
+     *
+     * <pre>{@code
+     * String stored = URIReference.parse("http://example.com/a").normalize().toString();
+     *
+     * URIReference uriRef = URIReference.parseTrusted(stored, StandardCharsets.UTF_8);
+     * }</pre>
+     *
+     * @param uriRef
+     *         The input string that is a valid URI reference.
+     *
+     * @param charset
+     *          The charset used for percent-encoding some characters (e.g. reserved
+     *          characters) contained in the input string.
+     *
+     * @return
+     *         The {@code URIReference} instance obtained by splitting the input
+     *         string.
+     *
+     * @throws NullPointerException
+     *          If {@code uriRef} or {@code charset} is {@code null}.
+     *
+     * @throws IllegalArgumentException
+     *          If assertions are enabled and {@code uriRef} is invalid as a URI
+     *          reference, or if the port contains a non-digit character.
+     *
+     * @see <a href="https://www.rfc-editor.org/rfc/rfc3986">RFC 3986 Uniform
+     *      Resource Identifier (URI): Generic Syntax</a>
+     */
+    public static URIReference parseTrusted(String uriRef, Charset charset)
+    {
+        return new URIReferenceParser().parseTrusted(uriRef, charset);
+    }
+
+
+    /**
+     * Parses a string as a URI reference and normalizes it in a single pass.
+     *
+     * <p>
+     * Note that this method works as if invoking it were equivalent to evaluating
+     * the expression <code>{@link #parseNormalized(CharSequence, Charset)
+     * parseNormalized}(CharSequence uriRef, {@link StandardCharsets}.{@link
+     * StandardCharsets#UTF_8 UTF_8})</code>.
+     * </p>
+     *
+     * @param uriRef
+     *         A input string to parse as a URI reference.
+     *
+     * @return
+     *         The normalized {@code URIReference} instance.
+     *
+     * @throws NullPointerException
+     *          If {@code uriRef} is {@code null}.
+     *
+     * @throws IllegalArgumentException
+     *          If the value of {@code uriRef} is invalid as a URI reference.
+     *
+     * @throws IllegalStateException
+     *          If the value of {@code uriRef} is a relative reference.
+     *
+     * @see #parseNormalized(CharSequence, Charset)
+     */
+    public static URIReference parseNormalized(CharSequence uriRef)
+    {
+        return parseNormalized(uriRef, UTF_8);
+    }
+
+
+    /**
+     * Parses a string as a URI reference and normalizes it in a single pass.
+     *
+     * <p>
+     * The result is equal to the result of {@code parse(uriRef, charset).normalize()},
+     * but neither the intermediate {@code URIReference} instance nor its component
+     * strings are created. The input string is validated first, and then the
+     * normalized components (the scheme and the host in lowercase, the normalized
+     * percent-encoded values, the path without dot segments, and the port omitted
+     * if it is the default port of the scheme) are written one after another
+     * into a single string, which backs the returned instance.
+     * </p>
+     *
+     * <pre>{@code
+     * URIReference uriRef = URIReference.parseNormalized("hTTp://Example.com:80/a/./b/../%7e");
+     *
+     * assertEquals("http://example.com/a/~", uriRef.toString());
+     * }</pre>
+     *
+     * @param uriRef
+     *         The input string to parse as a URI reference.
+     *
+     * @param charset
+     *          The charset used for percent-encoding some characters (e.g. reserved
+     *          characters) contained in the input string.
+     *
+     * @return
+     *         The normalized {@code URIReference} instance.
+     *
+     * @throws NullPointerException
+     *          If {@code uriRef} or {@code charset} is {@code null}.
+     *
+     * @throws IllegalArgumentException
+     *          If the value of {@code uriRef} is invalid as a URI reference.
+     *
+     * @throws IllegalStateException
+     *          If the value of {@code uriRef} is a relative reference.
+     *
+     * @see <a href="https://www.rfc-editor.org/rfc/rfc3986#section-6">RFC 3986,
+     *      Section 6: Normalization and Comparison</a>
+     */
+    public static URIReference parseNormalized(CharSequence uriRef, Charset charset)
+    {
+        return new URIReferenceParser().parseNormalized(uriRef, charset);
+    }
+
+
+    /**
+     * Parses a string in the same way as {@link #parse(String)} does, but returns
+     * the error instead of throwing an exception if the string is invalid.
+     *
+     * <p>
+     * Note that this method works as if invoking it were equivalent to evaluating
+     * the expression <code>{@link #tryParse(String, Charset) tryParse}(uriRef,
+     * {@link StandardCharsets}.{@link StandardCharsets#UTF_8 UTF_8})</code>.
+     * </p>
+     *
+     * @param uriRef
+     *         The input string to parse as a URI reference.
+     *
+     * @return
+     *         The result holding the {@code URIReference} instance or the error.
+     *
+     * @throws NullPointerException
+     *          If {@code uriRef} is {@code null}.
+     *
+     * @see #tryParse(String, Charset)
+     */
+    public static ParseResult tryParse(String uriRef)
+    {
+        return tryParse(uriRef, UTF_8);
+    }
+
+
+    /**
+     * Parses a string in the same way as {@link #parse(String, Charset)} does,
+     * but returns the error instead of throwing an exception if the string is
+     * invalid.
+     *
+     * <p>
+     * This method is suitable for untrusted input strings, a certain portion of
+     * which is expected to be invalid. An invalid input string costs neither an
+     * exception nor a formatted message. The returned {@link ParseError} holds
+     * the invalid component, the {@link ErrorCode} and the index in the input
+     * string, and formats the message only when {@link ParseError#getMessage()}
+     * is invoked. The input string is checked only once whether it is valid or
+     * not.
+     * </p>
+     *
+     * <pre>{@code
+     * ParseResult result = URIReference.tryParse("http://example.com/a%zz", StandardCharsets.UTF_8);
+     *
+     * System.out.println(result.isSuccess());                 // false
+     * System.out.println(result.getError().getComponent());   // "PATH"
+     * System.out.println(result.getError().getCode());        // "INVALID_HEX_DIGIT"
+     * System.out.println(result.getError().getIndex());       // 20
+     * }</pre>
+     *
+     * @param uriRef
+     *         The input string to parse as a URI reference.
+     *
+     * @param charset
+     *          The charset used for percent-encoding some characters (e.g. reserved
+     *          characters) contained in the input string.
+     *
+     * @return
+     *         The result holding the {@code URIReference} instance or the error.
+     *
+     * @throws NullPointerException
+     *          If {@code uriRef} or {@code charset} is {@code null}.
+     *
+     * @see <a href="https://www.rfc-editor.org/rfc/rfc3986">RFC 3986 Uniform
+     *      Resource Identifier (URI): Generic Syntax</a>
+     */
+    public static ParseResult tryParse(String uriRef, Charset charset)
+    {
+        return new URIReferenceParser().tryParse(uriRef, charset);
+    }
+
+
+    /**
+     * Checks whether or not a string is a valid URI reference.
+     *
+     * <p>
+     * Note that this method works as if invoking it were equivalent to evaluating
+     * the expression <code>{@link #isValid(CharSequence, Charset) isValid}(uriRef,
+     * {@link StandardCharsets}.{@link StandardCharsets#UTF_8 UTF_8})</code>.
+     * </p>
+     *
+     * @param uriRef
+     *         The input string to check.
+     *
+     * @return
+     *         {@code true} if the input string is a valid URI reference; otherwise,
+     *         {@code false}.
+     *
+     * @throws NullPointerException
+     *          If {@code uriRef} is {@code null}.
+     *
+     * @see #isValid(CharSequence, int, int, Charset, ErrorPosition)
+     */
+    public static boolean isValid(CharSequence uriRef)
+    {
+        return isValid(uriRef, UTF_8);
+    }
+
+
+    /**
+     * Checks whether or not a string is a valid URI reference.
+     *
+     * <p>
+     * Note that this method works as if invoking it were equivalent to evaluating
+     * the expression <code>{@link #isValid(CharSequence, int, int, Charset, ErrorPosition)
+     * isValid}(uriRef, 0, uriRef.length(), charset, null)</code>.
+     * </p>
+     *
+     * @param uriRef
+     *         The input string to check.
+     *
+     * @param charset
+     *          The charset used for percent-encoding some characters (e.g. reserved
+     *          characters) contained in the input string.
+     *
+     * @return
+     *         {@code true} if the input string is a valid URI reference; otherwise,
+     *         {@code false}.
+     *
+     * @throws NullPointerException
+     *          If {@code uriRef} or {@code charset} is {@code null}.
+     *
+     * @see #isValid(CharSequence, int, int, Charset, ErrorPosition)
+     */
+    public static boolean isValid(CharSequence uriRef, Charset charset)
+    {
+        if (uriRef == null)
+        {
+            throw newNPE("The input string must not be null.");
+        }
+
+        return isValid(uriRef, 0, uriRef.length(), charset, null);
+    }
+
+
+    /**
+     * Checks whether or not a range of a string is a valid URI reference.
+     *
+     * <p>
+     * Note that this method works as if invoking it were equivalent to evaluating
+     * the expression <code>{@link #isValid(CharSequence, int, int, Charset, ErrorPosition)
+     * isValid}(uriRef, start, end, charset, null)</code>.
+     * </p>
+     *
+     * @param uriRef
+     *         The input string containing the URI reference to check.
+     *
+     * @param start
+     *         The start index (inclusive) of the URI reference.
+     *
+     * @param end
+     *         The end index (exclusive) of the URI reference.
+     *
+     * @param charset
+     *          The charset used for percent-encoding some characters (e.g. reserved
+     *          characters) contained in the input string.
+     *
+     * @return
+     *         {@code true} if the range of the input string is a valid URI reference;
+     *         otherwise, {@code false}.
+     *
+     * @throws NullPointerException
+     *          If {@code uriRef} or {@code charset} is {@code null}.
+     *
+     * @throws IndexOutOfBoundsException
+     *          If {@code start} or {@code end} is out of the bounds of the input
+     *          string, or {@code start} is greater than {@code end}.
+     *
+     * @see #isValid(CharSequence, int, int, Charset, ErrorPosition)
+     */
+    public static boolean isValid(CharSequence uriRef, int start, int end, Charset charset)
+    {
+        return isValid(uriRef, start, end, charset, null);
+    }
+
+
+    /**
+     * Checks whether or not a range of a string is a valid URI reference.
+     *
+     * <p>
+     * The range is checked against the same rules as {@link #parse(String, Charset)}
+     * applies, so this method returns {@code true} if and only if {@code parse}
+     * succeeds for the same characters. Unlike {@code parse}, this method doesn't
+     * throw an exception for an invalid input, doesn't create a substring or the
+     * components, and works against any {@link CharSequence} such as a {@link
+     * StringBuilder} or a {@link java.nio.CharBuffer CharBuffer}. This is suitable
+     * for filtering a large number of inputs, most of which are expected to be
+     * invalid, or for checking a part of a larger text.
+     * </p>
+     *
+     * <p>
+     * If the range is invalid and {@code position} is not {@code null}, the component
+     * that was found invalid, the {@link ErrorCode} and the index in the input string
+     * at which it was found invalid are set to {@code position}. If the range is
+     * valid, {@code position} is left untouched.
+     * </p>
+     *
+     * <pre>{@code
+     * ErrorPosition position = new ErrorPosition();
+     *
+     * URIReference.isValid("http://example.com/a%zz", 0, 23, StandardCharsets.UTF_8, position);
+     *
+     * System.out.println(position.getComponent()); // "PATH"
+     * System.out.println(position.getIndex());     // 20
+     * }</pre>
+     *
+     * <p>
+     * If the charset is UTF-8, the percent-encoded values are checked in place.
+     * For other charsets, the bytes represented by the percent-encoded values are
+     * decoded with the charset, which requires small temporary buffers.
+     * </p>
+     *
+     * @param uriRef
+     *         The input string containing the URI reference to check.
+     *
+     * @param start
+     *         The start index (inclusive) of the URI reference.
+     *
+     * @param end
+     *         The end index (exclusive) of the URI reference.
+     *
+     * @param charset
+     *          The charset used for percent-encoding some characters (e.g. reserved
+     *          characters) contained in the input string.
+     *
+     * @param position
+     *         The position to which the details of the error are set, or {@code
+     *         null} if the details are not necessary.
+     *
+     * @return
+     *         {@code true} if the range of the input string is a valid URI reference;
+     *         otherwise, {@code false}.
+     *
+     * @throws NullPointerException
+     *          If {@code uriRef} or {@code charset} is {@code null}.
+     *
+     * @throws IndexOutOfBoundsException
+     *          If {@code start} or {@code end} is out of the bounds of the input
+     *          string, or {@code start} is greater than {@code end}.
+     *
+     * @see <a href="https://www.rfc-editor.org/rfc/rfc3986">RFC 3986 Uniform
+     *      Resource Identifier (URI): Generic Syntax</a>
+     */
+    public static boolean isValid(
+        CharSequence uriRef, int start, int end, Charset charset, ErrorPosition position)
+    {
+        // Ensure the input string is not null.
+        if (uriRef == null)
+        {
+            throw newNPE("The input string must not be null.");
+        }
+
+        // Ensure the charset is not null.
+        if (charset == null)
+        {
+            throw newNPE("The charset must not be null.");
+        }
+
+        // Ensure the range is in the bounds of the input string.
+        if (start < 0 || end > uriRef.length() || start > end)
+        {
+            throw new IndexOutOfBoundsException(String.format(
+                "The range [%d, %d) is out of the bounds of the input string of length %d.",
+                start, end, uriRef.length()));
+        }
+
+        // Check the range.
+        long result = URIReferenceChecker.check(uriRef, start, end, charset);
+
+        if (result == URIReferenceChecker.VALID)
+        {
+            return true;
+        }
+
+        // Report the details of the error.
+        if (position != null)
+        {
+            position.set(
+                URIReferenceChecker.component(result),
+                URIReferenceChecker.code(result),
+                URIReferenceChecker.index(result));
+        }
+
+        return false;
+    }
+
+
+    /**
+     * The charset used for percent-encoding some characters (e.g. reserved characters)
+     * contained in the URI reference.
+     */
+    private final Charset charset;
+
+
+    /**
+     * Whether the URI reference is a relative reference or not.
+     */
+    private final boolean relativeReference;
+
+
+    /**
+     * The value of the scheme, or {@code null} if this URI reference is backed
+     * by a source string.
+     */
+    private final String scheme;
+
+
+    /**
+     * The value of the authority, or {@code null} if this URI reference is backed
+     * by a source string.
+     */
+    private final Authority authority;
+
+
+    /**
+     * The value of the path, or {@code null} if this URI reference is backed by
+     * a source string.
+     */
+    private final String path;
+
+
+    /**
+     * The value of the query, or {@code null} if this URI reference is backed by
+     * a source string.
+     */
+    private final String query;
+
+
+    /**
+     * The value of the fragment, or {@code null} if this URI reference is backed
+     * by a source string.
+     */
+    private final String fragment;
+
+
+    /**
+     * The source string, or {@code null} if the components are held by the
+     * fields above. If this is not {@code null}, the components are lazily
+     * created from the source string and {@link #offsets}, and cached in the
+     * fields below.
+     */
+    private final transient String source;
+
+
+    /**
+     * The offsets of the components in {@link #source}. See {@link ComponentOffsets}
+     * for the layout.
+     */
+    private final transient int[] offsets;
+
+
+    /**
+     * Whether the validation of the components in {@link #source} is deferred.
+     * If this is {@code true}, only the offsets of the scheme, the authority, the
+     * path, the query and the fragment are set, and each of the components except
+     * the scheme is validated when it is created from the source string.
+     */
+    private final transient boolean deferred;
+
+
+    /**
+     * The scheme created from the source string, or {@code null} if it has not
+     * been created yet.
+     */
+    private transient String sourceScheme;
+
+
+    /**
+     * The authority created from the source string, or {@code null} if it has
+     * not been created yet.
+     */
+    private transient Authority sourceAuthority;
+
+
+    /**
+     * The path created from the source string, or {@code null} if it has not
+     * been created yet.
+     */
+    private transient String sourcePath;
+
+
+    /**
+     * The query created from the source string, or {@code null} if it has not
+     * been created yet.
+     */
+    private transient String sourceQuery;
+
+
+    /**
+     * The fragment created from the source string, or {@code null} if it has
+     * not been created yet.
+     */
+    private transient String sourceFragment;
+
+
+    /**
+     * The cached string representation, or {@code null} if it has not been
+     * created yet.
+     */
+    private transient String string;
+
+
+    /**
+     * The cached hash code, or 0 if it has not been computed yet.
+     */
+    private transient int hash;
+
+
+    /**
+     * The scheme and the authority of this URI in the normalized form, which are
+     * reused by {@link #resolveNormalized(URIReference)}, or {@code null} if they
+     * have not been normalized yet.
+     */
+    private transient volatile URIReference normalizedPrefix;
+
+
+    /**
+     * Whether this URI reference is known to be in the normalized form, i.e.
+     * normalizing it changes nothing. This is set only when this URI reference
+     * is created as the result of normalization.
+     */
+    private final transient boolean normalized;
+
+
+    /**
+     * A private constructor. This is expected to be used by {@link ProcessResult}
+     * class.
+     *
+     * @param res
+     *         The result obtained after some processing.
+     */
+    private URIReference(ProcessResult res)
+    {
+        this.charset           = res.charset;
+        this.relativeReference = res.relativeReference;
+        this.scheme            = res.scheme;
+        this.authority         = res.authority;
+        this.path              = res.path;
+        this.query             = res.query;
+        this.fragment          = res.fragment;
+        this.source            = null;
+        this.offsets           = null;
+        this.deferred          = false;
+        this.normalized        = res.normalized;
+    }
+
+
+    /**
+     * A constructor for a URI reference backed by a source string. This is expected
+     * to be used by {@link URIReferenceParser} class.
+     *
+     * @param source
+     *         The source string, which has already been validated.
+     *
+     * @param charset
+     *         The charset used for percent-encoding some characters (e.g. reserved
+     *         characters) contained in the source string.
+     *
+     * @param offsets
+     *         The offsets of the components in the source string.
+     */
+    URIReference(String source, Charset charset, int[] offsets)
+    {
+        this(source, charset, offsets, false);
+    }
+
+
+    /**
+     * A constructor for a URI reference backed by a source string whose components
+     * may not have been validated yet. This is expected to be used by {@link
+     * URIReferenceParser} class.
+     *
+     * @param source
+     *         The source string.
+     *
+     * @param charset
+     *         The charset used for percent-encoding some characters (e.g. reserved
+     *         characters) contained in the source string.
+     *
+     * @param offsets
+     *         The offsets of the components in the source string.
+     *
+     * @param deferred
+     *         {@code true} if the source string has only been split into the
+     *         components, which are to be validated on first access.
+     */
+    URIReference(String source, Charset charset, int[] offsets, boolean deferred)
+    {
+        this(source, charset, offsets, deferred, false);
+    }
 
 
     /**
-     * A private constructor. This is expected to be used by {@link ProcessResult}
-     * class.
+     * A constructor for a URI reference backed by a source string, which may be
+     * known to be in the normalized form. This is expected to be used by {@link
+     * NormalizedURIWriter} class.
      *
-     * @param res
-     *         The result obtained after some processing.
+     * @param source
+     *         The source string.
+     *
+     * @param charset
+     *         The charset used for percent-encoding some characters (e.g. reserved
+     *         characters) contained in the source string.
+     *
+     * @param offsets
+     *         The offsets of the components in the source string.
+     *
+     * @param deferred
+     *         {@code true} if the source string has only been split into the
+     *         components, which are to be validated on first access.
+     *
+     * @param normalized
+     *         {@code true} if the source string is known to be in the normalized
+     *         form, so that {@link #normalize()} returns this URI reference itself.
      */
-    private URIReference(ProcessResult res)
+    URIReference(
+        String source, Charset charset, int[] offsets, boolean deferred, boolean normalized)
     {
-        this.charset           = res.charset;
-        this.relativeReference = res.relativeReference;
-        this.scheme            = res.scheme;
-        this.authority         = res.authority;
-        this.path              = res.path;
-        this.query             = res.query;
-        this.fragment          = res.fragment;
+        this.charset           = charset;
+        this.relativeReference = offsets[SCHEME_END] == -1;
+        this.scheme            = null;
+        this.authority         = null;
+        this.path              = null;
+        this.query             = null;
+        this.fragment          = null;
+        this.source            = source;
+        this.offsets           = offsets;
+        this.deferred          = deferred;
+        this.normalized        = normalized;
     }
 
 
@@ -365,7 +1489,22 @@ public class URIReference implements Serializable, Comparable<URIReference>
      */
     public String getScheme()
     {
-        return scheme;
+        if (source == null)
+        {
+            return scheme;
+        }
+
+        // Create the scheme from the source string on first access. Racy but
+        // safe, because a String is immutable.
+        String s = sourceScheme;
+
+        if (s == null)
+        {
+            s            = ComponentOffsets.scheme(source, offsets);
+            sourceScheme = s;
+        }
+
+        return s;
     }
 
 
@@ -377,7 +1516,23 @@ public class URIReference implements Serializable, Comparable<URIReference>
      */
     public Authority getAuthority()
     {
-        return authority;
+        if (source == null)
+        {
+            return authority;
+        }
+
+        // Create the authority from the source string on first access. Racy but
+        // safe, because an Authority is immutable.
+        Authority a = sourceAuthority;
+
+        if (a == null)
+        {
+            a               = deferred ? parseDeferredAuthority()
+                                       : ComponentOffsets.authority(source, offsets);
+            sourceAuthority = a;
+        }
+
+        return a;
     }
 
 
@@ -413,6 +1568,13 @@ public class URIReference implements Serializable, Comparable<URIReference>
      */
     public int getPort()
     {
+        // The port is known without creating the authority unless the authority
+        // has not been validated.
+        if (source != null && !deferred)
+        {
+            return offsets[PORT];
+        }
+
         return hasAuthority() ? getAuthority().getPort() : -1;
     }
 
@@ -425,7 +1587,30 @@ public class URIReference implements Serializable, Comparable<URIReference>
      */
     public String getPath()
     {
-        return path;
+        if (source == null)
+        {
+            return path;
+        }
+
+        // Create the path from the source string on first access. Racy but safe,
+        // because a String is immutable.
+        String p = sourcePath;
+
+        if (p == null)
+        {
+            if (deferred)
+            {
+                // Validate the path before creating it.
+                new PathValidator().validate(
+                    source, offsets[PATH_START], offsets[PATH_END], charset,
+                    relativeReference, offsets[AUTHORITY_START] != -1);
+            }
+
+            p          = ComponentOffsets.path(source, offsets);
+            sourcePath = p;
+        }
+
+        return p;
     }
 
 
@@ -437,7 +1622,29 @@ public class URIReference implements Serializable, Comparable<URIReference>
      */
     public String getQuery()
     {
-        return query;
+        if (source == null)
+        {
+            return query;
+        }
+
+        // Create the query from the source string on first access. Racy but safe,
+        // because a String is immutable.
+        String q = sourceQuery;
+
+        if (q == null)
+        {
+            if (deferred && offsets[QUERY_START] != -1)
+            {
+                // Validate the query before creating it.
+                new QueryValidator().validate(
+                    source, offsets[QUERY_START], offsets[QUERY_END], charset);
+            }
+
+            q           = ComponentOffsets.query(source, offsets);
+            sourceQuery = q;
+        }
+
+        return q;
     }
 
 
@@ -449,7 +1656,29 @@ public class URIReference implements Serializable, Comparable<URIReference>
      */
     public String getFragment()
     {
-        return fragment;
+        if (source == null)
+        {
+            return fragment;
+        }
+
+        // Create the fragment from the source string on first access. Racy but
+        // safe, because a String is immutable.
+        String f = sourceFragment;
+
+        if (f == null)
+        {
+            if (deferred && offsets[FRAGMENT_START] != -1)
+            {
+                // Validate the fragment before creating it.
+                new FragmentValidator().validate(
+                    source, offsets[FRAGMENT_START], offsets[END], charset);
+            }
+
+            f              = ComponentOffsets.fragment(source, offsets);
+            sourceFragment = f;
+        }
+
+        return f;
     }
 
 
@@ -462,17 +1691,53 @@ public class URIReference implements Serializable, Comparable<URIReference>
      */
     public boolean hasAuthority()
     {
+        // Whether the authority exists is known without creating it.
+        if (source != null)
+        {
+            return offsets[AUTHORITY_START] != -1;
+        }
+
         return getAuthority() != null;
     }
 
 
+    /**
+     * Validates all the components of this URI reference.
+     *
+     * <p>
+     * This method is meaningful only for an instance created by {@link #parseDeferred(String,
+     * Charset)}, whose components are validated on first access. It validates
+     * the components that have not been validated yet, so that an invalid component
+     * is reported at once. For any other instance, all the components have already
+     * been validated and this method does nothing.
+     * </p>
+     *
+     * @return
+     *         {@code this} object.
+     *
+     * @throws IllegalArgumentException
+     *          If any of the components is invalid.
+     */
+    public URIReference validateAll()
+    {
+        // Creating the components validates them if their validation is deferred.
+        getAuthority();
+        getPath();
+        getQuery();
+        getFragment();
+
+        return this;
+    }
+
+
     /**
      * Returns a string representation of this {@link URIReference} object.
      *
      * <p>
      * The string is constructed by concatenating the {@code scheme}, {@code authority},
      * {@code path}, {@code query}, and {@code fragment} components, separated by
-     * appropriate delimiters.
+     * appropriate delimiters. The string is built on the first call and the same
+     * instance is returned afterwards.
      * </p>
      *
      * @return
@@ -481,6 +1746,35 @@ public class URIReference implements Serializable, Comparable<URIReference>
     @Override
     public String toString()
     {
+        // Build the string on first call. Racy but safe, because a String is
+        // immutable.
+        String s = string;
+
+        if (s == null)
+        {
+            s      = buildString();
+            string = s;
+        }
+
+        return s;
+    }
+
+
+    private String buildString()
+    {
+        // If the source string is the string representation.
+        if (isBackedBySource())
+        {
+            return source.substring(offsets[START], offsets[END]);
+        }
+
+        // If the validation of the components is deferred, build the string
+        // from the source string without validating them.
+        if (deferred)
+        {
+            return buildDeferredString();
+        }
+
         StringBuilder sb = new StringBuilder();
 
         // Append a scheme if present.
@@ -517,6 +1811,68 @@ public class URIReference implements Serializable, Comparable<URIReference>
     }
 
 
+    private String buildDeferredString()
+    {
+        int start = offsets[START];
+        int end   = offsets[END];
+
+        // The start index of the port, or -1 if the source string doesn't contain
+        // a port.
+        int portStart = (offsets[AUTHORITY_START] == -1) ? -1
+            : new AuthorityParser().indexOfPort(source, offsets[AUTHORITY_START], offsets[AUTHORITY_END]);
+
+        int portEnd = offsets[AUTHORITY_END];
+
+        // The index of the first significant digit of the port.
+        int digit = portStart;
+
+        if (portStart != -1)
+        {
+            while (digit < portEnd - 1 && source.charAt(digit) == '0')
+            {
+                digit++;
+            }
+        }
+
+        // The source string is the string representation unless the port is
+        // empty or has leading zeros, which a parsed URI reference omits. An
+        // invalid port is kept as it is.
+        if (portStart == -1 || (portStart < portEnd && (digit == portStart || !isDigits(digit, portEnd))))
+        {
+            return source.substring(start, end);
+        }
+
+        StringBuilder sb = new StringBuilder(end - start);
+
+        if (portStart == portEnd)
+        {
+            // Omit the empty port together with the colon.
+            sb.append(source, start, portStart - 1);
+        }
+        else
+        {
+            // Omit the leading zeros of the port.
+            sb.append(source, start, portStart).append(source, digit, portEnd);
+        }
+
+        return sb.append(source, portEnd, end).toString();
+    }
+
+
+    private boolean isDigits(int start, int end)
+    {
+        for (int i = start; i < end; i++)
+        {
+            if (!Utils.isDigit(source.charAt(i)))
+            {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+
     /**
      * Compares this {@link URIReference} object with the specified object for equality.
      *
@@ -546,12 +1902,37 @@ public class URIReference implements Serializable, Comparable<URIReference>
 
         URIReference other = (URIReference)obj;
 
+        // If both are represented by their source strings, compare the source
+        // strings without creating the components.
+        if (this.isBackedBySource() && other.isBackedBySource())
+        {
+            return regionEquals(this, other);
+        }
+
+        // If the validation of either of them is deferred, compare the string
+        // representations, which are built without validating the components.
+        if (this.deferred || other.deferred)
+        {
+            return this.toString().equals(other.toString());
+        }
+
         // Compare all components for equality.
-        return Objects.equals(this.scheme, other.scheme) &&
-               Objects.equals(this.authority, other.authority) &&
-               Objects.equals(this.path, other.path) &&
-               Objects.equals(this.query, other.query) &&
-               Objects.equals(this.fragment, other.fragment);
+        return Objects.equals(this.getScheme(), other.getScheme()) &&
+               Objects.equals(this.getAuthority(), other.getAuthority()) &&
+               Objects.equals(this.getPath(), other.getPath()) &&
+               Objects.equals(this.getQuery(), other.getQuery()) &&
+               Objects.equals(this.getFragment(), other.getFragment());
+    }
+
+
+    private static boolean regionEquals(URIReference uriRef1, URIReference uriRef2)
+    {
+        int start1 = uriRef1.offsets[START];
+        int start2 = uriRef2.offsets[START];
+        int length = uriRef1.offsets[END] - start1;
+
+        return length == uriRef2.offsets[END] - start2 &&
+               uriRef1.source.regionMatches(start1, uriRef2.source, start2, length);
     }
 
 
@@ -559,8 +1940,11 @@ public class URIReference implements Serializable, Comparable<URIReference>
      * Returns a hash code value for this {@link URIReference} object.
      *
      * <p>
-     * The hash code is generated based on the values of {@code scheme}, {@code
-     * authority}, {@code path}, {@code query}, and {@code fragment} components.
+     * The hash code is the hash code of the string representation, which is
+     * built from the values of {@code scheme}, {@code authority}, {@code path},
+     * {@code query}, and {@code fragment} components. For a URI reference backed
+     * by its source string, the hash code is computed without creating the
+     * components. The hash code is computed once and cached.
      * </p>
      *
      * @return A hash code value for this object.
@@ -568,15 +1952,24 @@ public class URIReference implements Serializable, Comparable<URIReference>
     @Override
     public int hashCode()
     {
-        return Objects.hash(
-            getScheme(), getAuthority(), getPath(), getQuery(), getFragment());
+        // Compute the hash code on first call and cache it.
+        int h = hash;
+
+        if (h == 0)
+        {
+            h    = toString().hashCode();
+            hash = h;
+        }
+
+        return h;
     }
 
 
     /**
      * Compares this {@link URIReference} object with another {@link URIReference}
      * object for order. The comparison is based on the string representation of
-     * the {@link URIReference} objects.
+     * the {@link URIReference} objects. The components are compared in place
+     * without building the string representations.
      *
      * @param other
      *         The {@link URIReference} object to be compared.
@@ -598,12 +1991,50 @@ public class URIReference implements Serializable, Comparable<URIReference>
             throw newNPE("A null value is not comparable.");
         }
 
-        if (this.equals(other))
+        if (this == other)
         {
             return 0;
         }
 
-        return this.toString().compareTo(other.toString());
+        // If both are represented by their source strings, compare the source
+        // strings directly.
+        if (this.isBackedBySource() && other.isBackedBySource())
+        {
+            return compareRegions(this, other);
+        }
+
+        // If the validation of either of them is deferred, compare the string
+        // representations, which are built without validating the components.
+        if (this.deferred || other.deferred)
+        {
+            return this.toString().compareTo(other.toString());
+        }
+
+        // Compare the string representations without building them.
+        return StringFormComparator.compareStringForms(this, other);
+    }
+
+
+    private static int compareRegions(URIReference uriRef1, URIReference uriRef2)
+    {
+        int start1  = uriRef1.offsets[START];
+        int start2  = uriRef2.offsets[START];
+        int length1 = uriRef1.offsets[END] - start1;
+        int length2 = uriRef2.offsets[END] - start2;
+        int length  = Math.min(length1, length2);
+
+        for (int i = 0; i < length; i++)
+        {
+            char c1 = uriRef1.source.charAt(start1 + i);
+            char c2 = uriRef2.source.charAt(start2 + i);
+
+            if (c1 != c2)
+            {
+                return c1 - c2;
+            }
+        }
+
+        return length1 - length2;
     }
 
 
@@ -684,14 +2115,93 @@ public class URIReference implements Serializable, Comparable<URIReference>
     }
 
 
+    /**
+     * Resolve the given URI reference against this URI reference and normalize
+     * the result.
+     *
+     * <p>
+     * Note that this method works as if invoking it were equivalent to evaluating
+     * the expression <code>{@link #resolveNormalized(URIReference) resolveNormalized}({@link
+     * #parse(String, Charset) parse}(uriRef, {@link #getCharset()}))</code>.
+     * </p>
+     *
+     * @param uriRef
+     *         A string representing a URI reference to be resolved against this
+     *         URI reference.
+     *
+     * @return The normalized URI obtained by resolving the input string against
+     *         this URI reference.
+     *
+     * @throws NullPointerException
+     *         If {@code uriRef} is {@code null}.
+     *
+     * @throws IllegalStateException
+     *         If this URI reference is not an absolute URI.
+     *
+     * @see #resolveNormalized(URIReference)
+     */
+    public URIReference resolveNormalized(String uriRef)
+    {
+        return resolveNormalized(parse(uriRef, getCharset()));
+    }
+
+
+    /**
+     * Resolve the given URI reference against this URI reference and normalize
+     * the result.
+     *
+     * <p>
+     * The result is equal to the result of {@code resolve(uriRef).normalize()},
+     * but the reference is resolved according to <a href="https://www.rfc-editor.org/rfc/rfc3986#section-5.2">
+     * RFC 3986, 5.2. Relative Resolution</a> and normalized according to <a href=
+     * "https://www.rfc-editor.org/rfc/rfc3986#section-6.2.2">RFC 3986, 6.2.2.
+     * Syntax-Based Normalization</a> in a single pass, without creating the
+     * intermediate resolved instance. The scheme and the authority of this URI
+     * reference are normalized only once and reused for all the references
+     * resolved against it.
+     * </p>
+     *
+     * <pre>{@code
+     * // A base URI.
+     * URIReference baseUri = URIReference.parse("HTTP://Example.com:80/a/b");
+     *
+     * // This will output "http://example.com/a/~c".
+     * System.out.println(baseUri.resolveNormalized("./%7Ec").toString());
+     * }</pre>
+     *
+     * @param uriRef
+     *         A URI reference to be resolved against this URI reference.
+     *
+     * @return The normalized URI obtained by resolving the input string against
+     *         this URI reference.
+     *
+     * @throws NullPointerException
+     *         If {@code uriRef} is {@code null}.
+     *
+     * @throws IllegalStateException
+     *         If this URI reference is not an absolute URI.
+     */
+    public URIReference resolveNormalized(URIReference uriRef)
+    {
+        return new URIReferenceResolver().resolveNormalized(uriRef, this);
+    }
+
+
     /**
      * Normalizes this URI reference.
      *
      * <p>
-     * This method does not modify the state of the original {@link URIReference}
-     * instance on which this method is called. Instead, it creates a new {@link
-     * URIReference} instance and initializes it with the information about the
-     * normalized URI reference.
+     * If normalization changes none of the components, this method returns this
+     * URI reference itself. This is always the case for an instance returned by
+     * this method, {@link #parseNormalized(CharSequence, Charset)} or {@link
+     * #resolveNormalized(URIReference)}, for which the check is skipped. Otherwise,
+     * this method creates a new {@link URIReference} instance and initializes it
+     * with the information about the normalized URI reference.
+     * </p>
+     *
+     * <p>
+     * In either case, this method does not modify the state of the {@link
+     * URIReference} instance on which this method is called.
      * </p>
      *
      * <p>
@@ -700,14 +2210,141 @@ public class URIReference implements Serializable, Comparable<URIReference>
      * </p>
      *
      * @return
-     *         A new {@code URIReference} instance representing the normalized
-     *         URI reference.
+     *         A {@code URIReference} instance representing the normalized URI
+     *         reference, which may be this URI reference itself.
      *
      * @throws IllegalStateException
      *         If this URI reference has not been resolved yet.
      */
     public URIReference normalize()
     {
+        if (normalized)
+        {
+            // This URI reference is already in the normalized form.
+            return this;
+        }
+
         return new URIReferenceNormalizer().normalize(this);
     }
+
+
+    private Authority parseDeferredAuthority()
+    {
+        if (offsets[AUTHORITY_START] == -1)
+        {
+            // The source string doesn't contain an authority.
+            return null;
+        }
+
+        // Validate the authority, creating it.
+        return new AuthorityParser().parse(
+            source, offsets[AUTHORITY_START], offsets[AUTHORITY_END], charset);
+    }
+
+
+    /**
+     * Copies the scheme and, if {@code withAuthority} is {@code true}, the authority
+     * of this URI in the normalized form to a writer. The normalized form is
+     * created on the first call and reused after that.
+     */
+    void copyNormalizedPrefix(NormalizedURIWriter writer, boolean withAuthority)
+    {
+        URIReference prefix = normalizedPrefix;
+
+        if (prefix == null)
+        {
+            // Normalize the scheme and the authority, and an empty path so that
+            // the normalized form is a valid URI.
+            NormalizedURIWriter prefixWriter = new NormalizedURIWriter(charset, 32);
+            prefixWriter.writeScheme(getScheme(), 0, getScheme().length());
+
+            if (getAuthority() != null)
+            {
+                prefixWriter.writeAuthority(getAuthority());
+            }
+
+            prefixWriter.writePath("", 0, 0);
+
+            prefix = prefixWriter.toURIReference();
+            normalizedPrefix = prefix;
+        }
+
+        writer.copy(prefix.source, prefix.offsets, withAuthority);
+    }
+
+
+    /**
+     * Checks whether or not this URI reference is backed by a source string that
+     * is identical to the string representation of this URI reference. This is
+     * never the case while the validation of the components is deferred, because
+     * the port has not been found then.
+     */
+    private boolean isBackedBySource()
+    {
+        return source != null && !deferred && ComponentOffsets.isCanonical(source, offsets);
+    }
+
+
+    /**
+     * Replaces this URI reference with its serialization proxy, so the serialized
+     * form doesn't depend on how this URI reference holds its components, and
+     * the components whose validation is deferred are not validated.
+     */
+    private Object writeReplace()
+    {
+        return new SerializationProxy(this);
+    }
+
+
+    /**
+     * Rejects a serialized form that has not been written by {@link SerializationProxy}.
+     */
+    private void readObject(ObjectInputStream in) throws InvalidObjectException
+    {
+        throw new InvalidObjectException("A serialization proxy is required.");
+    }
+
+
+    /**
+     * The serialized form of a URI reference, holding its string representation
+     * and the name of its charset. A deserialized URI reference is created by
+     * parsing the string representation again, in the same way as the original
+     * URI reference was created if its validation was deferred.
+     */
+    private static class SerializationProxy implements Serializable
+    {
+        private static final long serialVersionUID = 1L;
+
+
+        private final String uriRef;
+        private final String charset;
+        private final boolean deferred;
+
+
+        SerializationProxy(URIReference uriRef)
+        {
+            this.uriRef   = uriRef.toString();
+            this.charset  = uriRef.charset.name();
+            this.deferred = uriRef.deferred;
+        }
+
+
+        private Object readResolve() throws ObjectStreamException
+        {
+            try
+            {
+                Charset cs = Charset.forName(charset);
+
+                return deferred ? parseDeferred(uriRef, cs) : parse(uriRef, cs);
+            }
+            catch (IllegalArgumentException e)
+            {
+                // The serialized form is not a valid URI reference.
+                InvalidObjectException ioe = new InvalidObjectException(e.getMessage());
+                ioe.initCause(e);
+
+                throw ioe;
+            }
+        }
+    }
 }
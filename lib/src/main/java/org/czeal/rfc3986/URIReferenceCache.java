@@ -0,0 +1,745 @@
+/*
+ * Copyright (C) 2024 Hideki Ikeda
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.czeal.rfc3986;
+
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.czeal.rfc3986.Utils.newIAE;
+import static org.czeal.rfc3986.Utils.newNPE;
+import java.nio.charset.Charset;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+
+/**
+ * A bounded cache of {@link URIReference} instances keyed by input strings.
+ *
+ * <p>
+ * {@link #parse(String, Charset)} and {@link #parseNormalized(String, Charset)}
+ * return the same results as {@link URIReference#parse(String, Charset)} and
+ * {@link URIReference#parseNormalized(CharSequence, Charset)} respectively, but
+ * the results for the input strings seen frequently are cached and shared. This
+ * is safe because {@code URIReference} is immutable. Invalid input strings are
+ * not cached; they are parsed and rejected every time.
+ * </p>
+ *
+ * <p>
+ * The cache is split into segments, each of which is guarded by its own lock,
+ * so that threads looking up different input strings rarely contend. The total
+ * size of the entries is bounded by a byte budget. Since the exact memory used
+ * by an entry can't be measured, it is estimated from the length of the input
+ * string.
+ * </p>
+ *
+ * <p>
+ * The cache admits and evicts entries based on how frequently the input strings
+ * have been looked up recently, which is counted approximately by a small
+ * frequency sketch in each segment. When a segment is full, a new entry is
+ * admitted only if its input string has been looked up more frequently than
+ * the least recently used entries that must be evicted for it. This keeps the
+ * popular input strings in the cache even when many input strings are seen
+ * only once.
+ * </p>
+ *
+ * <p>
+ * This class is thread-safe.
+ * </p>
+ *
+ * <pre>{@code
+ * // A cache using up to about 16 MB.
+ * URIReferenceCache cache = new URIReferenceCache(16 * 1024 * 1024);
+ *
+ * URIReference uriRef1 = cache.parse("http://example.com/a");
+ * URIReference uriRef2 = cache.parse("http://example.com/a");
+ *
+ * System.out.println(cache.getHitCount());  // 1
+ * System.out.println(cache.getMissCount()); // 1
+ * }</pre>
+ *
+ * @author Hideki Ikeda
+ */
+public final class URIReferenceCache
+{
+    /**
+     * The estimated number of bytes used by an entry, excluding the characters
+     * of the input string.
+     */
+    private static final int ENTRY_OVERHEAD = 256;
+
+
+    /**
+     * The estimated number of bytes used by an entry per character of the input
+     * string. The characters are held by the key and by the components of the
+     * cached URI reference.
+     */
+    private static final int BYTES_PER_CHARACTER = 4;
+
+
+    /**
+     * The minimum number of bytes for a segment, which is the estimated size of
+     * an entry for an input string of 256 characters.
+     */
+    private static final long MIN_SEGMENT_BYTES = ENTRY_OVERHEAD + BYTES_PER_CHARACTER * 256;
+
+
+    /**
+     * The segments.
+     */
+    private final Segment[] segments;
+
+
+    /**
+     * The number of the lookups that found a cached entry.
+     */
+    private final LongAdder hitCount = new LongAdder();
+
+
+    /**
+     * The number of the lookups that didn't find a cached entry.
+     */
+    private final LongAdder missCount = new LongAdder();
+
+
+    /**
+     * The number of the entries evicted to make room for new entries.
+     */
+    private final LongAdder evictionCount = new LongAdder();
+
+
+    /**
+     * Create a cache with a byte budget. The number of the segments is determined
+     * by the number of the available processors.
+     *
+     * @param maxBytes
+     *         The maximum estimated number of bytes used by the cached entries,
+     *         which must be at least 1280, the estimated size of an entry for an
+     *         input string of 256 characters.
+     *
+     * @throws IllegalArgumentException
+     *         If {@code maxBytes} is less than 1280.
+     */
+    public URIReferenceCache(long maxBytes)
+    {
+        this(maxBytes, 4 * Runtime.getRuntime().availableProcessors());
+    }
+
+
+    /**
+     * Create a cache with a byte budget and a concurrency level.
+     *
+     * @param maxBytes
+     *         The maximum estimated number of bytes used by the cached entries,
+     *         which must be at least 1280, the estimated size of an entry for an
+     *         input string of 256 characters.
+     *
+     * @param concurrencyLevel
+     *         The estimated number of threads using the cache concurrently. The
+     *         cache is split into the smallest power of two segments not less
+     *         than this value, as long as each segment can hold an entry for an
+     *         input string of 256 characters. Otherwise, fewer segments are used.
+     *
+     * @throws IllegalArgumentException
+     *         If {@code maxBytes} is less than 1280, or {@code concurrencyLevel}
+     *         is not positive.
+     */
+    public URIReferenceCache(long maxBytes, int concurrencyLevel)
+    {
+        // Ensure the byte budget can hold an entry of a realistic size. A smaller
+        // cache would silently cache nothing.
+        if (maxBytes < MIN_SEGMENT_BYTES)
+        {
+            throw newIAE("The byte budget must be at least %d.", MIN_SEGMENT_BYTES);
+        }
+
+        // Ensure the concurrency level is positive.
+        if (concurrencyLevel <= 0)
+        {
+            throw newIAE("The concurrency level must be positive.");
+        }
+
+        // The number of the segments, which is a power of two, so that a segment
+        // can be selected by masking a hash code. Each segment must be able to
+        // hold an entry of a realistic size, since an entry larger than its
+        // segment is never cached.
+        int count = Integer.highestOneBit(Math.min(concurrencyLevel, 1 << 16) * 2 - 1);
+
+        while (count > 1 && maxBytes / count < MIN_SEGMENT_BYTES)
+        {
+            count >>>= 1;
+        }
+
+        segments = new Segment[count];
+
+        for (int i = 0; i < count; i++)
+        {
+            segments[i] = new Segment(maxBytes / count);
+        }
+    }
+
+
+    /**
+     * Parse a string as a URI reference, reusing the cached result if present.
+     *
+     * <p>
+     * Note that this method works as if invoking it were equivalent to evaluating
+     * the expression <code>{@link #parse(String, Charset) parse}(uriRef, {@link
+     * java.nio.charset.StandardCharsets#UTF_8 UTF_8})</code>.
+     * </p>
+     *
+     * @param uriRef
+     *         An input string to parse as a URI reference.
+     *
+     * @return
+     *         The {@code URIReference} instance obtained by parsing the input string.
+     *
+     * @throws NullPointerException
+     *         If {@code uriRef} is {@code null}.
+     *
+     * @throws IllegalArgumentException
+     *         If the value of {@code uriRef} is invalid as a URI reference.
+     *
+     * @see URIReference#parse(String)
+     */
+    public URIReference parse(String uriRef)
+    {
+        return parse(uriRef, UTF_8);
+    }
+
+
+    /**
+     * Parse a string as a URI reference, reusing the cached result if present.
+     *
+     * @param uriRef
+     *         An input string to parse as a URI reference.
+     *
+     * @param charset
+     *         The charset used for percent-encoding some characters (e.g. reserved
+     *         characters) contained in the input string.
+     *
+     * @return
+     *         The {@code URIReference} instance obtained by parsing the input string.
+     *
+     * @throws NullPointerException
+     *         If {@code uriRef} or {@code charset} is {@code null}.
+     *
+     * @throws IllegalArgumentException
+     *         If the value of {@code uriRef} is invalid as a URI reference.
+     *
+     * @see URIReference#parse(String, Charset)
+     */
+    public URIReference parse(String uriRef, Charset charset)
+    {
+        return get(uriRef, charset, false);
+    }
+
+
+    /**
+     * Parse a string as a URI reference and normalize it, reusing the cached
+     * result if present.
+     *
+     * <p>
+     * Note that this method works as if invoking it were equivalent to evaluating
+     * the expression <code>{@link #parseNormalized(String, Charset) parseNormalized}(uriRef,
+     * {@link java.nio.charset.StandardCharsets#UTF_8 UTF_8})</code>.
+     * </p>
+     *
+     * @param uriRef
+     *         An input string to parse as a URI reference.
+     *
+     * @return
+     *         The normalized {@code URIReference} instance.
+     *
+     * @throws NullPointerException
+     *         If {@code uriRef} is {@code null}.
+     *
+     * @throws IllegalArgumentException
+     *         If the value of {@code uriRef} is invalid as a URI reference.
+     *
+     * @throws IllegalStateException
+     *         If the value of {@code uriRef} is a relative reference.
+     *
+     * @see URIReference#parseNormalized(CharSequence)
+     */
+    public URIReference parseNormalized(String uriRef)
+    {
+        return parseNormalized(uriRef, UTF_8);
+    }
+
+
+    /**
+     * Parse a string as a URI reference and normalize it, reusing the cached
+     * result if present. The result is equal to the result of {@code
+     * URIReference.parse(uriRef, charset).normalize()}.
+     *
+     * @param uriRef
+     *         An input string to parse as a URI reference.
+     *
+     * @param charset
+     *         The charset used for percent-encoding some characters (e.g. reserved
+     *         characters) contained in the input string.
+     *
+     * @return
+     *         The normalized {@code URIReference} instance.
+     *
+     * @throws NullPointerException
+     *         If {@code uriRef} or {@code charset} is {@code null}.
+     *
+     * @throws IllegalArgumentException
+     *         If the value of {@code uriRef} is invalid as a URI reference.
+     *
+     * @throws IllegalStateException
+     *         If the value of {@code uriRef} is a relative reference.
+     *
+     * @see URIReference#parseNormalized(CharSequence, Charset)
+     */
+    public URIReference parseNormalized(String uriRef, Charset charset)
+    {
+        return get(uriRef, charset, true);
+    }
+
+
+    /**
+     * Get the number of the lookups that found a cached entry.
+     *
+     * @return
+     *         The number of the hits.
+     */
+    public long getHitCount()
+    {
+        return hitCount.sum();
+    }
+
+
+    /**
+     * Get the number of the lookups that didn't find a cached entry.
+     *
+     * @return
+     *         The number of the misses.
+     */
+    public long getMissCount()
+    {
+        return missCount.sum();
+    }
+
+
+    /**
+     * Get the number of the entries evicted to make room for new entries.
+     *
+     * @return
+     *         The number of the evictions.
+     */
+    public long getEvictionCount()
+    {
+        return evictionCount.sum();
+    }
+
+
+    /**
+     * Get the number of the cached entries.
+     *
+     * @return
+     *         The number of the cached entries.
+     */
+    public int getSize()
+    {
+        int size = 0;
+
+        for (Segment segment : segments)
+        {
+            synchronized (segment)
+            {
+                size += segment.entries.size();
+            }
+        }
+
+        return size;
+    }
+
+
+    /**
+     * Get the estimated number of bytes used by the cached entries.
+     *
+     * @return
+     *         The estimated number of bytes.
+     */
+    public long getEstimatedBytes()
+    {
+        long bytes = 0;
+
+        for (Segment segment : segments)
+        {
+            synchronized (segment)
+            {
+                bytes += segment.bytes;
+            }
+        }
+
+        return bytes;
+    }
+
+
+    /**
+     * Remove all the cached entries. The counters are not reset.
+     */
+    public void clear()
+    {
+        for (Segment segment : segments)
+        {
+            synchronized (segment)
+            {
+                segment.entries.clear();
+                segment.bytes = 0;
+            }
+        }
+    }
+
+
+    private URIReference get(String uriRef, Charset charset, boolean normalized)
+    {
+        // Ensure the input string is not null.
+        if (uriRef == null)
+        {
+            throw newNPE("The input string must not be null.");
+        }
+
+        // Ensure the charset is not null.
+        if (charset == null)
+        {
+            throw newNPE("The charset must not be null.");
+        }
+
+        // The key and the segment for the input string.
+        Key key         = new Key(uriRef, charset, normalized);
+        Segment segment = segments[key.hash & (segments.length - 1)];
+
+        // Look up the segment.
+        URIReference cached = segment.get(key);
+
+        if (cached != null)
+        {
+            hitCount.increment();
+            return cached;
+        }
+
+        missCount.increment();
+
+        // Parse the input string outside the lock. An exception is thrown if
+        // the input string is invalid, so invalid input strings are never cached.
+        URIReference value = normalized ? URIReference.parseNormalized(uriRef, charset)
+                                        : URIReference.parse(uriRef, charset);
+
+        // Add the entry if it is admitted. Another thread may have added an entry
+        // for the same key in the meantime, in which case it is shared.
+        return segment.put(key, value, weigh(uriRef), evictionCount);
+    }
+
+
+    private static long weigh(String uriRef)
+    {
+        return ENTRY_OVERHEAD + (long)BYTES_PER_CHARACTER * uriRef.length();
+    }
+
+
+    /**
+     * The key of an entry.
+     */
+    private static final class Key
+    {
+        private final String input;
+        private final Charset charset;
+        private final boolean normalized;
+        private final int hash;
+
+
+        Key(String input, Charset charset, boolean normalized)
+        {
+            this.input      = input;
+            this.charset    = charset;
+            this.normalized = normalized;
+
+            // Spread the higher bits of the hash code to the lower bits, which
+            // select the segment.
+            int h = (input.hashCode() * 31 + charset.hashCode()) * 31 + (normalized ? 1 : 0);
+            this.hash = h ^ (h >>> 16);
+        }
+
+
+        @Override
+        public boolean equals(Object obj)
+        {
+            if (this == obj)
+            {
+                return true;
+            }
+
+            if (!(obj instanceof Key))
+            {
+                return false;
+            }
+
+            Key other = (Key)obj;
+
+            return normalized == other.normalized &&
+                   input.equals(other.input)     &&
+                   charset.equals(other.charset);
+        }
+
+
+        @Override
+        public int hashCode()
+        {
+            return hash;
+        }
+    }
+
+
+    /**
+     * A cached value and its estimated size.
+     */
+    private static final class Entry
+    {
+        private final URIReference value;
+        private final long weight;
+
+
+        Entry(URIReference value, long weight)
+        {
+            this.value  = value;
+            this.weight = weight;
+        }
+    }
+
+
+    /**
+     * A segment of the cache, which is guarded by its own lock.
+     */
+    private static final class Segment
+    {
+        /**
+         * The maximum estimated number of bytes used by the entries in this segment.
+         */
+        private final long maxBytes;
+
+
+        /**
+         * The entries in the access order, i.e. the least recently used entry
+         * comes first.
+         */
+        private final LinkedHashMap<Key, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+
+
+        /**
+         * The approximate frequencies of the keys looked up recently.
+         */
+        private final FrequencySketch sketch;
+
+
+        /**
+         * The estimated number of bytes used by the entries in this segment.
+         */
+        private long bytes;
+
+
+        Segment(long maxBytes)
+        {
+            this.maxBytes = maxBytes;
+            this.sketch   = new FrequencySketch(maxBytes / ENTRY_OVERHEAD);
+        }
+
+
+        synchronized URIReference get(Key key)
+        {
+            // Count the lookup, whether it hits or not.
+            sketch.increment(key.hash);
+
+            Entry entry = entries.get(key);
+
+            return (entry == null) ? null : entry.value;
+        }
+
+
+        synchronized URIReference put(Key key, URIReference value, long weight, LongAdder evictionCount)
+        {
+            // If another thread has added an entry for the key, share it.
+            Entry existing = entries.get(key);
+
+            if (existing != null)
+            {
+                return existing.value;
+            }
+
+            // An entry larger than the segment is never cached.
+            if (weight > maxBytes)
+            {
+                return value;
+            }
+
+            // If there isn't enough room, make sure that the candidate is more
+            // frequent than each of the victims before evicting any of them.
+            if (bytes + weight > maxBytes && !admit(key, weight))
+            {
+                return value;
+            }
+
+            // Evict the least recently used entries until there is enough room.
+            Iterator<Entry> iterator = entries.values().iterator();
+
+            while (bytes + weight > maxBytes)
+            {
+                bytes -= iterator.next().weight;
+                iterator.remove();
+                evictionCount.increment();
+            }
+
+            // Add the entry.
+            entries.put(key, new Entry(value, weight));
+            bytes += weight;
+
+            return value;
+        }
+
+
+        private boolean admit(Key candidate, long weight)
+        {
+            // The frequency of the candidate.
+            int frequency = sketch.frequency(candidate.hash);
+
+            // The number of bytes to free.
+            long required = bytes + weight - maxBytes;
+
+            for (Map.Entry<Key, Entry> victim : entries.entrySet())
+            {
+                if (required <= 0)
+                {
+                    break;
+                }
+
+                // Reject the candidate if a victim is as frequent as it.
+                if (sketch.frequency(victim.getKey().hash) >= frequency)
+                {
+                    return false;
+                }
+
+                required -= victim.getValue().weight;
+            }
+
+            return true;
+        }
+    }
+
+
+    /**
+     * A count-min sketch that estimates the frequencies of hash codes with 4-bit
+     * counters. All the counters are halved periodically so that the frequencies
+     * reflect recent lookups.
+     */
+    private static final class FrequencySketch
+    {
+        /**
+         * The number of the counters for a hash code.
+         */
+        private static final int DEPTH = 4;
+
+
+        /**
+         * The maximum value of a counter.
+         */
+        private static final int MAX_COUNT = 15;
+
+
+        /**
+         * The seeds to derive the indexes of the counters from a hash code.
+         */
+        private static final int[] SEEDS = { 0x97cb3127, 0xb3c1d5a7, 0x8f1bbcdb, 0x6c62272e };
+
+
+        /**
+         * The counters.
+         */
+        private final byte[] counters;
+
+
+        /**
+         * The number of the increments after which the counters are halved.
+         */
+        private final int sampleSize;
+
+
+        /**
+         * The number of the increments since the counters were halved.
+         */
+        private int additions;
+
+
+        FrequencySketch(long expectedEntries)
+        {
+            // The number of the counters, which is a power of two.
+            int width = Integer.highestOneBit(
+                (int)Math.max(16, Math.min(expectedEntries * 2, 1 << 20)) * 2 - 1);
+
+            this.counters   = new byte[width];
+            this.sampleSize = 10 * width;
+        }
+
+
+        void increment(int hash)
+        {
+            for (int i = 0; i < DEPTH; i++)
+            {
+                int index = indexOf(hash, i);
+
+                if (counters[index] < MAX_COUNT)
+                {
+                    counters[index]++;
+                }
+            }
+
+            // Halve the counters periodically.
+            if (++additions >= sampleSize)
+            {
+                for (int i = 0; i < counters.length; i++)
+                {
+                    counters[i] >>= 1;
+                }
+
+                additions /= 2;
+            }
+        }
+
+
+        int frequency(int hash)
+        {
+            int frequency = MAX_COUNT;
+
+            for (int i = 0; i < DEPTH; i++)
+            {
+                frequency = Math.min(frequency, counters[indexOf(hash, i)]);
+            }
+
+            return frequency;
+        }
+
+
+        private int indexOf(int hash, int i)
+        {
+            int h = (hash ^ SEEDS[i]) * 0x9e3779b9;
+
+            return (h ^ (h >>> 15)) & (counters.length - 1);
+        }
+    }
+}
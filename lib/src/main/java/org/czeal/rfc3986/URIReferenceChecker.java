@@ -0,0 +1,207 @@
+/*
+ * Copyright (C) 2024 Hideki Ikeda
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.czeal.rfc3986;
+
+
+import java.nio.charset.Charset;
+
+
+/**
+ * <p>
+ * <i>NOTE: This class is intended for internal use only.</i>
+ * </p>
+ *
+ * <p>
+ * Checks whether or not a range of a {@link CharSequence} is a valid URI reference
+ * without throwing exceptions. The input is checked by {@link URIReferenceParser}
+ * and the component validators, which check the components without throwing
+ * exceptions and throw an exception only after a check has failed, so the reported
+ * error always corresponds to the exception that {@link URIReference#parse(String,
+ * Charset)} would throw.
+ * </p>
+ *
+ * <p>
+ * The result of a check is {@link #VALID} or a {@code long} value packing the
+ * error code, the invalid component and the index of the error in the input,
+ * which can be unpacked by {@link #code(long)}, {@link #component(long)} and
+ * {@link #index(long)}.
+ * </p>
+ *
+ * <p>
+ * If an array created by {@link ComponentOffsets#create(int, int)} is given, the
+ * offsets of the components, the host type and the port number are set to it
+ * while the input is checked, so a valid input can be turned into a {@link
+ * URIReference} without being validated again.
+ * </p>
+ *
+ * @author Hideki Ikeda
+ */
+final class URIReferenceChecker
+{
+    /**
+     * The result indicating that the input is valid.
+     */
+    static final long VALID = -1L;
+
+
+    /**
+     * The components indexed by their ordinals.
+     */
+    private static final URIComponent[] COMPONENTS = URIComponent.values();
+
+
+    /**
+     * The error codes indexed by their ordinals.
+     */
+    private static final ErrorCode[] CODES = ErrorCode.values();
+
+
+    private URIReferenceChecker()
+    {
+    }
+
+
+    /**
+     * Checks whether or not a range of a {@link CharSequence} is a valid URI reference.
+     *
+     * @param input
+     *         The input containing the URI reference.
+     *
+     * @param start
+     *         The start index (inclusive) of the URI reference.
+     *
+     * @param end
+     *         The end index (exclusive) of the URI reference.
+     *
+     * @param charset
+     *         The charset used for percent-encoding the URI reference.
+     *
+     * @return
+     *         {@link #VALID} if the URI reference is valid; otherwise, the packed
+     *         error code, component and index of the error.
+     */
+    static long check(CharSequence input, int start, int end, Charset charset)
+    {
+        return check(input, start, end, charset, null);
+    }
+
+
+    /**
+     * Checks whether or not a range of a {@link CharSequence} is a valid URI reference,
+     * setting the offsets of the components.
+     *
+     * @param input
+     *         The input containing the URI reference.
+     *
+     * @param start
+     *         The start index (inclusive) of the URI reference.
+     *
+     * @param end
+     *         The end index (exclusive) of the URI reference.
+     *
+     * @param charset
+     *         The charset used for percent-encoding the URI reference.
+     *
+     * @param offsets
+     *         The array created by {@link ComponentOffsets#create(int, int)} for
+     *         the range, or {@code null} if the offsets are not necessary. The
+     *         content of the array is undefined if the URI reference is invalid.
+     *
+     * @return
+     *         {@link #VALID} if the URI reference is valid; otherwise, the packed
+     *         error code, component and index of the error.
+     */
+    static long check(CharSequence input, int start, int end, Charset charset, int[] offsets)
+    {
+        if (offsets == null)
+        {
+            // The offsets are necessary to check the components one after another.
+            offsets = ComponentOffsets.create(start, end);
+        }
+
+        return new URIReferenceParser().check(input, offsets, charset);
+    }
+
+
+    /**
+     * Unpacks the error code from a result of {@link #check(CharSequence, int,
+     * int, Charset)}.
+     *
+     * @param result
+     *         A result other than {@link #VALID}.
+     *
+     * @return
+     *         The error code.
+     */
+    static ErrorCode code(long result)
+    {
+        return CODES[(int)(result >>> 40)];
+    }
+
+
+    /**
+     * Unpacks the invalid component from a result of {@link #check(CharSequence,
+     * int, int, Charset)}.
+     *
+     * @param result
+     *         A result other than {@link #VALID}.
+     *
+     * @return
+     *         The invalid component.
+     */
+    static URIComponent component(long result)
+    {
+        return COMPONENTS[(int)(result >>> 32) & 0xFF];
+    }
+
+
+    /**
+     * Unpacks the index of the error from a result of {@link #check(CharSequence,
+     * int, int, Charset)}.
+     *
+     * @param result
+     *         A result other than {@link #VALID}.
+     *
+     * @return
+     *         The index of the error.
+     */
+    static int index(long result)
+    {
+        return (int)result;
+    }
+
+
+    /**
+     * Packs an error code, an invalid component and the index of the error into
+     * a result.
+     *
+     * @param code
+     *         The error code.
+     *
+     * @param component
+     *         The invalid component.
+     *
+     * @param index
+     *         The index of the error in the input.
+     *
+     * @return
+     *         The packed result.
+     */
+    static long error(ErrorCode code, URIComponent component, int index)
+    {
+        return ((long)code.ordinal() << 40) | ((long)component.ordinal() << 32) | (index & 0xFFFFFFFFL);
+    }
+}
@@ -0,0 +1,229 @@
+/*
+ * Copyright (C) 2024 Hideki Ikeda
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.czeal.rfc3986;
+
+
+/**
+ * A handler receiving the components of a URI reference found by {@link
+ * URIReference#parse(CharSequence, int, int, java.nio.charset.Charset, URIReferenceHandler)
+ * URIReference.parse}.
+ *
+ * <p>
+ * The components are reported as ranges of the input in the order in which they
+ * appear in the input, so they can be inspected without creating a {@link URIReference}
+ * instance or any component string. The methods are invoked only after the whole
+ * input has been validated, so no method is invoked for an invalid input. All
+ * the methods do nothing by default, and an implementation overrides only the
+ * methods for the components it is interested in.
+ * </p>
+ *
+ * <pre>{@code
+ * URIReference.parse("http://example.com/a/b?k=v", StandardCharsets.UTF_8, new URIReferenceHandler()
+ * {
+ *     @Override
+ *     public void onPathSegment(CharSequence input, int start, int end)
+ *     {
+ *         System.out.println(input.subSequence(start, end)); // "a", "b"
+ *     }
+ * });
+ * }</pre>
+ *
+ * <p>
+ * The values are reported as they appear in the input. That is, percent-encoded
+ * values are not decoded and the components are not normalized.
+ * </p>
+ *
+ * @see <a href="https://www.rfc-editor.org/rfc/rfc3986#section-3">RFC 3986,
+ *      3. Syntax Components</a>
+ *
+ * @author Hideki Ikeda
+ */
+public interface URIReferenceHandler
+{
+    /**
+     * Receives the {@code scheme} component. This method is not invoked for a
+     * relative reference.
+     *
+     * @param input
+     *         The input.
+     *
+     * @param start
+     *         The start index (inclusive) of the scheme in the input.
+     *
+     * @param end
+     *         The end index (exclusive) of the scheme in the input.
+     */
+    default void onScheme(CharSequence input, int start, int end)
+    {
+    }
+
+
+    /**
+     * Receives the {@code userinfo} component. This method is not invoked if
+     * the authority has no userinfo.
+     *
+     * @param input
+     *         The input.
+     *
+     * @param start
+     *         The start index (inclusive) of the userinfo in the input.
+     *
+     * @param end
+     *         The end index (exclusive) of the userinfo in the input.
+     */
+    default void onUserinfo(CharSequence input, int start, int end)
+    {
+    }
+
+
+    /**
+     * Receives the {@code host} component. This method is invoked whenever the
+     * URI reference has an authority, with an empty range if the host is empty.
+     *
+     * @param type
+     *         The type of the host.
+     *
+     * @param input
+     *         The input.
+     *
+     * @param start
+     *         The start index (inclusive) of the host in the input.
+     *
+     * @param end
+     *         The end index (exclusive) of the host in the input.
+     */
+    default void onHost(HostType type, CharSequence input, int start, int end)
+    {
+    }
+
+
+    /**
+     * Receives the {@code port} component. This method is not invoked if the
+     * authority has no port or the port is empty.
+     *
+     * @param port
+     *         The port number.
+     */
+    default void onPort(int port)
+    {
+    }
+
+
+    /**
+     * Receives the {@code path} component. This method is always invoked, with
+     * an empty range if the path is empty.
+     *
+     * @param input
+     *         The input.
+     *
+     * @param start
+     *         The start index (inclusive) of the path in the input.
+     *
+     * @param end
+     *         The end index (exclusive) of the path in the input.
+     */
+    default void onPath(CharSequence input, int start, int end)
+    {
+    }
+
+
+    /**
+     * Receives a segment of the {@code path} component. This method is invoked
+     * after {@link #onPath(CharSequence, int, int) onPath} for each segment,
+     * which is a part of the path between slashes. A leading slash doesn't start
+     * an empty segment, so the segments of {@code "/a/b/"} are {@code "a"},
+     * {@code "b"} and {@code ""}. This method is not invoked for an empty path.
+     *
+     * @param input
+     *         The input.
+     *
+     * @param start
+     *         The start index (inclusive) of the segment in the input.
+     *
+     * @param end
+     *         The end index (exclusive) of the segment in the input.
+     */
+    default void onPathSegment(CharSequence input, int start, int end)
+    {
+    }
+
+
+    /**
+     * Receives the {@code query} component. This method is not invoked if the
+     * URI reference has no query.
+     *
+     * @param input
+     *         The input.
+     *
+     * @param start
+     *         The start index (inclusive) of the query in the input.
+     *
+     * @param end
+     *         The end index (exclusive) of the query in the input.
+     */
+    default void onQuery(CharSequence input, int start, int end)
+    {
+    }
+
+
+    /**
+     * Receives a parameter in the {@code query} component. This method is invoked
+     * after {@link #onQuery(CharSequence, int, int) onQuery} for each part of the
+     * query separated by {@code "&"}, including empty ones. The key is separated
+     * from the value by the first {@code "="} in the part. If the part has no
+     * {@code "="}, the whole part is the key and the indexes of the value are
+     * {@code -1}.
+     *
+     * @param input
+     *         The input.
+     *
+     * @param keyStart
+     *         The start index (inclusive) of the key in the input.
+     *
+     * @param keyEnd
+     *         The end index (exclusive) of the key in the input.
+     *
+     * @param valueStart
+     *         The start index (inclusive) of the value in the input, or {@code -1}
+     *         if the parameter has no value.
+     *
+     * @param valueEnd
+     *         The end index (exclusive) of the value in the input, or {@code -1}
+     *         if the parameter has no value.
+     */
+    default void onQueryParam(
+        CharSequence input, int keyStart, int keyEnd, int valueStart, int valueEnd)
+    {
+    }
+
+
+    /**
+     * Receives the {@code fragment} component. This method is not invoked if
+     * the URI reference has no fragment.
+     *
+     * @param input
+     *         The input.
+     *
+     * @param start
+     *         The start index (inclusive) of the fragment in the input.
+     *
+     * @param end
+     *         The end index (exclusive) of the fragment in the input.
+     */
+    default void onFragment(CharSequence input, int start, int end)
+    {
+    }
+}
@@ -16,9 +16,19 @@
 package org.czeal.rfc3986;
 
 
+import static org.czeal.rfc3986.ComponentOffsets.AUTHORITY_START;
+import static org.czeal.rfc3986.ComponentOffsets.END;
+import static org.czeal.rfc3986.ComponentOffsets.FRAGMENT_START;
+import static org.czeal.rfc3986.ComponentOffsets.PATH_END;
+import static org.czeal.rfc3986.ComponentOffsets.PATH_START;
+import static org.czeal.rfc3986.ComponentOffsets.QUERY_END;
+import static org.czeal.rfc3986.ComponentOffsets.QUERY_START;
+import static org.czeal.rfc3986.ComponentOffsets.SCHEME_END;
+import static org.czeal.rfc3986.ComponentOffsets.START;
 import static org.czeal.rfc3986.URIReference.ProcessResult;
 import static org.czeal.rfc3986.Utils.newISE;
 import static org.czeal.rfc3986.Utils.newNPE;
+import java.nio.charset.Charset;
 
 
 /**
@@ -73,7 +83,8 @@ class URIReferenceNormalizer
      *
      * @return
      *         A new {@code URIReference} instance representing the normalized
-     *         URI reference.
+     *         URI reference, or {@code uriRef} itself if normalization changes
+     *         none of its components. {@code uriRef} is never modified.
      *
      * @throws IllegalStateException
      *         If the URI reference specified by the {@code uriRef} argument has
@@ -108,11 +119,92 @@ class URIReferenceNormalizer
         // Process the fragment.
         processFragment(res, uriRef);
 
+        // If nothing changes, the URI reference is already in the normalized form.
+        if (res.scheme    == uriRef.getScheme()    &&
+            res.authority == uriRef.getAuthority() &&
+            res.path      == uriRef.getPath()      &&
+            res.query     == uriRef.getQuery()     &&
+            res.fragment  == uriRef.getFragment())
+        {
+            return uriRef;
+        }
+
+        // The result is in the normalized form, because the dot segments have
+        // been removed after percent-encoded dots (e.g. "%2E") were decoded.
+        res.normalized = true;
+
         // Build a URI reference instance.
         return res.toURIReference();
     }
 
 
+    /**
+     * Normalizes a URI reference in a source, which has already been validated,
+     * in a single pass. The normalized components are written one after another
+     * into a single output builder, and the returned {@link URIReference} instance
+     * is backed by the string built from it. The result is equal to the result
+     * of {@link #normalize(URIReference)} for the URI reference parsed from the
+     * source.
+     *
+     * @param source
+     *         The source containing the URI reference.
+     *
+     * @param offsets
+     *         The offsets of the components in the source. See {@link ComponentOffsets}.
+     *
+     * @param charset
+     *         The charset used for percent-encoding some characters (e.g. reserved
+     *         characters) contained in the source.
+     *
+     * @return
+     *         A new {@code URIReference} instance representing the normalized
+     *         URI reference.
+     *
+     * @throws IllegalStateException
+     *         If the URI reference is a relative reference.
+     */
+    URIReference normalize(CharSequence source, int[] offsets, Charset charset)
+    {
+        // Ensure the URI reference is not a relative reference. See validate(URIReference).
+        if (offsets[SCHEME_END] == -1)
+        {
+            throw newISE("A relative references must be resolved before it can be normalized.");
+        }
+
+        // The writer of the normalized components. The output is usually large
+        // enough for the normalized URI reference.
+        NormalizedURIWriter writer = new NormalizedURIWriter(
+            charset, offsets[END] - offsets[START] + 1);
+
+        // Write the scheme.
+        writer.writeScheme(source, offsets[START], offsets[SCHEME_END]);
+
+        // Write the authority.
+        if (offsets[AUTHORITY_START] != -1)
+        {
+            writer.writeAuthority(source, offsets);
+        }
+
+        // Write the path.
+        writer.writePath(source, offsets[PATH_START], offsets[PATH_END]);
+
+        // Write the query.
+        if (offsets[QUERY_START] != -1)
+        {
+            writer.writeQuery(source, offsets[QUERY_START], offsets[QUERY_END]);
+        }
+
+        // Write the fragment.
+        if (offsets[FRAGMENT_START] != -1)
+        {
+            writer.writeFragment(source, offsets[FRAGMENT_START], offsets[END]);
+        }
+
+        // Build a URI reference instance backed by the normalized string.
+        return writer.toURIReference();
+    }
+
+
     private void validate(URIReference uriRef)
     {
         // Ensure the input URI reference is not null.
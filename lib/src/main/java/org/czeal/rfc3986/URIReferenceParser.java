@@ -16,12 +16,30 @@
 package org.czeal.rfc3986;
 
 
+import static java.nio.charset.StandardCharsets.ISO_8859_1;
+import static java.nio.charset.StandardCharsets.US_ASCII;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.czeal.rfc3986.ComponentOffsets.AUTHORITY_END;
+import static org.czeal.rfc3986.ComponentOffsets.AUTHORITY_START;
+import static org.czeal.rfc3986.ComponentOffsets.END;
+import static org.czeal.rfc3986.ComponentOffsets.FRAGMENT_START;
+import static org.czeal.rfc3986.ComponentOffsets.HOST_END;
+import static org.czeal.rfc3986.ComponentOffsets.HOST_TYPE;
+import static org.czeal.rfc3986.ComponentOffsets.PATH_END;
+import static org.czeal.rfc3986.ComponentOffsets.PATH_START;
+import static org.czeal.rfc3986.ComponentOffsets.PORT;
+import static org.czeal.rfc3986.ComponentOffsets.QUERY_END;
+import static org.czeal.rfc3986.ComponentOffsets.QUERY_START;
+import static org.czeal.rfc3986.ComponentOffsets.SCHEME_END;
+import static org.czeal.rfc3986.ComponentOffsets.START;
+import static org.czeal.rfc3986.ComponentOffsets.USERINFO_END;
 import static org.czeal.rfc3986.URIReference.ProcessResult;
+import static org.czeal.rfc3986.Utils.isAlphabet;
+import static org.czeal.rfc3986.Utils.isDigit;
 import static org.czeal.rfc3986.Utils.newIAE;
 import static org.czeal.rfc3986.Utils.newNPE;
+import java.nio.ByteBuffer;
 import java.nio.charset.Charset;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
 
 
 /**
@@ -59,30 +77,9 @@ import java.util.regex.Pattern;
 class URIReferenceParser
 {
     /**
-     * Inner class representing the result of the URI reference parsing process.
-     * This class holds intermediate values of the URI components during the parse
-     * process.
+     * The host types indexed by their ordinals.
      */
-    private static class ParseResult extends ProcessResult
-    {
-        Matcher matcher;
-    }
-
-
-    /**
-     * The pattern for parsing the five components of a URI, according to "RFC
-     * 3986, Appendix B. Parsing a URI Reference with a Regular Expression".
-     */
-    private static final Pattern PATTERN_URI = Pattern.compile(
-        "(?<scheme>[^:/?#]+):(\\/\\/(?<authority>[^/?#]*))?(?<path>[^?#]*)(\\?(?<query>[^#]*))?(#(?<fragment>.*))?");
-
-
-    /**
-     * The pattern for parsing the five components of a relative reference, according
-     * to "RFC 3986, Appendix B. Parsing a URI Reference with a Regular Expression".
-     */
-    private static final Pattern PATTERN_REGEX_RELATIVE_REFERENCE = Pattern.compile(
-        "(\\/\\/(?<authority>[^/?#]*))?(?<path>[^?#]*)(\\?(?<query>[^#]*))?(#(?<fragment>.*))?");
+    private static final HostType[] HOST_TYPES = HostType.values();
 
 
     /**
@@ -120,33 +117,610 @@ class URIReferenceParser
         // Validate the arguments.
         validate(uriRef, charset);
 
-        // The parse result.
-        ParseResult res = new ParseResult();
+        // Validate the input string, finding the offsets of the components.
+        int[] offsets = process(uriRef, 0, uriRef.length(), charset);
 
-        // Set the charset.
-        res.charset = charset;
+        // Create the components from the offsets.
+        return toURIReference(uriRef, charset, offsets);
+    }
 
-        // Match the input string as a URI reference.
-        processInput(res, uriRef);
 
-        // Process the authority.
-        processAuthority(res);
+    /**
+     * Parses the input string as a URI reference in the same way as {@link
+     * #parse(String, Charset)} does, but returns the error instead of throwing
+     * an exception if the input string is invalid.
+     *
+     * @param uriRef
+     *         Required. The input string to parse as a URI reference.
+     *
+     * @param charset
+     *         Required. The charset used in the input string.
+     *
+     * @return
+     *         The result holding the URI reference or the error.
+     *
+     * @throws NullPointerException
+     *          If {@code uriRef} or {@code charset} is {@code null}.
+     */
+    ParseResult tryParse(String uriRef, Charset charset)
+    {
+        // Validate the arguments.
+        validate(uriRef, charset);
 
-        // Process the path.
-        processPath(res);
+        // The offsets of the components in the input string.
+        int[] offsets = ComponentOffsets.create(0, uriRef.length());
 
-        // Process the query.
-        processQuery(res);
+        // Check the input string without throwing exceptions, finding the offsets
+        // of the components.
+        long result = URIReferenceChecker.check(uriRef, 0, uriRef.length(), charset, offsets);
+
+        if (result != URIReferenceChecker.VALID)
+        {
+            // The input string is invalid.
+            return ParseResult.failure(new ParseError(
+                uriRef,
+                URIReferenceChecker.component(result),
+                URIReferenceChecker.code(result),
+                URIReferenceChecker.index(result)));
+        }
+
+        // Create the components from the offsets.
+        return ParseResult.success(toURIReference(uriRef, charset, offsets));
+    }
+
+
+    /**
+     * Parses a range of an input as a URI reference. The range is validated in
+     * place, and only the strings of the components are created from it. The
+     * returned instance doesn't keep the input, which may be mutable.
+     *
+     * @param uriRef
+     *         Required. The input containing the URI reference.
+     *
+     * @param start
+     *         The start index (inclusive) of the URI reference in the input.
+     *
+     * @param end
+     *         The end index (exclusive) of the URI reference in the input.
+     *
+     * @param charset
+     *         Required. The charset used in the input.
+     *
+     * @return
+     *         The URI reference obtained by parsing the range of the input.
+     *
+     * @throws NullPointerException
+     *          If {@code uriRef} or {@code charset} is {@code null}.
+     *
+     * @throws IndexOutOfBoundsException
+     *          If the range is out of the bounds of the input.
+     *
+     * @throws IllegalArgumentException
+     *          If the range of the input is invalid as a URI reference.
+     */
+    URIReference parse(CharSequence uriRef, int start, int end, Charset charset)
+    {
+        // Validate the arguments.
+        validate(uriRef, charset);
+
+        // Ensure the range is in the bounds of the input.
+        validateRange(uriRef, start, end);
+
+        // Validate the range of the input, finding the offsets of the components.
+        int[] offsets = process(uriRef, start, end, charset);
+
+        // Create the components from the offsets.
+        return toURIReference(uriRef, charset, offsets);
+    }
+
+
+    /**
+     * Parses a range of an input as a URI reference and reports the components
+     * to a handler. The range is validated in the same way as {@link #parse(CharSequence,
+     * int, int, Charset)} does, and then the components are reported as ranges
+     * of the input. Neither a {@link URIReference} instance nor component strings
+     * are created.
+     *
+     * @param uriRef
+     *         Required. The input containing the URI reference.
+     *
+     * @param start
+     *         The start index (inclusive) of the URI reference in the input.
+     *
+     * @param end
+     *         The end index (exclusive) of the URI reference in the input.
+     *
+     * @param charset
+     *         Required. The charset used in the input.
+     *
+     * @param handler
+     *         Required. The handler receiving the components.
+     *
+     * @throws NullPointerException
+     *          If {@code uriRef}, {@code charset} or {@code handler} is {@code null}.
+     *
+     * @throws IndexOutOfBoundsException
+     *          If the range is out of the bounds of the input.
+     *
+     * @throws IllegalArgumentException
+     *          If the range of the input is invalid as a URI reference.
+     */
+    void parse(
+        CharSequence uriRef, int start, int end, Charset charset, URIReferenceHandler handler)
+    {
+        // Validate the arguments.
+        validate(uriRef, charset);
+
+        // Ensure the handler is not null.
+        if (handler == null)
+        {
+            throw newNPE("The handler must not be null.");
+        }
+
+        // Ensure the range is in the bounds of the input.
+        validateRange(uriRef, start, end);
+
+        // Validate the range, finding the offsets of the components.
+        int[] offsets = process(uriRef, start, end, charset);
+
+        // Report the components.
+        report(uriRef, offsets, handler);
+    }
+
+
+    private void validateRange(CharSequence uriRef, int start, int end)
+    {
+        if (start < 0 || end > uriRef.length() || start > end)
+        {
+            throw new IndexOutOfBoundsException(String.format(
+                "The range [%d, %d) is out of the bounds of the input string of length %d.",
+                start, end, uriRef.length()));
+        }
+    }
+
+
+    private void report(CharSequence uriRef, int[] offsets, URIReferenceHandler handler)
+    {
+        // The scheme.
+        if (offsets[SCHEME_END] != -1)
+        {
+            handler.onScheme(uriRef, offsets[START], offsets[SCHEME_END]);
+        }
+
+        // The authority.
+        if (offsets[AUTHORITY_START] != -1)
+        {
+            reportAuthority(uriRef, offsets, handler);
+        }
+
+        // The path.
+        reportPath(uriRef, offsets[PATH_START], offsets[PATH_END], handler);
+
+        // The query.
+        if (offsets[QUERY_START] != -1)
+        {
+            reportQuery(uriRef, offsets[QUERY_START], offsets[QUERY_END], handler);
+        }
+
+        // The fragment.
+        if (offsets[FRAGMENT_START] != -1)
+        {
+            handler.onFragment(uriRef, offsets[FRAGMENT_START], offsets[END]);
+        }
+    }
+
+
+    private void reportAuthority(CharSequence uriRef, int[] offsets, URIReferenceHandler handler)
+    {
+        // The start index of the host.
+        int hostStart = offsets[AUTHORITY_START];
+
+        // The userinfo.
+        if (offsets[USERINFO_END] != -1)
+        {
+            handler.onUserinfo(uriRef, hostStart, offsets[USERINFO_END]);
+            hostStart = offsets[USERINFO_END] + 1;
+        }
+
+        // The host.
+        handler.onHost(HOST_TYPES[offsets[HOST_TYPE]], uriRef, hostStart, offsets[HOST_END]);
+
+        // The port.
+        if (offsets[PORT] != -1)
+        {
+            handler.onPort(offsets[PORT]);
+        }
+    }
 
-        // Process the fragment.
-        processFragment(res);
+
+    private void reportPath(CharSequence uriRef, int start, int end, URIReferenceHandler handler)
+    {
+        handler.onPath(uriRef, start, end);
+
+        if (start == end)
+        {
+            // An empty path has no segments.
+            return;
+        }
+
+        // A leading slash doesn't start a segment.
+        int segmentStart = (uriRef.charAt(start) == '/') ? start + 1 : start;
+
+        while (true)
+        {
+            // The segment is terminated by the next slash or the end of the path.
+            int segmentEnd = indexOfAny(uriRef, segmentStart, end, "/");
+
+            handler.onPathSegment(uriRef, segmentStart, segmentEnd);
+
+            if (segmentEnd == end)
+            {
+                break;
+            }
+
+            segmentStart = segmentEnd + 1;
+        }
+    }
+
+
+    private void reportQuery(CharSequence uriRef, int start, int end, URIReferenceHandler handler)
+    {
+        handler.onQuery(uriRef, start, end);
+
+        // The query is split into the parameters in the same way as QueryParams
+        // does. Every part separated by "&" is a parameter, even if it is empty.
+        int paramStart = start;
+
+        while (true)
+        {
+            // The parameter is terminated by the next "&" or the end of the query.
+            int paramEnd = indexOfAny(uriRef, paramStart, end, "&");
+
+            // The key is separated from the value by the first "=".
+            int keyEnd = indexOfAny(uriRef, paramStart, paramEnd, "=");
+
+            if (keyEnd == paramEnd)
+            {
+                // The parameter has no value.
+                handler.onQueryParam(uriRef, paramStart, paramEnd, -1, -1);
+            }
+            else
+            {
+                handler.onQueryParam(uriRef, paramStart, keyEnd, keyEnd + 1, paramEnd);
+            }
+
+            if (paramEnd == end)
+            {
+                break;
+            }
+
+            paramStart = paramEnd + 1;
+        }
+    }
+
+
+    /**
+     * Parses a range of bytes as a URI reference. The bytes are checked in place
+     * and a string is created only once for the returned instance, which is backed
+     * by the string as an instance created by {@link #parseLazily(String, Charset)}
+     * is.
+     *
+     * @param uriRef
+     *         Required. The bytes containing the URI reference.
+     *
+     * @param offset
+     *         The index of the first byte of the URI reference.
+     *
+     * @param length
+     *         The number of the bytes of the URI reference.
+     *
+     * @param charset
+     *         Required. The charset of the bytes, which is also used for percent-encoding.
+     *
+     * @return
+     *         The URI reference obtained by parsing the bytes.
+     *
+     * @throws NullPointerException
+     *          If {@code uriRef} or {@code charset} is {@code null}.
+     *
+     * @throws IndexOutOfBoundsException
+     *          If the range is out of the bounds of the array.
+     *
+     * @throws IllegalArgumentException
+     *          If the bytes are invalid as a URI reference.
+     */
+    URIReference parse(byte[] uriRef, int offset, int length, Charset charset)
+    {
+        // Ensure the input bytes are not null.
+        if (uriRef == null)
+        {
+            throw newNPE("The input bytes must not be null.");
+        }
+
+        // Ensure the range is in the bounds of the array.
+        if (offset < 0 || length < 0 || offset > uriRef.length - length)
+        {
+            throw new IndexOutOfBoundsException(String.format(
+                "The range of the offset %d and the length %d is out of the bounds " +
+                "of the array of length %d.", offset, length, uriRef.length));
+        }
+
+        return parse(new ByteCharSequence(ByteBuffer.wrap(uriRef), offset, length), charset);
+    }
+
+
+    /**
+     * Parses the remaining bytes of a buffer as a URI reference. The bytes are
+     * read in place even if the buffer is a direct buffer, and the position of
+     * the buffer is not changed.
+     *
+     * @param uriRef
+     *         Required. The buffer containing the URI reference between its position
+     *         and its limit.
+     *
+     * @param charset
+     *         Required. The charset of the bytes, which is also used for percent-encoding.
+     *
+     * @return
+     *         The URI reference obtained by parsing the bytes.
+     *
+     * @throws NullPointerException
+     *          If {@code uriRef} or {@code charset} is {@code null}.
+     *
+     * @throws IllegalArgumentException
+     *          If the bytes are invalid as a URI reference.
+     */
+    URIReference parse(ByteBuffer uriRef, Charset charset)
+    {
+        // Ensure the input buffer is not null.
+        if (uriRef == null)
+        {
+            throw newNPE("The input buffer must not be null.");
+        }
+
+        return parse(new ByteCharSequence(uriRef, uriRef.position(), uriRef.remaining()), charset);
+    }
+
+
+    private URIReference parse(ByteCharSequence uriRef, Charset charset)
+    {
+        // Ensure the charset is not null.
+        if (charset == null)
+        {
+            throw newNPE("The charset must not be null.");
+        }
+
+        // If the bytes are ASCII-compatible, check them in place. Any valid URI
+        // reference consists of ASCII characters only, so the bytes are valid
+        // if and only if the decoded string is valid.
+        if (isAsciiCompatible(charset))
+        {
+            // The offsets of the components in the bytes.
+            int[] offsets = ComponentOffsets.create(0, uriRef.length());
+
+            if (URIReferenceChecker.check(uriRef, 0, uriRef.length(), charset, offsets) ==
+                URIReferenceChecker.VALID)
+            {
+                // The bytes are ASCII characters. Create the string with the
+                // Latin-1 fast path. The offsets are the same in the string.
+                return new URIReference(uriRef.toString(), charset, offsets);
+            }
+        }
+
+        // Decode the bytes and parse the string. If the bytes have been found
+        // invalid above, an exception is thrown with the details.
+        return parseLazily(uriRef.decode(charset), charset);
+    }
+
+
+    private static boolean isAsciiCompatible(Charset charset)
+    {
+        return UTF_8.equals(charset) || US_ASCII.equals(charset) || ISO_8859_1.equals(charset);
+    }
+
+
+    private URIReference toURIReference(CharSequence uriRef, Charset charset, int[] offsets)
+    {
+        // The process result.
+        ProcessResult res = new ProcessResult();
+
+        // Create the components from the offsets. They have already been validated.
+        res.charset           = charset;
+        res.relativeReference = offsets[SCHEME_END] == -1;
+        res.scheme            = ComponentOffsets.scheme(uriRef, offsets);
+        res.authority         = ComponentOffsets.authority(uriRef, offsets);
+        res.path              = ComponentOffsets.path(uriRef, offsets);
+        res.query             = ComponentOffsets.query(uriRef, offsets);
+        res.fragment          = ComponentOffsets.fragment(uriRef, offsets);
 
         // Build a URI reference instance.
         return res.toURIReference();
     }
 
 
-    private void validate(String uriRef, Charset charset)
+    /**
+     * Parses the input string as a URI reference in the same way as {@link
+     * #parse(String, Charset)} does, but creates a {@link URIReference} instance
+     * that keeps the input string and the offsets of the components instead of
+     * the components themselves.
+     *
+     * @param uriRef
+     *         Required. The input string to parse as a URI reference.
+     *
+     * @param charset
+     *         Required. The charset used in the input string.
+     *
+     * @return
+     *         The URI reference obtained by parsing the input string.
+     *
+     * @throws NullPointerException
+     *          If {@code uriRef} or {@code charset} is {@code null}.
+     *
+     * @throws IllegalArgumentException
+     *          If the value of {@code uriRef} is invalid as a URI reference.
+     */
+    URIReference parseLazily(String uriRef, Charset charset)
+    {
+        // Validate the arguments.
+        validate(uriRef, charset);
+
+        // Validate the input string, finding the offsets of the components.
+        int[] offsets = process(uriRef, 0, uriRef.length(), charset);
+
+        // Build a URI reference instance backed by the input string.
+        return new URIReference(uriRef, charset, offsets);
+    }
+
+
+    /**
+     * Splits the input string into the components of a URI reference without
+     * validating them, and creates a {@link URIReference} instance that validates
+     * each component when it is accessed for the first time.
+     *
+     * @param uriRef
+     *         Required. The input string to parse as a URI reference.
+     *
+     * @param charset
+     *         Required. The charset used in the input string.
+     *
+     * @return
+     *         The URI reference obtained by splitting the input string.
+     *
+     * @throws NullPointerException
+     *          If {@code uriRef} or {@code charset} is {@code null}.
+     *
+     * @throws IllegalArgumentException
+     *          If the input string can't be split into the components.
+     */
+    URIReference parseDeferred(String uriRef, Charset charset)
+    {
+        // Validate the arguments.
+        validate(uriRef, charset);
+
+        // The offsets of the components in the input string.
+        int[] offsets = ComponentOffsets.create(0, uriRef.length());
+
+        // Split the input string into the components. The scheme is validated
+        // while it is found.
+        long result = processInput(uriRef, offsets);
+
+        if (result != URIReferenceChecker.VALID)
+        {
+            throw newException(uriRef, offsets, charset, result);
+        }
+
+        // Build a URI reference instance that validates the other components
+        // on first access.
+        return new URIReference(uriRef, charset, offsets, true);
+    }
+
+
+    /**
+     * Splits the input string, which is known to be valid, into the components
+     * of a URI reference without validating them, and creates a {@link URIReference}
+     * instance backed by the input string. If assertions are enabled for this
+     * class, the input string is validated as {@link #parseLazily(String, Charset)}
+     * does instead.
+     *
+     * @param uriRef
+     *         Required. The input string to parse as a URI reference.
+     *
+     * @param charset
+     *         Required. The charset used in the input string.
+     *
+     * @return
+     *         The URI reference obtained by splitting the input string.
+     *
+     * @throws NullPointerException
+     *          If {@code uriRef} or {@code charset} is {@code null}.
+     *
+     * @throws IllegalArgumentException
+     *          If assertions are enabled and the value of {@code uriRef} is invalid
+     *          as a URI reference, or if the port contains a non-digit character.
+     */
+    URIReference parseTrusted(String uriRef, Charset charset)
+    {
+        // Validate the arguments.
+        validate(uriRef, charset);
+
+        // Whether assertions are enabled, which is usually the case in tests.
+        boolean verify = false;
+        assert verify = true;
+
+        // Find the offsets of the components, validating the input string only
+        // if assertions are enabled so that misuse is caught.
+        int[] offsets = verify ? process(uriRef, 0, uriRef.length(), charset)
+                               : split(uriRef);
+
+        // Build a URI reference instance backed by the input string.
+        return new URIReference(uriRef, charset, offsets);
+    }
+
+
+    /**
+     * Parses an input as a URI reference and normalizes it in a single pass.
+     * The input is validated without creating component strings, and then the
+     * normalized components are written directly into the output. The result
+     * is equal to the result of {@code parse(uriRef, charset).normalize()}.
+     *
+     * @param uriRef
+     *         Required. The input to parse as a URI reference.
+     *
+     * @param charset
+     *         Required. The charset used in the input.
+     *
+     * @return
+     *         The normalized URI reference.
+     *
+     * @throws NullPointerException
+     *          If {@code uriRef} or {@code charset} is {@code null}.
+     *
+     * @throws IllegalArgumentException
+     *          If the value of {@code uriRef} is invalid as a URI reference.
+     *
+     * @throws IllegalStateException
+     *          If the input is a relative reference.
+     */
+    URIReference parseNormalized(CharSequence uriRef, Charset charset)
+    {
+        // Validate the input, finding the offsets of the components.
+        int[] offsets = locate(uriRef, charset);
+
+        // Normalize the components into a new URI reference.
+        return new URIReferenceNormalizer().normalize(uriRef, offsets, charset);
+    }
+
+
+    /**
+     * Validates an input as a URI reference and finds the offsets of the components
+     * in the input, without creating the components.
+     *
+     * @param uriRef
+     *         Required. The input to validate as a URI reference.
+     *
+     * @param charset
+     *         Required. The charset used in the input.
+     *
+     * @return
+     *         The offsets of the components in the input. See {@link ComponentOffsets}.
+     *
+     * @throws NullPointerException
+     *          If {@code uriRef} or {@code charset} is {@code null}.
+     *
+     * @throws IllegalArgumentException
+     *          If the value of {@code uriRef} is invalid as a URI reference.
+     */
+    int[] locate(CharSequence uriRef, Charset charset)
+    {
+        // Validate the arguments.
+        validate(uriRef, charset);
+
+        // Validate the input, finding the offsets of the components.
+        return process(uriRef, 0, uriRef.length(), charset);
+    }
+
+
+    private void validate(CharSequence uriRef, Charset charset)
     {
         // Ensure the input string is not null.
         if (uriRef == null)
@@ -162,7 +736,175 @@ class URIReferenceParser
     }
 
 
-    private void processInput(ParseResult res, String uriRef)
+    private int[] process(CharSequence uriRef, int start, int end, Charset charset)
+    {
+        // The offsets of the components in the input string.
+        int[] offsets = ComponentOffsets.create(start, end);
+
+        // Check the input string, finding the offsets of the components.
+        long result = check(uriRef, offsets, charset);
+
+        if (result != URIReferenceChecker.VALID)
+        {
+            // The input string is invalid. Throw an exception with the details.
+            throw newException(uriRef, offsets, charset, result);
+        }
+
+        return offsets;
+    }
+
+
+    /**
+     * Checks a range of an input as a URI reference without throwing an exception,
+     * finding the offsets of the components. This is the only place where the
+     * components are checked one after another, and {@link URIReferenceChecker}
+     * reports the result of this method as it is.
+     *
+     * @param uriRef
+     *         The input containing the URI reference.
+     *
+     * @param offsets
+     *         The array created by {@link ComponentOffsets#create(int, int)} for
+     *         the range of the URI reference.
+     *
+     * @param charset
+     *         The charset used for percent-encoding the URI reference.
+     *
+     * @return
+     *         {@link URIReferenceChecker#VALID} if the URI reference is valid;
+     *         otherwise, the result packing the error code, the component and
+     *         the index of the error in the input.
+     */
+    long check(CharSequence uriRef, int[] offsets, Charset charset)
+    {
+        // Split the input string into the components.
+        long result = processInput(uriRef, offsets);
+
+        if (result != URIReferenceChecker.VALID)
+        {
+            return result;
+        }
+
+        // Process the authority.
+        result = processAuthority(uriRef, offsets, charset);
+
+        if (result != URIReferenceChecker.VALID)
+        {
+            return result;
+        }
+
+        // Process the path.
+        result = processPath(uriRef, offsets, charset);
+
+        if (result != URIReferenceChecker.VALID)
+        {
+            return result;
+        }
+
+        // Process the query.
+        result = processQuery(uriRef, offsets, charset);
+
+        if (result != URIReferenceChecker.VALID)
+        {
+            return result;
+        }
+
+        // Process the fragment.
+        return processFragment(uriRef, offsets, charset);
+    }
+
+
+    private InvalidURIReferenceException newException(
+        CharSequence uriRef, int[] offsets, Charset charset, long result)
+    {
+        switch (URIReferenceChecker.component(result))
+        {
+            case AUTHORITY:
+            case USERINFO:
+            case HOST:
+            case PORT:
+                // Let the authority parser report the details.
+                return new AuthorityParser().newException(uriRef, offsets, result);
+
+            case PATH:
+                // Let the path validator report the details.
+                return new PathValidator().newException(
+                    uriRef, offsets[PATH_START], offsets[PATH_END], result,
+                    offsets[AUTHORITY_START] != -1);
+
+            case QUERY:
+                // Let the query validator report the details.
+                return new QueryValidator().newException(
+                    uriRef, offsets[QUERY_START], offsets[QUERY_END], result);
+
+            default:
+                if (URIReferenceChecker.code(result) == ErrorCode.LINE_TERMINATOR)
+                {
+                    // The fragment contains a line terminator.
+                    return newIAE(URIComponent.FRAGMENT, ErrorCode.LINE_TERMINATOR,
+                        URIReferenceChecker.index(result),
+                        "The input string \"%s\" is invalid as a relative reference.",
+                        uriRef.subSequence(offsets[START], offsets[END]).toString());
+                }
+
+                // Let the fragment validator report the details.
+                return new FragmentValidator().newException(
+                    uriRef, offsets[FRAGMENT_START], offsets[END], result);
+        }
+    }
+
+
+    private int[] split(String uriRef)
+    {
+        // The offsets of the components in the input string.
+        int[] offsets = ComponentOffsets.create(0, uriRef.length());
+
+        // Split the input string into the components.
+        long result = processInput(uriRef, offsets);
+
+        if (result != URIReferenceChecker.VALID)
+        {
+            throw newException(uriRef, offsets, null, result);
+        }
+
+        if (offsets[AUTHORITY_START] != -1)
+        {
+            // Split the authority, classifying the host type.
+            new AuthorityParser().split(uriRef, offsets);
+        }
+
+        return offsets;
+    }
+
+
+    private long processInput(CharSequence uriRef, int[] offsets)
+    {
+        // RFC 3986, Appendix B. Parsing a URI Reference with a Regular Expression
+        //
+        //   ^(([^:/?#]+):)?(//([^/?#]*))?([^?#]*)(\?([^#]*))?(#(.*))?
+        //
+        // The input string is scanned once from left to right. Each component
+        // ends at the first delimiter that can't appear in it, exactly as the
+        // regular expression above would match.
+
+        // The index at which the component after the scheme starts.
+        int index = processScheme(uriRef, offsets);
+
+        // Find the authority.
+        index = processRawAuthority(uriRef, offsets, index);
+
+        // Find the path.
+        index = processRawPath(uriRef, offsets, index);
+
+        // Find the query.
+        index = processRawQuery(uriRef, offsets, index);
+
+        // Find the fragment.
+        return processRawFragment(uriRef, offsets, index);
+    }
+
+
+    private int processScheme(CharSequence uriRef, int[] offsets)
     {
         // 4.1.  URI Reference
         //
@@ -171,118 +913,227 @@ class URIReferenceParser
         //   followed by its colon separator, then the URI-reference is a relative
         //   reference.
 
-        // Get a matcher to match the input string as a URI.
-        Matcher matcher = PATTERN_URI.matcher(uriRef);
+        int start = offsets[START];
+        int end   = offsets[END];
 
-        // If the input string  matches the URI pattern.
-        if (matcher.matches())
+        // Skip the characters allowed in a scheme.
+        int index = skipSchemeCharacters(uriRef, start, end);
+
+        // If the input string starts with a valid scheme followed by a colon.
+        if (start < index && index < end && uriRef.charAt(index) == ':')
         {
-            // The raw scheme.
-            String scheme = matcher.group("scheme");
+            // The input string starts with a valid scheme. Then, we can consider
+            // the input string as a URI.
+            offsets[SCHEME_END] = index;
 
-            // If the raw scheme is valid.
-            if (isSchemeValid(scheme))
-            {
-                // The input string  starts with a valid scheme. Then, we can consider
-                // the input string  as a URI.
-                res.matcher           = matcher;
-                res.scheme            = scheme;
-                res.relativeReference = false;
-                return;
-            }
+            // The remaining components start after the colon.
+            return index + 1;
         }
 
-        // We reach here if the input string  doesn't start with a valid scheme followed
-        // by a colon. In this case, we consider the input string  as a relative reference.
-        matchAsRelativeReference(res, uriRef);
+        // We reach here if the input string doesn't start with a valid scheme followed
+        // by a colon. In this case, we consider the input string as a relative reference.
+
+        // None of the characters skipped above is a delimiter for the remaining
+        // components, so they are always part of the path of the relative reference.
+        // The path can be scanned again from the start of the input string.
+        return start;
     }
 
 
-    private boolean isSchemeValid(String scheme)
+    private int skipSchemeCharacters(CharSequence uriRef, int start, int end)
     {
-        try
+        // RFC 3986, 3.1. Scheme
+        //
+        //   scheme = ALPHA *( ALPHA / DIGIT / "+" / "-" / "." )
+
+        // The first character must be an alphabet.
+        if (start == end || !isAlphabet(uriRef.charAt(start)))
         {
-            // Validate the scheme.
-            new SchemeValidator().validate(scheme);
+            return start;
         }
-        catch (IllegalArgumentException e)
+
+        int index = start + 1;
+
+        // Skip the remaining characters allowed in a scheme.
+        while (index < end && isSchemeCharacter(uriRef.charAt(index)))
         {
-            // The input string starts with a string followed by a colon but it is
-            // invalid as a scheme. Then, we consider the input string  as a relative
-            // reference.
-            return false;
+            index++;
         }
 
-        // The scheme value is valid.
-        return true;
+        return index;
     }
 
 
-    private void matchAsRelativeReference(ParseResult res, String uriRef)
+    private boolean isSchemeCharacter(char c)
     {
-        // Get a matcher to match the input string as a relative reference.
-        Matcher matcher = PATTERN_REGEX_RELATIVE_REFERENCE.matcher(uriRef);
+        return isAlphabet(c) ||
+               isDigit(c)    ||
+               c == '+'      ||
+               c == '-'      ||
+               c == '.';
+    }
 
-        // If the input string doesn't match the relative reference pattern.
-        if (!matcher.matches())
+
+    private int processRawAuthority(CharSequence uriRef, int[] offsets, int index)
+    {
+        // If the component doesn't start with "//", the input string doesn't
+        // contain an authority.
+        if (offsets[END] - index < 2 || uriRef.charAt(index) != '/' || uriRef.charAt(index + 1) != '/')
         {
-            // The input string is invalid as a relative reference.
-            throw newIAE(
-                "The input string \"%s\" is invalid as a relative reference.", uriRef);
+            return index;
         }
 
-        // OK. The input string is a valid relative reference.
-        res.matcher           = matcher;
-        res.relativeReference = true;
+        // The authority starts after "//".
+        int start = index + 2;
+
+        // The authority is terminated by the next slash ("/"), question mark ("?"),
+        // or number sign ("#") character, or by the end of the input string.
+        int end = indexOfAny(uriRef, start, offsets[END], "/?#");
+
+        // Set the offsets of the raw authority.
+        offsets[AUTHORITY_START] = start;
+        offsets[AUTHORITY_END]   = end;
+
+        return end;
     }
 
 
-    private void processAuthority(ParseResult res)
+    private int processRawPath(CharSequence uriRef, int[] offsets, int index)
     {
-        // The raw authority.
-        String authority = res.matcher.group("authority");
+        // The path is terminated by the first question mark ("?") or number sign
+        // ("#") character, or by the end of the input string.
+        int end = indexOfAny(uriRef, index, offsets[END], "?#");
+
+        // Set the offsets of the raw path.
+        offsets[PATH_START] = index;
+        offsets[PATH_END]   = end;
 
-        // Parse the raw authority as an Authority instance.
-        res.authority = Authority.parse(authority, res.charset);
+        return end;
     }
 
 
-    private void processPath(ParseResult res)
+    private int processRawQuery(CharSequence uriRef, int[] offsets, int index)
     {
-        // The raw path.
-        String path = res.matcher.group("path");
+        // The query is indicated by the first question mark ("?").
+        if (index == offsets[END] || uriRef.charAt(index) != '?')
+        {
+            return index;
+        }
+
+        // The query is terminated by a number sign ("#") character or by the end
+        // of the input string.
+        int end = indexOfAny(uriRef, index + 1, offsets[END], "#");
 
-        // Validate the raw path.
-        new PathValidator().validate(
-            path, res.charset, res.relativeReference, res.authority != null);
+        // Set the offsets of the raw query.
+        offsets[QUERY_START] = index + 1;
+        offsets[QUERY_END]   = end;
 
-        // Set it to the result.
-        res.path = path;
+        return end;
     }
 
 
-    private void processQuery(ParseResult res)
+    private long processRawFragment(CharSequence uriRef, int[] offsets, int index)
     {
-        // The raw query.
-        String query = res.matcher.group("query");
+        // The fragment is indicated by the number sign ("#").
+        if (index == offsets[END])
+        {
+            return URIReferenceChecker.VALID;
+        }
+
+        // Set the offset of the raw fragment, which is the rest of the input
+        // string.
+        offsets[FRAGMENT_START] = index + 1;
+
+        // The fragment has been matched with "(.*)" that doesn't accept line
+        // terminators. Keep the behavior for such input strings.
+        int terminator = indexOfLineTerminator(uriRef, index + 1, offsets[END]);
 
-        // Validate the raw query.
-        new QueryValidator().validate(query, res.charset);
+        if (terminator != -1)
+        {
+            return URIReferenceChecker.error(
+                ErrorCode.LINE_TERMINATOR, URIComponent.FRAGMENT, terminator);
+        }
 
-        // Set it to the result.
-        res.query = query;
+        return URIReferenceChecker.VALID;
     }
 
 
-    private void processFragment(ParseResult res)
+    private int indexOfAny(CharSequence uriRef, int start, int end, String delimiters)
     {
-        // The raw fragment.
-        String fragment = res.matcher.group("fragment");
+        for (int i = start; i < end; i++)
+        {
+            if (delimiters.indexOf(uriRef.charAt(i)) != -1)
+            {
+                return i;
+            }
+        }
+
+        return end;
+    }
 
-        // Validate the raw fragment.
-        new FragmentValidator().validate(fragment, res.charset);
 
-        // Set it to the result.
-        res.fragment = fragment;
+    private int indexOfLineTerminator(CharSequence value, int start, int end)
+    {
+        for (int i = start; i < end; i++)
+        {
+            char c = value.charAt(i);
+
+            if (c == '\n' || c == '\r' || c == '\u0085' || c == '\u2028' || c == '\u2029')
+            {
+                return i;
+            }
+        }
+
+        return -1;
+    }
+
+
+    private long processAuthority(CharSequence uriRef, int[] offsets, Charset charset)
+    {
+        if (offsets[AUTHORITY_START] == -1)
+        {
+            // The input string doesn't contain an authority.
+            return URIReferenceChecker.VALID;
+        }
+
+        // Check the raw authority, finding the offsets of its components.
+        return new AuthorityParser().check(uriRef, offsets, charset);
+    }
+
+
+    private long processPath(CharSequence uriRef, int[] offsets, Charset charset)
+    {
+        // Check the raw path.
+        return new PathValidator().check(
+            uriRef, offsets[PATH_START], offsets[PATH_END], charset,
+            offsets[SCHEME_END] == -1, offsets[AUTHORITY_START] != -1);
+    }
+
+
+    private long processQuery(CharSequence uriRef, int[] offsets, Charset charset)
+    {
+        if (offsets[QUERY_START] == -1)
+        {
+            // The input string doesn't contain a query.
+            return URIReferenceChecker.VALID;
+        }
+
+        // Check the raw query.
+        return new QueryValidator().check(
+            uriRef, offsets[QUERY_START], offsets[QUERY_END], charset);
+    }
+
+
+    private long processFragment(CharSequence uriRef, int[] offsets, Charset charset)
+    {
+        if (offsets[FRAGMENT_START] == -1)
+        {
+            // The input string doesn't contain a fragment.
+            return URIReferenceChecker.VALID;
+        }
+
+        // Check the raw fragment.
+        return new FragmentValidator().check(
+            uriRef, offsets[FRAGMENT_START], offsets[END], charset);
     }
 }
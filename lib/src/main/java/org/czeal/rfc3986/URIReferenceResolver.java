@@ -137,6 +137,111 @@ class URIReferenceResolver
     }
 
 
+    /**
+     * Resolves a URI reference against a base URI and normalizes the result in
+     * a single pass. The result is equal to the result of {@code resolve(uriRef,
+     * baseUriRef).normalize()}, but the resolved components are written directly
+     * into a single output builder in the normalized form, and the scheme and
+     * the authority taken from the base URI are copied from the normalized form
+     * cached in the base URI.
+     *
+     * @param uriRef
+     *         A URI reference to resolve against the value of {@code baseUriRef}.
+     *
+     * @param baseUriRef
+     *         A base URI against which the value of {@code uriRef} is resolved.
+     *
+     * @return The normalized URI obtained by resolving {@code uriRef} against
+     *         {@code baseUriRef}.
+     *
+     * @throws NullPointerException
+     *         If {@code uriRef} or {@code baseUriRef} is {@code null}.
+     *
+     * @throws IllegalStateException
+     *         If this URI reference is not an absolute URI.
+     */
+    URIReference resolveNormalized(URIReference uriRef, URIReference baseUriRef)
+    {
+        // Validate the arguments.
+        validate(uriRef, baseUriRef);
+
+        // The writer of the normalized components.
+        NormalizedURIWriter writer = new NormalizedURIWriter(uriRef.getCharset(), 64);
+
+        // The path and the query of the target URI, which are determined according
+        // to RFC 3986, 5.2.2. Transform References.
+        String path;
+        String query = uriRef.getQuery();
+
+        if (uriRef.getScheme() != null)
+        {
+            // Write the scheme and the authority of the URI reference.
+            writer.writeScheme(uriRef.getScheme(), 0, uriRef.getScheme().length());
+
+            if (uriRef.getAuthority() != null)
+            {
+                writer.writeAuthority(uriRef.getAuthority());
+            }
+
+            path = removeDotSegments(uriRef.getPath());
+        }
+        else if (uriRef.getAuthority() != null)
+        {
+            // Copy the scheme of the base URI, and write the authority of the
+            // URI reference.
+            baseUriRef.copyNormalizedPrefix(writer, false);
+            writer.writeAuthority(uriRef.getAuthority());
+
+            path = removeDotSegments(uriRef.getPath());
+        }
+        else
+        {
+            // Copy the scheme and the authority of the base URI.
+            baseUriRef.copyNormalizedPrefix(writer, true);
+
+            if (uriRef.getPath().isEmpty())
+            {
+                path = baseUriRef.getPath();
+
+                if (query == null)
+                {
+                    query = baseUriRef.getQuery();
+                }
+            }
+            else if (uriRef.getPath().startsWith("/"))
+            {
+                path = removeDotSegments(uriRef.getPath());
+            }
+            else
+            {
+                path = removeDotSegments(mergePath(
+                    uriRef.getPath(), baseUriRef.getPath(), baseUriRef.hasAuthority()));
+            }
+        }
+
+        // Write the path. The dot segments have been removed where resolve()
+        // removes them, before the path is normalized, so the result is the same
+        // as resolve() followed by normalize(), which removes a segment like
+        // "%2E%2E" after decoding it.
+        writer.writePath(path, 0, path.length());
+
+        // Write the query.
+        if (query != null)
+        {
+            writer.writeQuery(query, 0, query.length());
+        }
+
+        // Write the fragment.
+        if (uriRef.getFragment() != null)
+        {
+            writer.writeFragment(uriRef.getFragment(), 0, uriRef.getFragment().length());
+        }
+
+        // Build a URI reference instance backed by the normalized string.
+        return writer.toURIReference();
+    }
+
+
     private void validate(URIReference uriRef, URIReference baseUriRef)
     {
         // Ensure the URI reference to be resolved is not null.
@@ -68,7 +68,8 @@ class UserinfoNormalizer extends PercentEncodedStringNormalizer
      *         The charset used for the path. Expected to be not {@code null}.
      *
      * @return
-     *         A string value representing the normalized {@code userinfo}.
+     *         A string value representing the normalized {@code userinfo}, or
+     *         {@code userinfo} itself if nothing changes.
      *
      * @see <a href="https://www.rfc-editor.org/rfc/rfc3986#section-6">RFC 3986,
      *      Section 6: Normalization and Comparison</a>
@@ -80,7 +81,7 @@ class UserinfoNormalizer extends PercentEncodedStringNormalizer
             return userinfo;
         }
 
-        return process(userinfo, charset, new StringBuilder());
+        return normalizeString(userinfo, charset);
     }
 
 
@@ -16,8 +16,6 @@
 package org.czeal.rfc3986;
 
 
-import static org.czeal.rfc3986.Utils.isSubdelim;
-import static org.czeal.rfc3986.Utils.isUnreserved;
 import java.nio.charset.Charset;
 
 
@@ -45,7 +43,7 @@ class UserinfoValidator extends PercentEncodedStringValidator
 {
     UserinfoValidator()
     {
-        super("userinfo");
+        super("userinfo", URIComponent.USERINFO, CharacterClasses.USERINFO);
     }
 
 
@@ -68,13 +66,37 @@ class UserinfoValidator extends PercentEncodedStringValidator
             return;
         }
 
-        process(userinfo, charset, null);
+        validateValue(userinfo, charset);
     }
 
 
-    @Override
-    protected boolean isValidOnNonPercent(char c)
+    /**
+     * Validates a value in a range of an input as a {@code userinfo}. The value is
+     * validated in place without creating a substring unless it is necessary
+     * to report an invalid value.
+     *
+     * @param value
+     *         An input containing the {@code userinfo} value.
+     *
+     * @param start
+     *         The start index (inclusive) of the {@code userinfo} value.
+     *
+     * @param end
+     *         The end index (exclusive) of the {@code userinfo} value.
+     *
+     * @param charset
+     *         The charset used for the {@code userinfo} value.
+     *
+     * @throws IllegalArgumentException
+     *         If the {@code userinfo} value is invalid.
+     */
+    void validate(CharSequence value, int start, int end, Charset charset)
     {
-        return isUnreserved(c) || isSubdelim(c) || c == ':';
+        if (start == end)
+        {
+            return;
+        }
+
+        validateValue(value, start, end, charset);
     }
 }
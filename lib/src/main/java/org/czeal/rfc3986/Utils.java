@@ -16,10 +16,6 @@
 package org.czeal.rfc3986;
 
 
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
-
-
 /**
  * <i>NOTE: This class is intended for internal use only.</i>
  *
@@ -61,7 +57,7 @@ class Utils
      */
     static boolean isDigit(char c)
     {
-        return isInRange(c, '0', '9');
+        return CharacterClasses.is(c, CharacterClasses.DIGIT);
     }
 
 
@@ -76,7 +72,7 @@ class Utils
      */
     static boolean isAlphabet(char c)
     {
-        return isInRange(c, 'a', 'z') || isInRange(c, 'A', 'Z');
+        return CharacterClasses.is(c, CharacterClasses.ALPHA);
     }
 
 
@@ -100,12 +96,7 @@ class Utils
      */
     static boolean isUnreserved(char c)
     {
-        return isAlphabet(c) ||
-               isDigit(c)    ||
-               c == '-'      ||
-               c == '.'      ||
-               c == '_'      ||
-               c == '~';
+        return CharacterClasses.is(c, CharacterClasses.UNRESERVED);
     }
 
 
@@ -130,17 +121,7 @@ class Utils
      */
     static boolean isSubdelim(char c)
     {
-        return c == '!'  ||
-               c == '$'  ||
-               c == '&'  ||
-               c == '\'' ||
-               c == '('  ||
-               c == ')'  ||
-               c == '*'  ||
-               c == '+'  ||
-               c == ','  ||
-               c == ';'  ||
-               c == '=';
+        return CharacterClasses.is(c, CharacterClasses.SUB_DELIMS);
     }
 
 
@@ -156,9 +137,7 @@ class Utils
      */
     static boolean isHexDigit(char c)
     {
-        return isDigit(c)             ||
-               isInRange(c, 'a', 'f') ||
-               isInRange(c, 'A', 'F');
+        return CharacterClasses.is(c, CharacterClasses.HEXDIG);
     }
 
 
@@ -239,6 +218,13 @@ class Utils
      * <a href="https://www.rfc-editor.org/rfc/rfc3986#section-5.2.4">"RFC 3986,
      * 5.2.4. Remove Dot Segments"</a>.
      *
+     * <p>
+     * The input buffer of the algorithm is represented by an index into the path
+     * and the output buffer by a {@code StringBuilder}, so the path is processed
+     * in linear time. If the path doesn't contain any dot segment, the path is
+     * returned as-is.
+     * </p>
+     *
      * @param path
      *         The path from which dot segments are to be removed.
      *
@@ -247,69 +233,272 @@ class Utils
      */
     static String removeDotSegments(String path)
     {
-        // Initialize the input with the no-appended path components and the output
-        // with the empty string.
-        String input  = path;
-        String output = "";
+        // If the path doesn't contain any dot segment, there is nothing to remove.
+        if (!containsDotSegment(path))
+        {
+            return path;
+        }
+
+        // The output buffer.
+        StringBuilder output = new StringBuilder(path.length());
+
+        // Remove the dot segments.
+        removeDotSegments(path, 0, path.length(), output);
+
+        return output.toString();
+    }
+
+
+    /**
+     * Removes dot segments from the path in a range of an input as stated in
+     * <a href="https://www.rfc-editor.org/rfc/rfc3986#section-5.2.4">"RFC 3986,
+     * 5.2.4. Remove Dot Segments"</a>, and appends the result to an output
+     * builder. The output before the current length of the output builder is
+     * not touched.
+     *
+     * @param path
+     *         The input containing the path.
+     *
+     * @param start
+     *         The start index (inclusive) of the path.
+     *
+     * @param end
+     *         The end index (exclusive) of the path.
+     *
+     * @param output
+     *         The output builder to which the path without dot segments is appended.
+     */
+    static void removeDotSegments(CharSequence path, int start, int end, StringBuilder output)
+    {
+        // The start index of the output buffer in the output builder.
+        int base = output.length();
+
+        // The start index of the input buffer in the path.
+        int index = start;
 
         // While the input is not empty, loop the following steps.
-        while (input.length() > 0)
+        while (index < end)
         {
             // If the input begins with a prefix of "../" or "./", then
             // remove that prefix from the input;
-            Matcher m = Pattern.compile("^\\.?\\.\\/").matcher(input);
-            if (m.find())
+            if (startsWith(path, index, end, "../"))
+            {
+                index += 3;
+                continue;
+            }
+
+            if (startsWith(path, index, end, "./"))
             {
-                input = m.replaceFirst("");
+                index += 2;
                 continue;
             }
 
             // If the input begins with a prefix of "/./" or "/.", where
             // "." is a complete path segment, then replace that prefix
             // with "/" in the input.
-            m = Pattern.compile("^\\/\\.(\\/|$)").matcher(input);
-            if (m.find())
+            if (startsWith(path, index, end, "/./"))
             {
-                input = m.replaceFirst("/");
+                index += 2;
                 continue;
             }
 
+            if (startsWith(path, index, end, "/.") && index + 2 == end)
+            {
+                output.append('/');
+                break;
+            }
+
             // If the input begins with a prefix of "/../" or "/..",
             // where ".." is a complete path segment, then replace that
             // prefix with "/" in the input and remove the last segment
             // and its preceding "/" (if any) from the output.
-            m = Pattern.compile("^\\/\\.\\.(\\/|$)").matcher(input);
-            if (m.find())
+            if (startsWith(path, index, end, "/../"))
             {
-                input = m.replaceFirst("/");
-                output = dropLastSegment(output, true);
+                index += 3;
+                dropLastSegment(output, base);
                 continue;
             }
 
+            if (startsWith(path, index, end, "/..") && index + 3 == end)
+            {
+                dropLastSegment(output, base);
+                output.append('/');
+                break;
+            }
+
             // If the input consists only of "." or "..", then remove
             // that from the input.
-            m = Pattern.compile("^\\.?\\.$").matcher(input);
-            if (m.find())
+            if (isDotSegment(path, index, end))
             {
-                input = m.replaceFirst("");
-                continue;
+                break;
             }
 
             // Move the first path segment in the input buffer to the
             // end of the output, including the initial "/" character
             // (if any) and any subsequent characters up to, but not
             // including, the next "/" character or the end of the input.
-            m = Pattern.compile("^(?<firstsegment>\\/?[^/]*)(?<remaining>.*)$")
-                       .matcher(input);
-            if (m.find())
+            int segmentEnd = index + 1;
+
+            while (segmentEnd < end && path.charAt(segmentEnd) != '/')
             {
-                input   = m.group("remaining");
-                output += m.group("firstsegment");
-                continue;
+                segmentEnd++;
+            }
+
+            output.append(path, index, segmentEnd);
+            index = segmentEnd;
+        }
+    }
+
+
+    /**
+     * Checks whether or not the range of an input starting at an index begins
+     * with a prefix.
+     *
+     * @param input
+     *         The input.
+     *
+     * @param index
+     *         The index at which the prefix is expected.
+     *
+     * @param end
+     *         The end index (exclusive) of the range.
+     *
+     * @param prefix
+     *         The prefix.
+     *
+     * @return
+     *         {@code true} if the range begins with the prefix; otherwise, {@code
+     *         false}.
+     */
+    static boolean startsWith(CharSequence input, int index, int end, String prefix)
+    {
+        if (end - index < prefix.length())
+        {
+            return false;
+        }
+
+        for (int i = 0; i < prefix.length(); i++)
+        {
+            if (input.charAt(index + i) != prefix.charAt(i))
+            {
+                return false;
             }
         }
 
-        return output;
+        return true;
+    }
+
+
+    /**
+     * Checks whether or not the path contains a complete path segment of "."
+     * or "..".
+     *
+     * @param path
+     *         The path.
+     *
+     * @return
+     *         {@code true} if the path contains a dot segment; otherwise, {@code
+     *         false}.
+     */
+    private static boolean containsDotSegment(String path)
+    {
+        return containsDotSegment(path, 0, path.length());
+    }
+
+
+    /**
+     * Checks whether or not the path in a range of an input contains a complete
+     * path segment of "." or "..".
+     *
+     * @param input
+     *         The input containing the path.
+     *
+     * @param start
+     *         The start index (inclusive) of the path.
+     *
+     * @param end
+     *         The end index (exclusive) of the path.
+     *
+     * @return
+     *         {@code true} if the path contains a dot segment; otherwise, {@code
+     *         false}.
+     */
+    static boolean containsDotSegment(CharSequence input, int start, int end)
+    {
+        // The start index of the current segment.
+        int segmentStart = start;
+
+        while (segmentStart <= end)
+        {
+            // The end index of the current segment.
+            int segmentEnd = segmentStart;
+
+            while (segmentEnd < end && input.charAt(segmentEnd) != '/')
+            {
+                segmentEnd++;
+            }
+
+            if (isDotSegment(input, segmentStart, segmentEnd))
+            {
+                return true;
+            }
+
+            segmentStart = segmentEnd + 1;
+        }
+
+        return false;
+    }
+
+
+    /**
+     * Checks whether or not a range of an input is a complete path segment of
+     * "." or "..".
+     *
+     * @param path
+     *         The input containing the segment.
+     *
+     * @param start
+     *         The start index (inclusive) of the segment.
+     *
+     * @param end
+     *         The end index (exclusive) of the segment.
+     *
+     * @return
+     *         {@code true} if the segment is "." or ".."; otherwise, {@code false}.
+     */
+    static boolean isDotSegment(CharSequence path, int start, int end)
+    {
+        int length = end - start;
+
+        if (length == 1)
+        {
+            return path.charAt(start) == '.';
+        }
+
+        if (length == 2)
+        {
+            return path.charAt(start) == '.' && path.charAt(start + 1) == '.';
+        }
+
+        return false;
+    }
+
+
+    /**
+     * Drops the last segment (= characters after the last slash) of the output
+     * buffer and the last slash. If the output buffer doesn't contain a slash,
+     * the output buffer becomes empty.
+     *
+     * @param output
+     *         The output builder.
+     *
+     * @param base
+     *         The start index of the output buffer in the output builder. The
+     *         output before the index is not touched.
+     */
+    static void dropLastSegment(StringBuilder output, int base)
+    {
+        output.setLength(Math.max(output.lastIndexOf("/"), base));
     }
 
 
@@ -328,17 +517,18 @@ class Utils
      */
     static String dropLastSegment(String path, boolean dropLastSlash)
     {
-        // The regular expression for the target.
-        String regex = dropLastSlash ? "\\/?[^/]*$" : "[^/]*$";
-
-        // Get a matcher for the pattern.
-        Matcher m = Pattern.compile(regex).matcher(path);
+        // The index of the last slash.
+        int lastSlashIndex = path.lastIndexOf('/');
 
-        // Find the target. (Any inputs matches the pattern.)
-        m.find();
+        if (lastSlashIndex == -1)
+        {
+            // The path consists of the last segment only.
+            return "";
+        }
 
-        // Drop the target.
-        return m.replaceFirst("");
+        // Drop the characters after the last slash, and also the last slash if
+        // required.
+        return path.substring(0, dropLastSlash ? lastSlashIndex : lastSlashIndex + 1);
     }
 
 
@@ -378,6 +568,36 @@ class Utils
     }
 
 
+    /**
+     * Create an {@code InvalidURIReferenceException} with the given message. The
+     * message is formatted when it is requested for the first time.
+     *
+     * @param component
+     *         The invalid component.
+     *
+     * @param code
+     *         The error code.
+     *
+     * @param index
+     *         The index in the invalid value at which the error was found, or
+     *         {@code -1} if it is unknown.
+     *
+     * @param msg
+     *         The error message.
+     *
+     * @param args
+     *         The arguments referenced by the error message.
+     *
+     * @return
+     *         An {@code InvalidURIReferenceException} with the given message.
+     */
+    static InvalidURIReferenceException newIAE(
+        URIComponent component, ErrorCode code, int index, String msg, Object... args)
+    {
+        return new InvalidURIReferenceException(component, code, index, msg, args);
+    }
+
+
     /**
      * Create an {@code IllegalStateException} with the given message.
      *
@@ -19,6 +19,7 @@ package org.czeal.rfc3986;
 import static org.czeal.rfc3986.HostType.REGNAME;
 import static java.nio.charset.StandardCharsets.UTF_8;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import org.junit.jupiter.api.Test;
 
 
@@ -45,5 +46,9 @@ public class AuthorityNormalizerTest
 
         Authority normalized3 = new AuthorityNormalizer().normalize(null, UTF_8, "http");
         assertEquals(null, normalized3);
+
+        // The input is returned as-is if nothing changes.
+        Authority authority = Authority.parse("userinfoABC@example.com:8080");
+        assertSame(authority, new AuthorityNormalizer().normalize(authority, UTF_8, "http"));
     }
 }
@@ -17,6 +17,12 @@ package org.czeal.rfc3986;
 
 
 import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.czeal.rfc3986.ComponentOffsets.AUTHORITY_END;
+import static org.czeal.rfc3986.ComponentOffsets.AUTHORITY_START;
+import static org.czeal.rfc3986.ComponentOffsets.HOST_END;
+import static org.czeal.rfc3986.ComponentOffsets.HOST_TYPE;
+import static org.czeal.rfc3986.ComponentOffsets.PORT;
+import static org.czeal.rfc3986.ComponentOffsets.USERINFO_END;
 import static org.czeal.rfc3986.TestUtils.assertThrowsIAE;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.czeal.rfc3986.HostType.IPV4;
@@ -141,4 +147,41 @@ public class AuthorityParserTest
             "The host value \"%XX\" has an invalid hex digit \"X\" at the index 1.",
             () -> Authority.parse("%XX", UTF_8));
     }
+
+
+    @Test
+    public void test_split()
+    {
+        int[] offsets1 = split("john@example.com:8080");
+        assertEquals(4, offsets1[USERINFO_END]);
+        assertEquals(16, offsets1[HOST_END]);
+        assertEquals(REGNAME.ordinal(), offsets1[HOST_TYPE]);
+        assertEquals(8080, offsets1[PORT]);
+
+        int[] offsets2 = split("[2001:db8::1]:");
+        assertEquals(-1, offsets2[USERINFO_END]);
+        assertEquals(IPV6.ordinal(), offsets2[HOST_TYPE]);
+        assertEquals(-1, offsets2[PORT]);
+
+        // The port is never converted into a wrong port number.
+        assertThrowsIAE(
+            "The port value \"abc\" has an invalid character \"a\" at the index 0.",
+            () -> split("h:abc"));
+
+        assertThrowsIAE(
+            "The port value \"8a\" has an invalid character \"a\" at the index 1.",
+            () -> split("h:8a"));
+    }
+
+
+    private static int[] split(String authority)
+    {
+        int[] offsets = ComponentOffsets.create(0, authority.length());
+        offsets[AUTHORITY_START] = 0;
+        offsets[AUTHORITY_END]   = authority.length();
+
+        new AuthorityParser().split(authority, offsets);
+
+        return offsets;
+    }
 }
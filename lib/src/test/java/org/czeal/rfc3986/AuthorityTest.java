@@ -21,11 +21,13 @@ import static org.czeal.rfc3986.TestUtils.assertThrowsNPE;
 import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.czeal.rfc3986.HostType.IPV4;
 import static org.czeal.rfc3986.HostType.IPV6;
 import static org.czeal.rfc3986.HostType.IPVFUTURE;
 import static org.czeal.rfc3986.HostType.REGNAME;
+import java.util.Objects;
 import org.junit.jupiter.api.Test;
 
 
@@ -136,6 +138,9 @@ public class AuthorityTest
         assertEquals("[v1.fe80::a+en1]", Authority.parse("[v1.fe80::a+en1]").toString());
         assertEquals("%65%78%61%6D%70%6C%65%2E%63%6F%6D", Authority.parse("%65%78%61%6D%70%6C%65%2E%63%6F%6D").toString());
         assertEquals("", Authority.parse("").toString());
+
+        Authority authority = Authority.parse("john@example.com:80");
+        assertSame(authority.toString(), authority.toString());
     }
 
 
@@ -146,12 +151,26 @@ public class AuthorityTest
     }
 
 
+    @Test
+    public void test_hashCode()
+    {
+        Authority authority = Authority.parse("john@example.com:80");
+        assertEquals(Objects.hash("john", authority.getHost(), 80), authority.hashCode());
+        assertEquals(authority.hashCode(), authority.hashCode());
+        assertEquals(Authority.parse("example.com").hashCode(), Authority.parse("example.com").hashCode());
+    }
+
+
     @Test
     public void test_compareTo()
     {
         assertEquals(0, Authority.parse("example.com").compareTo(Authority.parse("example.com")));
 
         assertTrue(Authority.parse("127.0.0.1").compareTo(Authority.parse("example.com")) < 0);
+        assertTrue(Authority.parse("a:9").compareTo(Authority.parse("a:10")) > 0);
+        assertTrue(Authority.parse("a").compareTo(Authority.parse("a:0")) < 0);
+        assertTrue(Authority.parse("u@a").compareTo(Authority.parse("u:p@a")) > 0);
+        assertEquals(0, Authority.parse("a:007").compareTo(Authority.parse("a:7")));
 
         assertThrowsNPE("A null value is not comparable.", () -> Authority.parse("example.com").compareTo(null));
     }
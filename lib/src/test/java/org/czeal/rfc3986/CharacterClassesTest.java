@@ -0,0 +1,59 @@
+/*
+ * Copyright (C) 2024 Hideki Ikeda
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.czeal.rfc3986;
+
+
+import static org.czeal.rfc3986.CharacterClasses.FRAGMENT;
+import static org.czeal.rfc3986.CharacterClasses.HEXDIG;
+import static org.czeal.rfc3986.CharacterClasses.REG_NAME;
+import static org.czeal.rfc3986.CharacterClasses.SEGMENT;
+import static org.czeal.rfc3986.CharacterClasses.SEGMENT_NZ_NC;
+import static org.czeal.rfc3986.CharacterClasses.USERINFO;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.Test;
+
+
+public class CharacterClassesTest
+{
+    @Test
+    public void test_is()
+    {
+        assertTrue(CharacterClasses.is('a', HEXDIG));
+        assertTrue(CharacterClasses.is('F', HEXDIG));
+        assertFalse(CharacterClasses.is('g', HEXDIG));
+
+        assertTrue(CharacterClasses.is(':', USERINFO));
+        assertFalse(CharacterClasses.is('@', USERINFO));
+        assertFalse(CharacterClasses.is(':', REG_NAME));
+        assertTrue(CharacterClasses.is('@', SEGMENT));
+        assertFalse(CharacterClasses.is(':', SEGMENT_NZ_NC));
+        assertTrue(CharacterClasses.is('?', FRAGMENT));
+        assertFalse(CharacterClasses.is('#', FRAGMENT));
+        assertFalse(CharacterClasses.is('%', FRAGMENT));
+        assertFalse(CharacterClasses.is('あ', FRAGMENT));
+    }
+
+
+    @Test
+    public void test_indexOfNot()
+    {
+        assertEquals(3, CharacterClasses.indexOfNot("abc", 0, 3, SEGMENT));
+        assertEquals(1, CharacterClasses.indexOfNot("a%41", 0, 4, SEGMENT));
+        assertEquals(1, CharacterClasses.indexOfNot("a:b", 0, 3, SEGMENT_NZ_NC));
+    }
+}
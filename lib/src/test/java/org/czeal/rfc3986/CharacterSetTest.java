@@ -0,0 +1,80 @@
+/*
+ * Copyright (C) 2024 Hideki Ikeda
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.czeal.rfc3986;
+
+
+import static org.czeal.rfc3986.TestUtils.assertThrowsIAE;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.Test;
+
+
+public class CharacterSetTest
+{
+    @Test
+    public void test_predefined()
+    {
+        assertEquals("-.0123456789ABCDEFGHIJKLMNOPQRSTUVWXYZ_abcdefghijklmnopqrstuvwxyz~",
+            CharacterSet.UNRESERVED.toString());
+
+        assertTrue(CharacterSet.USERINFO.contains(':'));
+        assertFalse(CharacterSet.USERINFO.contains('@'));
+
+        assertTrue(CharacterSet.PATH_SEGMENT.contains('@'));
+        assertFalse(CharacterSet.PATH_SEGMENT.contains('/'));
+
+        assertTrue(CharacterSet.QUERY.contains('&'));
+        assertTrue(CharacterSet.QUERY.contains('?'));
+        assertFalse(CharacterSet.QUERY.contains('#'));
+
+        assertFalse(CharacterSet.QUERY_PARAM_VALUE.contains('&'));
+        assertTrue(CharacterSet.QUERY_PARAM_VALUE.contains('='));
+
+        assertEquals(CharacterSet.QUERY, CharacterSet.FRAGMENT);
+    }
+
+
+    @Test
+    public void test_of()
+    {
+        CharacterSet set = CharacterSet.of("a\u007F\u0000");
+
+        assertTrue(set.contains('a'));
+        assertTrue(set.contains('\u007F'));
+        assertTrue(set.contains('\u0000'));
+        assertFalse(set.contains('b'));
+        assertFalse(set.contains('あ'));
+
+        assertThrowsIAE(
+            "The character \"あ\" at the index 1 is not a US-ASCII character.",
+            () -> CharacterSet.of("aあ"));
+    }
+
+
+    @Test
+    public void test_with_without_union()
+    {
+        CharacterSet set = CharacterSet.of("abc").with("d").without("a");
+
+        assertEquals("bcd", set.toString());
+        assertEquals("bcdxyz", set.union(CharacterSet.of("xyz")).toString());
+        assertEquals(CharacterSet.of("dcb"), set);
+        assertEquals(CharacterSet.of("dcb").hashCode(), set.hashCode());
+        assertNotEquals(CharacterSet.EMPTY, set);
+    }
+}
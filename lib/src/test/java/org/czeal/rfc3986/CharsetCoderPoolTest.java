@@ -0,0 +1,59 @@
+/*
+ * Copyright (C) 2024 Hideki Ikeda
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.czeal.rfc3986;
+
+
+import static java.nio.charset.StandardCharsets.UTF_16BE;
+import static java.nio.charset.StandardCharsets.UTF_16LE;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CharsetEncoder;
+import org.junit.jupiter.api.Test;
+
+
+public class CharsetCoderPoolTest
+{
+    @Test
+    public void test_decoder()
+    {
+        CharsetDecoder decoder1 = CharsetCoderPool.acquireDecoder(UTF_16LE);
+        CharsetDecoder decoder2 = CharsetCoderPool.acquireDecoder(UTF_16LE);
+        assertNotSame(decoder1, decoder2);
+        assertEquals(UTF_16LE, decoder1.charset());
+
+        CharsetCoderPool.release(UTF_16LE, decoder1);
+        assertSame(decoder1, CharsetCoderPool.acquireDecoder(UTF_16LE));
+
+        CharsetCoderPool.release(UTF_16LE, decoder1);
+        CharsetCoderPool.release(UTF_16LE, decoder2);
+    }
+
+
+    @Test
+    public void test_encoder()
+    {
+        CharsetEncoder encoder = CharsetCoderPool.acquireEncoder(UTF_16BE);
+        assertEquals(UTF_16BE, encoder.charset());
+
+        CharsetCoderPool.release(UTF_16BE, encoder);
+        assertSame(encoder, CharsetCoderPool.acquireEncoder(UTF_16BE));
+        assertNotSame(encoder, CharsetCoderPool.acquireEncoder(UTF_16BE));
+
+        CharsetCoderPool.release(UTF_16BE, encoder);
+    }
+}
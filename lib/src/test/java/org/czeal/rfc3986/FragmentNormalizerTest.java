@@ -18,6 +18,7 @@ package org.czeal.rfc3986;
 
 import static java.nio.charset.StandardCharsets.UTF_8;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import org.junit.jupiter.api.Test;
 
 
@@ -30,6 +31,10 @@ public class FragmentNormalizerTest
         assertEquals("FRAGMENT", new FragmentNormalizer().normalize("FRAGMENT", UTF_8));
         assertEquals("fragment", new FragmentNormalizer().normalize("fragmen%74", UTF_8));
         assertEquals("", new FragmentNormalizer().normalize("", UTF_8));
+
+        // The input is returned as-is if nothing changes.
+        String fragment = "FRAG%20ment";
+        assertSame(fragment, new FragmentNormalizer().normalize(fragment, UTF_8));
         assertEquals((String)null, new FragmentNormalizer().normalize(null, UTF_8));
     }
 }
@@ -20,6 +20,7 @@ import static java.nio.charset.StandardCharsets.UTF_8;
 import static org.czeal.rfc3986.HostType.IPV6;
 import static org.czeal.rfc3986.HostType.IPVFUTURE;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.czeal.rfc3986.HostType.IPV4;
 import static org.czeal.rfc3986.HostType.REGNAME;
 import org.junit.jupiter.api.Test;
@@ -57,5 +58,12 @@ public class HostNormalizerTest
         Host normalized7 = new HostNormalizer().normalize(new Host(REGNAME, null), UTF_8);
         assertEquals(REGNAME, normalized7.getType());
         assertEquals(null, normalized7.getValue());
+
+        // The input is returned as-is if nothing changes.
+        Host host = new Host(IPV4, "101.102.103.104");
+        assertSame(host, new HostNormalizer().normalize(host, UTF_8));
+
+        Host regName = new Host(REGNAME, "ex%2Fample.com");
+        assertSame(regName, new HostNormalizer().normalize(regName, UTF_8));
     }
 }
@@ -26,6 +26,7 @@ import static org.czeal.rfc3986.HostType.IPV4;
 import static org.czeal.rfc3986.HostType.IPV6;
 import static org.czeal.rfc3986.HostType.IPVFUTURE;
 import static org.czeal.rfc3986.HostType.REGNAME;
+import java.util.Objects;
 import org.junit.jupiter.api.Test;
 
 
@@ -97,6 +98,16 @@ public class HostTest
     }
 
 
+    @Test
+    public void test_hashCode()
+    {
+        Host host = Host.parse("example.com");
+        assertEquals(Objects.hash(REGNAME, "example.com"), host.hashCode());
+        assertEquals(host.hashCode(), host.hashCode());
+        assertEquals(Host.parse("[::1]").hashCode(), Host.parse("[::1]").hashCode());
+    }
+
+
     @Test
     public void test_compareTo()
     {
@@ -0,0 +1,126 @@
+/*
+ * Copyright (C) 2024 Hideki Ikeda
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.czeal.rfc3986;
+
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import org.junit.jupiter.api.Test;
+
+
+public class InvalidURIReferenceExceptionTest
+{
+    @Test
+    public void test_parse()
+    {
+        InvalidURIReferenceException e1 = assertThrows(InvalidURIReferenceException.class,
+            () -> URIReference.parse("http://example.com:8a"));
+        assertEquals(URIComponent.PORT, e1.getComponent());
+        assertEquals(ErrorCode.INVALID_CHARACTER, e1.getCode());
+        assertEquals(20, e1.getIndex());
+        assertEquals("The port value \"8a\" has an invalid character \"a\" at the index 1.", e1.getMessage());
+        assertSame(e1.getMessage(), e1.getMessage());
+
+        // The index is the same as the one reported without an exception.
+        assertEquals(20, URIReference.tryParse("http://example.com:8a").getError().getIndex());
+
+        InvalidURIReferenceException e2 = assertThrows(InvalidURIReferenceException.class,
+            () -> URIReference.parse("http://example.com/a%zz"));
+        assertEquals(URIComponent.PATH, e2.getComponent());
+        assertEquals(ErrorCode.INVALID_HEX_DIGIT, e2.getCode());
+        assertEquals(20, e2.getIndex());
+        assertEquals("The path segment value \"a%zz\" has an invalid hex digit \"z\" at the index 2.", e2.getMessage());
+        assertEquals(20, URIReference.tryParse("http://example.com/a%zz").getError().getIndex());
+
+        InvalidURIReferenceException e3 = assertThrows(InvalidURIReferenceException.class,
+            () -> URIReference.parse("http://example.com?a%C3%A9b%C3"));
+        assertEquals(URIComponent.QUERY, e3.getComponent());
+        assertEquals(ErrorCode.UNDECODABLE_BYTES, e3.getCode());
+        assertEquals(27, e3.getIndex());
+
+        InvalidURIReferenceException e4 = assertThrows(InvalidURIReferenceException.class,
+            () -> URIReference.parse("http://[v1]"));
+        assertEquals(URIComponent.HOST, e4.getComponent());
+        assertEquals(ErrorCode.INVALID_IP_LITERAL, e4.getCode());
+        assertEquals(7, e4.getIndex());
+
+        InvalidURIReferenceException e5 = assertThrows(InvalidURIReferenceException.class,
+            () -> URIReference.parse("http://example.com:99999999999"));
+        assertEquals(URIComponent.PORT, e5.getComponent());
+        assertEquals(ErrorCode.INVALID_PORT_NUMBER, e5.getCode());
+        assertEquals(19, e5.getIndex());
+
+        InvalidURIReferenceException e6 = assertThrows(InvalidURIReferenceException.class,
+            () -> URIReference.parse("a:b#c\nd"));
+        assertEquals(URIComponent.FRAGMENT, e6.getComponent());
+        assertEquals(ErrorCode.LINE_TERMINATOR, e6.getCode());
+        assertEquals(5, e6.getIndex());
+    }
+
+
+    @Test
+    public void test_stackTrace()
+    {
+        boolean enabled = InvalidURIReferenceException.isStackTraceEnabled();
+
+        try
+        {
+            InvalidURIReferenceException.setStackTraceEnabled(true);
+            assertTrue(assertThrows(InvalidURIReferenceException.class,
+                () -> URIReference.parse("http://u@v@w")).getStackTrace().length > 0);
+
+            InvalidURIReferenceException.setStackTraceEnabled(false);
+            InvalidURIReferenceException e = assertThrows(InvalidURIReferenceException.class,
+                () -> URIReference.parse("http://u@v@w"));
+            assertEquals(0, e.getStackTrace().length);
+            assertEquals("The host value \"v@w\" has an invalid character \"@\" at the index 1.", e.getMessage());
+        }
+        finally
+        {
+            InvalidURIReferenceException.setStackTraceEnabled(enabled);
+        }
+    }
+
+
+    @Test
+    public void test_serialization() throws Exception
+    {
+        InvalidURIReferenceException e = assertThrows(InvalidURIReferenceException.class,
+            () -> URIReference.parse("http://u@v@w"));
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+
+        try (ObjectOutputStream out = new ObjectOutputStream(bytes))
+        {
+            out.writeObject(e);
+        }
+
+        try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray())))
+        {
+            InvalidURIReferenceException copy = (InvalidURIReferenceException)in.readObject();
+            assertEquals(e.getMessage(), copy.getMessage());
+            assertEquals(URIComponent.HOST, copy.getComponent());
+            assertEquals(ErrorCode.INVALID_CHARACTER, copy.getCode());
+            assertEquals(10, copy.getIndex());
+        }
+    }
+}
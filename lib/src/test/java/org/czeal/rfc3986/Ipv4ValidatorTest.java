@@ -17,6 +17,8 @@ package org.czeal.rfc3986;
 
 
 import static org.czeal.rfc3986.TestUtils.assertThrowsIAE;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import org.junit.jupiter.api.Test;
 
 
@@ -36,4 +38,16 @@ public class Ipv4ValidatorTest
             "The host value \"192.168.1\" is invalid as an IPv4 address because the number of octets contained in the host is invalid.",
             () -> new Ipv4AddressValidator().validate("192.168.1"));
     }
+
+
+    @Test
+    public void test_isValid()
+    {
+        assertTrue(new Ipv4AddressValidator().isValid("192.168.1.1"));
+        assertTrue(new Ipv4AddressValidator().isValid("255.255.255.255"));
+        assertFalse(new Ipv4AddressValidator().isValid("256.100.0.1"));
+        assertFalse(new Ipv4AddressValidator().isValid("192.168.1"));
+        assertFalse(new Ipv4AddressValidator().isValid("192.168.1.1."));
+        assertFalse(new Ipv4AddressValidator().isValid("192..1.1"));
+    }
 }
@@ -17,6 +17,8 @@ package org.czeal.rfc3986;
 
 
 import static org.czeal.rfc3986.TestUtils.assertThrowsIAE;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import org.junit.jupiter.api.Test;
 
 
@@ -40,4 +42,16 @@ public class Ipv6ValidatorTest
             "The host value \"[0000:0000:0000:0000:0000:0000:0000:0000:0000:0000]\" is invalid because the content enclosed by brackets does not form a valid IPv6 address due to an incorrect number of segments.",
             () -> new Ipv6AddressValidator().validate("0000:0000:0000:0000:0000:0000:0000:0000:0000:0000"));
     }
+
+
+    @Test
+    public void test_isValid()
+    {
+        assertTrue(new Ipv6AddressValidator().isValid("2001:0db8:85a3:0000:0000:8a2e:0370:7334"));
+        assertTrue(new Ipv6AddressValidator().isValid("::1"));
+        assertTrue(new Ipv6AddressValidator().isValid("::ffff:192.168.1.1"));
+        assertFalse(new Ipv6AddressValidator().isValid("2001:db8::85a3::7334"));
+        assertFalse(new Ipv6AddressValidator().isValid("GGGG:FFFF:0000:0000:0000:0000:0000:0000"));
+        assertFalse(new Ipv6AddressValidator().isValid("0000:0000:0000:0000:0000:0000:0000:0000:0000:0000"));
+    }
 }
@@ -18,6 +18,7 @@ package org.czeal.rfc3986;
 
 import static java.nio.charset.StandardCharsets.UTF_8;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import org.junit.jupiter.api.Test;
 
 
@@ -32,5 +33,14 @@ public class PathNormalizerTest
         assertEquals("/b", new PathNormalizer().normalize("/a/../../b", UTF_8, true));
         assertEquals("b", new PathNormalizer().normalize("../b", UTF_8, true));
         assertEquals("/a/b/c", new PathNormalizer().normalize("/a/b/c", UTF_8, true));
+        assertEquals("/a/", new PathNormalizer().normalize("/a/b/..", UTF_8, true));
+        assertEquals("/a/", new PathNormalizer().normalize("/a/.", UTF_8, true));
+        assertEquals("/a/g", new PathNormalizer().normalize("/a/b/c/./../../g", UTF_8, true));
+        assertEquals("/a/.b/..c/d.", new PathNormalizer().normalize("/a/.b/..c/d.", UTF_8, true));
+        assertEquals("/a/~/%2F", new PathNormalizer().normalize("/a/%7e/%2f", UTF_8, true));
+
+        // The input is returned as-is if nothing changes.
+        String path = "/a/%E3%81%82/%2F";
+        assertSame(path, new PathNormalizer().normalize(path, UTF_8, true));
     }
 }
@@ -91,5 +91,13 @@ public class PathValidatorTest
         assertThrowsIAE(
             "The path must not be empty.",
             () -> new PathValidator().validate(null, UTF_8, false, false));
+
+        assertThrowsIAE(
+            "The path segment value \"b c\" has an invalid character \" \" at the index 1.",
+            () -> new PathValidator().validate("/a/b c", UTF_8, false, false));
+
+        assertThrowsIAE(
+            "The path segment value \"a:b\" has an invalid character \":\" at the index 1.",
+            () -> new PathValidator().validate("a:b/c", UTF_8, true, false));
     }
 }
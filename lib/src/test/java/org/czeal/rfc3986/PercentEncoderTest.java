@@ -16,8 +16,11 @@
 package org.czeal.rfc3986;
 
 
+import static java.nio.charset.StandardCharsets.ISO_8859_1;
 import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.czeal.rfc3986.TestUtils.assertThrowsIAE;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import org.junit.jupiter.api.Test;
 
 
@@ -28,5 +31,25 @@ public class PercentEncoderTest
     {
         assertEquals("aA%3F", PercentEncoder.encode("aA?", UTF_8));
         assertEquals("abcD123~%E3%82%A2", PercentEncoder.encode("abcD123~ア", UTF_8));
+        assertEquals("%C3%80BC", PercentEncoder.encode("ÀBC", UTF_8));
+        assertEquals("%F0%9F%98%80a%20%2F", PercentEncoder.encode("😀a /", UTF_8));
+        assertEquals("%C0%20", PercentEncoder.encode("À ", ISO_8859_1));
+
+        String unreserved = "abc-._~";
+        assertSame(unreserved, PercentEncoder.encode(unreserved, UTF_8));
+
+        assertThrowsIAE(
+            "Failed to encode the character \"\uD83D\".",
+            () -> PercentEncoder.encode("a\uD83Db", UTF_8));
+    }
+
+
+    @Test
+    public void test_encode_with_preserved_chars()
+    {
+        assertEquals("a:b%20c", PercentEncoder.encode("a:b c", UTF_8, CharacterSet.PATH_SEGMENT));
+        assertEquals("k=v%26w/x", PercentEncoder.encode("k=v&w/x", UTF_8, CharacterSet.QUERY_PARAM_VALUE));
+        assertEquals("%61%62", PercentEncoder.encode("ab", UTF_8, CharacterSet.EMPTY));
+        assertEquals("a%20b", PercentEncoder.encode("a b", UTF_8, null));
     }
 }
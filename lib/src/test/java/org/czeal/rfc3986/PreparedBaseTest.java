@@ -0,0 +1,142 @@
+/*
+ * Copyright (C) 2024 Hideki Ikeda
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.czeal.rfc3986;
+
+
+import static org.czeal.rfc3986.HostType.REGNAME;
+import static org.czeal.rfc3986.TestUtils.assertThrowsIAE;
+import static org.czeal.rfc3986.TestUtils.assertThrowsISE;
+import static org.czeal.rfc3986.TestUtils.assertThrowsNPE;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import org.junit.jupiter.api.Test;
+
+
+public class PreparedBaseTest
+{
+    @Test
+    public void test_of()
+    {
+        URIReference baseUri = URIReference.parse("http://a/b/c/d;p?q");
+        assertSame(baseUri, PreparedBase.of(baseUri).getBaseUri());
+
+        assertThrowsNPE(
+            "The base URI reference must not be null.",
+            () -> PreparedBase.of(null));
+
+        assertThrowsIAE(
+            "The memo size must not be negative.",
+            () -> PreparedBase.of(baseUri, -1));
+
+        assertThrowsISE(
+            "The base URI must have a scheme.",
+            () -> PreparedBase.of(URIReference.parse("/a/b/c/d;p?q")));
+
+        assertThrowsISE(
+            "The base URI must not have a fragment.",
+            () -> PreparedBase.of(URIReference.parse("http://a/b/c/d;p?q#s")));
+    }
+
+
+    @Test
+    public void test_resolve()
+    {
+        URIReference resolved = PreparedBase.of(URIReference.parse("http://john@a:8080/b/c/d;p?q")).resolve("../g?y#s");
+        assertEquals("http://john@a:8080/b/g?y#s", resolved.toString());
+        assertEquals(false, resolved.isRelativeReference());
+        assertEquals("http", resolved.getScheme());
+        assertEquals("john", resolved.getUserinfo());
+        assertEquals("a", resolved.getHost().getValue());
+        assertEquals(REGNAME, resolved.getHost().getType());
+        assertEquals(8080, resolved.getPort());
+        assertEquals("/b/g", resolved.getPath());
+        assertEquals("y", resolved.getQuery());
+        assertEquals("s", resolved.getFragment());
+
+        // The results are equal to the results of URIReference.resolve(String).
+        // See RFC 3986, 5.4. Reference Resolution Examples.
+        URIReference baseUri = URIReference.parse("http://a/b/c/d;p?q");
+        PreparedBase base    = PreparedBase.of(baseUri);
+
+        String[] inputs = {
+            "g:h", "g", "./g", "g/", "/g", "//g", "?y", "g?y", "#s", "g#s", "g?y#s",
+            ";x", "g;x", "g;x?y#s", "", ".", "./", "..", "../", "../g", "../..",
+            "../../", "../../g", "../../../g", "../../../../g", "/./g", "/../g",
+            "g.", ".g", "g..", "..g", "./../g", "./g/.", "g/./h", "g/../h",
+            "g;x=1/./y", "g;x=1/../y", "g?y/./x", "g?y/../x", "g#s/./x", "g#s/../x",
+            "http:g", "//g:", "//g:080/./a", "HTTP://G/../a",
+        };
+
+        for (String input : inputs)
+        {
+            URIReference expected = baseUri.resolve(input);
+            URIReference actual   = base.resolve(input);
+
+            assertEquals(expected.toString(), actual.toString());
+            assertEquals(expected, actual);
+            assertEquals(expected.getPort(), actual.getPort());
+        }
+
+        // A base URI whose path contains dot segments or has no authority.
+        assertEquals(
+            URIReference.parse("foo:a/../b/c").resolve("d"),
+            PreparedBase.of(URIReference.parse("foo:a/../b/c")).resolve("d"));
+
+        assertEquals(
+            URIReference.parse("foo:a").resolve(""),
+            PreparedBase.of(URIReference.parse("foo:a")).resolve(""));
+
+        assertEquals(
+            URIReference.parse("http://a").resolve("b"),
+            PreparedBase.of(URIReference.parse("http://a")).resolve("b"));
+
+        assertThrowsNPE(
+            "The input string must not be null.",
+            () -> base.resolve(null));
+
+        assertThrowsIAE(
+            "The host value \"v@w\" has an invalid character \"@\" at the index 1.",
+            () -> base.resolve("//u@v@w"));
+    }
+
+
+    @Test
+    public void test_resolve_memo()
+    {
+        PreparedBase base = PreparedBase.of(URIReference.parse("http://a/b/c/d;p?q"), 2);
+
+        // The result is remembered.
+        URIReference resolved1 = base.resolve("g");
+        assertEquals("http://a/b/c/g", resolved1.toString());
+        assertSame(resolved1, base.resolve("g"));
+        assertSame(resolved1, base.resolve(new StringBuilder("g")));
+
+        // The least recently used result is discarded.
+        base.resolve("h");
+        base.resolve("i");
+        assertNotSame(resolved1, base.resolve("g"));
+        assertEquals(resolved1, base.resolve("g"));
+
+        // Without a memo.
+        PreparedBase noMemo = PreparedBase.of(URIReference.parse("http://a/b/c/d;p?q"));
+        assertNotSame(noMemo.resolve("g"), noMemo.resolve("g"));
+
+        assertThrowsNPE(
+            "The input string must not be null.",
+            () -> base.resolve(null));
+    }
+}
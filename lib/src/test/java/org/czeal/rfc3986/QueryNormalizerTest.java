@@ -18,6 +18,7 @@ package org.czeal.rfc3986;
 
 import static java.nio.charset.StandardCharsets.UTF_8;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import org.junit.jupiter.api.Test;
 
 
@@ -29,6 +30,11 @@ public class QueryNormalizerTest
         assertEquals("k1=v1&k2=v2", new QueryNormalizer().normalize("k1=v1&k2=v2", UTF_8));
         assertEquals("K1=V1&K2=V2", new QueryNormalizer().normalize("K1=V1&K2=V2", UTF_8));
         assertEquals("", new QueryNormalizer().normalize("", UTF_8));
+        assertEquals("k=A%2F", new QueryNormalizer().normalize("k=%41%2f", UTF_8));
+
+        // The input is returned as-is if nothing changes.
+        String query = "K1=V1&k2=%2F";
+        assertSame(query, new QueryNormalizer().normalize(query, UTF_8));
         assertEquals((String)null, new QueryNormalizer().normalize(null, UTF_8));
     }
 }
@@ -16,6 +16,7 @@
 package org.czeal.rfc3986;
 
 
+import static java.nio.charset.StandardCharsets.ISO_8859_1;
 import static java.nio.charset.StandardCharsets.UTF_8;
 import static org.czeal.rfc3986.TestUtils.assertThrowsIAE;
 import org.junit.jupiter.api.Test;
@@ -29,6 +30,8 @@ public class QueryValidatorTest
         new QueryValidator().validate("k1=v1&k2=v2", UTF_8);
         new QueryValidator().validate("", UTF_8);
         new QueryValidator().validate(null, UTF_8);
+        new QueryValidator().validate("q=%7B%22k%22%3A%22%E3%81%82%F0%9F%98%80%22%7D", UTF_8);
+        new QueryValidator().validate("q=%FF", ISO_8859_1);
 
         assertThrowsIAE(
             "The query value \"[invalid_query]\" has an invalid character \"[\" at the index 0.",
@@ -41,5 +44,13 @@ public class QueryValidatorTest
         assertThrowsIAE(
             "Failed to decode bytes represented by \"%FF\" in the query value \"k1=v1&%FF\".",
             () -> new QueryValidator().validate("k1=v1&%FF", UTF_8));
+
+        assertThrowsIAE(
+            "Failed to decode bytes represented by \"%E3%81\" in the query value \"k1=%E3%81&k2=%82\".",
+            () -> new QueryValidator().validate("k1=%E3%81&k2=%82", UTF_8));
+
+        assertThrowsIAE(
+            "Failed to decode bytes represented by \"%ED%A0%80\" in the query value \"%ED%A0%80\".",
+            () -> new QueryValidator().validate("%ED%A0%80", UTF_8));
     }
 }
@@ -18,6 +18,7 @@ package org.czeal.rfc3986;
 
 import static org.czeal.rfc3986.TestUtils.assertThrowsNPE;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import org.junit.jupiter.api.Test;
 
 
@@ -27,6 +28,11 @@ public class SchemeNormalizerTest
     public void test_normalize()
     {
         assertEquals("http", new SchemeNormalizer().normalize("hTTp"));
+
+        // The input is returned as-is if nothing changes.
+        String scheme = "http";
+        assertSame(scheme, new SchemeNormalizer().normalize(scheme));
+
         assertThrowsNPE(() -> new SchemeNormalizer().normalize(null));
     }
 }
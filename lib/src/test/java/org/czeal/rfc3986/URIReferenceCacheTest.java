@@ -0,0 +1,255 @@
+/*
+ * Copyright (C) 2024 Hideki Ikeda
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.czeal.rfc3986;
+
+
+import static java.nio.charset.StandardCharsets.ISO_8859_1;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.czeal.rfc3986.TestUtils.assertThrowsIAE;
+import static org.czeal.rfc3986.TestUtils.assertThrowsISE;
+import static org.czeal.rfc3986.TestUtils.assertThrowsNPE;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import org.junit.jupiter.api.Test;
+
+
+public class URIReferenceCacheTest
+{
+    @Test
+    public void test_constructor()
+    {
+        assertThrowsIAE(
+            "The byte budget must be at least 1280.",
+            () -> new URIReferenceCache(1279));
+
+        assertThrowsIAE(
+            "The concurrency level must be positive.",
+            () -> new URIReferenceCache(1280, 0));
+    }
+
+
+    @Test
+    public void test_parse()
+    {
+        URIReferenceCache cache = new URIReferenceCache(1024 * 1024);
+
+        URIReference uriRef = cache.parse("http://example.com/a");
+        assertEquals(URIReference.parse("http://example.com/a"), uriRef);
+        assertEquals(0, cache.getHitCount());
+        assertEquals(1, cache.getMissCount());
+
+        // The cached instance is shared.
+        assertSame(uriRef, cache.parse("http://example.com/a"));
+        assertSame(uriRef, cache.parse("http://example.com/a", UTF_8));
+        assertEquals(2, cache.getHitCount());
+        assertEquals(1, cache.getMissCount());
+        assertEquals(1, cache.getSize());
+
+        // A different charset is a different key.
+        assertNotSame(uriRef, cache.parse("http://example.com/a", ISO_8859_1));
+        assertEquals(2, cache.getMissCount());
+        assertEquals(2, cache.getSize());
+
+        // An invalid input string is never cached.
+        assertThrowsIAE(
+            "The host value \"v@w\" has an invalid character \"@\" at the index 1.",
+            () -> cache.parse("http://u@v@w"));
+
+        assertThrowsIAE(
+            "The host value \"v@w\" has an invalid character \"@\" at the index 1.",
+            () -> cache.parse("http://u@v@w"));
+
+        assertEquals(4, cache.getMissCount());
+        assertEquals(2, cache.getSize());
+
+        assertThrowsNPE(
+            "The input string must not be null.",
+            () -> cache.parse(null));
+
+        assertThrowsNPE(
+            "The charset must not be null.",
+            () -> cache.parse("http://example.com/a", null));
+    }
+
+
+    @Test
+    public void test_parseNormalized()
+    {
+        URIReferenceCache cache = new URIReferenceCache(1024 * 1024);
+
+        URIReference normalized = cache.parseNormalized("HTTP://Example.COM:80/a/./b/../c");
+        assertEquals("http://example.com/a/c", normalized.toString());
+        assertEquals(URIReference.parse("HTTP://Example.COM:80/a/./b/../c").normalize(), normalized);
+        assertSame(normalized, cache.parseNormalized("HTTP://Example.COM:80/a/./b/../c"));
+
+        // The parsed and the normalized results are cached separately.
+        URIReference parsed = cache.parse("HTTP://Example.COM:80/a/./b/../c");
+        assertEquals("HTTP://Example.COM:80/a/./b/../c", parsed.toString());
+        assertSame(parsed, cache.parse("HTTP://Example.COM:80/a/./b/../c"));
+        assertEquals(2, cache.getSize());
+
+        assertThrowsISE(
+            "A relative references must be resolved before it can be normalized.",
+            () -> cache.parseNormalized("/a/b"));
+        assertEquals(2, cache.getSize());
+    }
+
+
+    @Test
+    public void test_small_budget()
+    {
+        // The segments are fewer than the concurrency level if the budget is
+        // too small to hold an entry in each of them.
+        URIReferenceCache cache1 = new URIReferenceCache(4096, 16);
+        URIReferenceCache cache2 = new URIReferenceCache(1280, 1024);
+
+        for (URIReferenceCache cache : new URIReferenceCache[] { cache1, cache2 })
+        {
+            URIReference uriRef = cache.parse("http://example.com/a/b/c");
+
+            for (int i = 0; i < 4; i++)
+            {
+                assertSame(uriRef, cache.parse("http://example.com/a/b/c"));
+            }
+
+            assertEquals(4, cache.getHitCount());
+            assertEquals(1, cache.getMissCount());
+            assertEquals(1, cache.getSize());
+        }
+    }
+
+
+    @Test
+    public void test_eviction()
+    {
+        // A single segment that can hold three entries of 336 bytes.
+        URIReferenceCache cache = new URIReferenceCache(1300, 1);
+
+        URIReference uriRef1 = cache.parse("http://example.com/1");
+        cache.parse("http://example.com/2");
+        cache.parse("http://example.com/3");
+        assertEquals(3, cache.getSize());
+        assertEquals(0, cache.getEvictionCount());
+
+        // An input string seen only once is not admitted at the cost of an entry
+        // looked up as frequently.
+        cache.parse("http://example.com/4");
+        assertEquals(3, cache.getSize());
+        assertEquals(0, cache.getEvictionCount());
+        assertSame(uriRef1, cache.parse("http://example.com/1"));
+
+        // An input string seen more frequently is admitted, and the least recently
+        // used entry is evicted.
+        URIReference uriRef4 = cache.parse("http://example.com/4");
+        assertEquals(3, cache.getSize());
+        assertEquals(1, cache.getEvictionCount());
+        assertSame(uriRef4, cache.parse("http://example.com/4"));
+        assertSame(uriRef1, cache.parse("http://example.com/1"));
+
+        long misses = cache.getMissCount();
+        cache.parse("http://example.com/2");
+        assertEquals(misses + 1, cache.getMissCount());
+
+        // An entry larger than the budget is never cached.
+        StringBuilder sb = new StringBuilder("http://a/");
+
+        for (int i = 0; i < 1000; i++)
+        {
+            sb.append('x');
+        }
+
+        String large = sb.toString();
+        assertNotSame(cache.parse(large), cache.parse(large));
+        assertEquals(3, cache.getSize());
+    }
+
+
+    @Test
+    public void test_estimatedBytes()
+    {
+        URIReferenceCache cache = new URIReferenceCache(1024 * 1024);
+        assertEquals(0, cache.getEstimatedBytes());
+
+        cache.parse("http://a/1");
+        long bytes = cache.getEstimatedBytes();
+        assertEquals(true, bytes > 0);
+
+        cache.parse("http://a/12345");
+        assertEquals(true, cache.getEstimatedBytes() > 2 * bytes);
+
+        cache.clear();
+        assertEquals(0, cache.getSize());
+        assertEquals(0, cache.getEstimatedBytes());
+        assertEquals(2, cache.getMissCount());
+    }
+
+
+    @Test
+    public void test_concurrent() throws Exception
+    {
+        // A budget large enough to hold all the entries, so that nothing is evicted.
+        URIReferenceCache cache     = new URIReferenceCache(1024 * 1024, 4);
+        ExecutorService executor    = Executors.newFixedThreadPool(4);
+        List<Future<Integer>> tasks = new ArrayList<>();
+
+        try
+        {
+            for (int t = 0; t < 4; t++)
+            {
+                tasks.add(executor.submit(() -> {
+                    int wrong = 0;
+
+                    for (int i = 0; i < 10000; i++)
+                    {
+                        String input = "http://example.com/" + (i % 500);
+
+                        if (!input.equals(cache.parse(input).toString()))
+                        {
+                            wrong++;
+                        }
+                    }
+
+                    return wrong;
+                }));
+            }
+
+            // Wait for the tasks, rethrowing their exceptions on this thread.
+            for (Future<Integer> task : tasks)
+            {
+                assertEquals(0, (int)task.get());
+            }
+        }
+        finally
+        {
+            executor.shutdown();
+        }
+
+        // Each of the 500 keys misses at least once, and at most once per thread,
+        // since a thread finds the entry added by itself or another thread.
+        long misses = cache.getMissCount();
+        assertEquals(40000, cache.getHitCount() + misses);
+        assertTrue(500 <= misses && misses <= 4 * 500);
+        assertEquals(500, cache.getSize());
+        assertEquals(0, cache.getEvictionCount());
+    }
+}
@@ -443,6 +443,22 @@ public class URIReferenceParserTest
         assertEquals(null, uriRef29.getQuery());
         assertEquals(null, uriRef29.getFragment());
 
+        URIReference uriRef30 = new URIReferenceParser().parse("a+b-c.d:e/f?g:h#i?j", UTF_8);;
+        assertEquals(false, uriRef30.isRelativeReference());
+        assertEquals("a+b-c.d", uriRef30.getScheme());
+        assertEquals(false, uriRef30.hasAuthority());
+        assertEquals("e/f", uriRef30.getPath());
+        assertEquals("g:h", uriRef30.getQuery());
+        assertEquals("i?j", uriRef30.getFragment());
+
+        URIReference uriRef31 = new URIReferenceParser().parse("./a:b", UTF_8);;
+        assertEquals(true, uriRef31.isRelativeReference());
+        assertEquals(null, uriRef31.getScheme());
+        assertEquals(false, uriRef31.hasAuthority());
+        assertEquals("./a:b", uriRef31.getPath());
+        assertEquals(null, uriRef31.getQuery());
+        assertEquals(null, uriRef31.getFragment());
+
         assertThrowsIAE(
             "The path segment value \"1invalid:\" has an invalid character \":\" at the index 8.",
             () -> new URIReferenceParser().parse("1invalid://example.com", UTF_8));
@@ -470,5 +486,9 @@ public class URIReferenceParserTest
         assertThrowsIAE(
             "The port value \":\" has an invalid character \":\" at the index 0.",
             () -> new URIReferenceParser().parse("//::", UTF_8));
+
+        assertThrowsIAE(
+            "The input string \"http://example.com#a\nb\" is invalid as a relative reference.",
+            () -> new URIReferenceParser().parse("http://example.com#a\nb", UTF_8));
     }
 }
@@ -21,11 +21,25 @@ import static org.czeal.rfc3986.TestUtils.assertThrowsISE;
 import static org.czeal.rfc3986.TestUtils.assertThrowsNPE;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.czeal.rfc3986.HostType.IPV4;
 import static org.czeal.rfc3986.HostType.IPV6;
 import static org.czeal.rfc3986.HostType.IPVFUTURE;
 import static org.czeal.rfc3986.HostType.REGNAME;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
 import org.junit.jupiter.api.Test;
 
 
@@ -477,6 +491,732 @@ public class URIReferenceTest
     }
 
 
+    @Test
+    public void test_parse_bytes()
+    {
+        byte[] bytes1 = "<http://john@example.com:8080/a/b?q=1#f>".getBytes(StandardCharsets.UTF_8);
+        URIReference uriRef1 = URIReference.parse(bytes1, 1, bytes1.length - 2, StandardCharsets.UTF_8);
+        assertEquals(URIReference.parse("http://john@example.com:8080/a/b?q=1#f"), uriRef1);
+        assertEquals("john", uriRef1.getUserinfo());
+        assertEquals(8080, uriRef1.getPort());
+        assertEquals("/a/b", uriRef1.getPath());
+
+        // A direct buffer. The position is not changed.
+        ByteBuffer buffer = ByteBuffer.allocateDirect(32);
+        buffer.put("//[::1]:080/%E3%81%82".getBytes(StandardCharsets.US_ASCII));
+        buffer.flip();
+        URIReference uriRef2 = URIReference.parse(buffer, StandardCharsets.UTF_8);
+        assertEquals("//[::1]:80/%E3%81%82", uriRef2.toString());
+        assertEquals(IPV6, uriRef2.getHost().getType());
+        assertEquals(true, uriRef2.isRelativeReference());
+        assertEquals(0, buffer.position());
+
+        // A charset that is not ASCII-compatible.
+        byte[] bytes3 = "http://example.com/a".getBytes(StandardCharsets.UTF_16LE);
+        URIReference uriRef3 = URIReference.parse(bytes3, 0, bytes3.length, StandardCharsets.UTF_16LE);
+        assertEquals("http://example.com/a", uriRef3.toString());
+        assertEquals(StandardCharsets.UTF_16LE, uriRef3.getCharset());
+
+        byte[] bytes4 = "http://example.com/\u3042".getBytes(StandardCharsets.UTF_8);
+        assertThrowsIAE(
+            "The path segment value \"\u3042\" has an invalid character \"\u3042\" at the index 0.",
+            () -> URIReference.parse(bytes4, 0, bytes4.length, StandardCharsets.UTF_8));
+
+        assertThrowsNPE(
+            "The input bytes must not be null.",
+            () -> URIReference.parse((byte[])null, 0, 0, StandardCharsets.UTF_8));
+
+        assertThrowsNPE(
+            "The input buffer must not be null.",
+            () -> URIReference.parse((ByteBuffer)null, StandardCharsets.UTF_8));
+
+        assertThrowsNPE(
+            "The charset must not be null.",
+            () -> URIReference.parse(bytes1, 0, bytes1.length, null));
+
+        assertThrows(IndexOutOfBoundsException.class,
+            () -> URIReference.parse(bytes1, 1, bytes1.length, StandardCharsets.UTF_8));
+    }
+
+
+    @Test
+    public void test_parse_range()
+    {
+        // The returned instance doesn't keep the mutable input.
+        StringBuilder sb = new StringBuilder("GET http://john@example.com:8080/a/b?q=1#f HTTP/1.1");
+        URIReference uriRef1 = URIReference.parse(sb, 4, 42, StandardCharsets.UTF_8);
+        sb.setLength(0);
+        sb.append("mutated");
+        assertEquals(URIReference.parse("http://john@example.com:8080/a/b?q=1#f"), uriRef1);
+        assertEquals("http", uriRef1.getScheme());
+        assertEquals("john", uriRef1.getUserinfo());
+        assertEquals("example.com", uriRef1.getHost().getValue());
+        assertEquals(8080, uriRef1.getPort());
+        assertEquals("/a/b", uriRef1.getPath());
+        assertEquals("q=1", uriRef1.getQuery());
+        assertEquals("f", uriRef1.getFragment());
+
+        // A relative reference with percent-encoded values in a character buffer.
+        CharBuffer buffer = CharBuffer.wrap("[//[::1]:080/%E3%81%82?%41]");
+        URIReference uriRef2 = URIReference.parse(buffer, 1, buffer.length() - 1, StandardCharsets.UTF_8);
+        assertEquals("//[::1]:80/%E3%81%82?%41", uriRef2.toString());
+        assertEquals(IPV6, uriRef2.getHost().getType());
+        assertEquals(true, uriRef2.isRelativeReference());
+
+        // An empty range.
+        assertEquals("", URIReference.parse("abc", 1, 1, StandardCharsets.UTF_8).toString());
+
+        // Invalid values are reported in the same way as the substrings.
+        assertThrowsIAE(
+            "The query value \"a%ZZ\" has an invalid hex digit \"Z\" at the index 2.",
+            () -> URIReference.parse(new StringBuilder("<http://example.com?a%ZZ>"), 1, 24, StandardCharsets.UTF_8));
+
+        assertThrowsIAE(
+            "The percent symbol \"%\" at the index 1 in the path segment value \"a%\" is " +
+            "not followed by two characters.",
+            () -> URIReference.parse("<http://example.com/a%>", 1, 22, StandardCharsets.UTF_8));
+
+        InvalidURIReferenceException e = assertThrows(InvalidURIReferenceException.class,
+            () -> URIReference.parse("<http://example.com/#a\nb>", 1, 24, StandardCharsets.UTF_8));
+        assertEquals("The input string \"http://example.com/#a\nb\" is invalid as a relative reference.", e.getMessage());
+        assertEquals(URIComponent.FRAGMENT, e.getComponent());
+        assertEquals(22, e.getIndex());
+
+        assertThrowsNPE(
+            "The input string must not be null.",
+            () -> URIReference.parse((CharSequence)null, 0, 0, StandardCharsets.UTF_8));
+
+        assertThrowsNPE(
+            "The charset must not be null.",
+            () -> URIReference.parse(sb, 0, 1, null));
+
+        assertThrows(IndexOutOfBoundsException.class,
+            () -> URIReference.parse("abc", 2, 4, StandardCharsets.UTF_8));
+
+        assertThrows(IndexOutOfBoundsException.class,
+            () -> URIReference.parse("abc", 2, 1, StandardCharsets.UTF_8));
+    }
+
+
+    @Test
+    public void test_parse_handler()
+    {
+        assertEquals(
+            "scheme=http, userinfo=john, host=REGNAME:example.com, port=8080, path=/a//b/, " +
+            "segment=a, segment=, segment=b, segment=, query=k=v&f&&e=&x=y=z, " +
+            "param=k:v, param=f:null, param=:null, param=e:, param=x:y=z, fragment=f",
+            record("http://john@example.com:8080/a//b/?k=v&f&&e=&x=y=z#f"));
+
+        // An empty port and a relative path.
+        assertEquals(
+            "host=IPV6:[::1], path=, query=, param=:null",
+            record("//[::1]:?"));
+
+        assertEquals(
+            "path=a/%41, segment=a, segment=%41, fragment=",
+            record("a/%41#"));
+
+        assertEquals("path=", record(""));
+
+        // A range of the input.
+        List<String> events = new ArrayList<>();
+        URIReference.parse("<mailto:a@b>", 1, 11, StandardCharsets.UTF_8, recorder(events));
+        assertEquals("[scheme=mailto, path=a@b, segment=a@b]", events.toString());
+
+        // No method of the handler is invoked for an invalid input.
+        events.clear();
+        assertThrowsIAE(
+            "The port value \"8a\" has an invalid character \"a\" at the index 1.",
+            () -> URIReference.parse("http://example.com:8a/", StandardCharsets.UTF_8, recorder(events)));
+        assertEquals(0, events.size());
+
+        assertThrowsNPE(
+            "The input string must not be null.",
+            () -> URIReference.parse((CharSequence)null, StandardCharsets.UTF_8, recorder(events)));
+
+        assertThrowsNPE(
+            "The charset must not be null.",
+            () -> URIReference.parse("a", null, recorder(events)));
+
+        assertThrowsNPE(
+            "The handler must not be null.",
+            () -> URIReference.parse("a", StandardCharsets.UTF_8, null));
+
+        assertThrows(IndexOutOfBoundsException.class,
+            () -> URIReference.parse("a", 0, 2, StandardCharsets.UTF_8, recorder(events)));
+    }
+
+
+    private static String record(String input)
+    {
+        List<String> events = new ArrayList<>();
+
+        URIReference.parse(input, StandardCharsets.UTF_8, recorder(events));
+
+        return String.join(", ", events);
+    }
+
+
+    private static URIReferenceHandler recorder(List<String> events)
+    {
+        return new URIReferenceHandler()
+        {
+            @Override
+            public void onScheme(CharSequence input, int start, int end)
+            {
+                events.add("scheme=" + input.subSequence(start, end));
+            }
+
+            @Override
+            public void onUserinfo(CharSequence input, int start, int end)
+            {
+                events.add("userinfo=" + input.subSequence(start, end));
+            }
+
+            @Override
+            public void onHost(HostType type, CharSequence input, int start, int end)
+            {
+                events.add("host=" + type + ":" + input.subSequence(start, end));
+            }
+
+            @Override
+            public void onPort(int port)
+            {
+                events.add("port=" + port);
+            }
+
+            @Override
+            public void onPath(CharSequence input, int start, int end)
+            {
+                events.add("path=" + input.subSequence(start, end));
+            }
+
+            @Override
+            public void onPathSegment(CharSequence input, int start, int end)
+            {
+                events.add("segment=" + input.subSequence(start, end));
+            }
+
+            @Override
+            public void onQuery(CharSequence input, int start, int end)
+            {
+                events.add("query=" + input.subSequence(start, end));
+            }
+
+            @Override
+            public void onQueryParam(
+                CharSequence input, int keyStart, int keyEnd, int valueStart, int valueEnd)
+            {
+                events.add("param=" + input.subSequence(keyStart, keyEnd) + ":" +
+                    (valueStart == -1 ? null : input.subSequence(valueStart, valueEnd)));
+            }
+
+            @Override
+            public void onFragment(CharSequence input, int start, int end)
+            {
+                events.add("fragment=" + input.subSequence(start, end));
+            }
+        };
+    }
+
+
+    @Test
+    public void test_parseLazily()
+    {
+        URIReference uriRef1 = URIReference.parseLazily("http://john@example.com:8080/a/b?q=1#f");
+        assertEquals("http://john@example.com:8080/a/b?q=1#f", uriRef1.toString());
+        assertEquals(false, uriRef1.isRelativeReference());
+        assertEquals(true, uriRef1.hasAuthority());
+        assertEquals(8080, uriRef1.getPort());
+        assertEquals("http", uriRef1.getScheme());
+        assertEquals("john@example.com:8080", uriRef1.getAuthority().toString());
+        assertEquals("john", uriRef1.getUserinfo());
+        assertEquals("example.com", uriRef1.getHost().getValue());
+        assertEquals(REGNAME, uriRef1.getHost().getType());
+        assertEquals("/a/b", uriRef1.getPath());
+        assertEquals("q=1", uriRef1.getQuery());
+        assertEquals("f", uriRef1.getFragment());
+
+        URIReference uriRef2 = URIReference.parseLazily("//[::1]/a");
+        assertEquals("//[::1]/a", uriRef2.toString());
+        assertEquals(true, uriRef2.isRelativeReference());
+        assertEquals(null, uriRef2.getScheme());
+        assertEquals(IPV6, uriRef2.getHost().getType());
+        assertEquals("[::1]", uriRef2.getHost().getValue());
+        assertEquals(-1, uriRef2.getPort());
+        assertEquals(null, uriRef2.getQuery());
+        assertEquals(null, uriRef2.getFragment());
+
+        URIReference uriRef3 = URIReference.parseLazily("a/b");
+        assertEquals(false, uriRef3.hasAuthority());
+        assertEquals(null, uriRef3.getAuthority());
+        assertEquals(null, uriRef3.getHost());
+        assertEquals(-1, uriRef3.getPort());
+        assertEquals("a/b", uriRef3.getPath());
+
+        // The port loses its leading zeros as in the case of parse().
+        URIReference uriRef4 = URIReference.parseLazily("http://example.com:080");
+        assertEquals("http://example.com:80", uriRef4.toString());
+        assertEquals(URIReference.parse("http://example.com:80"), uriRef4);
+
+        // Equal to the URI reference created by parse().
+        assertEquals(URIReference.parse("http://example.com/a?q#f"), URIReference.parseLazily("http://example.com/a?q#f"));
+        assertEquals(URIReference.parseLazily("http://example.com/a?q#f"), URIReference.parse("http://example.com/a?q#f"));
+        assertEquals(URIReference.parse("http://example.com/a?q#f").hashCode(), URIReference.parseLazily("http://example.com/a?q#f").hashCode());
+        assertEquals(URIReference.parseLazily("http://example.com/a"), URIReference.parseLazily("http://example.com/a"));
+        assertFalse(URIReference.parseLazily("http://example.com/a").equals(URIReference.parseLazily("http://example.com/b")));
+
+        assertThrowsIAE(
+            "The host value \"v@w\" has an invalid character \"@\" at the index 1.",
+            () -> URIReference.parseLazily("http://u@v@w"));
+
+        assertThrowsIAE(
+            "The port value \"1:2:3\" has an invalid character \":\" at the index 1.",
+            () -> URIReference.parseLazily("http://example.com:1:2:3"));
+
+        assertThrowsNPE(
+            "The input string must not be null.",
+            () -> URIReference.parseLazily(null));
+    }
+
+
+    @Test
+    public void test_parseDeferred()
+    {
+        URIReference uriRef1 = URIReference.parseDeferred("http://john@example.com:080/a/b?q=1#f");
+        assertEquals(false, uriRef1.isRelativeReference());
+        assertEquals(true, uriRef1.hasAuthority());
+        assertEquals("http", uriRef1.getScheme());
+        assertEquals("john", uriRef1.getUserinfo());
+        assertEquals(REGNAME, uriRef1.getHost().getType());
+        assertEquals(80, uriRef1.getPort());
+        assertEquals("/a/b", uriRef1.getPath());
+        assertEquals("q=1", uriRef1.getQuery());
+        assertEquals("f", uriRef1.getFragment());
+        assertEquals("http://john@example.com:80/a/b?q=1#f", uriRef1.toString());
+        assertEquals(URIReference.parse("http://john@example.com:80/a/b?q=1#f"), uriRef1);
+        assertSame(uriRef1, uriRef1.validateAll());
+
+        URIReference uriRef2 = URIReference.parseDeferred("a/b");
+        assertEquals(true, uriRef2.isRelativeReference());
+        assertEquals(null, uriRef2.getAuthority());
+        assertEquals(-1, uriRef2.getPort());
+        assertEquals(null, uriRef2.getQuery());
+        assertEquals(null, uriRef2.getFragment());
+
+        // Each component is validated on first access.
+        URIReference uriRef3 = URIReference.parseDeferred("http://u@v@w/a%ZZ?%GG#%");
+        assertEquals("http", uriRef3.getScheme());
+        assertEquals(true, uriRef3.hasAuthority());
+
+        assertThrowsIAE(
+            "The host value \"v@w\" has an invalid character \"@\" at the index 1.",
+            () -> uriRef3.getHost());
+
+        assertThrowsIAE(
+            "The host value \"v@w\" has an invalid character \"@\" at the index 1.",
+            () -> uriRef3.getPort());
+
+        assertThrowsIAE(
+            "The path segment value \"a%ZZ\" has an invalid hex digit \"Z\" at the index 2.",
+            () -> uriRef3.getPath());
+
+        assertThrowsIAE(
+            "The query value \"%GG\" has an invalid hex digit \"G\" at the index 1.",
+            () -> uriRef3.getQuery());
+
+        assertThrowsIAE(
+            "The percent symbol \"%\" at the index 0 in the fragment value \"%\" is " +
+            "not followed by two characters.",
+            () -> uriRef3.getFragment());
+
+        // All the components are validated at once in the same order as parse().
+        assertThrowsIAE(
+            "The host value \"v@w\" has an invalid character \"@\" at the index 1.",
+            () -> uriRef3.validateAll());
+
+        assertThrowsIAE(
+            "The path segment value \"a%ZZ\" has an invalid hex digit \"Z\" at the index 2.",
+            () -> URIReference.parseDeferred("//example.com/a%ZZ").validateAll());
+
+        assertThrowsIAE(
+            "The port value \"1:2\" has an invalid character \":\" at the index 1.",
+            () -> URIReference.parseDeferred("//example.com:1:2").validateAll());
+
+        // The split fails if the fragment contains a line terminator.
+        assertThrowsIAE(
+            "The input string \"#a\nb\" is invalid as a relative reference.",
+            () -> URIReference.parseDeferred("#a\nb"));
+
+        // An instance created by parse() has already been validated.
+        URIReference uriRef4 = URIReference.parse("http://example.com");
+        assertSame(uriRef4, uriRef4.validateAll());
+
+        assertThrowsNPE(
+            "The input string must not be null.",
+            () -> URIReference.parseDeferred(null));
+
+        assertThrowsNPE(
+            "The charset must not be null.",
+            () -> URIReference.parseDeferred("a", null));
+    }
+
+
+    @Test
+    public void test_parseDeferred_structural() throws Exception
+    {
+        // The structural methods don't validate the components.
+        URIReference uriRef1 = URIReference.parseDeferred("http://h/a?b c#f");
+        URIReference uriRef2 = URIReference.parseDeferred("http://h/a?b c#f");
+        assertEquals("http://h/a?b c#f", uriRef1.toString());
+        assertEquals("http://h/a?b c#f".hashCode(), uriRef1.hashCode());
+        assertEquals(uriRef1, uriRef2);
+        assertEquals(0, uriRef1.compareTo(uriRef2));
+        assertFalse(uriRef1.equals(URIReference.parseDeferred("http://h/a?b c#g")));
+        assertEquals(true, uriRef1.compareTo(URIReference.parse("http://h/b")) < 0);
+
+        assertThrowsIAE(
+            "The query value \"b c\" has an invalid character \" \" at the index 1.",
+            () -> uriRef1.getQuery());
+
+        // An empty port and the leading zeros of a port are omitted as they are
+        // for a parsed URI reference, and an invalid port is kept as it is.
+        URIReference uriRef3 = URIReference.parseDeferred("http://u@[::1]:0080/a");
+        assertEquals("http://u@[::1]:80/a", uriRef3.toString());
+        assertEquals(URIReference.parse("http://u@[::1]:80/a"), uriRef3);
+        assertEquals(URIReference.parse("http://u@[::1]:0080/a").hashCode(), uriRef3.hashCode());
+        assertEquals(0, uriRef3.compareTo(URIReference.parse("http://u@[::1]:80/a")));
+        assertEquals("//h/a", URIReference.parseDeferred("//h:/a").toString());
+        assertEquals("//h:0/a", URIReference.parseDeferred("//h:000/a").toString());
+        assertEquals("//h:0x/a", URIReference.parseDeferred("//h:0x/a").toString());
+
+        // The serialized form is not validated either.
+        URIReference copy = (URIReference)deserialize(serialize(uriRef1));
+        assertEquals(uriRef1, copy);
+
+        assertThrowsIAE(
+            "The query value \"b c\" has an invalid character \" \" at the index 1.",
+            () -> copy.getQuery());
+
+        URIReference uriRef4 = URIReference.parse("http://example.com/a", StandardCharsets.ISO_8859_1);
+        URIReference copy4   = (URIReference)deserialize(serialize(uriRef4));
+        assertEquals(uriRef4, copy4);
+        assertEquals(StandardCharsets.ISO_8859_1, copy4.getCharset());
+    }
+
+
+    private static byte[] serialize(Object object) throws IOException
+    {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+
+        try (ObjectOutputStream out = new ObjectOutputStream(bytes))
+        {
+            out.writeObject(object);
+        }
+
+        return bytes.toByteArray();
+    }
+
+
+    private static Object deserialize(byte[] bytes) throws IOException, ClassNotFoundException
+    {
+        try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes)))
+        {
+            return in.readObject();
+        }
+    }
+
+
+    @Test
+    public void test_parseTrusted()
+    {
+        URIReference uriRef1 = URIReference.parseTrusted("http://john@example.com:8080/a/b?q=1#f");
+        assertEquals("http://john@example.com:8080/a/b?q=1#f", uriRef1.toString());
+        assertEquals(false, uriRef1.isRelativeReference());
+        assertEquals("http", uriRef1.getScheme());
+        assertEquals("john", uriRef1.getUserinfo());
+        assertEquals("example.com", uriRef1.getHost().getValue());
+        assertEquals(REGNAME, uriRef1.getHost().getType());
+        assertEquals(8080, uriRef1.getPort());
+        assertEquals("/a/b", uriRef1.getPath());
+        assertEquals("q=1", uriRef1.getQuery());
+        assertEquals("f", uriRef1.getFragment());
+        assertEquals(URIReference.parse("http://john@example.com:8080/a/b?q=1#f"), uriRef1);
+
+        // The host types are classified.
+        assertEquals(IPV4, URIReference.parseTrusted("//101.102.103.104").getHost().getType());
+        assertEquals(IPV6, URIReference.parseTrusted("//[::1]:80").getHost().getType());
+        assertEquals(IPVFUTURE, URIReference.parseTrusted("//[v9.abc:def]").getHost().getType());
+        assertEquals(-1, URIReference.parseTrusted("//[::1]:").getPort());
+
+        // The output of toString() can be parsed again.
+        URIReference uriRef2 = URIReference.parse("hTTp://Example.com:080/a/./b/%7e").normalize();
+        assertEquals(uriRef2, URIReference.parseTrusted(uriRef2.toString()));
+
+        // The input string is validated when assertions are enabled, as in tests.
+        assertThrowsIAE(
+            "The host value \"v@w\" has an invalid character \"@\" at the index 1.",
+            () -> URIReference.parseTrusted("http://u@v@w"));
+
+        assertThrowsNPE(
+            "The input string must not be null.",
+            () -> URIReference.parseTrusted(null));
+
+        assertThrowsNPE(
+            "The charset must not be null.",
+            () -> URIReference.parseTrusted("a", null));
+    }
+
+
+    @Test
+    public void test_parseNormalized()
+    {
+        URIReference uriRef1 = URIReference.parseNormalized("hTTp://John@Example.com:80/a/./b/../%7e%2f?%41#%62");
+        assertEquals("http://John@example.com/a/~%2F?A#b", uriRef1.toString());
+        assertEquals("http", uriRef1.getScheme());
+        assertEquals("John", uriRef1.getUserinfo());
+        assertEquals("example.com", uriRef1.getHost().getValue());
+        assertEquals(REGNAME, uriRef1.getHost().getType());
+        assertEquals(-1, uriRef1.getPort());
+        assertEquals("/a/~%2F", uriRef1.getPath());
+        assertEquals("A", uriRef1.getQuery());
+        assertEquals("b", uriRef1.getFragment());
+        assertEquals(URIReference.parse("hTTp://John@Example.com:80/a/./b/../%7e%2f?%41#%62").normalize(), uriRef1);
+
+        // The results are equal to the results of normalize().
+        String[] inputs = {
+            "http://example.com",
+            "http://example.com:",
+            "https://example.com:443/",
+            "http://example.com:8080/../a/./b/..",
+            "http://[::AB]:80/%2e/",
+            "http://101.102.103.104/a/b/c/./../../g",
+            "http://%65xample.com/%E3%81%82",
+            "mailto:fred@example.com",
+            "foo:a/../../b",
+            "foo:.",
+        };
+
+        for (String input : inputs)
+        {
+            URIReference expected = URIReference.parse(input).normalize();
+            URIReference actual   = URIReference.parseNormalized(input);
+
+            assertEquals(expected.toString(), actual.toString());
+            assertEquals(expected, actual);
+            assertEquals(expected.getPort(), actual.getPort());
+        }
+
+        assertThrowsISE(
+            "A relative references must be resolved before it can be normalized.",
+            () -> URIReference.parseNormalized("/a/b"));
+
+        assertThrowsIAE(
+            "The host value \"v@w\" has an invalid character \"@\" at the index 1.",
+            () -> URIReference.parseNormalized("http://u@v@w"));
+
+        assertThrowsNPE(
+            "The input string must not be null.",
+            () -> URIReference.parseNormalized(null));
+
+        assertThrowsNPE(
+            "The charset must not be null.",
+            () -> URIReference.parseNormalized("a", null));
+    }
+
+
+    @Test
+    public void test_tryParse()
+    {
+        ParseResult result1 = URIReference.tryParse("http://john@example.com:8080/a/b?q=1#f");
+        assertTrue(result1.isSuccess());
+        assertEquals(null, result1.getError());
+        assertEquals(URIReference.parse("http://john@example.com:8080/a/b?q=1#f"), result1.getURIReference());
+        assertEquals(8080, result1.getURIReference().getPort());
+        assertEquals(REGNAME, result1.getURIReference().getHost().getType());
+
+        ParseResult result2 = URIReference.tryParse("//[v7.a:b]:/a");
+        assertTrue(result2.isSuccess());
+        assertEquals(IPVFUTURE, result2.getURIReference().getHost().getType());
+        assertEquals(-1, result2.getURIReference().getPort());
+        assertEquals(true, result2.getURIReference().isRelativeReference());
+
+        ParseResult result3 = URIReference.tryParse("http://example.com:99999999999");
+        assertFalse(result3.isSuccess());
+        assertEquals(null, result3.getURIReference());
+        assertEquals("http://example.com:99999999999", result3.getError().getInput());
+        assertEquals(URIComponent.PORT, result3.getError().getComponent());
+        assertEquals(ErrorCode.INVALID_PORT_NUMBER, result3.getError().getCode());
+        assertEquals(19, result3.getError().getIndex());
+        assertEquals(
+            "The port at the index 19 in the input string \"http://example.com:99999999999\" is invalid as a number.",
+            result3.getError().getMessage());
+        assertSame(result3.getError().getMessage(), result3.getError().getMessage());
+
+        ParseResult result4 = URIReference.tryParse("http://example.com/a%C3", StandardCharsets.UTF_8);
+        assertEquals(URIComponent.PATH, result4.getError().getComponent());
+        assertEquals(ErrorCode.UNDECODABLE_BYTES, result4.getError().getCode());
+        assertEquals(20, result4.getError().getIndex());
+
+        ParseResult result5 = URIReference.tryParse("?a%4");
+        assertEquals(URIComponent.QUERY, result5.getError().getComponent());
+        assertEquals(ErrorCode.INCOMPLETE_PERCENT_ENCODING, result5.getError().getCode());
+        assertEquals(2, result5.getError().getIndex());
+
+        ParseResult result6 = URIReference.tryParse("a:b/c#d\ne");
+        assertEquals(URIComponent.FRAGMENT, result6.getError().getComponent());
+        assertEquals(ErrorCode.LINE_TERMINATOR, result6.getError().getCode());
+        assertEquals(7, result6.getError().getIndex());
+
+        ParseResult result7 = URIReference.tryParse("a:b c");
+        assertEquals(
+            "The path in the input string \"a:b c\" has an invalid character \" \" at the index 3.",
+            result7.getError().getMessage());
+
+        assertThrowsNPE(
+            "The input string must not be null.",
+            () -> URIReference.tryParse(null));
+
+        assertThrowsNPE(
+            "The charset must not be null.",
+            () -> URIReference.tryParse("http://example.com", null));
+    }
+
+
+    @Test
+    public void test_isValid()
+    {
+        assertTrue(URIReference.isValid("http://john@example.com:8080/a/b?q=1#f"));
+        assertTrue(URIReference.isValid("//[::1]/a"));
+        assertTrue(URIReference.isValid("http://[v7.a:b]"));
+        assertTrue(URIReference.isValid("http://192.168.1.1:80/%E3%81%82"));
+        assertTrue(URIReference.isValid("a/b"));
+        assertTrue(URIReference.isValid(""));
+        assertTrue(URIReference.isValid(new StringBuilder("http://example.com/a")));
+        assertTrue(URIReference.isValid("http://example.com/%82%A0", StandardCharsets.ISO_8859_1));
+
+        assertFalse(URIReference.isValid("http://u@v@w"));
+        assertFalse(URIReference.isValid("http://example.com:1:2:3"));
+        assertFalse(URIReference.isValid("http://example.com:99999999999"));
+        assertFalse(URIReference.isValid("http://[::1"));
+        assertFalse(URIReference.isValid("http://example.com/%C3"));
+        assertFalse(URIReference.isValid("a:b/c#d\ne"));
+        assertFalse(URIReference.isValid("http://example.com/%82%A0%82", StandardCharsets.US_ASCII));
+
+        // A range of a larger text.
+        String text = "<http://example.com/a> <b c>";
+        assertTrue(URIReference.isValid(text, 1, 21, StandardCharsets.UTF_8));
+        assertFalse(URIReference.isValid(text, 24, 27, StandardCharsets.UTF_8));
+
+        // The details of the error.
+        ErrorPosition position = new ErrorPosition();
+        assertFalse(URIReference.isValid("http://example.com:8a", 0, 21, StandardCharsets.UTF_8, position));
+        assertEquals(URIComponent.PORT, position.getComponent());
+        assertEquals(ErrorCode.INVALID_CHARACTER, position.getCode());
+        assertEquals(20, position.getIndex());
+
+        assertFalse(URIReference.isValid("http://example.com/a%zz", 0, 23, StandardCharsets.UTF_8, position));
+        assertEquals(URIComponent.PATH, position.getComponent());
+        assertEquals(ErrorCode.INVALID_HEX_DIGIT, position.getCode());
+        assertEquals(20, position.getIndex());
+
+        assertFalse(URIReference.isValid(text, 23, 27, StandardCharsets.UTF_8, position));
+        assertEquals(URIComponent.PATH, position.getComponent());
+        assertEquals(23, position.getIndex());
+
+        assertFalse(URIReference.isValid("http://a b@example.com", 0, 22, StandardCharsets.UTF_8, position));
+        assertEquals(URIComponent.USERINFO, position.getComponent());
+        assertEquals(8, position.getIndex());
+
+        assertFalse(URIReference.isValid("//[::1/a", 0, 8, StandardCharsets.UTF_8, position));
+        assertEquals(URIComponent.HOST, position.getComponent());
+        assertEquals(ErrorCode.INVALID_IP_LITERAL, position.getCode());
+        assertEquals(2, position.getIndex());
+
+        assertFalse(URIReference.isValid("?a#b c", 0, 6, StandardCharsets.UTF_8, position));
+        assertEquals(URIComponent.FRAGMENT, position.getComponent());
+        assertEquals(ErrorCode.INVALID_CHARACTER, position.getCode());
+        assertEquals(4, position.getIndex());
+
+        // The position is left untouched for a valid input.
+        assertTrue(URIReference.isValid("?a#b", 0, 4, StandardCharsets.UTF_8, position));
+        assertEquals(URIComponent.FRAGMENT, position.getComponent());
+        position.reset();
+        assertEquals(null, position.getComponent());
+        assertEquals(null, position.getCode());
+        assertEquals(-1, position.getIndex());
+
+        assertThrowsNPE(
+            "The input string must not be null.",
+            () -> URIReference.isValid(null));
+
+        assertThrowsNPE(
+            "The charset must not be null.",
+            () -> URIReference.isValid("http://example.com", null));
+
+        assertThrows(IndexOutOfBoundsException.class,
+            () -> URIReference.isValid("http://example.com", 5, 4, StandardCharsets.UTF_8));
+    }
+
+
+    @Test
+    public void test_tryParse_agrees_with_parse()
+    {
+        // The pieces the input strings are generated from.
+        String[] pieces = {
+            "http:", "a:", "//", "/", "?", "#", "@", ":", "[", "]", "[::1]", "[v7.x]",
+            "%", "%4", "%41", "%zz", "%C3", "%A9", "%E3%81%82", "%82%A0", "..", ".",
+            "80", "99999999999", "a", "b", " ", "\n", "-", "+", "~", "!", "=", "&",
+        };
+
+        Charset[] charsets = {
+            StandardCharsets.UTF_8, StandardCharsets.ISO_8859_1, Charset.forName("Shift_JIS"),
+        };
+
+        Random random = new Random(3986);
+
+        for (int i = 0; i < 20000; i++)
+        {
+            StringBuilder sb = new StringBuilder();
+
+            for (int n = random.nextInt(8); n > 0; n--)
+            {
+                sb.append(pieces[random.nextInt(pieces.length)]);
+            }
+
+            String input    = sb.toString();
+            Charset charset = charsets[i % charsets.length];
+            ParseResult result = URIReference.tryParse(input, charset);
+
+            try
+            {
+                URIReference uriRef = URIReference.parse(input, charset);
+
+                // Both of them accept the input and find the same components.
+                assertTrue(result.isSuccess(), input);
+                assertTrue(URIReference.isValid(input, charset), input);
+                assertEquals(uriRef, result.getURIReference(), input);
+                assertEquals(uriRef.getPort(), result.getURIReference().getPort(), input);
+
+                if (uriRef.hasAuthority())
+                {
+                    assertEquals(uriRef.getHost().getType(),
+                        result.getURIReference().getHost().getType(), input);
+                }
+            }
+            catch (InvalidURIReferenceException e)
+            {
+                // Both of them reject the input for the same reason.
+                assertFalse(result.isSuccess(), input);
+                assertFalse(URIReference.isValid(input, charset), input);
+                assertEquals(e.getComponent(), result.getError().getComponent(), input);
+                assertEquals(e.getCode(), result.getError().getCode(), input);
+                assertEquals(e.getIndex(), result.getError().getIndex(), input);
+            }
+        }
+    }
+
+
     @Test
     public void test_isRelativeReference()
     {
@@ -863,6 +1603,29 @@ public class URIReferenceTest
     }
 
 
+    @Test
+    public void test_hashCode()
+    {
+        URIReference uriRef = URIReference.parse("http://john@example.com:80/a?q#f");
+        assertEquals("http://john@example.com:80/a?q#f".hashCode(), uriRef.hashCode());
+        assertEquals(uriRef.hashCode(), uriRef.hashCode());
+        assertEquals(URIReference.parse("//a:080").hashCode(), URIReference.parse("//a:80").hashCode());
+    }
+
+
+    @Test
+    public void test_toString()
+    {
+        URIReference uriRef1 = URIReference.parse("http://john@example.com:80/a?q#f");
+        assertEquals("http://john@example.com:80/a?q#f", uriRef1.toString());
+        assertSame(uriRef1.toString(), uriRef1.toString());
+
+        URIReference uriRef2 = URIReference.parseLazily("http://example.com/a");
+        assertEquals("http://example.com/a", uriRef2.toString());
+        assertSame(uriRef2.toString(), uriRef2.toString());
+    }
+
+
     @Test
     public void test_resolve()
     {
@@ -1283,6 +2046,60 @@ public class URIReferenceTest
     }
 
 
+    @Test
+    public void test_resolveNormalized()
+    {
+        URIReference baseUri = URIReference.parse("HTTP://John@Example.com:80/b/c/d;p?q");
+
+        URIReference uriRef1 = baseUri.resolveNormalized("./%7eg/../h?%41#%62");
+        assertEquals("http://John@example.com/b/c/h?A#b", uriRef1.toString());
+        assertEquals(false, uriRef1.isRelativeReference());
+        assertEquals("http", uriRef1.getScheme());
+        assertEquals("John", uriRef1.getUserinfo());
+        assertEquals("example.com", uriRef1.getHost().getValue());
+        assertEquals(HostType.REGNAME, uriRef1.getHost().getType());
+        assertEquals(-1, uriRef1.getPort());
+        assertEquals("/b/c/h", uriRef1.getPath());
+        assertEquals("A", uriRef1.getQuery());
+        assertEquals("b", uriRef1.getFragment());
+
+        // The results are equal to the results of resolve() and normalize().
+        String[] inputs = {
+            "g:h", "g", "./g", "g/", "/g", "//g", "?y", "g?y", "#s", "g#s", "g?y#s",
+            ";x", "g;x", "", ".", "./", "..", "../", "../g", "../..", "../../",
+            "../../g", "../../../g", "/./g", "/../g", "g.", ".g", "g..", "..g",
+            "./../g", "./g/.", "g/./h", "g/../h", "HTTPS://A:443", "//G:80/%2e/",
+            "//[::AB]:8080", "%2E%2E/g",
+        };
+
+        for (String input : inputs)
+        {
+            URIReference expected = baseUri.resolve(input).normalize();
+            URIReference actual   = baseUri.resolveNormalized(input);
+
+            assertEquals(expected.toString(), actual.toString());
+            assertEquals(expected, actual);
+            assertEquals(expected.getPort(), actual.getPort());
+        }
+
+        // A base URI without an authority.
+        assertEquals("foo:/b/c", URIReference.parse("FOO:a/../b/d").resolveNormalized("c").toString());
+        assertEquals("foo:/b/d", URIReference.parse("FOO:a/../b/d").resolveNormalized("").toString());
+
+        assertThrowsNPE(
+            "The URI reference to be resolved must not be null.",
+            () -> baseUri.resolveNormalized((URIReference)null));
+
+        assertThrowsISE(
+            "The base URI must have a scheme.",
+            () -> URIReference.parse("/a/b/c/d;p?q").resolveNormalized("g"));
+
+        assertThrowsISE(
+            "The base URI must not have a fragment.",
+            () -> URIReference.parse("http://a/b/c/d;p?q#s").resolveNormalized("g"));
+    }
+
+
     @Test
     public void test_normalize()
     {
@@ -1468,6 +2285,44 @@ public class URIReferenceTest
     }
 
 
+    @Test
+    public void test_normalize_normalized()
+    {
+        // The result of normalize() is returned as-is when it is normalized again.
+        URIReference uriRef1 = URIReference.parse("hTTp://Example.com:80/a/./%7e").normalize();
+        assertEquals("http://example.com/a/~", uriRef1.toString());
+        assertSame(uriRef1, uriRef1.normalize());
+
+        // So are the results of parseNormalized() and resolveNormalized().
+        URIReference uriRef2 = URIReference.parseNormalized("hTTp://Example.com:80/a/./%7e");
+        assertSame(uriRef2, uriRef2.normalize());
+
+        URIReference uriRef3 = URIReference.parse("http://example.com/a/").resolveNormalized("b");
+        assertSame(uriRef3, uriRef3.normalize());
+
+        // A URI reference that is already in the normalized form is returned as-is.
+        URIReference uriRef4 = URIReference.parse("http://example.com/a?q=%2F#f");
+        assertSame(uriRef4, uriRef4.normalize());
+
+        // A segment that becomes a dot segment by decoding "%2E" is removed, so
+        // the result is in the normalized form.
+        URIReference uriRef5 = URIReference.parse("http://example.com/a/%2E%2E/b").normalize();
+        assertEquals("http://example.com/b", uriRef5.toString());
+        assertSame(uriRef5, uriRef5.normalize());
+
+        URIReference uriRef6 = URIReference.parse("http://h/%2e%2e/a").normalize();
+        assertEquals("http://h/a", uriRef6.toString());
+        assertSame(uriRef6, uriRef6.normalize());
+        assertEquals(uriRef6, URIReference.parseNormalized("http://h/%2e%2e/a"));
+        assertEquals(uriRef6, URIReference.parse("http://h/%2e%2e/a").normalize());
+
+        assertEquals("http://h/a/", URIReference.parseNormalized("http://h/a/%2E").toString());
+        assertEquals("http://h/", URIReference.parseNormalized("http://h/a/.%2e").toString());
+        assertEquals("http://h/a/b", URIReference.parseNormalized("http://h/a/%2E/b").toString());
+        assertEquals("mailto:a", URIReference.parseNormalized("mailto:%2E/a").toString());
+    }
+
+
     @Test
     public void test_compareTo()
     {
@@ -1475,6 +2330,38 @@ public class URIReferenceTest
 
         assertTrue(URIReference.parse("127.0.0.1").compareTo(URIReference.parse("http://example.com/a/b/c/")) < 0);
 
+        // The order of the string representations.
+        assertTrue(URIReference.parse("http://a:9").compareTo(URIReference.parse("http://a:10")) > 0);
+        assertTrue(URIReference.parse("http://a:1").compareTo(URIReference.parse("http://a:10")) < 0);
+        assertTrue(URIReference.parse("http://a:080").compareTo(URIReference.parse("http://a:8")) > 0);
+        assertTrue(URIReference.parse("http://a").compareTo(URIReference.parse("http://a?")) < 0);
+        assertTrue(URIReference.parse("http://a?b").compareTo(URIReference.parse("http://a#b")) > 0);
+        assertTrue(URIReference.parse("http://u@a").compareTo(URIReference.parse("http://a")) > 0);
+        assertTrue(URIReference.parse("//a/b").compareTo(URIReference.parse("http://a/b")) < 0);
+        assertEquals(0, URIReference.parse("http://a:080").compareTo(URIReference.parseLazily("http://a:80")));
+        assertTrue(URIReference.parseLazily("http://a/b").compareTo(URIReference.parseLazily("http://a/bc")) < 0);
+        assertTrue(URIReference.parseLazily("http://a/c").compareTo(URIReference.parse("http://a/bc")) > 0);
+
         assertThrowsNPE("A null value is not comparable.", () -> URIReference.parse("http://example.com/a/b/c/").compareTo(null));
     }
+
+
+    @Test
+    public void test_STRING_ORDER()
+    {
+        List<URIReference> uriRefs = new ArrayList<>();
+        uriRefs.add(URIReference.parse("http://a:9"));
+        uriRefs.add(URIReference.parseLazily("http://a:10"));
+        uriRefs.add(URIReference.parse("//a"));
+        uriRefs.add(URIReference.parseLazily("http://a"));
+        uriRefs.add(URIReference.parse("http://a/b?c#d"));
+
+        uriRefs.sort(URIReference.STRING_ORDER);
+
+        assertEquals("//a", uriRefs.get(0).toString());
+        assertEquals("http://a", uriRefs.get(1).toString());
+        assertEquals("http://a/b?c#d", uriRefs.get(2).toString());
+        assertEquals("http://a:10", uriRefs.get(3).toString());
+        assertEquals("http://a:9", uriRefs.get(4).toString());
+    }
 }
@@ -18,6 +18,7 @@ package org.czeal.rfc3986;
 
 import static java.nio.charset.StandardCharsets.UTF_8;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import org.junit.jupiter.api.Test;
 
 
@@ -29,6 +30,10 @@ public class UserinfoNormalizerTest
         assertEquals("userINFO", new UserinfoNormalizer().normalize("userINFO", UTF_8));
         assertEquals("userinfo", new UserinfoNormalizer().normalize("userinf%6F", UTF_8));
         assertEquals("", new UserinfoNormalizer().normalize("", UTF_8));
+
+        // The input is returned as-is if nothing changes.
+        String userinfo = "user:%3A";
+        assertSame(userinfo, new UserinfoNormalizer().normalize(userinfo, UTF_8));
         assertEquals(null, new UserinfoNormalizer().normalize(null, UTF_8));
     }
 }